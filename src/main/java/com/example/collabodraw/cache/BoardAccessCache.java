@@ -0,0 +1,87 @@
+package com.example.collabodraw.cache;
+
+import com.example.collabodraw.model.entity.Board;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Board rows and (board, user) -> membership role, shared by everything that authorizes a
+ * board request (REST controllers, the STOMP handlers and the subscribe interceptor), so
+ * opening a board reads each of boards/board_membership at most once.
+ *
+ * Writes on this instance evict explicitly: WhiteboardService for board rows,
+ * BoardMembershipRepository for roles. The TTLs only bound how long a change made by another
+ * instance can go unseen - a board row's last_modified feeds optimistic save checks, so it
+ * is kept short.
+ */
+@Component
+public class BoardAccessCache {
+
+    // The underlying cache never stores null, so "no membership" is cached as this marker.
+    private static final String NO_ROLE = "";
+
+    private record RoleKey(Long boardId, Long userId) {}
+
+    private final WeightedLruCache<Long, Board> boards;
+    private final WeightedLruCache<RoleKey, String> roles;
+
+    public BoardAccessCache(@Value("${app.cache.boards.max-entries:10000}") long maxBoards,
+                            @Value("${app.cache.boards.ttl:PT5S}") Duration boardTtl,
+                            @Value("${app.cache.roles.max-entries:50000}") long maxRoles,
+                            @Value("${app.cache.roles.ttl:PT60S}") Duration roleTtl,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this.boards = new WeightedLruCache<>("boards", maxBoards, b -> 1, boardTtl);
+        this.roles = new WeightedLruCache<>("board.roles", maxRoles, r -> 1, roleTtl);
+        meterRegistry.ifAvailable(registry -> {
+            CacheMetrics.bind(registry, boards, "entries");
+            CacheMetrics.bind(registry, roles, "entries");
+        });
+    }
+
+    /** A copy of the cached row, so callers can't mutate what other requests will see. */
+    public Board getBoard(Long boardId, Supplier<Board> loader) {
+        if (boardId == null) return null;
+        return copy(boards.getOrLoad(boardId, loader));
+    }
+
+    /** The caller's membership role, or null for a non-member. Does not consider ownership. */
+    public String getRole(Long boardId, Long userId, Supplier<String> loader) {
+        if (boardId == null || userId == null) return null;
+        String role = roles.getOrLoad(new RoleKey(boardId, userId), () -> {
+            String loaded = loader.get();
+            return loaded != null ? loaded : NO_ROLE;
+        });
+        return NO_ROLE.equals(role) ? null : role;
+    }
+
+    /** Drop the board row and every cached role on it. */
+    public void evictBoard(Long boardId) {
+        boards.invalidate(boardId);
+        roles.invalidateIf(key -> key.boardId().equals(boardId));
+    }
+
+    public void evictRole(Long boardId, Long userId) {
+        roles.invalidate(new RoleKey(boardId, userId));
+    }
+
+    public void evictRoles(Long boardId) {
+        roles.invalidateIf(key -> key.boardId().equals(boardId));
+    }
+
+    private static Board copy(Board source) {
+        if (source == null) return null;
+        Board board = new Board();
+        board.setBoardId(source.getBoardId());
+        board.setOwnerId(source.getOwnerId());
+        board.setBoardName(source.getBoardName());
+        board.setIsPublic(source.getIsPublic());
+        board.setCreatedAt(source.getCreatedAt());
+        board.setLastModified(source.getLastModified());
+        return board;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.collabodraw.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes a {@link WeightedLruCache}'s statistics as Micrometer meters, tagged
+ * {@code cache=<name>} (under /actuator/metrics/cache.* where the metrics endpoint is exposed,
+ * see application.properties).
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics() {}
+
+    public static void bind(MeterRegistry registry, WeightedLruCache<?, ?> cache, String weightUnit) {
+        String name = cache.getName();
+        FunctionCounter.builder("cache.gets", cache, WeightedLruCache::hitCount)
+                .tag("cache", name).tag("result", "hit")
+                .description("Lookups answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, WeightedLruCache::missCount)
+                .tag("cache", name).tag("result", "miss")
+                .description("Lookups that had to load")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, WeightedLruCache::evictionCount)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.hit.ratio", cache, WeightedLruCache::hitRatio)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.size", cache, WeightedLruCache::size)
+                .tag("cache", name)
+                .register(registry);
+        Gauge.builder("cache.weight", cache, WeightedLruCache::weight)
+                .tag("cache", name)
+                .baseUnit(weightUnit)
+                .description("Total weight of the cached entries")
+                .register(registry);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.collabodraw.cache;
+
+import com.example.collabodraw.model.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.Serializable;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Principal name -> users row. Almost every request and STOMP frame starts by turning
+ * {@code authentication.getName()} into a User; this keeps that off the database after the
+ * first lookup (which happens at login / WebSocket handshake).
+ *
+ * The key is whatever name the lookup was made with - a username, or an email for OAuth
+ * principals - so one user can sit under more than one key. {@link #evictUser} drops all
+ * of them.
+ *
+ * Inside an HTTP request that already has a session, the resolved user is also kept as a
+ * session attribute and read from there first. The attribute is tied to the principal name
+ * (so a different login in the same session reloads) and to a generation that every
+ * {@link #evictUser} bumps (so a profile change reaches sessions it can't enumerate), and
+ * expires after the same TTL as the shared entries; logout invalidates the session and the
+ * attribute with it.
+ */
+@Component
+public class IdentityCache {
+
+    /** HttpSession attribute holding the session's resolved user. */
+    public static final String SESSION_ATTRIBUTE = "collabodraw.identity";
+
+    private final WeightedLruCache<String, User> users;
+    private final AtomicLong generation = new AtomicLong();
+    private final long ttlMillis;
+
+    public IdentityCache(@Value("${app.cache.identity.max-entries:10000}") long maxEntries,
+                         @Value("${app.cache.identity.ttl:PT10M}") Duration ttl,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        this.users = new WeightedLruCache<>("identity", maxEntries, u -> 1, ttl);
+        this.ttlMillis = ttl.toMillis();
+        meterRegistry.ifAvailable(registry -> CacheMetrics.bind(registry, users, "entries"));
+    }
+
+    /** A copy of the cached user, so callers editing it (e.g. before updateUser) can't leak the edit. */
+    public User get(String principalName, Supplier<User> loader) {
+        if (principalName == null) return null;
+        // Read before loading: an eviction racing the load leaves the attribute already stale.
+        long current = generation.get();
+        HttpSession session = currentSession();
+        if (session != null
+                && session.getAttribute(SESSION_ATTRIBUTE) instanceof SessionIdentity held
+                && held.principalName().equals(principalName) && held.generation() == current
+                && System.currentTimeMillis() - held.storedAt() < ttlMillis) {
+            return held.toUser();
+        }
+        User user = users.getOrLoad(principalName, loader);
+        if (session != null && user != null) {
+            try {
+                session.setAttribute(SESSION_ATTRIBUTE, SessionIdentity.of(principalName, current, System.currentTimeMillis(), user));
+            } catch (IllegalStateException invalidated) {
+                // Session ended mid-request (e.g. logout); nothing to keep.
+            }
+        }
+        return copy(user);
+    }
+
+    /** Drop every name the user is cached under, and every session's copy. */
+    public void evictUser(Long userId) {
+        if (userId == null) return;
+        generation.incrementAndGet();
+        users.invalidateEntriesIf((name, user) -> Objects.equals(user.getUserId(), userId));
+    }
+
+    private static HttpSession currentSession() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes servlet) {
+            return servlet.getRequest().getSession(false);
+        }
+        return null;
+    }
+
+    private static User copy(User source) {
+        if (source == null) return null;
+        User user = new User(source.getUsername(), source.getEmail(), source.getPasswordHash());
+        user.setUserId(source.getUserId());
+        user.setCreatedAt(source.getCreatedAt());
+        return user;
+    }
+
+    // User itself isn't Serializable; sessions may be persisted across restarts.
+    record SessionIdentity(String principalName, long generation, long storedAt, Long userId, String username,
+                           String email, String passwordHash, LocalDateTime createdAt) implements Serializable {
+
+        static SessionIdentity of(String principalName, long generation, long storedAt, User user) {
+            return new SessionIdentity(principalName, generation, storedAt, user.getUserId(), user.getUsername(),
+                    user.getEmail(), user.getPasswordHash(), user.getCreatedAt());
+        }
+
+        User toUser() {
+            User user = new User(username, email, passwordHash);
+            user.setUserId(userId);
+            user.setCreatedAt(createdAt);
+            return user;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.collabodraw.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
+/**
+ * Board snapshots keyed by (boardId, boards.last_modified), bounded by the approximate bytes
+ * held. When a meeting starts and everyone opens the same board at once, the first request
+ * reads the snapshot and the rest either wait on that read or hit the cache.
+ *
+ * Keying on last_modified means a save on another instance is picked up as soon as the
+ * caller sees the new timestamp; saves on this instance also evict explicitly through
+ * {@link #evictBoard}, which covers two saves landing in the same second.
+ */
+@Component
+public class SnapshotCache {
+
+    /** A snapshot body plus the id of the row it came from (see WhiteboardService#getBoardSnapshotVersion). */
+    public static final class Snapshot {
+        private final Long version;
+        private final String data;
+
+        public Snapshot(Long version, String data) {
+            this.version = version;
+            this.data = data;
+        }
+
+        public Long getVersion() { return version; }
+        public String getData() { return data; }
+    }
+
+    private record Key(Long boardId, LocalDateTime lastModified) {}
+
+    private final WeightedLruCache<Key, Snapshot> cache;
+
+    public SnapshotCache(@Value("${app.cache.snapshot.max-bytes:67108864}") long maxBytes,
+                         ObjectProvider<MeterRegistry> meterRegistry) {
+        // Snapshot JSON is almost entirely ASCII, which compact strings hold at 1 byte/char.
+        this.cache = new WeightedLruCache<>("board.snapshots", maxBytes,
+                s -> 64L + (s.getData() != null ? s.getData().length() : 0));
+        meterRegistry.ifAvailable(registry -> CacheMetrics.bind(registry, cache, "bytes"));
+    }
+
+    public Snapshot get(Long boardId, LocalDateTime lastModified, Supplier<Snapshot> loader) {
+        return cache.getOrLoad(new Key(boardId, lastModified), loader);
+    }
+
+    /** Cached snapshot for exactly this board state, or null; never loads. */
+    public Snapshot peek(Long boardId, LocalDateTime lastModified) {
+        return cache.peek(new Key(boardId, lastModified));
+    }
+
+    public void evictBoard(Long boardId) {
+        cache.invalidateIf(key -> key.boardId().equals(boardId));
+    }
+
+    public double hitRatio() { return cache.hitRatio(); }
+
+    public long bytesHeld() { return cache.weight(); }
+}
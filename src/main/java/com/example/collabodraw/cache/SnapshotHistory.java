@@ -0,0 +1,43 @@
+package com.example.collabodraw.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Recent snapshot bodies by (boardId, version), kept after the row itself has been replaced
+ * so a save based on an older version can be three-way merged against what it started from.
+ * Every version a client loads or saves is recorded; bounded by approximate bytes held,
+ * least recently used first. A save whose base has been evicted (or was loaded through
+ * another instance) can't be merged and is answered with a plain conflict.
+ */
+@Component
+public class SnapshotHistory {
+
+    private record Key(Long boardId, Long version) {}
+
+    private final WeightedLruCache<Key, String> cache;
+
+    public SnapshotHistory(@Value("${app.cache.snapshot-history.max-bytes:33554432}") long maxBytes,
+                           ObjectProvider<MeterRegistry> meterRegistry) {
+        this.cache = new WeightedLruCache<>("board.snapshot.history", maxBytes, data -> 64L + data.length());
+        meterRegistry.ifAvailable(registry -> CacheMetrics.bind(registry, cache, "bytes"));
+    }
+
+    public void record(Long boardId, Long version, String data) {
+        if (boardId == null || version == null || data == null) return;
+        Key key = new Key(boardId, version);
+        if (cache.peek(key) == null) cache.put(key, data); // peek alone refreshes recency
+    }
+
+    /** The snapshot body at {@code version}, or null if it is no longer held. */
+    public String find(Long boardId, Long version) {
+        if (boardId == null || version == null) return null;
+        return cache.get(new Key(boardId, version));
+    }
+
+    public void evictBoard(Long boardId) {
+        cache.invalidateIf(key -> key.boardId().equals(boardId));
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.collabodraw.cache;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Small in-process LRU cache bounded by total weight rather than entry count, with
+ * single-flight loading: concurrent misses for the same key share one loader call.
+ *
+ * Entries can optionally expire a fixed time after they were written, which bounds how long
+ * a value changed by another instance (that this one never hears about) can be served.
+ *
+ * Null loader results are returned but never cached. Any invalidation that happens while a
+ * load is in flight stops that load's result from being cached, so a reader racing a write
+ * can't re-insert the value the write just evicted.
+ *
+ * Pure JDK on purpose (no Caffeine dependency); the hot paths here are a synchronized
+ * LinkedHashMap lookup, which is plenty for the request rates this app sees.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final String name;
+    private final long maxWeight;
+    private final ToLongFunction<V> weigher;
+    private final long ttlNanos;
+
+    // Access-ordered; guarded by "this".
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long weight;
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public WeightedLruCache(String name, long maxWeight, ToLongFunction<V> weigher) {
+        this(name, maxWeight, weigher, null);
+    }
+
+    /** @param ttl how long an entry stays valid after being written; null for no expiry */
+    public WeightedLruCache(String name, long maxWeight, ToLongFunction<V> weigher, Duration ttl) {
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.ttlNanos = ttl != null ? ttl.toNanos() : 0;
+    }
+
+    public String getName() { return name; }
+
+    /** Cached value or null; counts as a hit or miss. */
+    public V get(K key) {
+        V value = peek(key);
+        if (value != null) hits.increment(); else misses.increment();
+        return value;
+    }
+
+    /** Cached value or null, without touching the hit/miss statistics. */
+    public synchronized V peek(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) return null;
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            weight -= entry.weight;
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Cached value, or the result of {@code loader} - run at most once at a time per key, with
+     * concurrent callers for the same key waiting on that one call. Loader exceptions propagate
+     * to every waiting caller and nothing is cached.
+     */
+    public V getOrLoad(K key, Supplier<V> loader) {
+        V cached = peek(key);
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            return join(existing);
+        }
+        long generation = invalidations.get();
+        try {
+            V value = loader.get();
+            if (value != null && invalidations.get() == generation) {
+                put(key, value);
+            }
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public void put(K key, V value) {
+        if (value == null) return;
+        long w = Math.max(1, weigher.applyAsLong(value));
+        if (w > maxWeight) return; // would evict everything else just to hold one value
+        synchronized (this) {
+            long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0;
+            Entry<V> previous = entries.put(key, new Entry<>(value, w, expiresAt));
+            if (previous != null) weight -= previous.weight;
+            weight += w;
+            evictToFit();
+        }
+    }
+
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        inFlight.remove(key);
+        synchronized (this) {
+            Entry<V> removed = entries.remove(key);
+            if (removed != null) weight -= removed.weight;
+        }
+    }
+
+    public void invalidateIf(Predicate<K> predicate) {
+        invalidations.incrementAndGet();
+        inFlight.keySet().removeIf(predicate);
+        synchronized (this) {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (predicate.test(e.getKey())) {
+                    weight -= e.getValue().weight;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Like {@link #invalidateIf} but can also look at the cached value. Loads still in flight
+     * are not inspected; the bumped generation keeps their results out of the cache.
+     */
+    public void invalidateEntriesIf(BiPredicate<K, V> predicate) {
+        invalidations.incrementAndGet();
+        synchronized (this) {
+            Iterator<Map.Entry<K, Entry<V>>> it = entries.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<K, Entry<V>> e = it.next();
+                if (predicate.test(e.getKey(), e.getValue().value)) {
+                    weight -= e.getValue().weight;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        inFlight.clear();
+        synchronized (this) {
+            entries.clear();
+            weight = 0;
+        }
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    public synchronized long weight() { return weight; }
+
+    public long maxWeight() { return maxWeight; }
+
+    public long hitCount() { return hits.sum(); }
+
+    public long missCount() { return misses.sum(); }
+
+    public long evictionCount() { return evictions.sum(); }
+
+    /** Hits / (hits + misses) since startup; 0 before the first lookup. */
+    public double hitRatio() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0.0 : (double) h / total;
+    }
+
+    // Caller holds the lock.
+    private void evictToFit() {
+        Iterator<Entry<V>> it = entries.values().iterator();
+        while (weight > maxWeight && it.hasNext()) {
+            weight -= it.next().weight;
+            it.remove();
+            evictions.increment();
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException re) throw re;
+            if (cause instanceof Error err) throw err;
+            throw ex;
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long weight;
+        final long expiresAtNanos; // 0 = never
+
+        Entry(V value, long weight, long expiresAtNanos) {
+            this.value = value;
+            this.weight = weight;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return expiresAtNanos != 0 && now - expiresAtNanos >= 0;
+        }
+    }
+}
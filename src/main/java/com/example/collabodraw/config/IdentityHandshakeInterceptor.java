@@ -0,0 +1,50 @@
+package com.example.collabodraw.config;
+
+import com.example.collabodraw.model.entity.User;
+import com.example.collabodraw.service.UserService;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.security.Principal;
+import java.util.Map;
+
+/**
+ * Resolves the connecting user once, at WebSocket handshake, and keeps their id in the
+ * WebSocket session attributes (which Spring copies onto every inbound STOMP frame as
+ * simpSessionAttributes). Also warms the identity cache the STOMP handlers read from.
+ */
+@Component
+public class IdentityHandshakeInterceptor implements HandshakeInterceptor {
+
+    /** WebSocket session attribute holding the authenticated user's id (a Long). */
+    public static final String USER_ID_ATTRIBUTE = "collabodraw.userId";
+
+    private final UserService userService;
+
+    public IdentityHandshakeInterceptor(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean beforeHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                                   @NonNull WebSocketHandler wsHandler, @NonNull Map<String, Object> attributes) {
+        Principal principal = request.getPrincipal();
+        if (principal != null) {
+            User user = userService.findByUsername(principal.getName());
+            if (user != null && user.getUserId() != null) {
+                attributes.put(USER_ID_ATTRIBUTE, user.getUserId());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(@NonNull ServerHttpRequest request, @NonNull ServerHttpResponse response,
+                               @NonNull WebSocketHandler wsHandler, @Nullable Exception exception) {
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.messaging.support.ChannelInterceptor;
 import org.springframework.stereotype.Component;
 
 import java.security.Principal;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -27,12 +28,16 @@ import java.util.regex.Pattern;
  * so an authenticated client could otherwise SUBSCRIBE directly to
  * /topic/board.{anyId}.elements (or .cursors/.participants/.presence/.versions) and silently
  * read another board's live activity without ever calling the join handler.
+ *
+ * Per-user dashboard topics (/topic/dashboard.{userId}.updates), which carry that user's
+ * notifications, only accept a SUBSCRIBE from the user they are named for.
  */
 @Component
 public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
 
     private static final Logger log = LoggerFactory.getLogger(WebSocketAuthorizationInterceptor.class);
     private static final Pattern BOARD_TOPIC = Pattern.compile("^/topic/board\\.(\\d+)\\.");
+    private static final Pattern DASHBOARD_TOPIC = Pattern.compile("^/topic/dashboard\\.(\\d+)\\.");
 
     private final WhiteboardService whiteboardService;
     private final UserService userService;
@@ -55,6 +60,17 @@ public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
             return message;
         }
 
+        Matcher dashboard = DASHBOARD_TOPIC.matcher(destination);
+        if (dashboard.find()) {
+            Principal principal = accessor.getUser();
+            Long userId = principal != null ? resolveUserId(accessor, principal) : null;
+            if (userId == null || !userId.equals(Long.valueOf(dashboard.group(1)))) {
+                log.debug("Blocked SUBSCRIBE to {} - not that user's dashboard", destination);
+                return null;
+            }
+            return message;
+        }
+
         Matcher matcher = BOARD_TOPIC.matcher(destination);
         if (!matcher.find()) {
             // Not a board-scoped topic (e.g. a user-specific /queue destination) - nothing to gate here.
@@ -63,7 +79,7 @@ public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
 
         Long boardId = Long.valueOf(matcher.group(1));
         Principal principal = accessor.getUser();
-        if (principal == null || !hasAccess(boardId, principal)) {
+        if (principal == null || !hasAccess(boardId, resolveUserId(accessor, principal))) {
             log.debug("Blocked SUBSCRIBE to {} - no access", destination);
             return null; // dropping the message refuses the subscription silently
         }
@@ -71,14 +87,22 @@ public class WebSocketAuthorizationInterceptor implements ChannelInterceptor {
         return message;
     }
 
-    private boolean hasAccess(Long boardId, Principal principal) {
+    // Prefer the id resolved at handshake; sessions opened without it fall back to a lookup.
+    private Long resolveUserId(StompHeaderAccessor accessor, Principal principal) {
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        Object id = attributes != null ? attributes.get(IdentityHandshakeInterceptor.USER_ID_ATTRIBUTE) : null;
+        if (id instanceof Long userId) return userId;
         User user = userService.findByUsername(principal.getName());
-        if (user == null) return false;
+        return user != null ? user.getUserId() : null;
+    }
+
+    private boolean hasAccess(Long boardId, Long userId) {
+        if (userId == null) return false;
 
         Board board = whiteboardService.getWhiteboardById(boardId);
         if (board == null) return false;
 
-        boolean isOwner = board.getOwnerId() != null && board.getOwnerId().equals(user.getUserId());
-        return isOwner || whiteboardService.getUserRoleInWhiteboard(user.getUserId(), boardId) != null;
+        boolean isOwner = board.getOwnerId() != null && board.getOwnerId().equals(userId);
+        return isOwner || whiteboardService.getUserRoleInWhiteboard(userId, boardId) != null;
     }
 }
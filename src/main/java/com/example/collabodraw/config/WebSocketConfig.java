@@ -36,9 +36,12 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
     private String stompRelayPasscode;
 
     private final WebSocketAuthorizationInterceptor authorizationInterceptor;
+    private final IdentityHandshakeInterceptor identityHandshakeInterceptor;
 
-    public WebSocketConfig(WebSocketAuthorizationInterceptor authorizationInterceptor) {
+    public WebSocketConfig(WebSocketAuthorizationInterceptor authorizationInterceptor,
+                           IdentityHandshakeInterceptor identityHandshakeInterceptor) {
         this.authorizationInterceptor = authorizationInterceptor;
+        this.identityHandshakeInterceptor = identityHandshakeInterceptor;
     }
 
     @Override
@@ -54,6 +57,7 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .toArray(String[]::new);
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns(allowedOrigins)
+                .addInterceptors(identityHandshakeInterceptor)
                 .withSockJS();
     }
 
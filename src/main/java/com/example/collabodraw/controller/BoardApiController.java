@@ -3,22 +3,32 @@ package com.example.collabodraw.controller;
 import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.model.dto.WhiteboardDto;
+import com.example.collabodraw.realtime.LiveBoardModelService;
 import com.example.collabodraw.repository.BoardMembershipRepository;
+import com.example.collabodraw.service.BoardSaveQueue;
 import com.example.collabodraw.service.DashboardRealtimeService;
+import com.example.collabodraw.service.ThumbnailService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.net.URI;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -35,16 +45,25 @@ public class BoardApiController {
     private final WhiteboardService whiteboardService;
     private final DashboardRealtimeService dashboardRealtimeService;
     private final BoardMembershipRepository boardMembershipRepository;
+    private final BoardSaveQueue boardSaveQueue;
+    private final LiveBoardModelService liveBoardModelService;
+    private final ThumbnailService thumbnailService;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public BoardApiController(UserService userService,
                               WhiteboardService whiteboardService,
                               DashboardRealtimeService dashboardRealtimeService,
-                              BoardMembershipRepository boardMembershipRepository) {
+                              BoardMembershipRepository boardMembershipRepository,
+                              BoardSaveQueue boardSaveQueue,
+                              LiveBoardModelService liveBoardModelService,
+                              ThumbnailService thumbnailService) {
         this.userService = userService;
         this.whiteboardService = whiteboardService;
         this.dashboardRealtimeService = dashboardRealtimeService;
         this.boardMembershipRepository = boardMembershipRepository;
+        this.boardSaveQueue = boardSaveQueue;
+        this.liveBoardModelService = liveBoardModelService;
+        this.thumbnailService = thumbnailService;
     }
 
     /**
@@ -204,7 +223,8 @@ public class BoardApiController {
 
     @GetMapping("/{boardId}/content")
     public ResponseEntity<Map<String, Object>> getBoardContent(@PathVariable String boardId,
-                                                               Authentication authentication) {
+                                                               Authentication authentication,
+                                                               WebRequest webRequest) {
         try {
             User currentUser = requireCurrentUser(authentication);
             Long numericBoardId = resolveBoardId(boardId);
@@ -218,13 +238,32 @@ public class BoardApiController {
             boolean hasAccess = isOwner || (role != null);
             if (!hasAccess) throw new AccessDeniedException("You do not have access to this board");
 
-            String snapshotJson = whiteboardService.getBoardSnapshot(numericBoardId);
+            // A hot board is answered from its live model, which may be ahead of the stored
+            // snapshot by events not flushed yet; its revision then stands in for the snapshot's.
+            String effectiveRole = isOwner ? "owner" : role;
+            LiveBoardModelService.View live = liveBoardModelService.view(board);
+            // Otherwise the payload is a function of the snapshot row, last_modified and the
+            // caller's role, so those make a strong validator; checked before the body is read.
+            Long snapshotVersion = whiteboardService.getBoardSnapshotVersion(board);
+            String etag = live != null
+                    ? "content-" + board.getBoardId() + "-live-" + live.getRevision() + "-" + effectiveRole
+                    : contentEtag(board, snapshotVersion, effectiveRole);
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             Map<String, Object> payload = new HashMap<>();
             payload.put("success", true);
-            payload.put("role", isOwner ? "owner" : role);
+            payload.put("role", effectiveRole);
             payload.put("canWrite", isOwner || "editor".equalsIgnoreCase(role) || "owner".equalsIgnoreCase(role));
             payload.put("lastModified", board.getLastModified() != null ? board.getLastModified().toString() : null);
-            if (snapshotJson != null && !snapshotJson.isBlank()) {
+            payload.put("version", snapshotVersion);
+            payload.put("live", live != null);
+            String snapshotJson = live == null ? whiteboardService.getBoardSnapshot(board) : null;
+            if (live != null) {
+                payload.put("elements", live.getElements());
+                payload.put("settings", live.getSettings());
+            } else if (snapshotJson != null && !snapshotJson.isBlank()) {
                 // snapshotJson expected to be a JSON with elements and settings
                 @SuppressWarnings("unchecked")
                 Map<String, Object> data = objectMapper.readValue(snapshotJson, Map.class);
@@ -236,7 +275,10 @@ public class BoardApiController {
                 payload.put("elements", "");
                 payload.put("settings", new LinkedHashMap<>());
             }
-            return ResponseEntity.ok(payload);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(etag)
+                    .body(payload);
         } catch (AccessDeniedException ex) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("success", false, "message", ex.getMessage()));
@@ -247,17 +289,75 @@ public class BoardApiController {
         }
     }
 
+    /**
+     * PNG preview of the board for the dashboards. Without {@code v} (or with an old one) this
+     * redirects to the URL of the stored thumbnail's version, which never changes content and
+     * so is cached by the browser for good; a newer save just moves the redirect. A board with
+     * no thumbnail yet, or only an outdated one, has a render queued; the former answers 404
+     * and the page keeps its icon.
+     */
+    @GetMapping("/{boardId}/thumbnail")
+    public ResponseEntity<?> getBoardThumbnail(@PathVariable String boardId,
+                                               @RequestParam(value = "v", required = false) Long v,
+                                               Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            Long numericBoardId = resolveBoardId(boardId);
+            Board board = whiteboardService.getWhiteboardById(numericBoardId);
+            if (board == null) return ResponseEntity.notFound().build();
+            boolean isOwner = board.getOwnerId() != null && board.getOwnerId().equals(currentUser.getUserId());
+            String role = whiteboardService.getUserRoleInWhiteboard(currentUser.getUserId(), board.getBoardId());
+            if (!isOwner && role == null) throw new AccessDeniedException("You do not have access to this board");
+
+            if (v != null) {
+                byte[] png = thumbnailService.findImage(board.getBoardId(), v);
+                if (png != null) {
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_PNG)
+                            .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                            .body(png);
+                }
+            }
+            Long stored = thumbnailService.findVersion(board.getBoardId());
+            Long current = whiteboardService.getBoardSnapshotVersion(board);
+            if (current != null && !current.equals(stored)) {
+                thumbnailService.requestRender(board.getBoardId(), current);
+            }
+            if (stored == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(CacheControl.noStore()).build();
+            }
+            return ResponseEntity.status(HttpStatus.FOUND)
+                    .location(URI.create("/api/boards/" + board.getBoardId() + "/thumbnail?v=" + stored))
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .build();
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().build();
+        } catch (Exception ex) {
+            log.error("Failed to load board thumbnail", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
+    /**
+     * Saves the board snapshot through the per-board {@link BoardSaveQueue}, so concurrent
+     * autosaves are committed one at a time (and a newer save from the same author replaces
+     * one still waiting). Answers once the write has committed, with the resulting version.
+     * A save that names its {@code baseVersion} is merged with newer saves element by element
+     * instead of being refused; the merged elements come back for the client to apply.
+     */
     @PostMapping("/{boardId}/content")
-    public ResponseEntity<Map<String, Object>> saveBoardContent(@PathVariable String boardId,
-                                                                @RequestBody Map<String, Object> body,
-                                                                Authentication authentication) {
+    public CompletableFuture<ResponseEntity<Map<String, Object>>> saveBoardContent(@PathVariable String boardId,
+                                                                                   @RequestBody Map<String, Object> body,
+                                                                                   Authentication authentication) {
         try {
             User currentUser = requireCurrentUser(authentication);
             Long numericBoardId = resolveBoardId(boardId);
             Board board = whiteboardService.getWhiteboardById(numericBoardId);
             if (board == null) {
-                return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(Map.of("success", false, "message", "Board not found"));
+                return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("success", false, "message", "Board not found")));
             }
             boolean isOwner = board.getOwnerId() != null && board.getOwnerId().equals(currentUser.getUserId());
             String role = whiteboardService.getUserRoleInWhiteboard(currentUser.getUserId(), board.getBoardId());
@@ -268,39 +368,52 @@ public class BoardApiController {
             Map<String, Object> snapshot = new LinkedHashMap<>();
             snapshot.put("elements", body.getOrDefault("elements", ""));
             snapshot.put("settings", body.getOrDefault("settings", new LinkedHashMap<>()));
-            String name = (String) body.get("name");
             String snapshotJson = objectMapper.writeValueAsString(snapshot);
 
             LocalDateTime expectedLastModified = parseTimestamp((String) body.get("expectedLastModified"));
-            boolean saved = whiteboardService.saveBoardSnapshot(numericBoardId, currentUser.getUserId(), snapshotJson, expectedLastModified);
-            if (!saved) {
-                Board latest = whiteboardService.getWhiteboardById(numericBoardId);
-                return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
-                        "success", false,
-                        "error", "conflict",
-                        "message", "This board changed since you loaded it. Reload to see the latest version before saving.",
-                        "currentLastModified", latest != null && latest.getLastModified() != null ? latest.getLastModified().toString() : null
-                ));
-            }
-            if (name != null && !name.isBlank() && !name.equals(board.getBoardName())) {
-                // Update name via repository method
-                // Avoid direct repository access here; reuse service layer if added later.
-            }
-
-            Board updated = whiteboardService.getWhiteboardById(numericBoardId);
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "message", "Board saved",
-                    "lastModified", updated != null && updated.getLastModified() != null ? updated.getLastModified().toString() : null
-            ));
+            Long baseVersion = body.get("baseVersion") instanceof Number n ? n.longValue() : null;
+            return boardSaveQueue.submit(numericBoardId, currentUser.getUserId(), snapshotJson, expectedLastModified, baseVersion)
+                    .handle((result, error) -> {
+                        if (error != null) {
+                            log.error("Failed to save board content", error);
+                            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                                    .body(Map.<String, Object>of("success", false, "message", "Failed to save content"));
+                        }
+                        return saveResponse(result);
+                    });
         } catch (AccessDeniedException ex) {
-            return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                    .body(Map.of("success", false, "message", ex.getMessage()));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", ex.getMessage())));
         } catch (Exception ex) {
             log.error("Failed to save board content", ex);
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("success", false, "message", "Failed to save content"));
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to save content")));
+        }
+    }
+
+    private ResponseEntity<Map<String, Object>> saveResponse(BoardSaveQueue.SaveResult result) {
+        String lastModified = result.getLastModified() != null ? result.getLastModified().toString() : null;
+        Map<String, Object> payload = new LinkedHashMap<>();
+        if (!result.isSaved()) {
+            payload.put("success", false);
+            payload.put("error", "conflict");
+            payload.put("message", result.getConflicts().isEmpty()
+                    ? "This board changed since you loaded it. Reload to see the latest version before saving."
+                    : "Someone else changed the same elements you did. Reload to see the latest version before saving.");
+            payload.put("currentLastModified", lastModified);
+            payload.put("conflicts", result.getConflicts());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(payload);
+        }
+        payload.put("success", true);
+        payload.put("message", "Board saved");
+        payload.put("lastModified", lastModified);
+        payload.put("version", result.getVersion());
+        payload.put("coalesced", result.getCoalesced());
+        payload.put("merged", result.isMerged());
+        if (result.isMerged()) {
+            payload.put("elements", result.getMergedElements());
         }
+        return ResponseEntity.ok(payload);
     }
 
     private LocalDateTime parseTimestamp(String value) {
@@ -339,7 +452,7 @@ public class BoardApiController {
             payload.put("canWrite", isOwner || "editor".equalsIgnoreCase(role) || "owner".equalsIgnoreCase(role));
             payload.put("lastModified", board.getLastModified() != null ? board.getLastModified().toString() : null);
 
-            String snapshotJson = whiteboardService.getBoardSnapshot(numericBoardId);
+            String snapshotJson = whiteboardService.getBoardSnapshot(board);
             if (snapshotJson != null && !snapshotJson.isBlank()) {
                 @SuppressWarnings("unchecked")
                 Map<String, Object> data = objectMapper.readValue(snapshotJson, Map.class);
@@ -389,7 +502,7 @@ public class BoardApiController {
             payload.put("success", true);
             payload.put("id", formatBoardId(board.getBoardId()));
             payload.put("name", board.getBoardName());
-            String snapshotJson = whiteboardService.getBoardSnapshot(numericBoardId);
+            String snapshotJson = whiteboardService.getBoardSnapshot(board);
             if (snapshotJson != null && !snapshotJson.isBlank()) {
                 @SuppressWarnings("unchecked")
                 Map<String, Object> data = objectMapper.readValue(snapshotJson, Map.class);
@@ -493,6 +606,13 @@ whiteboardService.deleteBoard(numericBoardId, currentUser.getUserId());
         }
     }
 
+    private static String contentEtag(Board board, Long snapshotVersion, String role) {
+        long modified = board.getLastModified() != null
+                ? board.getLastModified().toEpochSecond(ZoneOffset.UTC) : 0;
+        return "content-" + board.getBoardId() + "-" + (snapshotVersion != null ? snapshotVersion : 0)
+                + "-" + modified + "-" + role;
+    }
+
     private Long resolveBoardId(String boardId) {
         if (boardId == null || boardId.isBlank()) {
             throw new IllegalArgumentException("Board ID is required");
@@ -1,7 +1,9 @@
 package com.example.collabodraw.controller;
 
+import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.service.DashboardRealtimeService;
+import com.example.collabodraw.service.NotificationFanoutService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.slf4j.Logger;
@@ -30,12 +32,15 @@ public class BoardController {
     private final UserService userService;
     private final WhiteboardService whiteboardService;
     private final DashboardRealtimeService dashboardRealtimeService;
+    private final NotificationFanoutService notificationFanoutService;
 
     public BoardController(UserService userService, WhiteboardService whiteboardService,
-                           DashboardRealtimeService dashboardRealtimeService) {
+                           DashboardRealtimeService dashboardRealtimeService,
+                           NotificationFanoutService notificationFanoutService) {
         this.userService = userService;
         this.whiteboardService = whiteboardService;
         this.dashboardRealtimeService = dashboardRealtimeService;
+        this.notificationFanoutService = notificationFanoutService;
     }
 
     /**
@@ -305,8 +310,12 @@ public class BoardController {
             Long numericBoardId = resolveBoardId(boardId);
 
             // Notify all board participants before deleting membership/board rows.
+            Board board = whiteboardService.getWhiteboardById(numericBoardId);
             dashboardRealtimeService.publishBoardEvent(numericBoardId, "BOARD_DELETING");
             whiteboardService.deleteBoard(numericBoardId, currentUser.getUserId());
+            // Members are only removed by the background purge, so they can still be reached.
+            notificationFanoutService.notifyBoard(numericBoardId, currentUser.getUserId(), "board", "Board deleted",
+                    currentUser.getUsername() + " deleted " + quotedName(board), null);
 
             dashboardRealtimeService.publishUserEvent(currentUser.getUserId(), "BOARD_DELETED", "Board deleted");
 
@@ -378,6 +387,9 @@ public class BoardController {
             whiteboardService.leaveBoard(numericBoardId, currentUser.getUserId());
 
             dashboardRealtimeService.publishBoardEvent(numericBoardId, "MEMBER_LEFT");
+            notificationFanoutService.notifyBoard(numericBoardId, currentUser.getUserId(), "board", "Member left",
+                    currentUser.getUsername() + " left " + quotedName(whiteboardService.getWhiteboardById(numericBoardId)),
+                    "/boards/open/" + numericBoardId);
             dashboardRealtimeService.publishUserEvent(currentUser.getUserId(), "BOARD_LEFT", "You left a shared board");
 
             return ResponseEntity.ok(Map.of(
@@ -432,4 +444,8 @@ public class BoardController {
     private String formatBoardId(Long boardId) {
         return boardId != null ? "board-" + boardId : null;
     }
-}
\ No newline at end of file
+
+    private static String quotedName(Board board) {
+        return board != null && board.getBoardName() != null ? "\"" + board.getBoardName() + "\"" : "a board";
+    }
+}
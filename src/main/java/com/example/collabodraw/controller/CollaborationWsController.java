@@ -43,6 +43,8 @@ public class CollaborationWsController {
     private final UserService userService;
     private final WhiteboardService whiteboardService;
     private final com.example.collabodraw.realtime.EventStore eventStore;
+    private final com.example.collabodraw.realtime.LiveBoardModelService liveBoardModelService;
+    private final com.example.collabodraw.realtime.ActivityCounters activityCounters;
     private final Map<String, SessionBinding> wsSessionBindings = new ConcurrentHashMap<>();
 
     private static final class SessionBinding {
@@ -62,13 +64,17 @@ public class CollaborationWsController {
                                      CursorRepository cursorRepository,
                                      UserService userService,
                                      WhiteboardService whiteboardService,
-                                     com.example.collabodraw.realtime.EventStore eventStore) {
+                                     com.example.collabodraw.realtime.EventStore eventStore,
+                                     com.example.collabodraw.realtime.LiveBoardModelService liveBoardModelService,
+                                     com.example.collabodraw.realtime.ActivityCounters activityCounters) {
         this.messagingTemplate = messagingTemplate;
         this.sessionRepository = sessionRepository;
         this.cursorRepository = cursorRepository;
         this.userService = userService;
         this.whiteboardService = whiteboardService;
         this.eventStore = eventStore;
+        this.liveBoardModelService = liveBoardModelService;
+        this.activityCounters = activityCounters;
     }
 
     /**
@@ -92,13 +98,14 @@ public class CollaborationWsController {
     @MessageMapping("/board/{boardId}/join")
     public void join(@DestinationVariable Long boardId, Principal principal,
                      @Header("simpSessionId") String wsSessionId) {
-        Long userId = resolveUserId(principal);
+        User user = resolveUser(principal);
+        Long userId = user != null ? user.getUserId() : null;
         if (userId == null) return;
         if (resolveRole(boardId, userId) == null) {
             log.debug("Rejected join: user {} has no access to board {}", userId, boardId);
             return;
         }
-        String username = resolveDisplayName(principal, wsSessionId, null);
+        String username = resolveDisplayName(user, principal, wsSessionId, null);
 
         // Create one session row per websocket join so multi-tab presence is visible.
         Long createdSessionId = sessionRepository.create(boardId, userId);
@@ -123,9 +130,10 @@ public class CollaborationWsController {
     @MessageMapping("/board/{boardId}/leave")
     public void leave(@DestinationVariable Long boardId, Principal principal,
                       @Header("simpSessionId") String wsSessionId) {
-        Long userId = resolveUserId(principal);
+        User user = resolveUser(principal);
+        Long userId = user != null ? user.getUserId() : null;
         if (userId == null) return;
-        String username = resolveDisplayName(principal, wsSessionId, null);
+        String username = resolveDisplayName(user, principal, wsSessionId, null);
 
         SessionBinding binding = wsSessionId != null ? wsSessionBindings.remove(wsSessionId) : null;
         if (binding != null) {
@@ -187,9 +195,10 @@ public class CollaborationWsController {
     public void cursor(@DestinationVariable Long boardId, @Payload CursorMessage msg, Principal principal,
                        @Header("simpSessionId") String sessionId) {
         if (msg == null) return;
-        Long userId = resolveUserId(principal);
+        User user = resolveUser(principal);
+        Long userId = user != null ? user.getUserId() : null;
         if (resolveRole(boardId, userId) == null) return;
-        String displayName = resolveDisplayName(principal, sessionId, msg.displayName);
+        String displayName = resolveDisplayName(user, principal, sessionId, msg.displayName);
         // Update persistent cursor position only for authenticated users
         if (userId != null) {
             Long cursorId = cursorRepository.findCursorId(boardId, userId);
@@ -251,13 +260,15 @@ public class CollaborationWsController {
         Map<String, Object> meta = new HashMap<>();
         meta.put("kind", msg != null ? msg.kind : null);
         meta.put("by", principal != null ? principal.getName() : "");
-        meta.put("userId", resolveUserId(principal));
+        meta.put("userId", userId);
         boolean isPartialStroke = msg != null && msg.payload != null && Boolean.TRUE.equals(msg.payload.get("partial"));
         meta.put("partial", isPartialStroke);
         envelope.put("meta", meta);
         // Store for late joiners
         if (!isPartialStroke) {
             eventStore.addEvent(boardId, envelope);
+            if (msg != null) liveBoardModelService.apply(boardId, userId, msg.kind, msg.payload);
+            activityCounters.record(boardId, userId);
         }
         // Broadcast to subscribers
         messagingTemplate.convertAndSend("/topic/board." + boardId + ".elements", envelope);
@@ -283,15 +294,18 @@ public class CollaborationWsController {
         messagingTemplate.convertAndSend("/topic/board." + boardId + ".presence", payload);
     }
 
+    // Each handler resolves the user once per frame; UserService serves it from the identity cache.
+    private User resolveUser(Principal principal) {
+        return principal != null ? userService.findByUsername(principal.getName()) : null;
+    }
+
     private Long resolveUserId(Principal principal) {
-        if (principal == null) return null;
-        User user = userService.findByUsername(principal.getName());
+        User user = resolveUser(principal);
         return user != null ? user.getUserId() : null;
     }
 
-    private String resolveDisplayName(Principal principal, String sessionId, String requestedDisplayName) {
+    private String resolveDisplayName(User user, Principal principal, String sessionId, String requestedDisplayName) {
         if (principal != null) {
-            User user = userService.findByUsername(principal.getName());
             if (user != null && user.getUsername() != null && !user.getUsername().isBlank()) {
                 return user.getUsername();
             }
@@ -1,19 +1,34 @@
 package com.example.collabodraw.controller;
 
 import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.model.entity.BoardCanvas;
+import com.example.collabodraw.model.entity.BoardCanvasTile;
 import com.example.collabodraw.model.entity.Element;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.service.CanvasStorageService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.imageio.ImageIO;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 
 /**
@@ -26,22 +41,59 @@ import java.util.*;
 public class DrawingController {
 
     private static final Logger log = LoggerFactory.getLogger(DrawingController.class);
+    private static final String LEGACY_CANVAS_TYPE = "canvas_image";
+    // Longest edge of the image composed for a board stored as tiles only: 16 MiB of ARGB
+    // at most, however large the tile grid is. Full resolution stays available per tile.
+    private static final int TILES_ONLY_MAX_EDGE = 2048;
+    private static final ObjectMapper JSON = new ObjectMapper();
 
     private final ElementRepository elementRepository;
     private final WhiteboardService whiteboardService;
     private final UserService userService;
+    private final CanvasStorageService canvasStorageService;
 
     public DrawingController(ElementRepository elementRepository,
                               WhiteboardService whiteboardService,
-                              UserService userService) {
+                              UserService userService,
+                              CanvasStorageService canvasStorageService) {
         this.elementRepository = elementRepository;
         this.whiteboardService = whiteboardService;
         this.userService = userService;
+        this.canvasStorageService = canvasStorageService;
     }
 
     /**
-     * Save canvas drawing as special element
+     * Upload the canvas raster as raw PNG bytes (image/png or application/octet-stream body).
+     * The body is streamed to storage, never buffered whole or base64-encoded.
      */
+    @PutMapping(value = "/canvas/{boardId}",
+            consumes = {MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> uploadCanvas(@PathVariable Long boardId,
+                                          InputStream body,
+                                          Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            requireWriteAccess(boardId, currentUser);
+
+            BoardCanvas stored = canvasStorageService.store(boardId, currentUser.getUserId(), body);
+            log.debug("Canvas uploaded for board {}", boardId);
+            return ResponseEntity.ok(savedBody(boardId, stored));
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception e) {
+            log.error("Canvas upload failed for board {}", boardId, e);
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", "Failed to save canvas"));
+        }
+    }
+
+    /**
+     * Save canvas drawing from a base64 data URL.
+     * @deprecated kept for older clients; use {@code PUT /api/drawings/canvas/{boardId}} with
+     * the raw PNG body instead. The decoded bytes land in the same binary store.
+     */
+    @Deprecated
     @PostMapping("/save-canvas")
     public ResponseEntity<?> saveCanvas(
             @RequestParam Long boardId,
@@ -51,28 +103,20 @@ public class DrawingController {
             User currentUser = requireCurrentUser(authentication);
             requireWriteAccess(boardId, currentUser);
 
-            Element canvasElement = elementRepository.findByBoardIdAndType(boardId, "canvas_image");
-
-            if (canvasElement != null) {
-                canvasElement.setData(imageData);
-                canvasElement.setUpdatedAt(LocalDateTime.now());
-                elementRepository.updateElement(canvasElement);
-            } else {
-                canvasElement = new Element();
-                canvasElement.setBoardId(boardId);
-                canvasElement.setCreatorId(currentUser.getUserId());
-                canvasElement.setType("canvas_image");
-                canvasElement.setZOrder(-1);  // Background layer
-                canvasElement.setData(imageData);
-                canvasElement.setCreatedAt(LocalDateTime.now());
-                canvasElement.setUpdatedAt(LocalDateTime.now());
-                elementRepository.save(canvasElement);
+            BoardCanvas stored = canvasStorageService.storeDataUrl(boardId, currentUser.getUserId(), imageData);
+
+            // The binary store is now the source of truth; drop the old data-URL copy if any.
+            Element legacy = elementRepository.findByBoardIdAndType(boardId, LEGACY_CANVAS_TYPE);
+            if (legacy != null) {
+                elementRepository.delete(legacy.getElementId());
             }
 
             log.debug("Canvas saved for board {}", boardId);
-            return ResponseEntity.ok(Map.of("success", true, "message", "Canvas saved", "boardId", boardId));
+            return ResponseEntity.ok(savedBody(boardId, stored));
         } catch (AccessDeniedException ex) {
             return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", ex.getMessage()));
         } catch (Exception e) {
             log.error("Canvas save failed for board {}", boardId, e);
             return ResponseEntity.status(500).body(Map.of("success", false, "message", "Failed to save canvas"));
@@ -80,32 +124,251 @@ public class DrawingController {
     }
 
     /**
-     * Load canvas drawing
+     * Load the canvas base as raw image/png. Sends a strong ETag (content SHA-256) and
+     * Last-Modified, and answers 304 without touching the blob when the client copy is current.
+     * Tiles written since the base are not composed in (that would decode the whole raster per
+     * request); the response names the tile manifest in a {@code Link} header, and clients
+     * paint the tiles listed there over the base. A board stored as tiles only gets them
+     * composed, scaled down to {@value #TILES_ONLY_MAX_EDGE}px on the longer edge, with an
+     * ETag over the tile hashes and its size in board pixels in {@code X-Canvas-Size}.
      */
-    @GetMapping("/load-canvas/{boardId}")
-    public ResponseEntity<?> loadCanvas(@PathVariable Long boardId, Authentication authentication) {
+    @GetMapping({"/load-canvas/{boardId}", "/canvas/{boardId}"})
+    public ResponseEntity<StreamingResponseBody> loadCanvas(@PathVariable Long boardId,
+                                                            Authentication authentication,
+                                                            WebRequest webRequest) {
         try {
             User currentUser = requireCurrentUser(authentication);
             requireReadAccess(boardId, currentUser);
 
-            Element canvasElement = elementRepository.findByBoardIdAndType(boardId, "canvas_image");
+            BoardCanvas canvas = canvasStorageService.findMeta(boardId);
+            if (canvas != null) {
+                String etag = canvas.getContentHash();
+                long lastModified = toEpochMillis(canvas.getUpdatedAt());
+                if (webRequest.checkNotModified(etag, lastModified)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+                ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .eTag(etag)
+                        .header(HttpHeaders.LINK, tileManifestLink(boardId));
+                if (lastModified > 0) ok.lastModified(lastModified);
+                return ok.contentLength(canvas.getByteSize())
+                        .body(out -> canvasStorageService.writeTo(boardId, out));
+            }
+            List<BoardCanvasTile> tiles = canvasStorageService.listTiles(boardId);
+            if (!tiles.isEmpty()) {
+                String etag = tilesEtag(tiles);
+                if (webRequest.checkNotModified(etag)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+                }
+                CanvasStorageService.Raster raster = canvasStorageService.readComposed(boardId, TILES_ONLY_MAX_EDGE);
+                if (raster != null) {
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.IMAGE_PNG)
+                            .cacheControl(CacheControl.noCache().cachePrivate())
+                            .eTag(etag)
+                            .header(HttpHeaders.LINK, tileManifestLink(boardId))
+                            .header("X-Canvas-Size", raster.width() + "x" + raster.height())
+                            .body(out -> ImageIO.write(raster.image(), "png", out));
+                }
+            }
 
-            if (canvasElement != null && canvasElement.getData() != null) {
-                return ResponseEntity.ok(Map.of(
-                        "success", true,
-                        "imageData", canvasElement.getData(),
-                        "updatedAt", canvasElement.getUpdatedAt()));
+            // Boards saved before binary storage existed still carry a data-URL element.
+            Element legacy = elementRepository.findByBoardIdAndType(boardId, LEGACY_CANVAS_TYPE);
+            if (legacy != null && legacy.getData() != null) {
+                long lastModified = toEpochMillis(legacy.getUpdatedAt());
+                if (lastModified > 0 && webRequest.checkNotModified(lastModified)) {
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+                }
+                String dataUrl = legacy.getData();
+                ResponseEntity.BodyBuilder ok = ResponseEntity.ok()
+                        .contentType(MediaType.IMAGE_PNG)
+                        .cacheControl(CacheControl.noCache().cachePrivate());
+                if (lastModified > 0) ok.lastModified(lastModified);
+                return ok.body(out -> {
+                    try (InputStream in = CanvasStorageService.decodeDataUrl(dataUrl)) {
+                        in.transferTo(out);
+                    }
+                });
             }
 
-            return ResponseEntity.ok(Map.of("success", false, "message", "No canvas found"));
+            return jsonError(HttpStatus.NOT_FOUND, "No canvas found");
         } catch (AccessDeniedException ex) {
-            return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
+            return jsonError(HttpStatus.FORBIDDEN, ex.getMessage());
         } catch (Exception e) {
             log.error("Canvas load failed for board {}", boardId, e);
-            return ResponseEntity.status(500).body(Map.of("success", false, "message", "Failed to load canvas"));
+            return jsonError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load canvas");
+        }
+    }
+
+    /**
+     * Tile manifest: position, version and content hash of every stored tile, so a client can
+     * fetch only the tiles whose version it has not seen.
+     */
+    @GetMapping("/canvas/{boardId}/tiles")
+    public ResponseEntity<?> listTiles(@PathVariable Long boardId, Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            requireReadAccess(boardId, currentUser);
+
+            BoardCanvas base = canvasStorageService.findMeta(boardId);
+            List<Map<String, Object>> tiles = new ArrayList<>();
+            for (BoardCanvasTile tile : canvasStorageService.listTiles(boardId)) {
+                tiles.add(tileBody(tile));
+            }
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", true);
+            body.put("tileSize", CanvasStorageService.TILE_SIZE);
+            body.put("baseEtag", base != null ? base.getContentHash() : null);
+            body.put("tiles", tiles);
+            return ResponseEntity.ok(body);
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception e) {
+            log.error("Tile manifest failed for board {}", boardId, e);
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", "Failed to load tiles"));
+        }
+    }
+
+    /**
+     * Upload one dirty tile as a raw PNG body. An optional {@code If-Match: "<version>"} makes
+     * the write conditional ({@code "0"} for a tile that should not exist yet); a stale version
+     * gets 412 with the tile's current version so the client can re-fetch and retry.
+     */
+    @PutMapping(value = "/canvas/{boardId}/tiles/{tileX}/{tileY}",
+            consumes = {MediaType.IMAGE_PNG_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<?> uploadTile(@PathVariable Long boardId,
+                                        @PathVariable int tileX,
+                                        @PathVariable int tileY,
+                                        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                        InputStream body,
+                                        Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            requireWriteAccess(boardId, currentUser);
+
+            Long expectedVersion = parseVersion(ifMatch);
+            BoardCanvasTile stored = canvasStorageService.storeTile(
+                    boardId, currentUser.getUserId(), tileX, tileY, body, expectedVersion);
+            if (stored == null) {
+                BoardCanvasTile current = canvasStorageService.findTile(boardId, tileX, tileY);
+                Map<String, Object> conflict = new HashMap<>();
+                conflict.put("success", false);
+                conflict.put("error", "conflict");
+                conflict.put("currentVersion", current != null ? current.getVersion() : 0L);
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(conflict);
+            }
+            Map<String, Object> ok = tileBody(stored);
+            ok.put("success", true);
+            return ResponseEntity.ok().eTag(String.valueOf(stored.getVersion())).body(ok);
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception e) {
+            log.error("Tile upload failed for board {} tile {},{}", boardId, tileX, tileY, e);
+            return ResponseEntity.status(500).body(Map.of("success", false, "message", "Failed to save tile"));
+        }
+    }
+
+    /** One tile as image/png; its ETag is the tile content hash. */
+    @GetMapping("/canvas/{boardId}/tiles/{tileX}/{tileY}")
+    public ResponseEntity<StreamingResponseBody> loadTile(@PathVariable Long boardId,
+                                                          @PathVariable int tileX,
+                                                          @PathVariable int tileY,
+                                                          Authentication authentication,
+                                                          WebRequest webRequest) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            requireReadAccess(boardId, currentUser);
+
+            BoardCanvasTile tile = canvasStorageService.findTile(boardId, tileX, tileY);
+            if (tile == null) {
+                return jsonError(HttpStatus.NOT_FOUND, "No such tile");
+            }
+            if (webRequest.checkNotModified(tile.getContentHash())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(tile.getContentHash()).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaType.IMAGE_PNG)
+                    .contentLength(tile.getByteSize())
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(tile.getContentHash())
+                    .header("X-Tile-Version", String.valueOf(tile.getVersion()))
+                    .body(out -> canvasStorageService.writeTileTo(boardId, tileX, tileY, out));
+        } catch (AccessDeniedException ex) {
+            return jsonError(HttpStatus.FORBIDDEN, ex.getMessage());
+        } catch (IllegalArgumentException ex) {
+            return jsonError(HttpStatus.BAD_REQUEST, ex.getMessage());
+        } catch (Exception e) {
+            log.error("Tile load failed for board {} tile {},{}", boardId, tileX, tileY, e);
+            return jsonError(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to load tile");
         }
     }
 
+    private static Map<String, Object> tileBody(BoardCanvasTile tile) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("x", tile.getTileX());
+        body.put("y", tile.getTileY());
+        body.put("version", tile.getVersion());
+        body.put("etag", tile.getContentHash());
+        body.put("updatedAt", tile.getUpdatedAt());
+        return body;
+    }
+
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank()) return null;
+        String v = ifMatch.trim();
+        if (v.startsWith("W/")) v = v.substring(2);
+        v = v.replace("\"", "");
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("If-Match must carry a tile version");
+        }
+    }
+
+    private static Map<String, Object> savedBody(Long boardId, BoardCanvas stored) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", true);
+        body.put("message", "Canvas saved");
+        body.put("boardId", boardId);
+        if (stored != null) {
+            body.put("etag", stored.getContentHash());
+            body.put("byteSize", stored.getByteSize());
+            body.put("updatedAt", stored.getUpdatedAt());
+        }
+        return body;
+    }
+
+    // The image route's body type is fixed to StreamingResponseBody, so its JSON error bodies
+    // are written through the same mechanism.
+    private static ResponseEntity<StreamingResponseBody> jsonError(HttpStatus status, String message) {
+        Map<String, Object> body = Map.of("success", false, "message", message);
+        return ResponseEntity.status(status)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> JSON.writeValue(out, body));
+    }
+
+    // Changes whenever any tile is written, added or removed.
+    private static String tilesEtag(List<BoardCanvasTile> tiles) {
+        StringBuilder manifest = new StringBuilder();
+        for (BoardCanvasTile tile : tiles) {
+            manifest.append(tile.getTileX()).append(',').append(tile.getTileY()).append(',')
+                    .append(tile.getContentHash()).append(';');
+        }
+        return "tiles-" + DigestUtils.md5DigestAsHex(manifest.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String tileManifestLink(Long boardId) {
+        return "</api/drawings/canvas/" + boardId + "/tiles>; rel=\"tiles\"";
+    }
+
+    private static long toEpochMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
     private User requireCurrentUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new AccessDeniedException("User must be authenticated");
@@ -0,0 +1,209 @@
+package com.example.collabodraw.controller;
+
+import com.example.collabodraw.exception.TooManyExportsException;
+import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.model.entity.User;
+import com.example.collabodraw.service.BoardExportService;
+import com.example.collabodraw.service.BoardExporter;
+import com.example.collabodraw.service.BoardScene;
+import com.example.collabodraw.service.UserService;
+import com.example.collabodraw.service.WhiteboardService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Board export as PNG, SVG or PDF. {@code GET /api/boards/{id}/export} streams a small board
+ * straight back and answers 202 with a job for a large one (or when every sync slot is busy);
+ * {@code POST .../exports} always starts a job. Jobs are polled at {@code /api/exports/{jobId}}
+ * and fetched from its {@code /download} once done, by the user who started them only. A user
+ * with too many exports in progress gets 429.
+ */
+@RestController
+@RequestMapping("/api")
+public class ExportController {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportController.class);
+
+    private final UserService userService;
+    private final WhiteboardService whiteboardService;
+    private final BoardExportService boardExportService;
+
+    public ExportController(UserService userService,
+                            WhiteboardService whiteboardService,
+                            BoardExportService boardExportService) {
+        this.userService = userService;
+        this.whiteboardService = whiteboardService;
+        this.boardExportService = boardExportService;
+    }
+
+    @GetMapping("/boards/{boardId}/export")
+    public ResponseEntity<?> export(@PathVariable Long boardId,
+                                    @RequestParam(value = "format", defaultValue = "png") String format,
+                                    Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            BoardExporter.Format exportFormat = BoardExporter.Format.parse(format);
+            Board board = requireReadableBoard(boardId, currentUser);
+            BoardExportService.Plan plan = boardExportService.plan(board.getBoardId(), whiteboardService.getBoardSnapshot(board));
+            BoardExportService.SyncExport sync = boardExportService.needsJob(plan)
+                    ? null : boardExportService.trySync(board.getBoardId(), plan, exportFormat);
+            if (sync == null) {
+                BoardExportService.Job job = boardExportService.start(board, currentUser.getUserId(), exportFormat, plan.scene());
+                return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobBody(job));
+            }
+            StreamingResponseBody body = sync::writeTo;
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(BoardExportService.fileName(board, exportFormat)))
+                    .cacheControl(CacheControl.noStore())
+                    .body(body);
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (TooManyExportsException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Export of board {} failed", boardId, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to export board"));
+        }
+    }
+
+    @PostMapping("/boards/{boardId}/exports")
+    public ResponseEntity<Map<String, Object>> startExport(@PathVariable Long boardId,
+                                                           @RequestParam(value = "format", defaultValue = "png") String format,
+                                                           Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            BoardExporter.Format exportFormat = BoardExporter.Format.parse(format);
+            Board board = requireReadableBoard(boardId, currentUser);
+            BoardExportService.Job job = boardExportService.start(board, currentUser.getUserId(), exportFormat,
+                    BoardScene.fromSnapshot(whiteboardService.getBoardSnapshot(board)));
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(jobBody(job));
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (TooManyExportsException ex) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Starting an export of board {} failed", boardId, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to start export"));
+        }
+    }
+
+    @GetMapping("/exports/{jobId}")
+    public ResponseEntity<Map<String, Object>> exportStatus(@PathVariable String jobId, Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            BoardExportService.Job job = boardExportService.findJob(jobId, currentUser.getUserId());
+            if (job == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("success", false, "message", "Export not found"));
+            }
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(jobBody(job));
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        }
+    }
+
+    @GetMapping("/exports/{jobId}/download")
+    public ResponseEntity<?> download(@PathVariable String jobId, Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            BoardExportService.Job job = boardExportService.findJob(jobId, currentUser.getUserId());
+            if (job == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("success", false, "message", "Export not found"));
+            }
+            Path file = job.getFile();
+            if (job.getState() != BoardExportService.State.DONE || file == null || !Files.exists(file)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(Map.of("success", false, "message", "Export is not ready"));
+            }
+            StreamingResponseBody body = out -> Files.copy(file, out);
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(job.getFormat().getContentType()))
+                    .contentLength(Files.size(file))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, attachment(job.getFileName()))
+                    .cacheControl(CacheControl.noStore())
+                    .body(body);
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Export download {} failed", jobId, ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Failed to download export"));
+        }
+    }
+
+    private static Map<String, Object> jobBody(BoardExportService.Job job) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("success", job.getState() != BoardExportService.State.FAILED);
+        body.put("jobId", job.getId());
+        body.put("boardId", job.getBoardId());
+        body.put("format", job.getFormat().getExtension());
+        body.put("state", job.getState().name().toLowerCase());
+        body.put("progress", (int) Math.floor(job.getProgress() * 100));
+        body.put("statusUrl", "/api/exports/" + job.getId());
+        if (job.getState() == BoardExportService.State.DONE) {
+            body.put("downloadUrl", "/api/exports/" + job.getId() + "/download");
+        }
+        if (job.getState() == BoardExportService.State.FAILED) {
+            body.put("message", "Export failed");
+        }
+        return body;
+    }
+
+    private static String attachment(String fileName) {
+        return ContentDisposition.attachment().filename(fileName, StandardCharsets.UTF_8).build().toString();
+    }
+
+    private User requireCurrentUser(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("User must be authenticated");
+        }
+        User currentUser = userService.findByUsername(authentication.getName());
+        if (currentUser == null) {
+            throw new AccessDeniedException("User not found");
+        }
+        return currentUser;
+    }
+
+    private Board requireReadableBoard(Long boardId, User currentUser) {
+        Board board = whiteboardService.getWhiteboardById(boardId);
+        if (board == null) {
+            throw new AccessDeniedException("Board not found");
+        }
+        boolean isOwner = board.getOwnerId() != null && board.getOwnerId().equals(currentUser.getUserId());
+        String role = whiteboardService.getUserRoleInWhiteboard(currentUser.getUserId(), boardId);
+        if (!isOwner && role == null) {
+            throw new AccessDeniedException("You do not have access to this board");
+        }
+        return board;
+    }
+}
@@ -6,6 +6,7 @@ import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.Template;
 import com.example.collabodraw.service.DashboardRealtimeService;
 import com.example.collabodraw.service.TemplateService;
+import com.example.collabodraw.service.TemplateSnapshotService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.slf4j.Logger;
@@ -35,13 +36,16 @@ public class HomeController {
     private final WhiteboardService whiteboardService;
     private final TemplateService templateService;
     private final DashboardRealtimeService dashboardRealtimeService;
+    private final TemplateSnapshotService templateSnapshotService;
 
     public HomeController(UserService userService, WhiteboardService whiteboardService,
-                          TemplateService templateService, DashboardRealtimeService dashboardRealtimeService) {
+                          TemplateService templateService, DashboardRealtimeService dashboardRealtimeService,
+                          TemplateSnapshotService templateSnapshotService) {
         this.userService = userService;
         this.whiteboardService = whiteboardService;
         this.templateService = templateService;
         this.dashboardRealtimeService = dashboardRealtimeService;
+        this.templateSnapshotService = templateSnapshotService;
     }
 
     @GetMapping("/")
@@ -123,6 +127,7 @@ public class HomeController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> createBoard(
             @RequestParam String name,
+            @RequestParam(required = false) String template,
             Authentication authentication) {
         
         Map<String, Object> response = new HashMap<>();
@@ -153,10 +158,13 @@ public class HomeController {
             // Save using existing createWhiteboard method
             Board savedBoard = whiteboardService.createWhiteboard(whiteboardDto);
             whiteboardService.addUserToWhiteboard(savedBoard.getBoardId(), user.getUserId(), "owner");
+            // seeded: the board already reads the template's stored snapshot, nothing to apply.
+            boolean seeded = template != null && templateSnapshotService.instantiate(savedBoard.getBoardId(), template);
             
             response.put("success", true);
             response.put("id", savedBoard.getBoardId());
             response.put("name", savedBoard.getBoardName());
+            response.put("seeded", seeded);
 
             dashboardRealtimeService.publishBoardEvent(savedBoard.getBoardId(), "BOARD_CREATED");
             dashboardRealtimeService.publishUserEvent(user.getUserId(), "BOARD_CREATED", "Board created");
@@ -5,10 +5,13 @@ import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.User;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
@@ -16,6 +19,8 @@ import java.util.Map;
 /**
  * REST endpoint to retrieve live collaboration element events so late joiners
  * can reconstruct the current board state (strokes, notes, text, etc.).
+ * Responses carry an ETag keyed on the event store's head sequence, so a reconnecting
+ * client whose replay is still current gets a 304 instead of the whole event list.
  */
 @RestController
 @RequestMapping("/api/live")
@@ -24,6 +29,9 @@ public class LiveStateController {
     private final EventStore eventStore;
     private final WhiteboardService whiteboardService;
     private final UserService userService;
+    // The in-memory store restarts its sequences with the JVM; tagging ETags with the boot
+    // time keeps a pre-restart ETag from matching a post-restart sequence.
+    private final String storeEpoch = Long.toString(System.currentTimeMillis(), 36);
 
     public LiveStateController(EventStore eventStore, WhiteboardService whiteboardService, UserService userService) {
         this.eventStore = eventStore;
@@ -32,7 +40,8 @@ public class LiveStateController {
     }
 
     @GetMapping("/{boardId}")
-    public ResponseEntity<?> getLiveEvents(@PathVariable String boardId, Authentication authentication) {
+    public ResponseEntity<?> getLiveEvents(@PathVariable String boardId, Authentication authentication,
+                                           WebRequest webRequest) {
         try {
             if (authentication == null || !authentication.isAuthenticated()) {
                 throw new AccessDeniedException("User must be authenticated");
@@ -51,8 +60,16 @@ public class LiveStateController {
                 throw new AccessDeniedException("You do not have access to this board");
             }
 
+            String etag = "live-" + numericBoardId + "-" + storeEpoch + "-" + eventStore.headSequence(numericBoardId);
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+
             List<Map<String, Object>> events = eventStore.getEvents(numericBoardId);
-            return ResponseEntity.ok(Map.of("success", true, "events", events));
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .eTag(etag)
+                    .body(Map.of("success", true, "events", events));
         } catch (AccessDeniedException ex) {
             return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
         } catch (IllegalArgumentException ex) {
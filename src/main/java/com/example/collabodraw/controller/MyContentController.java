@@ -1,11 +1,11 @@
 package com.example.collabodraw.controller;
 
 import com.example.collabodraw.model.entity.Board;
-import com.example.collabodraw.model.entity.BoardMembership;
 import com.example.collabodraw.model.entity.User;
-import com.example.collabodraw.repository.BoardMembershipRepository;
-import com.example.collabodraw.repository.ActivityLogRepository;
+import com.example.collabodraw.realtime.ActivityCounters;
 import com.example.collabodraw.repository.BoardRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository.Summary;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.springframework.security.core.Authentication;
@@ -22,20 +22,20 @@ public class MyContentController {
 
     private final UserService userService;
     private final WhiteboardService whiteboardService;
-    private final BoardMembershipRepository membershipRepository;
-    private final ActivityLogRepository activityLogRepository;
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
     private final BoardRepository boardRepository;
+    private final ActivityCounters activityCounters;
 
     public MyContentController(UserService userService,
                                WhiteboardService whiteboardService,
-                               BoardMembershipRepository membershipRepository,
-                               ActivityLogRepository activityLogRepository,
-                               BoardRepository boardRepository) {
+                               UserBoardSummaryRepository userBoardSummaryRepository,
+                               BoardRepository boardRepository,
+                               ActivityCounters activityCounters) {
         this.userService = userService;
         this.whiteboardService = whiteboardService;
-        this.membershipRepository = membershipRepository;
-        this.activityLogRepository = activityLogRepository;
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
         this.boardRepository = boardRepository;
+        this.activityCounters = activityCounters;
     }
 
     @GetMapping("/my-content")
@@ -47,26 +47,27 @@ public class MyContentController {
 
         if (currentUser != null) {
             model.addAttribute("currentUser", currentUser);
-            List<Board> accessibleBoards = whiteboardService.getAccessibleWhiteboards(currentUser.getUserId());
+            // One read of the user's user_board_summary rows feeds the list, flags and counts.
+            List<Summary> summaries = userBoardSummaryRepository.findByUserId(currentUser.getUserId());
+            List<Board> accessibleBoards = summaries.stream().map(Summary::toBoard).toList();
             model.addAttribute("boards", accessibleBoards);
-            model.addAttribute("totalBoards", accessibleBoards != null ? accessibleBoards.size() : 0);
+            model.addAttribute("totalBoards", accessibleBoards.size());
 
-            var shared = membershipRepository.findByUserId(currentUser.getUserId());
-            long sharedWithOthers = shared.stream().filter(m -> !"owner".equalsIgnoreCase(m.getRole())).count();
+            long sharedWithOthers = summaries.stream().filter(s -> !"owner".equalsIgnoreCase(s.role())).count();
             model.addAttribute("sharedWithOthers", sharedWithOthers);
 
             Set<Long> favoriteBoardIds = new HashSet<>();
             Set<Long> archivedBoardIds = new HashSet<>();
-            for (BoardMembership m : shared) {
-                if (m.isFavorite()) favoriteBoardIds.add(m.getBoardId());
-                if (m.isArchived()) archivedBoardIds.add(m.getBoardId());
+            for (Summary s : summaries) {
+                if (s.favorite()) favoriteBoardIds.add(s.boardId());
+                if (s.archived()) archivedBoardIds.add(s.boardId());
             }
+            int recentActivity = activityCounters.boardsCount(summaries.stream().map(Summary::boardId).toList());
             model.addAttribute("favoriteBoardIds", favoriteBoardIds);
             model.addAttribute("archivedBoardIds", archivedBoardIds);
 
             // Metrics
             int templatesUsed = boardRepository.countByOwnerInDays(currentUser.getUserId(), 30); // proxy for usage
-            int recentActivity = activityLogRepository.countRecentActivityForUserBoards(currentUser.getUserId(), 24);
             model.addAttribute("templatesUsed", templatesUsed);
             model.addAttribute("recentActivity", recentActivity);
         } else {
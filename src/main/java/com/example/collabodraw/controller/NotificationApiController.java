@@ -4,11 +4,13 @@ import com.example.collabodraw.model.entity.Notification;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.service.NotificationService;
 import com.example.collabodraw.service.UserService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -30,29 +32,32 @@ public class NotificationApiController {
         this.userService = userService;
     }
 
+    /**
+     * The bell's initial load, or with {@code since} (the newest id a client holds) just what
+     * it missed while its socket was down. {@code changedSince}, the newest createdAt it holds,
+     * also brings back notifications it already has that were rewritten into a digest since.
+     * New notifications otherwise arrive pushed on /topic/dashboard.{userId}.updates.
+     */
     @GetMapping("/recent")
-    public ResponseEntity<Map<String, Object>> recent(Authentication authentication) {
+    public ResponseEntity<Map<String, Object>> recent(@RequestParam(required = false) Long since,
+                                                      @RequestParam(required = false)
+                                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime changedSince,
+                                                      Authentication authentication) {
         try {
             User currentUser = requireCurrentUser(authentication);
-            List<Notification> notifications = notificationService.recentForUser(currentUser.getUserId());
-            List<Map<String, Object>> items = notifications.stream().map(n -> {
-                Map<String, Object> m = new java.util.LinkedHashMap<>();
-                m.put("id", n.getId());
-                m.put("type", n.getType());
-                m.put("title", n.getTitle());
-                m.put("message", n.getMessage());
-                m.put("read", n.isRead());
-                m.put("linkUrl", n.getLinkUrl());
-                m.put("createdAt", n.getCreatedAt() != null ? n.getCreatedAt().toString() : null);
-                return m;
-            }).collect(Collectors.toList());
-
-            long unread = notifications.stream().filter(n -> !n.isRead()).count();
+            Long userId = currentUser.getUserId();
+            List<Notification> notifications = since != null
+                    ? notificationService.sinceForUser(userId, since, changedSince)
+                    : notificationService.recentForUser(userId);
+            List<Map<String, Object>> items = notifications.stream()
+                    .map(NotificationService::toItem)
+                    .collect(Collectors.toList());
 
             return ResponseEntity.ok(Map.of(
                     "success", true,
+                    "userId", userId,
                     "items", items,
-                    "unreadCount", unread
+                    "unreadCount", notificationService.unreadCount(userId)
             ));
         } catch (AccessDeniedException ex) {
             return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
@@ -70,6 +75,17 @@ public class NotificationApiController {
         }
     }
 
+    @PostMapping("/read-all")
+    public ResponseEntity<Map<String, Object>> markAllRead(Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            int marked = notificationService.markAllRead(currentUser.getUserId());
+            return ResponseEntity.ok(Map.of("success", true, "marked", marked));
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(403).body(Map.of("success", false, "message", ex.getMessage()));
+        }
+    }
+
     private User requireCurrentUser(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             throw new AccessDeniedException("User must be authenticated");
@@ -0,0 +1,98 @@
+package com.example.collabodraw.controller;
+
+import com.example.collabodraw.model.entity.User;
+import com.example.collabodraw.service.BoardSearchIndex;
+import com.example.collabodraw.service.BoardSearchService;
+import com.example.collabodraw.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Full-text search over the current user's boards ({@link BoardSearchService}):
+ * {@code GET /api/search?q=...&page=0&size=20}, best matches first.
+ */
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchController.class);
+    private static final int MAX_PAGE_SIZE = 50;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final UserService userService;
+    private final BoardSearchService boardSearchService;
+
+    public SearchController(UserService userService, BoardSearchService boardSearchService) {
+        this.userService = userService;
+        this.boardSearchService = boardSearchService;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> search(@RequestParam(value = "q", defaultValue = "") String query,
+                                                      @RequestParam(value = "page", defaultValue = "0") int page,
+                                                      @RequestParam(value = "size", defaultValue = "20") int size,
+                                                      Authentication authentication) {
+        try {
+            User currentUser = requireCurrentUser(authentication);
+            if (page < 0) throw new IllegalArgumentException("page must not be negative");
+            if (size < 1 || size > MAX_PAGE_SIZE) throw new IllegalArgumentException("size must be between 1 and " + MAX_PAGE_SIZE);
+            if (query.length() > MAX_QUERY_LENGTH) throw new IllegalArgumentException("Search text is too long");
+
+            BoardSearchIndex.Page result = boardSearchService.search(currentUser.getUserId(), query, page, size);
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (BoardSearchIndex.Hit hit : result.hits()) {
+                Map<String, Object> item = new LinkedHashMap<>();
+                item.put("boardId", hit.boardId());
+                item.put("name", hit.name());
+                item.put("lastModified", hit.lastModified() > 0 ? Instant.ofEpochMilli(hit.lastModified()).toString() : null);
+                item.put("matchedName", hit.inName());
+                item.put("matchedContent", hit.inContent());
+                results.add(item);
+            }
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("success", true);
+            body.put("query", query);
+            body.put("page", page);
+            body.put("size", size);
+            body.put("total", result.total());
+            body.put("indexing", boardSearchService.isIndexing());
+            body.put("results", results);
+            return ResponseEntity.ok().cacheControl(CacheControl.noStore()).body(body);
+        } catch (AccessDeniedException ex) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(Map.of("success", false, "message", ex.getMessage()));
+        } catch (Exception ex) {
+            log.error("Board search failed", ex);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("success", false, "message", "Search failed"));
+        }
+    }
+
+    private User requireCurrentUser(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+            throw new AccessDeniedException("User must be authenticated");
+        }
+        User currentUser = userService.findByUsername(authentication.getName());
+        if (currentUser == null) {
+            throw new AccessDeniedException("User not found");
+        }
+        return currentUser;
+    }
+}
@@ -6,6 +6,7 @@ import com.example.collabodraw.model.entity.Team;
 import com.example.collabodraw.model.entity.TeamMember;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.model.entity.UserSettings;
+import com.example.collabodraw.realtime.ActivityCounters;
 import com.example.collabodraw.repository.ActivityLogRepository;
 import com.example.collabodraw.repository.SessionRepository;
 import com.example.collabodraw.service.NotificationService;
@@ -34,10 +35,12 @@ public class SettingsController {
     private final SessionRepository sessionRepository;
     private final ActivityLogRepository activityLogRepository;
     private final WhiteboardService whiteboardService;
+    private final ActivityCounters activityCounters;
 
     public SettingsController(UserService userService, SettingsService settingsService, TeamService teamService,
                               NotificationService notificationService, SessionRepository sessionRepository,
-                              ActivityLogRepository activityLogRepository, WhiteboardService whiteboardService) {
+                              ActivityLogRepository activityLogRepository, WhiteboardService whiteboardService,
+                              ActivityCounters activityCounters) {
         this.userService = userService;
         this.settingsService = settingsService;
         this.teamService = teamService;
@@ -45,6 +48,7 @@ public class SettingsController {
         this.sessionRepository = sessionRepository;
         this.activityLogRepository = activityLogRepository;
         this.whiteboardService = whiteboardService;
+        this.activityCounters = activityCounters;
     }
 
     @GetMapping("/settings")
@@ -269,7 +273,7 @@ public class SettingsController {
 
         int activeConnections = sessionRepository.activeConnectionCount(boardId);
         var participants = sessionRepository.activeParticipants(boardId);
-        int activity24h = activityLogRepository.countRecentActivityForBoard(boardId, 24);
+        int activity24h = activityCounters.boardCount(boardId);
         String latest = activityLogRepository.latestActivityTextForBoard(boardId);
 
         Map<String, Object> payload = new HashMap<>();
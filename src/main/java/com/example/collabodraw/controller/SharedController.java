@@ -2,13 +2,13 @@ package com.example.collabodraw.controller;
 
 import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.BoardInvite;
-import com.example.collabodraw.model.entity.BoardMembership;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.repository.BoardInviteRepository;
 import com.example.collabodraw.repository.BoardMembershipRepository;
 import com.example.collabodraw.service.DashboardRealtimeService;
+import com.example.collabodraw.service.NotificationFanoutService;
+import com.example.collabodraw.service.SharedBoardsService;
 import com.example.collabodraw.service.UserService;
-import com.example.collabodraw.repository.ActivityLogRepository;
 import com.example.collabodraw.service.WhiteboardService;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -21,10 +21,8 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 @Controller
@@ -33,22 +31,25 @@ public class SharedController {
     private final UserService userService;
     private final WhiteboardService whiteboardService;
     private final BoardMembershipRepository membershipRepository;
-    private final ActivityLogRepository activityLogRepository;
+    private final SharedBoardsService sharedBoardsService;
     private final BoardInviteRepository boardInviteRepository;
     private final DashboardRealtimeService dashboardRealtimeService;
+    private final NotificationFanoutService notificationFanoutService;
 
     public SharedController(UserService userService,
                             WhiteboardService whiteboardService,
                             BoardMembershipRepository membershipRepository,
-                            ActivityLogRepository activityLogRepository,
+                            SharedBoardsService sharedBoardsService,
                             BoardInviteRepository boardInviteRepository,
-                            DashboardRealtimeService dashboardRealtimeService) {
+                            DashboardRealtimeService dashboardRealtimeService,
+                            NotificationFanoutService notificationFanoutService) {
         this.userService = userService;
         this.whiteboardService = whiteboardService;
         this.membershipRepository = membershipRepository;
-        this.activityLogRepository = activityLogRepository;
+        this.sharedBoardsService = sharedBoardsService;
         this.boardInviteRepository = boardInviteRepository;
         this.dashboardRealtimeService = dashboardRealtimeService;
+        this.notificationFanoutService = notificationFanoutService;
     }
 
     @GetMapping("/shared")
@@ -60,7 +61,7 @@ public class SharedController {
 
         if (currentUser != null) {
             model.addAttribute("currentUser", currentUser);
-            Map<String, Object> payload = buildSharedPayload(currentUser);
+            Map<String, Object> payload = sharedBoardsService.buildPayload(currentUser.getUserId());
             model.addAttribute("sharedBoards", payload.get("boards"));
             model.addAttribute("sharedStats", payload.get("stats"));
             model.addAttribute("showEmptyState", ((List<?>) payload.get("boards")).isEmpty());
@@ -95,7 +96,7 @@ public class SharedController {
                     .body(Map.of("success", false, "message", "User not found"));
         }
 
-        Map<String, Object> payload = buildSharedPayload(currentUser);
+        Map<String, Object> payload = sharedBoardsService.buildPayload(currentUser.getUserId());
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
         response.putAll(payload);
@@ -181,6 +182,10 @@ public class SharedController {
         whiteboardService.addUserToWhiteboard(invite.getBoardId(), currentUser.getUserId(), invite.getRole());
         boardInviteRepository.updateStatus(inviteId, "accepted");
         dashboardRealtimeService.publishBoardEvent(invite.getBoardId(), "INVITE_ACCEPTED");
+        Board board = whiteboardService.getWhiteboardById(invite.getBoardId());
+        notificationFanoutService.notifyBoard(invite.getBoardId(), currentUser.getUserId(), "board", "New collaborator",
+                currentUser.getUsername() + " joined " + (board != null ? "\"" + board.getBoardName() + "\"" : "a board"),
+                "/boards/open/" + invite.getBoardId());
         dashboardRealtimeService.publishUserEvent(currentUser.getUserId(), "INVITE_ACCEPTED", "Invite accepted");
         return ResponseEntity.ok(Map.of("success", true));
     }
@@ -211,90 +216,6 @@ public class SharedController {
         return ResponseEntity.ok(Map.of("success", true));
     }
 
-    private Map<String, Object> buildSharedPayload(User currentUser) {
-        List<BoardMembership> memberships = membershipRepository.findByUserId(currentUser.getUserId());
-        List<BoardMembership> sharedMemberships = memberships.stream()
-                .filter(m -> m.getRole() != null && !"owner".equalsIgnoreCase(m.getRole()))
-                .toList();
-
-        List<Map<String, Object>> boards = new ArrayList<>();
-        List<BoardInvite> pendingInvites = boardInviteRepository.findPendingForUser(currentUser.getUserId());
-        List<Map<String, Object>> pendingItems = new ArrayList<>();
-        int activeRecently = 0;
-
-        for (BoardMembership membership : sharedMemberships) {
-            Board board = whiteboardService.getWhiteboardById(membership.getBoardId());
-            if (board == null) continue;
-
-            User owner = userService.findById(board.getOwnerId());
-            String ownerName = owner != null ? owner.getUsername() : "Unknown";
-            String ownerInitials = ownerName.length() >= 2
-                    ? ownerName.substring(0, 2).toUpperCase(Locale.ROOT)
-                    : ownerName.toUpperCase(Locale.ROOT);
-
-            int collaborators = membershipRepository.findByBoardId(board.getBoardId()).size();
-            int activity24h = activityLogRepository.countRecentActivityForBoard(board.getBoardId(), 24);
-            if (activity24h > 0) activeRecently++;
-
-            String permission = mapPermission(membership.getRole());
-            String latestActivity = activityLogRepository.latestActivityTextForBoard(board.getBoardId());
-
-            Map<String, Object> item = new HashMap<>();
-            item.put("id", board.getBoardId());
-            item.put("boardId", board.getBoardId());
-            item.put("title", board.getBoardName());
-            item.put("userPermission", permission);
-            item.put("ownerUsername", ownerName);
-            item.put("ownerInitials", ownerInitials);
-            item.put("lastActivityAt", board.getLastModified());
-            item.put("lastActivity", board.getLastModified() != null ? board.getLastModified().toString() : "No updates yet");
-            item.put("hasRecentActivity", activity24h > 0);
-            item.put("recentActivityText", latestActivity != null ? latestActivity : "No recent activity");
-            item.put("collaboratorCount", collaborators);
-            item.put("icon", chooseIcon(board.getBoardName()));
-            boards.add(item);
-        }
-
-        for (BoardInvite invite : pendingInvites) {
-            Board board = whiteboardService.getWhiteboardById(invite.getBoardId());
-            User inviter = userService.findById(invite.getInviterId());
-            Map<String, Object> pending = new HashMap<>();
-            pending.put("inviteId", invite.getInviteId());
-            pending.put("boardId", invite.getBoardId());
-            pending.put("boardName", board != null ? board.getBoardName() : "Board");
-            pending.put("inviter", inviter != null ? inviter.getUsername() : "Unknown");
-            pending.put("role", invite.getRole());
-            pending.put("createdAt", invite.getCreatedAt());
-            pendingItems.add(pending);
-        }
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalSharedBoards", boards.size());
-        stats.put("activeCollaborations", activeRecently);
-        stats.put("pendingInvites", pendingItems.size());
-        stats.put("recentActivityTime", activeRecently > 0 ? "Live" : "No activity");
-
-        return Map.of("boards", boards, "stats", stats, "pendingInvites", pendingItems);
-    }
-
-    private String mapPermission(String role) {
-        if (role == null) return "view";
-        return switch (role.toLowerCase(Locale.ROOT)) {
-            case "editor" -> "edit";
-            case "viewer" -> "view";
-            default -> "view";
-        };
-    }
-
-    private String chooseIcon(String name) {
-        String n = name == null ? "" : name.toLowerCase(Locale.ROOT);
-        if (n.contains("roadmap")) return "🛣️";
-        if (n.contains("design") || n.contains("wire")) return "🎨";
-        if (n.contains("idea") || n.contains("brain")) return "💡";
-        if (n.contains("kanban") || n.contains("task")) return "📋";
-        return "📊";
-    }
-
     // Legacy route support
     @GetMapping("/shared.html")
     public String sharedLegacy() {
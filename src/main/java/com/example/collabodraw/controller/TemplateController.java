@@ -4,6 +4,7 @@ import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.model.dto.WhiteboardDto;
 import com.example.collabodraw.service.DashboardRealtimeService;
 import com.example.collabodraw.service.TemplateService;
+import com.example.collabodraw.service.TemplateSnapshotService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.springframework.security.core.Authentication;
@@ -24,14 +25,17 @@ public class TemplateController {
     private final TemplateService templateService;
     private final WhiteboardService whiteboardService;
     private final DashboardRealtimeService dashboardRealtimeService;
+    private final TemplateSnapshotService templateSnapshotService;
 
     public TemplateController(UserService userService, TemplateService templateService,
                               WhiteboardService whiteboardService,
-                              DashboardRealtimeService dashboardRealtimeService) {
+                              DashboardRealtimeService dashboardRealtimeService,
+                              TemplateSnapshotService templateSnapshotService) {
         this.userService = userService;
         this.templateService = templateService;
         this.whiteboardService = whiteboardService;
         this.dashboardRealtimeService = dashboardRealtimeService;
+        this.templateSnapshotService = templateSnapshotService;
     }
 
     /**
@@ -90,9 +94,12 @@ public class TemplateController {
 
         var board = whiteboardService.createWhiteboard(dto);
         whiteboardService.addUserToWhiteboard(board.getBoardId(), user.getUserId(), "owner");
+        // The board points at the template's stored snapshot; only if that isn't possible
+        // does the editor seed it client-side and save it back.
+        boolean seeded = templateSnapshotService.instantiate(board.getBoardId(), templateKey);
         dashboardRealtimeService.publishBoardEvent(board.getBoardId(), "BOARD_CREATED");
 
-        return "redirect:/mainscreen?board=" + board.getBoardId() + "&template=" + templateKey + "&seedTemplate=1";
+        return "redirect:/mainscreen?board=" + board.getBoardId() + "&template=" + templateKey + (seeded ? "" : "&seedTemplate=1");
     }
 
     /**
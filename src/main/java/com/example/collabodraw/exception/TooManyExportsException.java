@@ -0,0 +1,12 @@
+package com.example.collabodraw.exception;
+
+/**
+ * Thrown when a user already has as many board exports queued or running as allowed, or the
+ * export queue itself is full.
+ */
+public class TooManyExportsException extends RuntimeException {
+
+    public TooManyExportsException(String message) {
+        super(message);
+    }
+}
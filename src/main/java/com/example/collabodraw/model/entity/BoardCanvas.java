@@ -0,0 +1,36 @@
+package com.example.collabodraw.model.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata for a board's stored canvas raster.
+ * Maps to 'board_canvas' table; the PNG bytes themselves are never loaded into this object,
+ * they are streamed straight between the request/response and the blob column.
+ */
+public class BoardCanvas {
+    private Long boardId;
+    private Long byteSize;
+    private String contentHash;
+    private Long updatedBy;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public BoardCanvas() {}
+
+    // Getters and Setters
+    public Long getBoardId() { return boardId; }
+    public void setBoardId(Long boardId) { this.boardId = boardId; }
+
+    public Long getByteSize() { return byteSize; }
+    public void setByteSize(Long byteSize) { this.byteSize = byteSize; }
+
+    /** Hex SHA-256 of the stored PNG; doubles as the strong ETag for the raster. */
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Long getUpdatedBy() { return updatedBy; }
+    public void setUpdatedBy(Long updatedBy) { this.updatedBy = updatedBy; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
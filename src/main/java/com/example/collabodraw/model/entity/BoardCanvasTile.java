@@ -0,0 +1,48 @@
+package com.example.collabodraw.model.entity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Metadata for one fixed-size tile of a board's canvas raster.
+ * Maps to 'board_canvas_tiles' table; tile (x, y) covers pixels
+ * [x * size, (x + 1) * size) horizontally and likewise vertically.
+ */
+public class BoardCanvasTile {
+    private Long boardId;
+    private Integer tileX;
+    private Integer tileY;
+    private Long version;
+    private Long byteSize;
+    private String contentHash;
+    private Long updatedBy;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public BoardCanvasTile() {}
+
+    // Getters and Setters
+    public Long getBoardId() { return boardId; }
+    public void setBoardId(Long boardId) { this.boardId = boardId; }
+
+    public Integer getTileX() { return tileX; }
+    public void setTileX(Integer tileX) { this.tileX = tileX; }
+
+    public Integer getTileY() { return tileY; }
+    public void setTileY(Integer tileY) { this.tileY = tileY; }
+
+    /** Starts at 1 and increases on every write of this tile. */
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
+
+    public Long getByteSize() { return byteSize; }
+    public void setByteSize(Long byteSize) { this.byteSize = byteSize; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public Long getUpdatedBy() { return updatedBy; }
+    public void setUpdatedBy(Long updatedBy) { this.updatedBy = updatedBy; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,151 @@
+package com.example.collabodraw.realtime;
+
+import com.example.collabodraw.repository.ActivityLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent-activity counts for the dashboards, per board and per acting user, over the last
+ * {@value #WINDOW_HOURS} hours. Each key has {@value #WINDOW_HOURS} hourly buckets, so a read
+ * is a sum over a fixed-size array instead of a COUNT(*) over activity_log; the window moves
+ * in whole hours (the current hour counts in full).
+ *
+ * Filled from activity_log on startup, then fed in process: one per element event that
+ * reaches the live broadcast, one per saved board change (the writes activity_log's triggers
+ * record). The two sources don't count alike - a save logs a row per changed element -
+ * so the numbers are a measure of how busy a board is, not a row count.
+ *
+ * Like {@link InMemoryEventStore}, this lives in one JVM: with several instances each counts
+ * the live events it serves, plus whatever the table held when it started.
+ */
+@Service
+public class ActivityCounters {
+
+    public static final int WINDOW_HOURS = 24;
+    private static final long HOUR_MILLIS = 3_600_000L;
+
+    private static final Logger log = LoggerFactory.getLogger(ActivityCounters.class);
+
+    private final ActivityLogRepository activityLogRepository;
+    private final LongSupplier clock;
+    private final Map<Long, Window> boards = new ConcurrentHashMap<>();
+    private final Map<Long, Window> users = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ActivityCounters(ActivityLogRepository activityLogRepository) {
+        this(activityLogRepository, System::currentTimeMillis);
+    }
+
+    ActivityCounters(ActivityLogRepository activityLogRepository, LongSupplier clock) {
+        this.activityLogRepository = activityLogRepository;
+        this.clock = clock;
+    }
+
+    /** One unit of activity by {@code userId} on {@code boardId}, now. */
+    public void record(Long boardId, Long userId) {
+        add(boardId, userId, currentHour(), 1);
+    }
+
+    /** Activity on the board over the window. */
+    public int boardCount(Long boardId) {
+        return count(boards, boardId, currentHour());
+    }
+
+    /** Activity on any of the boards over the window. */
+    public int boardsCount(Collection<Long> boardIds) {
+        long hour = currentHour();
+        int total = 0;
+        for (Long boardId : boardIds) total += count(boards, boardId, hour);
+        return total;
+    }
+
+    /** Activity by the user, on any board, over the window. */
+    public int userCount(Long userId) {
+        return count(users, userId, currentHour());
+    }
+
+    /** Replace every count with the window's rows from activity_log. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            int rows = load();
+            log.info("Loaded {} activity rows into {} board and {} user counters", rows, boards.size(), users.size());
+        } catch (Exception e) {
+            // Counts start from zero and fill up as activity happens; never fail startup over this.
+            log.warn("Could not load recent activity counters: {}", e.getMessage());
+        }
+    }
+
+    // Refills the counts from activity_log; returns the rows read. The cutoff is the start of
+    // the window's oldest hour, computed here so the query needs no date arithmetic.
+    int load() {
+        boards.clear();
+        users.clear();
+        int[] rows = {0};
+        Timestamp since = new Timestamp((currentHour() - WINDOW_HOURS + 1) * HOUR_MILLIS);
+        activityLogRepository.forEachSince(since, (boardId, actorId, atMillis) -> {
+            add(boardId, actorId, Math.floorDiv(atMillis, HOUR_MILLIS), 1);
+            rows[0]++;
+        });
+        return rows[0];
+    }
+
+    /** Drop keys with nothing left in the window, so idle boards and users don't pile up. */
+    @Scheduled(fixedDelayString = "PT1H")
+    public void evictIdle() {
+        long hour = currentHour();
+        boards.values().removeIf(window -> window.sum(hour) == 0);
+        users.values().removeIf(window -> window.sum(hour) == 0);
+    }
+
+    private void add(Long boardId, Long userId, long hour, int amount) {
+        if (hour <= currentHour() - WINDOW_HOURS) return;
+        if (boardId != null) boards.computeIfAbsent(boardId, k -> new Window()).add(hour, amount);
+        if (userId != null) users.computeIfAbsent(userId, k -> new Window()).add(hour, amount);
+    }
+
+    private static int count(Map<Long, Window> windows, Long key, long hour) {
+        if (key == null) return 0;
+        Window window = windows.get(key);
+        return window != null ? window.sum(hour) : 0;
+    }
+
+    private long currentHour() {
+        return Math.floorDiv(clock.getAsLong(), HOUR_MILLIS);
+    }
+
+    // A ring of hourly buckets; a slot is reset the first time a later hour lands in it.
+    private static final class Window {
+        private final long[] hours = new long[WINDOW_HOURS];
+        private final int[] counts = new int[WINDOW_HOURS];
+
+        synchronized void add(long hour, int amount) {
+            int slot = (int) Math.floorMod(hour, (long) WINDOW_HOURS);
+            if (hours[slot] != hour) {
+                if (hours[slot] > hour) return; // older than what the slot holds now
+                hours[slot] = hour;
+                counts[slot] = 0;
+            }
+            counts[slot] += amount;
+        }
+
+        synchronized int sum(long currentHour) {
+            int total = 0;
+            for (int slot = 0; slot < WINDOW_HOURS; slot++) {
+                if (hours[slot] > currentHour - WINDOW_HOURS && hours[slot] <= currentHour) total += counts[slot];
+            }
+            return total;
+        }
+    }
+}
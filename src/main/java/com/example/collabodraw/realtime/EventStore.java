@@ -19,4 +19,11 @@ public interface EventStore {
     void addEvent(Long boardId, Map<String, Object> event);
 
     List<Map<String, Object>> getEvents(Long boardId);
+
+    /**
+     * Number of events ever appended for the board (0 if none). Strictly increases with every
+     * {@link #addEvent}, even when old events are trimmed, so it identifies a replay state and
+     * is what conditional GETs on the replay endpoint are keyed on.
+     */
+    long headSequence(Long boardId);
 }
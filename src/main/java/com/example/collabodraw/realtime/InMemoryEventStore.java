@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Default {@link EventStore}: an in-memory map, alive only for this JVM's lifetime.
@@ -16,6 +17,7 @@ public class InMemoryEventStore implements EventStore {
 
     private static final int MAX_EVENTS_PER_BOARD = 5000; // safeguard
     private final Map<Long, List<Map<String, Object>>> boardEvents = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> headSequences = new ConcurrentHashMap<>();
 
     @Override
     public void addEvent(Long boardId, Map<String, Object> event) {
@@ -29,6 +31,8 @@ public class InMemoryEventStore implements EventStore {
         if (overflow > 0) {
             list.subList(0, overflow).clear();
         }
+        // Bumped after the append, so a reader that sees the new sequence also sees the event.
+        headSequences.computeIfAbsent(boardId, k -> new AtomicLong()).incrementAndGet();
     }
 
     @Override
@@ -36,4 +40,11 @@ public class InMemoryEventStore implements EventStore {
         if (boardId == null) return Collections.emptyList();
         return boardEvents.getOrDefault(boardId, Collections.emptyList());
     }
+
+    @Override
+    public long headSequence(Long boardId) {
+        if (boardId == null) return 0;
+        AtomicLong sequence = headSequences.get(boardId);
+        return sequence != null ? sequence.get() : 0;
+    }
 }
@@ -0,0 +1,221 @@
+package com.example.collabodraw.realtime;
+
+import com.example.collabodraw.service.ElementHtml;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * One board's elements as the server currently knows them: the last persisted snapshot with
+ * every live element event since applied on top. Elements are kept as their serialized
+ * markup (the same form the snapshot stores), so rendering is a concatenation.
+ *
+ * Not thread-safe; {@link LiveBoardModelService} synchronizes on the instance.
+ */
+final class LiveBoardModel {
+
+    /** Element event kinds that change element markup; everything else (strokes...) is raster. */
+    static final Set<String> KINDS = Set.of("sticky", "sticky-update", "text", "text-update", "move", "delete");
+
+    private final Long boardId;
+    private final long epoch;
+    // Document order; id is null for non-element nodes (whitespace, the raster preview img).
+    private final List<ElementHtml.Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> indexById = new HashMap<>();
+    private Map<String, Object> settings = new LinkedHashMap<>();
+
+    private Long baseVersion;
+    private LocalDateTime baseLastModified;
+    // Applied since the base was written; replayed when the base is replaced underneath us.
+    private final List<Op> pendingOps = new ArrayList<>();
+    private long revision;
+    private Long lastEditorId;
+    private long lastTouchedNanos = System.nanoTime();
+    private boolean flushing;
+    private boolean evicted;
+
+    LiveBoardModel(Long boardId, long epoch) {
+        this.boardId = boardId;
+        this.epoch = epoch;
+    }
+
+    private static final class Op {
+        final String kind;
+        final Map<String, Object> payload;
+
+        Op(String kind, Map<String, Object> payload) {
+            this.kind = kind;
+            this.payload = payload;
+        }
+    }
+
+    /** Replace the base with a persisted snapshot, then replay what hasn't been persisted yet. */
+    void rebase(String elements, Map<String, Object> settings, Long version, LocalDateTime lastModified,
+                int persistedOps) {
+        pendingOps.subList(0, Math.min(persistedOps, pendingOps.size())).clear();
+        nodes.clear();
+        indexById.clear();
+        for (ElementHtml.Node node : ElementHtml.parseTopLevel(elements)) {
+            append(node);
+        }
+        if (settings != null) this.settings = settings;
+        this.baseVersion = version;
+        this.baseLastModified = lastModified;
+        for (Op op : pendingOps) {
+            applyToNodes(op.kind, op.payload);
+        }
+        revision++;
+    }
+
+    /** The first persistedOps events are now in the stored snapshot, which is at version. */
+    void markPersisted(int persistedOps, Long version, LocalDateTime lastModified) {
+        pendingOps.subList(0, Math.min(persistedOps, pendingOps.size())).clear();
+        this.baseVersion = version;
+        this.baseLastModified = lastModified;
+    }
+
+    /** Apply one live element event; returns false if it didn't change anything. */
+    boolean apply(String kind, Map<String, Object> payload, Long userId) {
+        lastTouchedNanos = System.nanoTime();
+        if (!KINDS.contains(kind) || payload == null) return false;
+        if (!applyToNodes(kind, payload)) return false;
+        pendingOps.add(new Op(kind, new HashMap<>(payload)));
+        lastEditorId = userId;
+        revision++;
+        return true;
+    }
+
+    private boolean applyToNodes(String kind, Map<String, Object> payload) {
+        String id = string(payload.get("id"));
+        if (id == null || id.isBlank()) return false;
+        Integer index = indexById.get(id);
+        switch (kind) {
+            case "sticky" -> {
+                if (index != null) return false;
+                append(new ElementHtml.Node(id, stickyHtml(id, payload)));
+            }
+            case "text" -> {
+                if (index != null) return false;
+                append(new ElementHtml.Node(id, textHtml(id, payload)));
+            }
+            case "move" -> {
+                if (index == null) return false;
+                Map<String, String> style = new LinkedHashMap<>();
+                style.put("left", px(payload.get("x")));
+                style.put("top", px(payload.get("y")));
+                String z = string(payload.get("zIndex"));
+                if (z != null && !z.isBlank()) style.put("z-index", z);
+                replace(index, ElementHtml.withStyle(nodes.get(index).getHtml(), style));
+            }
+            case "sticky-update" -> {
+                if (index == null) return false;
+                String html = nodes.get(index).getHtml();
+                String title = string(payload.get("title"));
+                String content = string(payload.get("content"));
+                if (title != null) html = ElementHtml.withInputValue(html, "sticky-title", title);
+                if (content != null) html = ElementHtml.withTextareaText(html, "sticky-content", content);
+                replace(index, html);
+            }
+            case "text-update" -> {
+                if (index == null) return false;
+                String value = string(payload.get("value"));
+                if (value == null) return false;
+                replace(index, ElementHtml.withInputValue(nodes.get(index).getHtml(), null, value));
+            }
+            case "delete" -> {
+                if (index == null) return false;
+                nodes.remove((int) index);
+                reindex();
+            }
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void append(ElementHtml.Node node) {
+        if (node.getId() != null) indexById.putIfAbsent(node.getId(), nodes.size());
+        nodes.add(node);
+    }
+
+    private void reindex() {
+        indexById.clear();
+        for (int i = 0; i < nodes.size(); i++) {
+            String id = nodes.get(i).getId();
+            if (id != null) indexById.putIfAbsent(id, i);
+        }
+    }
+
+    private void replace(int index, String html) {
+        nodes.set(index, new ElementHtml.Node(nodes.get(index).getId(), html));
+    }
+
+    String renderElements() {
+        StringBuilder out = new StringBuilder();
+        for (ElementHtml.Node node : nodes) out.append(node.getHtml());
+        return out.toString();
+    }
+
+    // Mirrors ElementManager.createStickyNote / createTextElement in elements.js, so a board
+    // loaded from the model looks the same as one whose creator saved it.
+    private static String stickyHtml(String id, Map<String, Object> p) {
+        return "<div class=\"canvas-element sticky-note\" style=\"" + position(p) + "\" data-id=\"" + ElementHtml.escape(id) + "\">"
+                + "<div class=\"sticky-header\"><input type=\"text\" class=\"sticky-title\" value=\""
+                + ElementHtml.escape(orDefault(string(p.get("title")), "New Note")) + "\" placeholder=\"Title\" readonly></div>"
+                + "<textarea class=\"sticky-content\" placeholder=\"Add your thoughts...\" readonly>"
+                + ElementHtml.escape(orDefault(string(p.get("content")), "")) + "</textarea>"
+                + "<div class=\"sticky-footer\"><div class=\"sticky-dots\"><div class=\"dot\"></div></div></div>"
+                + "<div class=\"resize-handle nw\"></div><div class=\"resize-handle ne\"></div>"
+                + "<div class=\"resize-handle sw\"></div><div class=\"resize-handle se\"></div></div>";
+    }
+
+    private static String textHtml(String id, Map<String, Object> p) {
+        return "<div class=\"canvas-element text-element\" style=\"" + position(p) + "\" data-id=\"" + ElementHtml.escape(id) + "\">"
+                + "<input type=\"text\" class=\"canvas-text-input\" value=\""
+                + ElementHtml.escape(orDefault(string(p.get("value")), "Text")) + "\"></div>";
+    }
+
+    private static String position(Map<String, Object> p) {
+        String css = "left: " + px(p.get("x")) + "; top: " + px(p.get("y")) + ";";
+        String z = string(p.get("zIndex"));
+        return z != null && !z.isBlank() ? css + " z-index: " + ElementHtml.escape(z) + ";" : css;
+    }
+
+    private static String px(Object value) {
+        if (value instanceof Number n) return n.intValue() + "px";
+        try {
+            return (int) Double.parseDouble(String.valueOf(value)) + "px";
+        } catch (NumberFormatException e) {
+            return "0px";
+        }
+    }
+
+    private static String string(Object value) {
+        return value != null ? String.valueOf(value) : null;
+    }
+
+    private static String orDefault(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    Long getBoardId() { return boardId; }
+    long getEpoch() { return epoch; }
+    Map<String, Object> getSettings() { return settings; }
+    Long getBaseVersion() { return baseVersion; }
+    LocalDateTime getBaseLastModified() { return baseLastModified; }
+    int pendingOpCount() { return pendingOps.size(); }
+    boolean isDirty() { return !pendingOps.isEmpty(); }
+    long getRevision() { return revision; }
+    Long getLastEditorId() { return lastEditorId; }
+    long getLastTouchedNanos() { return lastTouchedNanos; }
+    boolean isFlushing() { return flushing; }
+    void setFlushing(boolean flushing) { this.flushing = flushing; }
+    boolean isEvicted() { return evicted; }
+    void evict() { this.evicted = true; }
+}
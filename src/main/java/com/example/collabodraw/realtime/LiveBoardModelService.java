@@ -0,0 +1,232 @@
+package com.example.collabodraw.realtime;
+
+import com.example.collabodraw.cache.SnapshotCache;
+import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.service.BoardSaveQueue;
+import com.example.collabodraw.service.WhiteboardService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Server-side copy of each hot board's elements, kept current from the live element events
+ * (sticky/text create, edit, move, delete) instead of from clients uploading the whole board.
+ * While a board is hot, its content GET is answered from here, and a scheduled writer
+ * persists the accumulated events through {@link BoardSaveQueue} every
+ * {@code app.board-model.flush-interval}; the model is dropped once it has been idle and
+ * fully persisted for {@code app.board-model.idle}.
+ *
+ * Only element markup is modelled. The canvas raster, and edits that have no live event
+ * (paste, duplicate, grouping), still reach the server through client saves; when the stored
+ * snapshot moves on underneath a model, the model takes it as its new base and replays the
+ * events it hasn't persisted yet on top.
+ *
+ * Models live in this JVM's heap, like {@link InMemoryEventStore}; with several instances
+ * each one models the boards whose sockets it serves. Off unless app.board-model.enabled.
+ */
+@Service
+public class LiveBoardModelService {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveBoardModelService.class);
+    // BoardSaveQueue coalesces waiting saves per key; the model's writes must not replace a
+    // waiting client save by the same user, or vice versa.
+    private static final String SAVE_KEY = "live-board-model";
+
+    private final WhiteboardService whiteboardService;
+    private final BoardSaveQueue boardSaveQueue;
+    private final boolean enabled;
+    private final long idleNanos;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Long, LiveBoardModel> models = new ConcurrentHashMap<>();
+    // Distinguishes successive models of one board (and restarts) in content ETags.
+    private final AtomicLong epochs = new AtomicLong(System.currentTimeMillis());
+
+    public LiveBoardModelService(WhiteboardService whiteboardService,
+                                 BoardSaveQueue boardSaveQueue,
+                                 @Value("${app.board-model.enabled:false}") boolean enabled,
+                                 @Value("${app.board-model.idle:PT5M}") Duration idle) {
+        this.whiteboardService = whiteboardService;
+        this.boardSaveQueue = boardSaveQueue;
+        this.enabled = enabled;
+        this.idleNanos = idle.toNanos();
+    }
+
+    /** A hot board's current elements and settings, as the content endpoint serves them. */
+    public static final class View {
+        private final String elements;
+        private final Map<String, Object> settings;
+        private final String revision;
+
+        View(String elements, Map<String, Object> settings, String revision) {
+            this.elements = elements;
+            this.settings = settings;
+            this.revision = revision;
+        }
+
+        public String getElements() { return elements; }
+        public Map<String, Object> getSettings() { return settings; }
+        /** Changes whenever the elements do; suitable for an ETag. */
+        public String getRevision() { return revision; }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Apply a live element event from an already-authorized writer, loading the board's model
+     * on first use. Kinds that don't touch element markup (strokes, erase, timer) are ignored.
+     */
+    public void apply(Long boardId, Long userId, String kind, Map<String, Object> payload) {
+        if (!enabled || boardId == null || kind == null || !LiveBoardModel.KINDS.contains(kind)) return;
+        while (true) {
+            LiveBoardModel model = models.get(boardId);
+            if (model == null) {
+                model = load(boardId);
+                if (model == null) return;
+                LiveBoardModel raced = models.putIfAbsent(boardId, model);
+                if (raced != null) model = raced;
+            }
+            synchronized (model) {
+                if (model.isEvicted()) continue; // dropped while we weren't holding it; load again
+                model.apply(kind, payload, userId);
+                return;
+            }
+        }
+    }
+
+    /**
+     * The board's live elements, or null if it isn't hot (then the stored snapshot is current).
+     * If the stored snapshot was replaced by someone else since the model last synced with
+     * it, the model is rebased on it first.
+     */
+    public View view(Board board) {
+        if (!enabled || board == null) return null;
+        LiveBoardModel model = models.get(board.getBoardId());
+        if (model == null) return null;
+        synchronized (model) {
+            if (model.isEvicted()) return null;
+            // While a flush is in flight the stored version is ours and about to be recorded.
+            if (!model.isFlushing()
+                    && !Objects.equals(whiteboardService.getBoardSnapshotVersion(board), model.getBaseVersion())) {
+                rebaseOnStored(model, board);
+            }
+            return new View(model.renderElements(), new LinkedHashMap<>(model.getSettings()),
+                    model.getEpoch() + "-" + model.getRevision());
+        }
+    }
+
+    private LiveBoardModel load(Long boardId) {
+        Board board = whiteboardService.getWhiteboardById(boardId);
+        if (board == null) return null;
+        LiveBoardModel model = new LiveBoardModel(boardId, epochs.incrementAndGet());
+        rebaseOnStored(model, board);
+        return model;
+    }
+
+    // Caller holds the model's lock (or has not published it yet).
+    private void rebaseOnStored(LiveBoardModel model, Board board) {
+        SnapshotCache.Snapshot stored = whiteboardService.getCurrentSnapshot(board);
+        Map<String, Object> snapshot = readSnapshot(stored != null ? stored.getData() : null);
+        Object elements = snapshot.get("elements");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> settings = snapshot.get("settings") instanceof Map<?, ?> m
+                ? new LinkedHashMap<>((Map<String, Object>) m) : new LinkedHashMap<>();
+        model.rebase(elements instanceof String s ? s : "", settings,
+                stored != null ? stored.getVersion() : null, board.getLastModified(), 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readSnapshot(String json) {
+        if (json == null || json.isBlank()) return Map.of();
+        try {
+            return objectMapper.readValue(json, Map.class);
+        } catch (Exception ex) {
+            log.warn("Stored snapshot is not a snapshot document; modelling the board as empty", ex);
+            return Map.of();
+        }
+    }
+
+    /**
+     * Persist every model with unsaved events, and drop models that have been idle and clean
+     * for longer than app.board-model.idle.
+     */
+    @Scheduled(fixedDelayString = "${app.board-model.flush-interval:PT2S}")
+    public void flush() {
+        if (!enabled) return;
+        long now = System.nanoTime();
+        for (LiveBoardModel model : models.values()) {
+            String dataJson;
+            int ops;
+            Long authorId;
+            LocalDateTime expectedLastModified;
+            Long baseVersion;
+            synchronized (model) {
+                if (model.isEvicted() || model.isFlushing()) continue;
+                if (!model.isDirty()) {
+                    if (now - model.getLastTouchedNanos() > idleNanos) {
+                        model.evict();
+                        models.remove(model.getBoardId(), model);
+                    }
+                    continue;
+                }
+                Map<String, Object> snapshot = new LinkedHashMap<>();
+                snapshot.put("elements", model.renderElements());
+                snapshot.put("settings", model.getSettings());
+                try {
+                    dataJson = objectMapper.writeValueAsString(snapshot);
+                } catch (Exception ex) {
+                    log.error("Could not serialize live model of board {}", model.getBoardId(), ex);
+                    continue;
+                }
+                ops = model.pendingOpCount();
+                authorId = model.getLastEditorId();
+                expectedLastModified = model.getBaseLastModified();
+                baseVersion = model.getBaseVersion();
+                model.setFlushing(true);
+            }
+            boardSaveQueue.submit(model.getBoardId(), SAVE_KEY, authorId, dataJson, expectedLastModified, baseVersion)
+                    .whenComplete((result, error) -> settle(model, ops, result, error));
+        }
+    }
+
+    private void settle(LiveBoardModel model, int ops, BoardSaveQueue.SaveResult result, Throwable error) {
+        synchronized (model) {
+            model.setFlushing(false);
+            if (error != null) {
+                log.warn("Flushing live model of board {} failed; retrying on the next tick", model.getBoardId(), error);
+            } else if (result.isMerged()) {
+                // Someone's save landed in between and touched other elements: that's the new base.
+                model.rebase(result.getMergedElements(), null, result.getVersion(), result.getLastModified(), ops);
+            } else if (result.isSaved()) {
+                model.markPersisted(ops, result.getVersion(), result.getLastModified());
+            } else {
+                // Stored snapshot changed in a way we couldn't merge; events win over the stale
+                // base, so take the stored one and replay all of them on the next flush.
+                Board board = whiteboardService.getWhiteboardById(model.getBoardId());
+                if (board != null) {
+                    rebaseOnStored(model, board);
+                } else {
+                    model.evict(); // board deleted
+                    models.remove(model.getBoardId(), model);
+                }
+            }
+        }
+    }
+
+    /** Number of boards currently modelled in memory; exposed for diagnostics. */
+    public int hotBoards() {
+        return models.size();
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.collabodraw.repository;
 
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -11,26 +12,24 @@ public class ActivityLogRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
-    public int countRecentActivityForUserBoards(Long userId, int hours) {
-        String sql = "SELECT COUNT(*) FROM activity_log WHERE board_id IN ("
-                + "SELECT board_id FROM board_membership WHERE user_id = ?) "
-                + "AND at_time >= NOW() - INTERVAL ? HOUR";
-        Integer c = jdbcTemplate.queryForObject(sql, Integer.class, userId, hours);
-        return c != null ? c : 0;
+    /** Receives activity rows one at a time; {@code atMillis} is epoch millis. */
+    @FunctionalInterface
+    public interface ActivityRowHandler {
+        void row(Long boardId, Long actorId, long atMillis);
     }
 
-    public int countRecentActivityByUser(Long userId, int hours) {
-        String sql = "SELECT COUNT(*) FROM activity_log WHERE actor_id = ? "
-                + "AND at_time >= NOW() - INTERVAL ? HOUR";
-        Integer c = jdbcTemplate.queryForObject(sql, Integer.class, userId, hours);
-        return c != null ? c : 0;
-    }
-
-    public int countRecentActivityForBoard(Long boardId, int hours) {
-        String sql = "SELECT COUNT(*) FROM activity_log WHERE board_id = ? "
-                + "AND at_time >= NOW() - INTERVAL ? HOUR";
-        Integer c = jdbcTemplate.queryForObject(sql, Integer.class, boardId, hours);
-        return c != null ? c : 0;
+    /** Streams the last {@code hours} hours of activity rows, without collecting them. */
+    public void forEachSince(java.sql.Timestamp since, ActivityRowHandler handler) {
+        String sql = "SELECT board_id, actor_id, at_time FROM activity_log WHERE at_time >= ?";
+        jdbcTemplate.query(sql, (RowCallbackHandler) rs -> {
+            java.sql.Timestamp at = rs.getTimestamp("at_time");
+            if (at == null) return;
+            long boardId = rs.getLong("board_id");
+            Long board = rs.wasNull() ? null : boardId;
+            long actorId = rs.getLong("actor_id");
+            Long actor = rs.wasNull() ? null : actorId;
+            handler.row(board, actor, at.getTime());
+        }, since);
     }
 
     public String latestActivityTextForBoard(Long boardId) {
@@ -0,0 +1,134 @@
+package com.example.collabodraw.repository;
+
+import com.example.collabodraw.model.entity.BoardCanvas;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Binary storage for a board's canvas raster (one PNG per board).
+ * The image column is only ever touched through streams: writes bind an InputStream with a
+ * known length and reads copy the blob stream straight into the caller's OutputStream, so the
+ * application never materialises the whole image as a byte[] or base64 String.
+ */
+@Repository
+public class BoardCanvasRepository {
+    private final JdbcTemplate jdbc;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
+
+    public BoardCanvasRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    private void ensureTable() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS board_canvas (" +
+                        "board_id BIGINT PRIMARY KEY, " +
+                        "image LONGBLOB NOT NULL, " +
+                        "byte_size BIGINT NOT NULL, " +
+                        "content_hash CHAR(64) NOT NULL, " +
+                        "updated_by BIGINT NULL, " +
+                        "updated_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+        }
+    }
+
+    /**
+     * Insert or replace the board's raster. {@code image} is read exactly {@code byteSize} bytes.
+     */
+    public void upsert(Long boardId, Long userId, InputStream image, long byteSize, String contentHash) {
+        ensureTable();
+        jdbc.update("INSERT INTO board_canvas(board_id, image, byte_size, content_hash, updated_by, updated_at) " +
+                        "VALUES (?,?,?,?,?,CURRENT_TIMESTAMP) " +
+                        "ON DUPLICATE KEY UPDATE image=VALUES(image), byte_size=VALUES(byte_size), " +
+                        "content_hash=VALUES(content_hash), updated_by=VALUES(updated_by), updated_at=CURRENT_TIMESTAMP",
+                ps -> {
+                    ps.setLong(1, boardId);
+                    ps.setBinaryStream(2, image, byteSize);
+                    ps.setLong(3, byteSize);
+                    ps.setString(4, contentHash);
+                    if (userId != null) ps.setLong(5, userId); else ps.setNull(5, java.sql.Types.BIGINT);
+                });
+    }
+
+    /** Metadata only - never selects the blob column. */
+    public BoardCanvas findMetaByBoardId(Long boardId) {
+        ensureTable();
+        List<BoardCanvas> rows = jdbc.query(
+                "SELECT board_id, byte_size, content_hash, updated_by, updated_at FROM board_canvas WHERE board_id=?",
+                new BoardCanvasRowMapper(), boardId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Copy the stored raster into {@code out}. Returns false if the board has no raster.
+     * Note that MySQL Connector/J still buffers the row driver-side unless streaming result
+     * sets are enabled; this only guarantees the application layer holds no extra copy.
+     */
+    public boolean streamImage(Long boardId, OutputStream out) {
+        ensureTable();
+        Boolean found = jdbc.query("SELECT image FROM board_canvas WHERE board_id=?", rs -> {
+            if (!rs.next()) return false;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                if (in == null) return false;
+                in.transferTo(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return true;
+        }, boardId);
+        return Boolean.TRUE.equals(found);
+    }
+
+    /** Hands the stored raster's stream to {@code reader}; returns null if the board has none. */
+    public <T> T readImage(Long boardId, ImageStreamReader<T> reader) {
+        ensureTable();
+        return jdbc.query("SELECT image FROM board_canvas WHERE board_id=?", rs -> {
+            if (!rs.next()) return null;
+            try (InputStream in = rs.getBinaryStream(1)) {
+                return in == null ? null : reader.read(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, boardId);
+    }
+
+    public int deleteByBoardId(Long boardId) {
+        ensureTable();
+        return jdbc.update("DELETE FROM board_canvas WHERE board_id=?", boardId);
+    }
+
+    @FunctionalInterface
+    public interface ImageStreamReader<T> {
+        T read(InputStream image) throws IOException;
+    }
+
+    private static class BoardCanvasRowMapper implements RowMapper<BoardCanvas> {
+        @Override
+        public BoardCanvas mapRow(ResultSet rs, int rowNum) throws SQLException {
+            BoardCanvas canvas = new BoardCanvas();
+            canvas.setBoardId(rs.getLong("board_id"));
+            canvas.setByteSize(rs.getLong("byte_size"));
+            canvas.setContentHash(rs.getString("content_hash"));
+            long updatedBy = rs.getLong("updated_by");
+            canvas.setUpdatedBy(rs.wasNull() ? null : updatedBy);
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            if (updatedAt != null) canvas.setUpdatedAt(updatedAt.toLocalDateTime());
+            return canvas;
+        }
+    }
+}
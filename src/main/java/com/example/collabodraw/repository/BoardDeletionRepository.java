@@ -0,0 +1,78 @@
+package com.example.collabodraw.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Boards deleted by their owner but not purged yet (board_deletions). A marked board is
+ * hidden from every {@link BoardRepository} finder straight away; BoardPurger then removes
+ * its rows in small batches and finally the board row and the mark itself.
+ */
+@Repository
+public class BoardDeletionRepository {
+
+    /** Subquery condition hiding marked boards; append with the boards alias in front. */
+    static final String NOT_DELETED = ".board_id NOT IN (SELECT d.board_id FROM board_deletions d)";
+
+    private final JdbcTemplate jdbc;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
+
+    public BoardDeletionRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    void ensureTable() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS board_deletions (" +
+                        "board_id BIGINT PRIMARY KEY, " +
+                        "requested_by BIGINT NOT NULL, " +
+                        "requested_at DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                        "rows_purged BIGINT NOT NULL DEFAULT 0"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+        }
+    }
+
+    /** Hide the board; false if it was already marked. */
+    public boolean mark(Long boardId, Long userId) {
+        ensureTable();
+        return jdbc.update("INSERT INTO board_deletions (board_id, requested_by) "
+                + "SELECT ?, ? FROM (SELECT 1 AS one) x "
+                + "WHERE NOT EXISTS (SELECT 1 FROM board_deletions WHERE board_id = ?)", boardId, userId, boardId) > 0;
+    }
+
+    /** Marked boards, oldest request first. */
+    public List<Long> findPending(int limit) {
+        ensureTable();
+        return jdbc.queryForList("SELECT board_id FROM board_deletions ORDER BY requested_at, board_id LIMIT ?", Long.class, limit);
+    }
+
+    /** board_id, requested_by, requested_at and rows_purged of every board still being purged. */
+    public List<Map<String, Object>> findProgress() {
+        ensureTable();
+        return jdbc.queryForList("SELECT board_id, requested_by, requested_at, rows_purged FROM board_deletions ORDER BY requested_at, board_id");
+    }
+
+    public void addPurged(Long boardId, long rows) {
+        jdbc.update("UPDATE board_deletions SET rows_purged = rows_purged + ? WHERE board_id = ?", rows, boardId);
+    }
+
+    /**
+     * Delete at most {@code limit} of the board's rows from a child table; the caller repeats
+     * until it returns less than the limit. {@code table} is one of the purger's own constants.
+     */
+    public int deleteBatch(String table, Long boardId, int limit) {
+        return jdbc.update("DELETE FROM " + table + " WHERE board_id = ? LIMIT ?", boardId, limit);
+    }
+
+    public void unmark(Long boardId) {
+        jdbc.update("DELETE FROM board_deletions WHERE board_id = ?", boardId);
+    }
+}
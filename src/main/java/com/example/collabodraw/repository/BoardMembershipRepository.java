@@ -1,5 +1,6 @@
 package com.example.collabodraw.repository;
 
+import com.example.collabodraw.cache.BoardAccessCache;
 import com.example.collabodraw.model.entity.BoardMembership;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -15,24 +16,35 @@ import java.util.stream.Collectors;
 /**
  * Repository for BoardMembership entity operations using JDBC
  * Maps to 'board_membership' table in collaborative_workspace_db
+ * Every write that can change a role evicts it from {@link BoardAccessCache}, and every write
+ * refreshes the board's rows in {@link UserBoardSummaryRepository}.
  */
 @Repository
 public class BoardMembershipRepository {
     
     private final JdbcTemplate jdbcTemplate;
     private final BoardMembershipRowMapper membershipRowMapper = new BoardMembershipRowMapper();
+    private final BoardAccessCache boardAccessCache;
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
 
-    public BoardMembershipRepository(JdbcTemplate jdbcTemplate) {
+    public BoardMembershipRepository(JdbcTemplate jdbcTemplate, BoardAccessCache boardAccessCache,
+                                     UserBoardSummaryRepository userBoardSummaryRepository) {
         this.jdbcTemplate = jdbcTemplate;
+        this.boardAccessCache = boardAccessCache;
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
     }
 
     public int save(BoardMembership membership) {
         String sql = "INSERT INTO board_membership (board_id, user_id, role) VALUES (?, ?, ?) " +
                     "ON DUPLICATE KEY UPDATE role = VALUES(role)";
-        return jdbcTemplate.update(sql, 
+        int rows = jdbcTemplate.update(sql, 
             membership.getBoardId(), 
             membership.getUserId(), 
             membership.getRole());
+        boardAccessCache.evictRole(membership.getBoardId(), membership.getUserId());
+        // Collaborator counts of every member's row change too, not just this user's.
+        userBoardSummaryRepository.refreshBoard(membership.getBoardId());
+        return rows;
     }
 
     public BoardMembership findByBoardIdAndUserId(Long boardId, Long userId) {
@@ -63,11 +75,15 @@ public class BoardMembershipRepository {
     public void delete(Long boardId, Long userId) {
         String sql = "DELETE FROM board_membership WHERE board_id = ? AND user_id = ?";
         jdbcTemplate.update(sql, boardId, userId);
+        boardAccessCache.evictRole(boardId, userId);
+        userBoardSummaryRepository.refreshBoard(boardId);
     }
 
     public void deleteByBoardId(Long boardId) {
         String sql = "DELETE FROM board_membership WHERE board_id = ?";
         jdbcTemplate.update(sql, boardId);
+        boardAccessCache.evictRoles(boardId);
+        userBoardSummaryRepository.refreshBoard(boardId);
     }
 
     public boolean hasAccess(Long boardId, Long userId) {
@@ -105,6 +121,7 @@ public class BoardMembershipRepository {
         boolean next = !current;
         jdbcTemplate.update("UPDATE board_membership SET " + column + " = ? WHERE board_id = ? AND user_id = ?",
                 next, boardId, userId);
+        userBoardSummaryRepository.updateFlag(boardId, userId, column, next);
         return next;
     }
 
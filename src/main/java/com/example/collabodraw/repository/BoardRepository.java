@@ -12,22 +12,29 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.List;
 
 /**
  * Repository for Board entity operations using JDBC
- * Maps to 'boards' table in collaborative_workspace_db
+ * Maps to 'boards' table in collaborative_workspace_db.
+ * Finders skip boards marked for deletion ({@link BoardDeletionRepository}). Writes to a
+ * board's name or existence refresh its {@link UserBoardSummaryRepository} rows.
  */
 @Repository
 public class BoardRepository {
     
     private final JdbcTemplate jdbcTemplate;
+    private final BoardDeletionRepository boardDeletionRepository;
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
     private final BoardRowMapper boardRowMapper = new BoardRowMapper();
+    private static final String LIVE = " AND boards" + BoardDeletionRepository.NOT_DELETED;
 
-    public BoardRepository(JdbcTemplate jdbcTemplate) {
+    public BoardRepository(JdbcTemplate jdbcTemplate, BoardDeletionRepository boardDeletionRepository,
+                           UserBoardSummaryRepository userBoardSummaryRepository) {
         this.jdbcTemplate = jdbcTemplate;
+        this.boardDeletionRepository = boardDeletionRepository;
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
     }
 
     public Long save(Board board) {
@@ -35,7 +42,7 @@ public class BoardRepository {
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"board_id"});
             ps.setLong(1, board.getOwnerId());
             ps.setString(2, board.getBoardName());
             ps.setBoolean(3, board.getIsPublic() != null ? board.getIsPublic() : false);
@@ -43,11 +50,14 @@ public class BoardRepository {
         }, keyHolder);
         
         Number key = keyHolder.getKey();
-        return key != null ? key.longValue() : null;
+        if (key == null) return null;
+        userBoardSummaryRepository.refreshBoard(key.longValue());
+        return key.longValue();
     }
 
     public Board findById(Long boardId) {
-        String sql = "SELECT * FROM boards WHERE board_id = ?";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT * FROM boards WHERE board_id = ?" + LIVE;
         try {
             return jdbcTemplate.queryForObject(sql, boardRowMapper, boardId);
         } catch (EmptyResultDataAccessException e) {
@@ -56,35 +66,59 @@ public class BoardRepository {
     }
 
     public List<Board> findByOwnerId(Long ownerId) {
-        String sql = "SELECT * FROM boards WHERE owner_id = ? ORDER BY last_modified DESC";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT * FROM boards WHERE owner_id = ?" + LIVE + " ORDER BY last_modified DESC";
         return jdbcTemplate.query(sql, boardRowMapper, ownerId);
     }
 
     public List<Board> findAccessibleByUserId(Long userId) {
+        boardDeletionRepository.ensureTable();
         String sql = "SELECT DISTINCT b.* FROM boards b " +
                 "LEFT JOIN board_membership bm ON b.board_id = bm.board_id " +
-                "WHERE b.owner_id = ? OR bm.user_id = ? " +
+                "WHERE (b.owner_id = ? OR bm.user_id = ?) AND b" + BoardDeletionRepository.NOT_DELETED + " " +
                 "ORDER BY b.last_modified DESC";
         return jdbcTemplate.query(sql, boardRowMapper, userId, userId);
     }
 
     public List<Board> findAll() {
-        String sql = "SELECT * FROM boards ORDER BY last_modified DESC";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT * FROM boards WHERE boards" + BoardDeletionRepository.NOT_DELETED + " ORDER BY last_modified DESC";
         return jdbcTemplate.query(sql, boardRowMapper);
     }
 
     public List<Board> findPublicBoards() {
-        String sql = "SELECT * FROM boards WHERE is_public = true ORDER BY last_modified DESC";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT * FROM boards WHERE is_public = true" + LIVE + " ORDER BY last_modified DESC";
         return jdbcTemplate.query(sql, boardRowMapper);
     }
 
+    /** Up to {@code limit} boards with an id above {@code afterId}, by id; for walking every board. */
+    public List<Board> findPageAfter(Long afterId, int limit) {
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT * FROM boards WHERE board_id > ?" + LIVE + " ORDER BY board_id LIMIT ?";
+        return jdbcTemplate.query(sql, boardRowMapper, afterId, limit);
+    }
+
+    /**
+     * Up to {@code limit} boards modified after ({@code since}, {@code afterId}) in
+     * (last_modified, board_id) order, oldest first; pass the last row's pair to read on.
+     */
+    public List<Board> findModifiedAfter(LocalDateTime since, Long afterId, int limit) {
+        boardDeletionRepository.ensureTable();
+        java.sql.Timestamp at = java.sql.Timestamp.valueOf(since);
+        String sql = "SELECT * FROM boards WHERE (last_modified > ? OR (last_modified = ? AND board_id > ?))" + LIVE
+                + " ORDER BY last_modified, board_id LIMIT ?";
+        return jdbcTemplate.query(sql, boardRowMapper, at, at, afterId, limit);
+    }
+
     /**
      * Find the first board with an exact name match.
      * Note: board_name is not unique by schema, we intentionally take the oldest match (lowest id)
      * to provide stable mapping for a given logical name such as "Session <code>".
      */
     public Board findFirstByName(String name) {
-        String sql = "SELECT * FROM boards WHERE board_name = ? ORDER BY board_id ASC LIMIT 1";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT * FROM boards WHERE board_name = ?" + LIVE + " ORDER BY board_id ASC LIMIT 1";
         try {
             return jdbcTemplate.queryForObject(sql, boardRowMapper, name);
         } catch (EmptyResultDataAccessException ex) {
@@ -93,7 +127,8 @@ public class BoardRepository {
     }
 
     public int countByOwnerInDays(Long ownerId, int days) {
-        String sql = "SELECT COUNT(*) FROM boards WHERE owner_id = ? AND created_at >= NOW() - INTERVAL ? DAY";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT COUNT(*) FROM boards WHERE owner_id = ? AND created_at >= NOW() - INTERVAL ? DAY" + LIVE;
         Integer c = jdbcTemplate.queryForObject(sql, Integer.class, ownerId, days);
         return c != null ? c : 0;
     }
@@ -110,13 +145,14 @@ public class BoardRepository {
      * meaning we can't verify - callers should treat that as "proceed without a guard").
      * MySQL DATETIME here has second-level precision, so two saves within the same second
      * can still both "win" - this is a best-effort conflict signal, not a strict lock.
+     * A board marked for deletion is never claimed, so saves still queued for it are dropped.
      */
     public boolean claimWriteIfUnmodified(Long boardId, LocalDateTime expectedLastModified) {
+        boardDeletionRepository.ensureTable();
         if (expectedLastModified == null) {
-            updateLastModified(boardId);
-            return true;
+            return jdbcTemplate.update("UPDATE boards SET last_modified = CURRENT_TIMESTAMP WHERE board_id = ?" + LIVE, boardId) > 0;
         }
-        String sql = "UPDATE boards SET last_modified = CURRENT_TIMESTAMP WHERE board_id = ? AND last_modified = ?";
+        String sql = "UPDATE boards SET last_modified = CURRENT_TIMESTAMP WHERE board_id = ? AND last_modified = ?" + LIVE;
         int rows = jdbcTemplate.update(sql, boardId, java.sql.Timestamp.valueOf(expectedLastModified));
         return rows > 0;
     }
@@ -124,15 +160,19 @@ public class BoardRepository {
     public void updateName(Long boardId, String name) {
         String sql = "UPDATE boards SET board_name = ?, last_modified = CURRENT_TIMESTAMP WHERE board_id = ?";
         jdbcTemplate.update(sql, name, boardId);
+        userBoardSummaryRepository.refreshBoard(boardId);
     }
 
+    /** Removes the row itself; owners go through WhiteboardService.deleteBoard, which only marks it. */
     public void delete(Long boardId) {
         String sql = "DELETE FROM boards WHERE board_id = ?";
         jdbcTemplate.update(sql, boardId);
+        userBoardSummaryRepository.removeBoard(boardId);
     }
 
     public boolean existsById(Long boardId) {
-        String sql = "SELECT COUNT(*) FROM boards WHERE board_id = ?";
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT COUNT(*) FROM boards WHERE board_id = ?" + LIVE;
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, boardId);
         return count != null && count > 0;
     }
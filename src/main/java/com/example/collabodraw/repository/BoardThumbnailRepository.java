@@ -0,0 +1,66 @@
+package com.example.collabodraw.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One small PNG preview per board, tagged with the snapshot version it was rendered from.
+ * A thumbnail is only ever replaced, never edited, so (board, version) names its content for
+ * good and can be cached by clients indefinitely.
+ */
+@Repository
+public class BoardThumbnailRepository {
+
+    private final JdbcTemplate jdbc;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
+
+    public BoardThumbnailRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    private void ensureTable() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS board_thumbnails (" +
+                        "board_id BIGINT PRIMARY KEY, " +
+                        "version BIGINT NOT NULL, " +
+                        "image MEDIUMBLOB NOT NULL, " +
+                        "byte_size INT NOT NULL, " +
+                        "rendered_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+        }
+    }
+
+    public void upsert(Long boardId, Long version, byte[] png) {
+        ensureTable();
+        jdbc.update("INSERT INTO board_thumbnails (board_id, version, image, byte_size, rendered_at) " +
+                        "VALUES (?,?,?,?,CURRENT_TIMESTAMP) " +
+                        "ON DUPLICATE KEY UPDATE version=VALUES(version), image=VALUES(image), " +
+                        "byte_size=VALUES(byte_size), rendered_at=CURRENT_TIMESTAMP",
+                boardId, version, png, png.length);
+    }
+
+    /** Version of the board's stored thumbnail, or null if it has none. */
+    public Long findVersion(Long boardId) {
+        ensureTable();
+        return jdbc.query("SELECT version FROM board_thumbnails WHERE board_id=?",
+                rs -> rs.next() ? rs.getLong(1) : null, boardId);
+    }
+
+    /** The stored PNG if it is still the one rendered from {@code version}, else null. */
+    public byte[] findImage(Long boardId, Long version) {
+        ensureTable();
+        return jdbc.query("SELECT image FROM board_thumbnails WHERE board_id=? AND version=?",
+                rs -> rs.next() ? rs.getBytes(1) : null, boardId, version);
+    }
+
+    public int deleteByBoardId(Long boardId) {
+        ensureTable();
+        return jdbc.update("DELETE FROM board_thumbnails WHERE board_id=?", boardId);
+    }
+}
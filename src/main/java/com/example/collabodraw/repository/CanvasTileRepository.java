@@ -0,0 +1,173 @@
+package com.example.collabodraw.repository;
+
+import com.example.collabodraw.model.entity.BoardCanvasTile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Per-tile storage for a board's canvas raster. Each row is one small PNG plus a version that
+ * is bumped on every write, so a stroke only rewrites the tiles it touched.
+ */
+@Repository
+public class CanvasTileRepository {
+    private final JdbcTemplate jdbc;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
+
+    public CanvasTileRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    private void ensureTable() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS board_canvas_tiles (" +
+                        "board_id BIGINT NOT NULL, " +
+                        "tile_x INT NOT NULL, " +
+                        "tile_y INT NOT NULL, " +
+                        "version BIGINT NOT NULL, " +
+                        "image MEDIUMBLOB NOT NULL, " +
+                        "byte_size INT NOT NULL, " +
+                        "content_hash CHAR(64) NOT NULL, " +
+                        "updated_by BIGINT NULL, " +
+                        "updated_at DATETIME DEFAULT CURRENT_TIMESTAMP, " +
+                        "PRIMARY KEY (board_id, tile_y, tile_x)"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+            try {
+                // Tables created as BLOB (64 KiB in MySQL) can't hold tiles up to MAX_TILE_BYTES.
+                List<String> type = jdbc.queryForList("SELECT DATA_TYPE FROM INFORMATION_SCHEMA.COLUMNS "
+                        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'board_canvas_tiles' AND COLUMN_NAME = 'image'",
+                        String.class);
+                if (!type.isEmpty() && "blob".equalsIgnoreCase(type.get(0))) {
+                    jdbc.execute("ALTER TABLE board_canvas_tiles MODIFY image MEDIUMBLOB NOT NULL");
+                }
+            } catch (Exception ignored) {
+                // No ALTER permission; tiles over 64 KiB then fail to store.
+            }
+        }
+    }
+
+    private static final String META_COLUMNS =
+            "board_id, tile_x, tile_y, version, byte_size, content_hash, updated_by, updated_at";
+
+    /** Metadata for every tile of the board in row-major order; never selects the blobs. */
+    public List<BoardCanvasTile> findByBoardId(Long boardId) {
+        ensureTable();
+        return jdbc.query("SELECT " + META_COLUMNS + " FROM board_canvas_tiles WHERE board_id=? " +
+                "ORDER BY tile_y, tile_x", new TileRowMapper(), boardId);
+    }
+
+    public BoardCanvasTile findTile(Long boardId, int tileX, int tileY) {
+        ensureTable();
+        List<BoardCanvasTile> rows = jdbc.query("SELECT " + META_COLUMNS + " FROM board_canvas_tiles " +
+                "WHERE board_id=? AND tile_x=? AND tile_y=?", new TileRowMapper(), boardId, tileX, tileY);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /** Last-writer-wins write; creates the tile at version 1 or bumps its version. */
+    public void upsertTile(Long boardId, int tileX, int tileY, Long userId, byte[] image, String contentHash) {
+        ensureTable();
+        jdbc.update("INSERT INTO board_canvas_tiles(board_id, tile_x, tile_y, version, image, byte_size, " +
+                        "content_hash, updated_by, updated_at) VALUES (?,?,?,1,?,?,?,?,CURRENT_TIMESTAMP) " +
+                        "ON DUPLICATE KEY UPDATE version=version+1, image=VALUES(image), byte_size=VALUES(byte_size), " +
+                        "content_hash=VALUES(content_hash), updated_by=VALUES(updated_by), updated_at=CURRENT_TIMESTAMP",
+                boardId, tileX, tileY, image, image.length, contentHash, userId);
+    }
+
+    /**
+     * Conditional write: only succeeds if the tile is currently at {@code expectedVersion}
+     * (0 meaning "must not exist yet"). Returns false when another writer got there first.
+     */
+    public boolean writeTileIfVersion(Long boardId, int tileX, int tileY, Long userId,
+                                      byte[] image, String contentHash, long expectedVersion) {
+        ensureTable();
+        if (expectedVersion == 0) {
+            try {
+                return jdbc.update("INSERT INTO board_canvas_tiles(board_id, tile_x, tile_y, version, image, " +
+                                "byte_size, content_hash, updated_by, updated_at) VALUES (?,?,?,1,?,?,?,?,CURRENT_TIMESTAMP)",
+                        boardId, tileX, tileY, image, image.length, contentHash, userId) > 0;
+            } catch (DuplicateKeyException ex) {
+                return false; // created by a concurrent writer
+            }
+        }
+        return jdbc.update("UPDATE board_canvas_tiles SET version=version+1, image=?, byte_size=?, content_hash=?, " +
+                        "updated_by=?, updated_at=CURRENT_TIMESTAMP " +
+                        "WHERE board_id=? AND tile_x=? AND tile_y=? AND version=?",
+                image, image.length, contentHash, userId, boardId, tileX, tileY, expectedVersion) > 0;
+    }
+
+    /** Copy one tile's PNG into {@code out}. Returns false if the tile does not exist. */
+    public boolean streamTile(Long boardId, int tileX, int tileY, OutputStream out) {
+        ensureTable();
+        Boolean found = jdbc.query("SELECT image FROM board_canvas_tiles WHERE board_id=? AND tile_x=? AND tile_y=?",
+                rs -> {
+                    if (!rs.next()) return false;
+                    copy(rs, out);
+                    return true;
+                }, boardId, tileX, tileY);
+        return Boolean.TRUE.equals(found);
+    }
+
+    /** Hands each tile's image stream to {@code consumer}, one row at a time. */
+    public void forEachTileImage(Long boardId, TileImageConsumer consumer) {
+        ensureTable();
+        jdbc.query("SELECT tile_x, tile_y, image FROM board_canvas_tiles WHERE board_id=? ORDER BY tile_y, tile_x",
+                rs -> {
+                    try (InputStream in = rs.getBinaryStream("image")) {
+                        consumer.accept(rs.getInt("tile_x"), rs.getInt("tile_y"), in);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }, boardId);
+    }
+
+    public int deleteByBoardId(Long boardId) {
+        ensureTable();
+        return jdbc.update("DELETE FROM board_canvas_tiles WHERE board_id=?", boardId);
+    }
+
+    private static void copy(ResultSet rs, OutputStream out) throws SQLException {
+        try (InputStream in = rs.getBinaryStream("image")) {
+            if (in != null) in.transferTo(out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface TileImageConsumer {
+        void accept(int tileX, int tileY, InputStream image) throws IOException;
+    }
+
+    private static class TileRowMapper implements RowMapper<BoardCanvasTile> {
+        @Override
+        public BoardCanvasTile mapRow(ResultSet rs, int rowNum) throws SQLException {
+            BoardCanvasTile tile = new BoardCanvasTile();
+            tile.setBoardId(rs.getLong("board_id"));
+            tile.setTileX(rs.getInt("tile_x"));
+            tile.setTileY(rs.getInt("tile_y"));
+            tile.setVersion(rs.getLong("version"));
+            tile.setByteSize(rs.getLong("byte_size"));
+            tile.setContentHash(rs.getString("content_hash"));
+            long updatedBy = rs.getLong("updated_by");
+            tile.setUpdatedBy(rs.wasNull() ? null : updatedBy);
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            if (updatedAt != null) tile.setUpdatedAt(updatedAt.toLocalDateTime());
+            return tile;
+        }
+    }
+}
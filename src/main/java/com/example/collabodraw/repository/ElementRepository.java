@@ -12,7 +12,6 @@ import org.springframework.dao.EmptyResultDataAccessException;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.util.List;
 
 /**
@@ -34,7 +33,7 @@ public class ElementRepository {
         KeyHolder keyHolder = new GeneratedKeyHolder();
         
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(sql, new String[]{"element_id"});
             ps.setLong(1, element.getBoardId());
             ps.setLong(2, element.getCreatorId());
             ps.setString(3, element.getType());
@@ -61,6 +60,24 @@ public class ElementRepository {
         return jdbcTemplate.query(sql, elementRowMapper, boardId);
     }
 
+    /**
+     * The drawing elements of a board, for diffing a save: only the columns the diff compares,
+     * and no snapshot rows, whose multi-megabyte data would otherwise be read just to be skipped.
+     */
+    public List<Element> findDrawingElements(Long boardId) {
+        String sql = "SELECT element_id, type, z_order, data FROM elements "
+                + "WHERE board_id = ? AND type NOT IN ('snapshot', 'snapshot-shared')";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Element element = new Element();
+            element.setElementId(rs.getLong("element_id"));
+            element.setBoardId(boardId);
+            element.setType(rs.getString("type"));
+            element.setZOrder(rs.getInt("z_order"));
+            element.setData(rs.getString("data"));
+            return element;
+        }, boardId);
+    }
+
     public List<Element> findByCreatorId(Long creatorId) {
         String sql = "SELECT * FROM elements WHERE creator_id = ? ORDER BY created_at DESC";
         return jdbcTemplate.query(sql, elementRowMapper, creatorId);
@@ -87,7 +104,7 @@ public class ElementRepository {
 
     /**
      * Insert many elements in a single batched round trip instead of one INSERT per row.
-     * Used for board duplication, where a board can hold thousands of elements.
+     * Used by DrawingService.saveDrawing, where a board can hold thousands of elements.
      */
     public void saveAll(List<Element> elements) {
         if (elements == null || elements.isEmpty()) return;
@@ -101,6 +118,46 @@ public class ElementRepository {
         });
     }
 
+    /**
+     * Copy every element of one board onto another, owned by creatorId, as a single
+     * INSERT ... SELECT: the rows (and their data) never leave the database, so the copy is
+     * one round trip and constant heap whatever the board's size. Source order is kept.
+     * Snapshot rows are not copied; copies share them through SnapshotRefRepository.
+     * @return number of elements copied
+     */
+    public int copyBoardElements(Long sourceBoardId, Long targetBoardId, Long creatorId) {
+        String sql = "INSERT INTO elements (board_id, creator_id, type, z_order, data) "
+                + "SELECT ?, ?, type, z_order, data FROM elements "
+                + "WHERE board_id = ? AND type NOT IN ('snapshot', 'snapshot-shared') ORDER BY element_id";
+        return jdbcTemplate.update(sql, targetBoardId, creatorId, sourceBoardId);
+    }
+
+    /**
+     * Batched {@link #update} for many rows of one board. Rows that aren't on boardId are
+     * left alone, so a client-supplied element id can't reach into another board.
+     */
+    public void updateAll(Long boardId, List<Element> elements) {
+        if (elements == null || elements.isEmpty()) return;
+        String sql = "UPDATE elements SET type = ?, z_order = ?, data = ?, updated_at = CURRENT_TIMESTAMP WHERE element_id = ? AND board_id = ?";
+        jdbcTemplate.batchUpdate(sql, elements, elements.size(), (ps, element) -> {
+            ps.setString(1, element.getType());
+            ps.setInt(2, element.getZOrder() != null ? element.getZOrder() : 0);
+            ps.setString(3, element.getData());
+            ps.setLong(4, element.getElementId());
+            ps.setLong(5, boardId);
+        });
+    }
+
+    /** Delete the given rows of one board in a single batched round trip. */
+    public void deleteAllById(Long boardId, List<Long> elementIds) {
+        if (elementIds == null || elementIds.isEmpty()) return;
+        String sql = "DELETE FROM elements WHERE element_id = ? AND board_id = ?";
+        jdbcTemplate.batchUpdate(sql, elementIds, elementIds.size(), (ps, elementId) -> {
+            ps.setLong(1, elementId);
+            ps.setLong(2, boardId);
+        });
+    }
+
     public boolean existsById(Long elementId) {
         String sql = "SELECT COUNT(*) FROM elements WHERE element_id = ?";
         Integer count = jdbcTemplate.queryForObject(sql, Integer.class, elementId);
@@ -129,7 +186,37 @@ public class ElementRepository {
         }
     }
 
-    public void replaceSnapshot(Long boardId, Long userId, String dataJson) {
+    /**
+     * The board's current snapshot row (element id + data) in one read, or null.
+     */
+    public Element findLatestSnapshot(Long boardId) {
+        String sql = "SELECT element_id, data FROM elements WHERE board_id = ? AND type = 'snapshot' ORDER BY updated_at DESC, created_at DESC LIMIT 1";
+        List<Element> rows = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            Element element = new Element();
+            element.setElementId(rs.getLong("element_id"));
+            element.setBoardId(boardId);
+            element.setType("snapshot");
+            element.setData(rs.getString("data"));
+            return element;
+        }, boardId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Id of the board's current snapshot row without reading its data. replaceSnapshot
+     * always inserts a fresh row, so the id changes with every save.
+     */
+    public Long findLatestSnapshotId(Long boardId) {
+        String sql = "SELECT element_id FROM elements WHERE board_id = ? AND type = 'snapshot' ORDER BY updated_at DESC, created_at DESC LIMIT 1";
+        try {
+            return jdbcTemplate.queryForObject(sql, Long.class, boardId);
+        } catch (org.springframework.dao.EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    /** Replace the board's snapshot row; returns the new row's id (the snapshot version). */
+    public Long replaceSnapshot(Long boardId, Long userId, String dataJson) {
         // Remove old snapshots and insert a fresh one
         String del = "DELETE FROM elements WHERE board_id = ? AND type = 'snapshot'";
         jdbcTemplate.update(del, boardId);
@@ -137,12 +224,14 @@ public class ElementRepository {
         String ins = "INSERT INTO elements (board_id, creator_id, type, z_order, data) VALUES (?, ?, 'snapshot', 0, ?)";
         KeyHolder keyHolder = new GeneratedKeyHolder();
         jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(ins, Statement.RETURN_GENERATED_KEYS);
+            PreparedStatement ps = connection.prepareStatement(ins, new String[]{"element_id"});
             ps.setLong(1, boardId);
             ps.setLong(2, userId);
             ps.setString(3, dataJson);
             return ps;
         }, keyHolder);
+        Number key = keyHolder.getKey();
+        return key != null ? key.longValue() : null;
     }
 
     /**
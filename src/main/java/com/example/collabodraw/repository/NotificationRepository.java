@@ -3,17 +3,28 @@ package com.example.collabodraw.repository;
 import com.example.collabodraw.model.entity.Notification;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Notification rows, plus each user's unread count in notification_unread, kept in step by
+ * every write here (create, mark read) so the badge is a primary-key read. The count table is
+ * created on first use and filled from notifications if it starts out empty.
+ */
 @Repository
 public class NotificationRepository {
     private final JdbcTemplate jdbcTemplate;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
     private final RowMapper<Notification> mapper = new RowMapper<Notification>() {
         @Override
         public Notification mapRow(@NonNull ResultSet rs, int rowNum) throws SQLException {
@@ -37,6 +48,30 @@ public class NotificationRepository {
         this.jdbcTemplate = jdbcTemplate;
     }
 
+    void ensureTables() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS notification_unread (" +
+                        "user_id BIGINT PRIMARY KEY, " +
+                        "unread INT NOT NULL DEFAULT 0" +
+                        ")");
+                Integer rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notification_unread", Integer.class);
+                if (rows != null && rows == 0) {
+                    jdbcTemplate.update("INSERT INTO notification_unread (user_id, unread) "
+                            + "SELECT user_id, COUNT(*) FROM notifications WHERE is_read=false GROUP BY user_id");
+                }
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+            try {
+                // Retention scans read rows by age.
+                jdbcTemplate.execute("CREATE INDEX idx_notifications_read_created ON notifications(is_read, created_at)");
+            } catch (Exception ignored) {
+                // Already there (MySQL has no CREATE INDEX IF NOT EXISTS).
+            }
+        }
+    }
+
     public List<Notification> findRecentByUser(Long userId, int limit) {
         try {
             return jdbcTemplate.query(
@@ -49,18 +84,208 @@ public class NotificationRepository {
         }
     }
 
-    public void markRead(Long id, Long userId) {
+    /**
+     * Newest first, only those with an id above {@code sinceId} or, when {@code changedSince}
+     * is given, created or rewritten into a digest at or after it (what a reconnecting client
+     * missed).
+     */
+    public List<Notification> findByUserSince(Long userId, Long sinceId, LocalDateTime changedSince, int limit) {
         try {
-            jdbcTemplate.update("UPDATE notifications SET is_read=true WHERE notification_id=? AND user_id=?", id, userId);
-        } catch (org.springframework.dao.DataAccessException ignored) {}
+            if (changedSince == null) {
+                return jdbcTemplate.query(
+                    "SELECT * FROM notifications WHERE user_id=? AND notification_id>? ORDER BY notification_id DESC LIMIT ?",
+                    mapper,
+                    userId, sinceId, limit
+                );
+            }
+            // created_at is stored to the second, so compare from the start of that second.
+            return jdbcTemplate.query(
+                "SELECT * FROM notifications WHERE user_id=? AND (notification_id>? OR created_at>=?) "
+                    + "ORDER BY notification_id DESC LIMIT ?",
+                mapper,
+                userId, sinceId, java.sql.Timestamp.valueOf(changedSince.truncatedTo(java.time.temporal.ChronoUnit.SECONDS)), limit
+            );
+        } catch (org.springframework.dao.DataAccessException e) {
+            return java.util.Collections.emptyList();
+        }
     }
 
-    public void create(Long userId, String type, String title, String message, String linkUrl, Long boardId, LocalDateTime createdAt) {
+    public int countUnread(Long userId) {
+        ensureTables();
         try {
-            jdbcTemplate.update(
-                "INSERT INTO notifications (user_id, type, title, message, link_url, board_id, is_read, created_at) VALUES (?,?,?,?,?,?,false,?)",
-                userId, type, title, message, linkUrl, boardId, java.sql.Timestamp.valueOf(createdAt)
+            List<Integer> count = jdbcTemplate.queryForList(
+                "SELECT unread FROM notification_unread WHERE user_id=?", Integer.class, userId);
+            return count.isEmpty() || count.get(0) == null ? 0 : count.get(0);
+        } catch (org.springframework.dao.DataAccessException e) {
+            return 0;
+        }
+    }
+
+    /** Unread counts for several users in one statement; users with none are left out. */
+    public java.util.Map<Long, Integer> countUnread(java.util.Collection<Long> userIds) {
+        java.util.Map<Long, Integer> counts = new java.util.HashMap<>();
+        if (userIds.isEmpty()) return counts;
+        ensureTables();
+        String placeholders = String.join(",", java.util.Collections.nCopies(userIds.size(), "?"));
+        try {
+            jdbcTemplate.query(
+                "SELECT user_id, unread FROM notification_unread WHERE user_id IN (" + placeholders + ")",
+                (org.springframework.jdbc.core.RowCallbackHandler) rs -> counts.put(rs.getLong("user_id"), rs.getInt("unread")),
+                userIds.toArray()
             );
-        } catch (org.springframework.dao.DataAccessException ignored) {}
+        } catch (org.springframework.dao.DataAccessException ignored) {
+            // Treated as zero for this push; the stored counts are unaffected.
+        }
+        return counts;
+    }
+
+    /** True if the notification was unread and now isn't. */
+    public boolean markRead(Long id, Long userId) {
+        ensureTables();
+        try {
+            boolean flipped = jdbcTemplate.update("UPDATE notifications SET is_read=true WHERE notification_id=? AND user_id=? AND is_read=false", id, userId) > 0;
+            if (flipped) {
+                jdbcTemplate.update("UPDATE notification_unread SET unread = GREATEST(unread - 1, 0) WHERE user_id=?", userId);
+            }
+            return flipped;
+        } catch (org.springframework.dao.DataAccessException e) {
+            return false;
+        }
+    }
+
+    /** Mark every unread notification of the user read, in one statement; returns how many. */
+    public int markAllRead(Long userId) {
+        ensureTables();
+        try {
+            int marked = jdbcTemplate.update("UPDATE notifications SET is_read=true WHERE user_id=? AND is_read=false", userId);
+            jdbcTemplate.update("UPDATE notification_unread SET unread = 0 WHERE user_id=?", userId);
+            return marked;
+        } catch (org.springframework.dao.DataAccessException e) {
+            return 0;
+        }
+    }
+
+    /** Delete up to {@code limit} read notifications created before {@code cutoff}; returns how many. */
+    public int deleteReadBefore(LocalDateTime cutoff, int limit) {
+        ensureTables();
+        return jdbcTemplate.update("DELETE FROM notifications WHERE is_read=true AND created_at < ? LIMIT ?",
+                java.sql.Timestamp.valueOf(cutoff), limit);
+    }
+
+    private void addUnread(List<Long> userIds) {
+        jdbcTemplate.batchUpdate("INSERT INTO notification_unread (user_id, unread) VALUES (?, 1) "
+                        + "ON DUPLICATE KEY UPDATE unread = unread + 1",
+                userIds.stream().map(userId -> new Object[]{userId}).toList());
+    }
+
+    /**
+     * The same notification for every user in {@code userIds}, written as one JDBC batch.
+     * Returns the new ids in {@code userIds} order, or an empty list if nothing was stored.
+     */
+    public List<Long> createAll(List<Long> userIds, String type, String title, String message,
+                                String linkUrl, Long boardId, LocalDateTime createdAt) {
+        if (userIds.isEmpty()) return java.util.Collections.emptyList();
+        ensureTables();
+        String sql = "INSERT INTO notifications (user_id, type, title, message, link_url, board_id, is_read, created_at) VALUES (?,?,?,?,?,?,false,?)";
+        java.sql.Timestamp at = java.sql.Timestamp.valueOf(createdAt);
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.batchUpdate(connection -> connection.prepareStatement(sql, new String[]{"notification_id"}),
+                    new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(@NonNull PreparedStatement ps, int i) throws SQLException {
+                            ps.setLong(1, userIds.get(i));
+                            ps.setString(2, type);
+                            ps.setString(3, title);
+                            ps.setString(4, message);
+                            ps.setString(5, linkUrl);
+                            ps.setObject(6, boardId);
+                            ps.setTimestamp(7, at);
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return userIds.size();
+                        }
+                    }, keyHolder);
+            addUnread(userIds);
+        } catch (org.springframework.dao.DataAccessException e) {
+            return java.util.Collections.emptyList();
+        }
+        return keyHolder.getKeyList().stream().map(NotificationRepository::notificationId).toList();
+    }
+
+    /** One pending rewrite of a still-unread notification, see {@link #rewriteUnread}. */
+    public record Rewrite(Long notificationId, String title, String message) {}
+
+    /**
+     * Rewrite title and message of still-unread notifications in one JDBC batch, bumping them
+     * to {@code createdAt}. Returns, per rewrite, whether it applied (false once read).
+     */
+    public boolean[] rewriteUnread(List<Rewrite> rewrites, LocalDateTime createdAt) {
+        boolean[] applied = new boolean[rewrites.size()];
+        if (rewrites.isEmpty()) return applied;
+        java.sql.Timestamp at = java.sql.Timestamp.valueOf(createdAt);
+        try {
+            int[] counts = jdbcTemplate.batchUpdate(
+                "UPDATE notifications SET title=?, message=?, created_at=? WHERE notification_id=? AND is_read=false",
+                new org.springframework.jdbc.core.BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(@NonNull PreparedStatement ps, int i) throws SQLException {
+                        Rewrite rewrite = rewrites.get(i);
+                        ps.setString(1, rewrite.title());
+                        ps.setString(2, rewrite.message());
+                        ps.setTimestamp(3, at);
+                        ps.setLong(4, rewrite.notificationId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rewrites.size();
+                    }
+                });
+            for (int i = 0; i < counts.length; i++) {
+                // Some drivers report SUCCESS_NO_INFO (-2) for batched statements.
+                applied[i] = counts[i] > 0 || counts[i] == Statement.SUCCESS_NO_INFO;
+            }
+        } catch (org.springframework.dao.DataAccessException ignored) {
+            // Nothing rewritten; the caller falls back to new rows.
+        }
+        return applied;
+    }
+
+    /** The new notification's id, or null if it couldn't be stored. */
+    public Long create(Long userId, String type, String title, String message, String linkUrl, Long boardId, LocalDateTime createdAt) {
+        String sql = "INSERT INTO notifications (user_id, type, title, message, link_url, board_id, is_read, created_at) VALUES (?,?,?,?,?,?,false,?)";
+        ensureTables();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        try {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, new String[]{"notification_id"});
+                ps.setLong(1, userId);
+                ps.setString(2, type);
+                ps.setString(3, title);
+                ps.setString(4, message);
+                ps.setString(5, linkUrl);
+                ps.setObject(6, boardId);
+                ps.setTimestamp(7, java.sql.Timestamp.valueOf(createdAt));
+                return ps;
+            }, keyHolder);
+            addUnread(List.of(userId));
+        } catch (org.springframework.dao.DataAccessException e) {
+            return null;
+        }
+        return keyHolder.getKeyList().isEmpty() ? null : notificationId(keyHolder.getKeyList().get(0));
+    }
+
+    // The id out of one row's generated keys. MySQL reports it as GENERATED_KEY, H2 under the
+    // column name, and some drivers add defaulted columns alongside it.
+    private static Long notificationId(java.util.Map<String, Object> keys) {
+        for (java.util.Map.Entry<String, Object> key : keys.entrySet()) {
+            if ("notification_id".equalsIgnoreCase(key.getKey()) || "GENERATED_KEY".equalsIgnoreCase(key.getKey())) {
+                return ((Number) key.getValue()).longValue();
+            }
+        }
+        return keys.size() == 1 ? ((Number) keys.values().iterator().next()).longValue() : null;
     }
 }
@@ -0,0 +1,59 @@
+package com.example.collabodraw.repository;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Pending invites for the shared-boards page, with board and inviter names joined in: one
+ * statement however many invites the user has. The boards themselves come from
+ * {@link UserBoardSummaryRepository}.
+ */
+@Repository
+public class SharedBoardRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoardDeletionRepository boardDeletionRepository;
+
+    public SharedBoardRepository(JdbcTemplate jdbcTemplate, BoardDeletionRepository boardDeletionRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.boardDeletionRepository = boardDeletionRepository;
+    }
+
+    public record PendingInvite(Long inviteId, Long boardId, String boardName, String inviterUsername,
+                                String role, LocalDateTime createdAt) {}
+
+    /** The user's pending invites, newest first; empty if the invites table isn't there. */
+    public List<PendingInvite> findPendingInvitesFor(Long userId) {
+        boardDeletionRepository.ensureTable();
+        String sql = "SELECT i.invite_id, i.board_id, i.role, i.created_at, b.board_name, u.username AS inviter_username "
+                + "FROM board_invites i "
+                + "LEFT JOIN boards b ON b.board_id = i.board_id AND b" + BoardDeletionRepository.NOT_DELETED + " "
+                + "LEFT JOIN users u ON u.user_id = i.inviter_id "
+                + "WHERE i.invitee_id = ? AND i.status = 'pending' "
+                + "ORDER BY i.created_at DESC";
+        try {
+            return jdbcTemplate.query(sql, (rs, rowNum) -> new PendingInvite(
+                    rs.getLong("invite_id"),
+                    rs.getLong("board_id"),
+                    rs.getString("board_name"),
+                    rs.getString("inviter_username"),
+                    rs.getString("role"),
+                    toLocalDateTime(rs, "created_at")
+            ), userId);
+        } catch (DataAccessException ex) {
+            return java.util.Collections.emptyList();
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(ResultSet rs, String column) throws SQLException {
+        Timestamp ts = rs.getTimestamp(column);
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.collabodraw.repository;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Copy-on-write board snapshots. A board copy doesn't get its own snapshot row; it gets a
+ * reference (board_snapshot_refs) to the snapshot row it was copied from, and reads that
+ * row until its first save writes a snapshot of its own and drops the reference.
+ *
+ * Referenced rows must outlive the source's own use of them. When the source saves a new
+ * snapshot, its referenced old row is kept with type {@link #SHARED_TYPE} instead of being
+ * deleted; when the source is deleted, the row moves to one of the boards referencing it.
+ * A shared row is deleted once the last reference to it is released.
+ *
+ * A board made from a template works the same way, except that what it references is a
+ * row of template_snapshots (board_template_refs): each template's starting content,
+ * stored once per distinct body. Those rows are never deleted, so a board made from an
+ * older version of a template keeps that version's content.
+ *
+ * Every method runs inside the caller's transaction; the source board's row is locked
+ * first, the same row a snapshot save claims, so copies and saves of one board serialize.
+ */
+@Repository
+public class SnapshotRefRepository {
+
+    /** A template's stored starting content. */
+    public record TemplateSnapshot(Long snapshotId, String data) {}
+
+    /** Type of a snapshot row no longer current for its board but still referenced by copies. */
+    public static final String SHARED_TYPE = "snapshot-shared";
+
+    private final JdbcTemplate jdbc;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
+
+    public SnapshotRefRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    private void ensureTable() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS board_snapshot_refs (" +
+                        "board_id BIGINT PRIMARY KEY, " +
+                        "element_id BIGINT NOT NULL, " +
+                        "created_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+            try {
+                jdbc.execute("CREATE INDEX idx_snapshot_refs_element ON board_snapshot_refs(element_id)");
+            } catch (Exception ignored) {
+                // Already there (MySQL has no CREATE INDEX IF NOT EXISTS).
+            }
+            try {
+                jdbc.execute("CREATE TABLE IF NOT EXISTS template_snapshots (" +
+                        "snapshot_id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                        "template_key VARCHAR(64) NOT NULL, " +
+                        "content_hash CHAR(64) NOT NULL UNIQUE, " +
+                        "data TEXT NOT NULL, " +
+                        "created_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                        + ")");
+                jdbc.execute("CREATE TABLE IF NOT EXISTS board_template_refs (" +
+                        "board_id BIGINT PRIMARY KEY, " +
+                        "snapshot_id BIGINT NOT NULL, " +
+                        "created_at DATETIME DEFAULT CURRENT_TIMESTAMP"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+        }
+    }
+
+    private void lockBoard(Long boardId) {
+        jdbc.query("SELECT board_id FROM boards WHERE board_id = ? FOR UPDATE", rs -> { }, boardId);
+    }
+
+    /** Snapshot row a board without a snapshot of its own reads from, or null. */
+    public Long findSharedElementId(Long boardId) {
+        ensureTable();
+        try {
+            return jdbc.queryForObject("SELECT element_id FROM board_snapshot_refs WHERE board_id = ?", Long.class, boardId);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Store a template's starting content, unless an identical body is already stored.
+     * @return the template_snapshots row holding that body
+     */
+    public Long storeTemplateSnapshot(String templateKey, String data) {
+        ensureTable();
+        String hash = sha256(data);
+        Long existing = findTemplateSnapshotByHash(hash);
+        if (existing != null) return existing;
+        try {
+            jdbc.update("INSERT INTO template_snapshots (template_key, content_hash, data) VALUES (?, ?, ?)",
+                    templateKey, hash, data);
+        } catch (DuplicateKeyException e) {
+            // Another instance stored the same body first.
+        }
+        return findTemplateSnapshotByHash(hash);
+    }
+
+    private Long findTemplateSnapshotByHash(String hash) {
+        return jdbc.query("SELECT snapshot_id FROM template_snapshots WHERE content_hash = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, hash);
+    }
+
+    /** Start a new, never-saved board off a stored template snapshot. O(1): one row. */
+    public void pointAtTemplate(Long boardId, Long templateSnapshotId) {
+        ensureTable();
+        jdbc.update("INSERT INTO board_template_refs (board_id, snapshot_id) VALUES (?, ?)", boardId, templateSnapshotId);
+    }
+
+    /** The template snapshot a board without a snapshot of its own reads from, or null. */
+    public TemplateSnapshot findTemplateSnapshot(Long boardId) {
+        ensureTable();
+        return jdbc.query("SELECT t.snapshot_id, t.data FROM board_template_refs r "
+                        + "JOIN template_snapshots t ON t.snapshot_id = r.snapshot_id WHERE r.board_id = ?",
+                rs -> rs.next() ? new TemplateSnapshot(rs.getLong(1), rs.getString(2)) : null, boardId);
+    }
+
+    /** Id of the template snapshot the board reads from, or null; no body read. */
+    public Long findTemplateSnapshotId(Long boardId) {
+        ensureTable();
+        return jdbc.query("SELECT snapshot_id FROM board_template_refs WHERE board_id = ?",
+                rs -> rs.next() ? rs.getLong(1) : null, boardId);
+    }
+
+    /**
+     * Point targetBoardId at sourceBoardId's current snapshot (its own row, or the one it
+     * shares itself). O(1) whatever the snapshot's size.
+     * @return the shared snapshot row id, or null if the source has no snapshot
+     */
+    public Long shareCurrentSnapshot(Long sourceBoardId, Long targetBoardId) {
+        ensureTable();
+        lockBoard(sourceBoardId);
+        Long elementId = jdbc.query(
+                "SELECT element_id FROM elements WHERE board_id = ? AND type = 'snapshot' ORDER BY updated_at DESC, created_at DESC LIMIT 1",
+                rs -> rs.next() ? rs.getLong(1) : null, sourceBoardId);
+        if (elementId == null) elementId = findSharedElementId(sourceBoardId);
+        if (elementId == null) {
+            // Never saved, but maybe started from a template: the copy starts from it too.
+            jdbc.update("INSERT INTO board_template_refs (board_id, snapshot_id) "
+                    + "SELECT ?, snapshot_id FROM board_template_refs WHERE board_id = ?", targetBoardId, sourceBoardId);
+            return null;
+        }
+        jdbc.update("INSERT INTO board_snapshot_refs (board_id, element_id) VALUES (?, ?)", targetBoardId, elementId);
+        return elementId;
+    }
+
+    /**
+     * Before the board replaces its snapshot: keep its current rows that copies still read,
+     * retyped so they no longer count as the board's own snapshot.
+     */
+    public void retainReferenced(Long boardId) {
+        ensureTable();
+        jdbc.update("UPDATE elements SET type = '" + SHARED_TYPE + "' WHERE board_id = ? AND type = 'snapshot' "
+                + "AND element_id IN (SELECT element_id FROM board_snapshot_refs)", boardId);
+    }
+
+    /**
+     * After the board wrote a snapshot of its own: drop its reference, and the shared row too
+     * if nothing else reads it.
+     */
+    public void release(Long boardId) {
+        ensureTable();
+        jdbc.update("DELETE FROM board_template_refs WHERE board_id = ?", boardId);
+        Long elementId = findSharedElementId(boardId);
+        if (elementId == null) return;
+        jdbc.update("DELETE FROM board_snapshot_refs WHERE board_id = ?", boardId);
+        jdbc.update("DELETE FROM elements WHERE element_id = ? AND type = '" + SHARED_TYPE + "' "
+                + "AND NOT EXISTS (SELECT 1 FROM board_snapshot_refs WHERE element_id = ?)", elementId, elementId);
+    }
+
+    /**
+     * Before the board's elements are deleted: release its own reference and move every row
+     * of it that other boards still read onto one of those boards.
+     */
+    public void detachForDelete(Long boardId) {
+        ensureTable();
+        lockBoard(boardId);
+        release(boardId);
+        jdbc.update("UPDATE elements SET type = '" + SHARED_TYPE + "', board_id = "
+                + "(SELECT MIN(r.board_id) FROM board_snapshot_refs r WHERE r.element_id = elements.element_id) "
+                + "WHERE board_id = ? AND element_id IN (SELECT element_id FROM board_snapshot_refs)", boardId);
+    }
+
+    private static String sha256(String data) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(data.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
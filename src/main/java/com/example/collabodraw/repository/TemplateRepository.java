@@ -16,7 +16,9 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class TemplateRepository {
@@ -60,9 +62,16 @@ public class TemplateRepository {
         }
     }
 
-    public int incrementUsage(String key) {
-        String sql = "UPDATE templates SET usage_count = usage_count + 1 WHERE template_key = ?";
-        return jdbcTemplate.update(sql, key);
+    /**
+     * Add each key's count to its usage_count, as one JDBC batch. Returns the update counts in
+     * {@code deltas} iteration order: 0 where no row has that key; a negative count means the
+     * driver applied the statement without reporting rows.
+     */
+    public int[] addUsage(Map<String, Long> deltas) {
+        if (deltas.isEmpty()) return new int[0];
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> args.add(new Object[]{delta, key}));
+        return jdbcTemplate.batchUpdate("UPDATE templates SET usage_count = usage_count + ? WHERE template_key = ?", args);
     }
 
     public List<Template> findAll() {
@@ -0,0 +1,199 @@
+package com.example.collabodraw.repository;
+
+import com.example.collabodraw.model.entity.Board;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Denormalized read model behind the dashboards (user_board_summary): one row per user and
+ * board they can open (owned or member of), carrying everything the home, my-content and
+ * shared pages list - role, favorite/archived flags, owner name, collaborator count and latest
+ * activity text. Those pages read this one table by (user_id, last_modified) instead of joining boards, board_membership and
+ * activity_log per request.
+ *
+ * Rows are kept current by the writes that change them: board and membership writes
+ * re-derive the board's rows ({@link #refreshBoard}), saves of board content update the
+ * activity columns ({@link #touchBoard}). {@link #rebuildAll} re-derives every row, for
+ * backfill. Recent-activity counts are not stored here; they move with the clock and come
+ * from ActivityCounters.
+ */
+@Repository
+public class UserBoardSummaryRepository {
+
+    private static final String COLUMNS = "user_id, board_id, role, is_favorite, is_archived, joined_at, board_name, "
+            + "owner_id, owner_username, is_public, created_at, last_modified, collaborator_count, "
+            + "last_activity_text";
+
+    private static final String LATEST_ACTIVITY = "(SELECT CONCAT(actor.username, ' ', al.action) FROM activity_log al "
+            + "JOIN users actor ON al.actor_id = actor.user_id "
+            + "WHERE al.board_id = b.board_id ORDER BY al.at_time DESC LIMIT 1)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BoardDeletionRepository boardDeletionRepository;
+    private final AtomicBoolean ensured = new AtomicBoolean(false);
+    private final RowMapper<Summary> summaryRowMapper = (rs, rowNum) -> new Summary(
+            rs.getLong("user_id"),
+            rs.getLong("board_id"),
+            rs.getString("role"),
+            rs.getBoolean("is_favorite"),
+            rs.getBoolean("is_archived"),
+            toLocalDateTime(rs.getTimestamp("joined_at")),
+            rs.getString("board_name"),
+            rs.getLong("owner_id"),
+            rs.getString("owner_username"),
+            rs.getBoolean("is_public"),
+            toLocalDateTime(rs.getTimestamp("created_at")),
+            toLocalDateTime(rs.getTimestamp("last_modified")),
+            rs.getInt("collaborator_count"),
+            rs.getString("last_activity_text")
+    );
+
+    public UserBoardSummaryRepository(JdbcTemplate jdbcTemplate, BoardDeletionRepository boardDeletionRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.boardDeletionRepository = boardDeletionRepository;
+    }
+
+    public record Summary(Long userId, Long boardId, String role, boolean favorite, boolean archived,
+                          LocalDateTime joinedAt, String boardName, Long ownerId, String ownerUsername,
+                          boolean isPublic, LocalDateTime createdAt, LocalDateTime lastModified,
+                          int collaboratorCount, String lastActivityText) {
+
+        public Board toBoard() {
+            Board board = new Board(ownerId, boardName, isPublic);
+            board.setBoardId(boardId);
+            board.setCreatedAt(createdAt);
+            board.setLastModified(lastModified);
+            return board;
+        }
+    }
+
+    void ensureTable() {
+        if (ensured.compareAndSet(false, true)) {
+            try {
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS user_board_summary (" +
+                        "user_id BIGINT NOT NULL, " +
+                        "board_id BIGINT NOT NULL, " +
+                        "role VARCHAR(20), " +
+                        "is_favorite BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "is_archived BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "joined_at DATETIME, " +
+                        "board_name VARCHAR(255), " +
+                        "owner_id BIGINT, " +
+                        "owner_username VARCHAR(255), " +
+                        "is_public BOOLEAN NOT NULL DEFAULT FALSE, " +
+                        "created_at DATETIME, " +
+                        "last_modified DATETIME, " +
+                        "collaborator_count INT NOT NULL DEFAULT 0, " +
+                        "last_activity_text VARCHAR(512), " +
+                        "PRIMARY KEY (user_id, board_id)"
+                        + ")");
+            } catch (Exception ignored) {
+                // If user has no DDL permission or table exists externally, proceed without failing.
+            }
+            try {
+                jdbcTemplate.execute("CREATE INDEX idx_board_summary_user_modified ON user_board_summary(user_id, last_modified)");
+            } catch (Exception ignored) {
+                // Already there (MySQL has no CREATE INDEX IF NOT EXISTS).
+            }
+            try {
+                jdbcTemplate.execute("CREATE INDEX idx_board_summary_board ON user_board_summary(board_id)");
+            } catch (Exception ignored) {
+                // Already there.
+            }
+        }
+    }
+
+    // Every (user, board) pair with access: membership rows, plus owners without one.
+    // The owner's role is always 'owner', whatever their membership row says.
+    private static String derive(String boardFilter) {
+        return "INSERT INTO user_board_summary (" + COLUMNS + ") "
+                + "SELECT p.user_id, b.board_id, CASE WHEN p.user_id = b.owner_id THEN 'owner' ELSE p.role END, "
+                + "p.is_favorite, p.is_archived, p.joined_at, b.board_name, b.owner_id, o.username, b.is_public, "
+                + "b.created_at, b.last_modified, "
+                + "(SELECT COUNT(*) FROM board_membership c WHERE c.board_id = b.board_id), "
+                + LATEST_ACTIVITY + " "
+                + "FROM boards b "
+                + "JOIN (SELECT board_id, user_id, role, is_favorite, is_archived, joined_at FROM board_membership m "
+                + "WHERE 1 = 1" + boardFilter.replace("{t}", "m") + " "
+                + "UNION ALL "
+                + "SELECT board_id, owner_id, 'owner', FALSE, FALSE, created_at FROM boards ob "
+                + "WHERE NOT EXISTS (SELECT 1 FROM board_membership om WHERE om.board_id = ob.board_id AND om.user_id = ob.owner_id)"
+                + boardFilter.replace("{t}", "ob") + ") p ON p.board_id = b.board_id "
+                + "LEFT JOIN users o ON o.user_id = b.owner_id "
+                + "WHERE b" + BoardDeletionRepository.NOT_DELETED;
+    }
+
+    /** Re-derive every row of one board, e.g. after its name, owner or members changed. */
+    public void refreshBoard(Long boardId) {
+        ensureTable();
+        boardDeletionRepository.ensureTable();
+        jdbcTemplate.update("DELETE FROM user_board_summary WHERE board_id = ?", boardId);
+        jdbcTemplate.update(derive(" AND {t}.board_id = ?"), boardId, boardId);
+    }
+
+    /** After the board's content was saved: its modification time and latest activity text. */
+    public void touchBoard(Long boardId) {
+        ensureTable();
+        jdbcTemplate.update("UPDATE user_board_summary SET "
+                + "last_modified = (SELECT b.last_modified FROM boards b WHERE b.board_id = ?), "
+                + "last_activity_text = (SELECT CONCAT(actor.username, ' ', al.action) FROM activity_log al "
+                + "JOIN users actor ON al.actor_id = actor.user_id "
+                + "WHERE al.board_id = ? ORDER BY al.at_time DESC LIMIT 1) "
+                + "WHERE board_id = ?", boardId, boardId, boardId);
+    }
+
+    public void updateFlag(Long boardId, Long userId, String column, boolean value) {
+        ensureTable();
+        // column is one of BoardMembershipRepository's flag constants, never request input.
+        jdbcTemplate.update("UPDATE user_board_summary SET " + column + " = ? WHERE board_id = ? AND user_id = ?",
+                value, boardId, userId);
+    }
+
+    public void removeBoard(Long boardId) {
+        ensureTable();
+        jdbcTemplate.update("DELETE FROM user_board_summary WHERE board_id = ?", boardId);
+    }
+
+    /** Replace every row with one re-derived from the source tables. Run inside a transaction. */
+    public int rebuildAll() {
+        ensureTable();
+        boardDeletionRepository.ensureTable();
+        jdbcTemplate.update("DELETE FROM user_board_summary");
+        return jdbcTemplate.update(derive(""));
+    }
+
+    public boolean isEmpty() {
+        ensureTable();
+        return jdbcTemplate.query("SELECT 1 FROM user_board_summary LIMIT 1", rs -> !rs.next());
+    }
+
+    /** Every board the user can open, most recently modified first. */
+    public List<Summary> findByUserId(Long userId) {
+        ensureTable();
+        return jdbcTemplate.query("SELECT * FROM user_board_summary WHERE user_id = ? ORDER BY last_modified DESC, board_id DESC",
+                summaryRowMapper, userId);
+    }
+
+    /** Ids of every board the user can open; an index-only read of the primary key. */
+    public List<Long> findBoardIdsByUserId(Long userId) {
+        ensureTable();
+        return jdbcTemplate.queryForList("SELECT board_id FROM user_board_summary WHERE user_id = ?", Long.class, userId);
+    }
+
+    /** Boards shared with the user by someone else, most recently joined first. */
+    public List<Summary> findSharedWithUser(Long userId) {
+        ensureTable();
+        return jdbcTemplate.query("SELECT * FROM user_board_summary WHERE user_id = ? AND LOWER(role) <> 'owner' "
+                + "ORDER BY joined_at DESC, board_id DESC", summaryRowMapper, userId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp ts) {
+        return ts != null ? ts.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.collabodraw.security;
+
+import com.example.collabodraw.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Resolves the user as soon as a login (form or OAuth) succeeds, so the identity cache is
+ * already warm for the redirect that follows and every request of the session after it.
+ * For a first OAuth login this is also where the local profile gets created.
+ */
+@Component
+public class IdentityWarmupListener {
+
+    private static final Logger log = LoggerFactory.getLogger(IdentityWarmupListener.class);
+
+    private final UserService userService;
+
+    public IdentityWarmupListener(UserService userService) {
+        this.userService = userService;
+    }
+
+    @EventListener
+    public void onAuthenticationSuccess(AuthenticationSuccessEvent event) {
+        try {
+            userService.findByUsername(event.getAuthentication().getName());
+        } catch (Exception e) {
+            // The first request will just resolve it itself; never fail a login over this.
+            log.debug("Could not pre-resolve user after login: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,280 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.exception.TooManyExportsException;
+import com.example.collabodraw.model.entity.Board;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Board exports ({@link BoardExporter}). Whether an export is small enough to write straight
+ * into the response is decided from its {@link Plan}, which sizes the raster from stored
+ * headers without decoding it. Small exports run on the request, at most
+ * {@code app.export.sync-concurrency} at a time; one whose output would exceed
+ * {@code app.export.sync-max-pixels}, or that finds every slot taken, is exported by a
+ * background job on {@code app.export.workers} threads into a temp file, which its requester
+ * polls for progress and downloads once done. A user can have {@code app.export.max-jobs-per-user}
+ * jobs queued or running, and at most {@code app.export.queue} wait in all; past either limit
+ * {@link #start} throws {@link TooManyExportsException}. Finished jobs and their files are
+ * dropped after {@code app.export.retention}.
+ *
+ * Exports read the stored snapshot, so edits not yet autosaved are not in them. Jobs are kept
+ * in memory: a restart loses the ones in flight, and a job is only visible on the instance
+ * that ran it.
+ */
+@Service
+public class BoardExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardExportService.class);
+
+    public enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    /** What an export of a board covers, worked out from sizes alone. */
+    public record Plan(BoardScene scene, BoardExporter.Layout layout) {
+        long pixels() {
+            return (long) layout.pixelWidth() * layout.pixelHeight();
+        }
+    }
+
+    /** A board read and laid out for export, its raster decoded. */
+    public record Prepared(BoardScene scene, CanvasStorageService.Raster raster, BoardExporter.Layout layout) {}
+
+    public static final class Job {
+        private final String id;
+        private final Long boardId;
+        private final Long userId;
+        private final BoardExporter.Format format;
+        private final String fileName;
+        private volatile BoardScene scene;
+        private volatile State state = State.QUEUED;
+        private volatile double progress;
+        private volatile Path file;
+        private volatile Instant finishedAt;
+
+        Job(String id, Long boardId, Long userId, BoardExporter.Format format, String fileName, BoardScene scene) {
+            this.id = id;
+            this.boardId = boardId;
+            this.userId = userId;
+            this.format = format;
+            this.fileName = fileName;
+            this.scene = scene;
+        }
+
+        public String getId() { return id; }
+        public Long getBoardId() { return boardId; }
+        public BoardExporter.Format getFormat() { return format; }
+        public String getFileName() { return fileName; }
+        public State getState() { return state; }
+        /** 0 to 1. */
+        public double getProgress() { return progress; }
+        public Path getFile() { return file; }
+
+        boolean isActive() {
+            return state == State.QUEUED || state == State.RUNNING;
+        }
+    }
+
+    /**
+     * One of the sync slots, held for an export written into a response. The slot is freed
+     * when {@link #writeTo} returns, or by {@link #cancel} if it never runs.
+     */
+    public final class SyncExport {
+        private final Long boardId;
+        private final Plan plan;
+        private final BoardExporter.Format format;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private SyncExport(Long boardId, Plan plan, BoardExporter.Format format) {
+            this.boardId = boardId;
+            this.plan = plan;
+            this.format = format;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            try {
+                write(prepare(boardId, plan.scene()), format, out);
+            } finally {
+                cancel();
+            }
+        }
+
+        public void cancel() {
+            if (released.compareAndSet(false, true)) syncPermits.release();
+        }
+    }
+
+    private final CanvasStorageService canvasStorageService;
+    private final int maxEdge;
+    private final long syncMaxPixels;
+    private final Duration retention;
+    private final int maxJobsPerUser;
+    private final Semaphore syncPermits;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public BoardExportService(CanvasStorageService canvasStorageService,
+                              @Value("${app.export.max-edge:4096}") int maxEdge,
+                              @Value("${app.export.sync-max-pixels:4000000}") long syncMaxPixels,
+                              @Value("${app.export.retention:PT1H}") Duration retention,
+                              @Value("${app.export.workers:2}") int workers,
+                              @Value("${app.export.sync-concurrency:2}") int syncConcurrency,
+                              @Value("${app.export.max-jobs-per-user:3}") int maxJobsPerUser,
+                              @Value("${app.export.queue:50}") int queueCapacity) {
+        this.canvasStorageService = canvasStorageService;
+        this.maxEdge = Math.max(1, maxEdge);
+        this.syncMaxPixels = syncMaxPixels;
+        this.retention = retention;
+        this.maxJobsPerUser = Math.max(1, maxJobsPerUser);
+        this.syncPermits = new Semaphore(Math.max(1, syncConcurrency));
+        AtomicInteger threads = new AtomicInteger();
+        int poolSize = Math.max(1, workers);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread thread = new Thread(r, "board-export-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Lay the board out from its elements and the raster's stored size
+     * ({@link CanvasStorageService#rasterSize}); nothing is decoded.
+     */
+    public Plan plan(Long boardId, String snapshotJson) {
+        BoardScene scene = BoardScene.fromSnapshot(snapshotJson);
+        return new Plan(scene, BoardExporter.layout(scene, canvasStorageService.rasterSize(boardId), maxEdge));
+    }
+
+    /** Whether exporting this board should go through {@link #start} rather than the response. */
+    public boolean needsJob(Plan plan) {
+        return plan.pixels() > syncMaxPixels;
+    }
+
+    /** A sync slot for writing this export into a response, or null if all are in use. */
+    public SyncExport trySync(Long boardId, Plan plan, BoardExporter.Format format) {
+        return syncPermits.tryAcquire() ? new SyncExport(boardId, plan, format) : null;
+    }
+
+    /**
+     * Read the board's raster for export. The raster is decoded at most
+     * {@code app.export.max-edge} pixels on its longer edge.
+     */
+    public Prepared prepare(Long boardId, BoardScene scene) throws IOException {
+        CanvasStorageService.Raster raster = canvasStorageService.readComposed(boardId, maxEdge);
+        return new Prepared(scene, raster, BoardExporter.layout(scene, raster, maxEdge));
+    }
+
+    public void write(Prepared prepared, BoardExporter.Format format, OutputStream out) throws IOException {
+        BoardExporter.write(format, prepared.scene(), prepared.raster(), prepared.layout(), out, progress -> {});
+    }
+
+    /**
+     * Queue an export of the board's elements as given and its raster as stored when the job
+     * runs; poll {@link #findJob} for its progress.
+     * @throws TooManyExportsException if the user already has the maximum of jobs queued or
+     *         running, or the queue is full
+     */
+    public synchronized Job start(Board board, Long userId, BoardExporter.Format format, BoardScene scene) {
+        long active = jobs.values().stream().filter(j -> j.userId.equals(userId) && j.isActive()).count();
+        if (active >= maxJobsPerUser) {
+            throw new TooManyExportsException("You already have " + active + " exports in progress");
+        }
+        Job job = new Job(UUID.randomUUID().toString(), board.getBoardId(), userId, format,
+                fileName(board, format), scene);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new TooManyExportsException("Too many exports are waiting; try again shortly");
+        }
+        return job;
+    }
+
+    /** The job, if it exists and was started by {@code userId}. */
+    public Job findJob(String jobId, Long userId) {
+        Job job = jobId != null ? jobs.get(jobId) : null;
+        return job != null && job.userId.equals(userId) ? job : null;
+    }
+
+    public static String fileName(Board board, BoardExporter.Format format) {
+        String name = board.getBoardName() != null ? board.getBoardName().trim().replaceAll("[^A-Za-z0-9._-]+", "_") : "";
+        name = name.replaceAll("^[._]+|[._]+$", "");
+        if (name.isEmpty()) name = "board-" + board.getBoardId();
+        if (name.length() > 80) name = name.substring(0, 80);
+        return name + "." + format.getExtension();
+    }
+
+    private void run(Job job) {
+        job.state = State.RUNNING;
+        Path file = null;
+        try {
+            Prepared prepared = prepare(job.boardId, job.scene);
+            job.scene = null;
+            file = Files.createTempFile("board-export-" + job.boardId + "-", "." + job.format.getExtension());
+            DoubleConsumer progress = p -> job.progress = p;
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                BoardExporter.write(job.format, prepared.scene(), prepared.raster(), prepared.layout(), out, progress);
+            }
+            log.debug("Exported board {} as {} ({} bytes)", job.boardId, job.format, Files.size(file));
+            job.file = file;
+            job.progress = 1;
+            job.finishedAt = Instant.now();
+            job.state = State.DONE;
+        } catch (Exception e) {
+            log.warn("Export of board {} as {} failed", job.boardId, job.format, e);
+            job.scene = null;
+            deleteQuietly(file);
+            job.finishedAt = Instant.now();
+            job.state = State.FAILED;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.export.cleanup-interval:PT5M}")
+    public void dropExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) return false;
+            deleteQuietly(job.file);
+            return true;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (Job job : jobs.values()) deleteQuietly(job.file);
+        jobs.clear();
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) return;
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Could not delete export file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.collabodraw.service;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.DoubleConsumer;
+import java.util.function.ToIntFunction;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes a board as PNG, SVG or PDF straight to a stream. All three draw the same
+ * {@link BoardScene} over the same composed raster the thumbnails use, in the same order, and
+ * none of them holds the whole output: PNG is rasterized and encoded a band of rows at a time
+ * ({@link PngStreamWriter}), SVG and PDF are written element by element with the raster
+ * flattened into them row by row. The raster itself is the one thing held whole, decoded at
+ * no more than the size the caller asked {@link CanvasStorageService#readComposed} for.
+ *
+ * Sizes are board pixels (CSS px); a PDF page is the board at 96 dpi. Text in SVG and PDF is
+ * wrapped with an estimated glyph width, since the viewer's font is not known here.
+ */
+public final class BoardExporter {
+
+    public enum Format {
+        PNG("image/png", "png"),
+        SVG("image/svg+xml", "svg"),
+        PDF("application/pdf", "pdf");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format parse(String value) {
+            if (value != null) {
+                for (Format format : values()) {
+                    if (format.extension.equalsIgnoreCase(value.trim())) return format;
+                }
+            }
+            throw new IllegalArgumentException("Unsupported export format: " + value);
+        }
+    }
+
+    /** The exported area in board pixels, and the scale a PNG of it is rasterized at. */
+    public record Layout(Rectangle bounds, double scale) {
+        public int pixelWidth() {
+            return Math.max(1, (int) Math.ceil(bounds.width * scale));
+        }
+
+        public int pixelHeight() {
+            return Math.max(1, (int) Math.ceil(bounds.height * scale));
+        }
+    }
+
+    private static final int BAND_ROWS = 256;
+    // CSS pixels are 1/96 in, PDF points 1/72 in.
+    private static final double POINTS_PER_PIXEL = 0.75;
+    // Helvetica/Arial average about this fraction of the font size per character.
+    private static final double GLYPH_WIDTH = 0.55;
+    private static final int ASCENT = 12;
+    private static final int LINE_HEIGHT = 16;
+    private static final ToIntFunction<String> ESTIMATED_WIDTH =
+            s -> (int) Math.ceil(s.length() * BoardRenderer.FONT_SIZE * GLYPH_WIDTH);
+
+    private BoardExporter() {}
+
+    /**
+     * The board's content plus padding, or a blank 800x600 page for an empty board. A PNG is
+     * scaled down (never up) so its longer edge is at most {@code maxEdge} pixels.
+     */
+    public static Layout layout(BoardScene scene, CanvasStorageService.Raster raster, int maxEdge) {
+        return layout(scene, raster != null ? new Dimension(raster.width(), raster.height()) : null, maxEdge);
+    }
+
+    /** {@link #layout} for a raster known only by its size ({@link CanvasStorageService#rasterSize}). */
+    public static Layout layout(BoardScene scene, Dimension rasterSize, int maxEdge) {
+        Rectangle bounds = scene.bounds();
+        if (rasterSize != null) {
+            Rectangle r = new Rectangle(0, 0, rasterSize.width, rasterSize.height);
+            bounds = bounds.isEmpty() ? r : bounds.union(r);
+        }
+        if (bounds.isEmpty()) {
+            bounds = new Rectangle(0, 0, 800, 600);
+        } else {
+            bounds.grow(BoardRenderer.PADDING, BoardRenderer.PADDING);
+        }
+        double scale = Math.min(1.0, (double) maxEdge / Math.max(bounds.width, bounds.height));
+        return new Layout(bounds, scale);
+    }
+
+    public static void write(Format format, BoardScene scene, CanvasStorageService.Raster raster, Layout layout,
+                             OutputStream out, DoubleConsumer progress) throws IOException {
+        switch (format) {
+            case PNG -> writePng(scene, raster, layout, out, progress);
+            case SVG -> writeSvg(scene, raster, layout, out, progress);
+            case PDF -> writePdf(scene, raster, layout, out, progress);
+        }
+    }
+
+    /** Rasterized one band at a time; each band is painted, encoded and dropped before the next. */
+    public static void writePng(BoardScene scene, CanvasStorageService.Raster raster, Layout layout,
+                                OutputStream out, DoubleConsumer progress) throws IOException {
+        int width = layout.pixelWidth();
+        int height = layout.pixelHeight();
+        Rectangle bounds = layout.bounds();
+        PngStreamWriter png = new PngStreamWriter(out, width, height);
+        BufferedImage band = new BufferedImage(width, Math.min(BAND_ROWS, height), BufferedImage.TYPE_INT_RGB);
+        for (int top = 0; top < height; top += band.getHeight()) {
+            int rows = Math.min(band.getHeight(), height - top);
+            Graphics2D g = band.createGraphics();
+            try {
+                g.setColor(BoardRenderer.BACKGROUND);
+                g.fillRect(0, 0, width, band.getHeight());
+                g.translate(0, -top);
+                g.scale(layout.scale(), layout.scale());
+                g.translate(-bounds.x, -bounds.y);
+                BoardRenderer.paint(g, scene, raster);
+            } finally {
+                g.dispose();
+            }
+            png.writeRows(band, rows);
+            progress.accept((double) (top + rows) / height);
+        }
+        png.finish();
+    }
+
+    /** Elements as SVG shapes and text over the raster, embedded as a base64 PNG. */
+    public static void writeSvg(BoardScene scene, CanvasStorageService.Raster raster, Layout layout,
+                                OutputStream out, DoubleConsumer progress) throws IOException {
+        Rectangle b = layout.bounds();
+        Writer w = new BufferedWriter(new OutputStreamWriter(new Shield(out), StandardCharsets.UTF_8));
+        w.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        w.write("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\""
+                + " width=\"" + b.width + "\" height=\"" + b.height + "\" viewBox=\"" + b.x + " " + b.y + " " + b.width + " " + b.height
+                + "\" font-family=\"Helvetica, Arial, sans-serif\" font-size=\"" + BoardRenderer.FONT_SIZE + "\">\n");
+        w.write("<rect x=\"" + b.x + "\" y=\"" + b.y + "\" width=\"" + b.width + "\" height=\"" + b.height
+                + "\" fill=\"#ffffff\"/>\n");
+        double rasterShare = raster != null ? 0.8 : 0;
+        if (raster != null) {
+            w.write("<image x=\"0\" y=\"0\" width=\"" + raster.width() + "\" height=\"" + raster.height()
+                    + "\" preserveAspectRatio=\"none\" xlink:href=\"data:image/png;base64,");
+            w.flush();
+            BufferedImage image = raster.image();
+            try (OutputStream base64 = Base64.getEncoder().wrap(new Shield(out))) {
+                PngStreamWriter png = new PngStreamWriter(base64, image.getWidth(), image.getHeight());
+                forEachFlattenedBand(image, (band, top, rows) -> {
+                    png.writeRows(band, rows);
+                    progress.accept(rasterShare * (top + rows) / image.getHeight());
+                });
+                png.finish();
+            }
+            w.write("\"/>\n");
+        }
+        List<BoardScene.Item> items = scene.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            writeSvgItem(w, items.get(i), i);
+            progress.accept(rasterShare + (1 - rasterShare) * (i + 1) / items.size());
+        }
+        w.write("</svg>\n");
+        w.flush();
+        progress.accept(1);
+    }
+
+    /**
+     * A single-page PDF 1.4: the raster as one Flate-compressed RGB image, elements as vector
+     * paths and Helvetica text. Written front to back; stream lengths are indirect objects
+     * written after their streams, so nothing has to be measured in advance.
+     */
+    public static void writePdf(BoardScene scene, CanvasStorageService.Raster raster, Layout layout,
+                                OutputStream out, DoubleConsumer progress) throws IOException {
+        Rectangle b = layout.bounds();
+        PdfWriter pdf = new PdfWriter(out, raster != null ? 8 : 6);
+        pdf.raw("%PDF-1.4\n%\u00e2\u00e3\u00cf\u00d3\n");
+        pdf.object(1, "<< /Type /Catalog /Pages 2 0 R >>");
+        pdf.object(2, "<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+        pdf.object(3, "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 " + num(b.width * POINTS_PER_PIXEL) + " "
+                + num(b.height * POINTS_PER_PIXEL) + "] /Resources << /Font << /F1 4 0 R >>"
+                + (raster != null ? " /XObject << /Im1 7 0 R >>" : "") + " >> /Contents 5 0 R >>");
+        pdf.object(4, "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica /Encoding /WinAnsiEncoding >>");
+
+        double rasterShare = raster != null ? 0.8 : 0;
+        pdf.beginStream(5, "<< /Length 6 0 R >>");
+        // Board pixels to points, y flipped so the board's top-left is the page's.
+        pdf.raw("q\n" + num(POINTS_PER_PIXEL) + " 0 0 " + num(-POINTS_PER_PIXEL) + " " + num(-b.x * POINTS_PER_PIXEL)
+                + " " + num((b.y + b.height) * POINTS_PER_PIXEL) + " cm\n");
+        pdf.raw("1 1 1 rg " + b.x + " " + b.y + " " + b.width + " " + b.height + " re f\n");
+        if (raster != null) {
+            pdf.raw("q " + raster.width() + " 0 0 " + -raster.height() + " 0 " + raster.height() + " cm /Im1 Do Q\n");
+        }
+        List<BoardScene.Item> items = scene.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            writePdfItem(pdf, items.get(i));
+            progress.accept((1 - rasterShare) * (i + 1) / items.size());
+        }
+        pdf.raw("Q\n");
+        pdf.endStream(6);
+
+        if (raster != null) {
+            BufferedImage image = raster.image();
+            pdf.beginStream(7, "<< /Type /XObject /Subtype /Image /Width " + image.getWidth() + " /Height "
+                    + image.getHeight() + " /ColorSpace /DeviceRGB /BitsPerComponent 8 /Filter /FlateDecode"
+                    + " /Length 8 0 R >>");
+            DeflaterOutputStream samples = new DeflaterOutputStream(new Shield(pdf.out));
+            int[] pixels = new int[image.getWidth()];
+            byte[] row = new byte[3 * image.getWidth()];
+            forEachFlattenedBand(image, (band, top, rows) -> {
+                for (int y = 0; y < rows; y++) {
+                    band.getRGB(0, y, pixels.length, 1, pixels, 0, pixels.length);
+                    for (int x = 0, i = 0; x < pixels.length; x++) {
+                        row[i++] = (byte) (pixels[x] >> 16);
+                        row[i++] = (byte) (pixels[x] >> 8);
+                        row[i++] = (byte) pixels[x];
+                    }
+                    samples.write(row);
+                }
+                progress.accept((1 - rasterShare) + rasterShare * (top + rows) / image.getHeight());
+            });
+            samples.close();
+            pdf.endStream(8);
+        }
+        pdf.finish(1);
+        progress.accept(1);
+    }
+
+    private static void writeSvgItem(Writer w, BoardScene.Item item, int index) throws IOException {
+        String box = "x=\"" + item.x() + "\" y=\"" + item.y() + "\" width=\"" + item.width()
+                + "\" height=\"" + item.height() + "\"" + (item.radius() > 0 ? " rx=\"" + item.radius() + "\"" : "");
+        if (item.fill() != null || item.stroke() != null) {
+            w.write("<rect " + box + svgPaint("fill", item.fill())
+                    + (item.stroke() != null ? svgPaint("stroke", item.stroke()) + " stroke-width=\"1.5\"" : "") + "/>\n");
+        }
+        if (item.text() == null || item.text().isEmpty()) return;
+        w.write("<clipPath id=\"clip" + index + "\"><rect " + box + "/></clipPath>\n");
+        w.write("<text clip-path=\"url(#clip" + index + ")\""
+                + svgPaint("fill", item.textColor() != null ? item.textColor() : BoardRenderer.TEXT) + ">");
+        int baseline = item.y() + BoardRenderer.TEXT_INSET + ASCENT;
+        for (String line : textLines(item)) {
+            w.write("<tspan x=\"" + (item.x() + BoardRenderer.TEXT_INSET) + "\" y=\"" + baseline + "\">"
+                    + xml(line) + "</tspan>");
+            baseline += LINE_HEIGHT;
+        }
+        w.write("</text>\n");
+    }
+
+    private static void writePdfItem(PdfWriter pdf, BoardScene.Item item) throws IOException {
+        if (item.fill() != null || item.stroke() != null) {
+            StringBuilder ops = new StringBuilder();
+            if (item.fill() != null) ops.append(pdfColor(item.fill())).append(" rg ");
+            if (item.stroke() != null) ops.append(pdfColor(item.stroke())).append(" RG 1.5 w ");
+            ops.append(pdfBox(item));
+            ops.append(item.fill() != null && item.stroke() != null ? "B\n" : item.fill() != null ? "f\n" : "S\n");
+            pdf.raw(ops.toString());
+        }
+        if (item.text() == null || item.text().isEmpty()) return;
+        StringBuilder ops = new StringBuilder("q ").append(item.x()).append(' ').append(item.y()).append(' ')
+                .append(item.width()).append(' ').append(item.height()).append(" re W n BT /F1 ")
+                .append(BoardRenderer.FONT_SIZE).append(" Tf ")
+                .append(pdfColor(item.textColor() != null ? item.textColor() : BoardRenderer.TEXT)).append(" rg\n");
+        int baseline = item.y() + BoardRenderer.TEXT_INSET + ASCENT;
+        for (String line : textLines(item)) {
+            // Tm flips y back so glyphs stand upright under the page's flipped matrix.
+            ops.append("1 0 0 -1 ").append(item.x() + BoardRenderer.TEXT_INSET).append(' ').append(baseline)
+                    .append(" Tm (").append(pdfText(line)).append(") Tj\n");
+            baseline += LINE_HEIGHT;
+        }
+        pdf.raw(ops.append("ET Q\n").toString());
+    }
+
+    // Lines that start inside the box; the clip trims the last one.
+    private static List<String> textLines(BoardScene.Item item) {
+        List<String> lines = BoardRenderer.wrap(item.text(), item.width() - 2 * BoardRenderer.TEXT_INSET, ESTIMATED_WIDTH);
+        int fit = Math.max(1, (item.height() - BoardRenderer.TEXT_INSET) / LINE_HEIGHT + 1);
+        return lines.size() > fit ? lines.subList(0, fit) : lines;
+    }
+
+    private static String pdfBox(BoardScene.Item item) {
+        double x = item.x(), y = item.y(), w = item.width(), h = item.height();
+        double r = Math.min(item.radius(), Math.min(w, h) / 2);
+        if (r <= 0) return num(x) + " " + num(y) + " " + num(w) + " " + num(h) + " re ";
+        double k = r * 0.5523;  // control-point distance for a quarter circle
+        return num(x + r) + " " + num(y) + " m "
+                + num(x + w - r) + " " + num(y) + " l "
+                + num(x + w - r + k) + " " + num(y) + " " + num(x + w) + " " + num(y + r - k) + " " + num(x + w) + " " + num(y + r) + " c "
+                + num(x + w) + " " + num(y + h - r) + " l "
+                + num(x + w) + " " + num(y + h - r + k) + " " + num(x + w - r + k) + " " + num(y + h) + " " + num(x + w - r) + " " + num(y + h) + " c "
+                + num(x + r) + " " + num(y + h) + " l "
+                + num(x + r - k) + " " + num(y + h) + " " + num(x) + " " + num(y + h - r + k) + " " + num(x) + " " + num(y + h - r) + " c "
+                + num(x) + " " + num(y + r) + " l "
+                + num(x) + " " + num(y + r - k) + " " + num(x + r - k) + " " + num(y) + " " + num(x + r) + " " + num(y) + " c h ";
+    }
+
+    private static String pdfColor(Color c) {
+        return num(c.getRed() / 255.0) + " " + num(c.getGreen() / 255.0) + " " + num(c.getBlue() / 255.0);
+    }
+
+    // A PDF literal string in WinAnsi; characters it has no code for become '?'.
+    private static String pdfText(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' || c == '(' || c == ')') sb.append('\\').append(c);
+            else if (c < 0x20 || c > 0xff) sb.append('?');
+            else sb.append(c);
+        }
+        return sb.toString();
+    }
+
+    private static String svgPaint(String attribute, Color c) {
+        if (c == null) return " " + attribute + "=\"none\"";
+        String paint = String.format(Locale.ROOT, " %s=\"#%02x%02x%02x\"", attribute, c.getRed(), c.getGreen(), c.getBlue());
+        return c.getAlpha() < 255 ? paint + " " + attribute + "-opacity=\"" + num(c.getAlpha() / 255.0) + "\"" : paint;
+    }
+
+    private static String xml(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> sb.append("&amp;");
+                case '<' -> sb.append("&lt;");
+                case '>' -> sb.append("&gt;");
+                case '"' -> sb.append("&quot;");
+                default -> {
+                    if (c >= 0x20 || c == '\t') sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String num(double value) {
+        return BigDecimal.valueOf(value).setScale(3, RoundingMode.HALF_UP).stripTrailingZeros().toPlainString();
+    }
+
+    @FunctionalInterface
+    private interface BandConsumer {
+        void accept(BufferedImage band, int top, int rows) throws IOException;
+    }
+
+    // The raster's rows over white, BAND_ROWS at a time: transparent canvas reads as paper.
+    private static void forEachFlattenedBand(BufferedImage image, BandConsumer consumer) throws IOException {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage band = new BufferedImage(width, Math.min(BAND_ROWS, height), BufferedImage.TYPE_INT_RGB);
+        for (int top = 0; top < height; top += band.getHeight()) {
+            int rows = Math.min(band.getHeight(), height - top);
+            Graphics2D g = band.createGraphics();
+            try {
+                g.setColor(BoardRenderer.BACKGROUND);
+                g.fillRect(0, 0, width, band.getHeight());
+                g.drawImage(image, 0, -top, null);
+            } finally {
+                g.dispose();
+            }
+            consumer.accept(band, top, rows);
+        }
+    }
+
+    // Keeps writers and encoders layered on the response from closing it.
+    private static final class Shield extends FilterOutputStream {
+        Shield(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.flush();
+        }
+    }
+
+    // Tracks byte offsets for the xref table as objects are written.
+    private static final class PdfWriter {
+        private final CountingStream out;
+        private final long[] offsets;
+        private long streamStart;
+
+        PdfWriter(OutputStream target, int objects) {
+            this.out = new CountingStream(target);
+            this.offsets = new long[objects + 1];
+        }
+
+        void raw(String text) throws IOException {
+            out.write(text.getBytes(StandardCharsets.ISO_8859_1));
+        }
+
+        void object(int number, String body) throws IOException {
+            offsets[number] = out.count;
+            raw(number + " 0 obj\n" + body + "\nendobj\n");
+        }
+
+        void beginStream(int number, String dictionary) throws IOException {
+            offsets[number] = out.count;
+            raw(number + " 0 obj\n" + dictionary + "\nstream\n");
+            streamStart = out.count;
+        }
+
+        // Ends the open stream and writes its length as object {@code lengthNumber}.
+        void endStream(int lengthNumber) throws IOException {
+            long length = out.count - streamStart;
+            raw("\nendstream\nendobj\n");
+            object(lengthNumber, Long.toString(length));
+        }
+
+        void finish(int root) throws IOException {
+            long xref = out.count;
+            StringBuilder table = new StringBuilder("xref\n0 ").append(offsets.length).append("\n0000000000 65535 f \n");
+            for (int i = 1; i < offsets.length; i++) {
+                table.append(String.format(Locale.ROOT, "%010d 00000 n \n", offsets[i]));
+            }
+            table.append("trailer\n<< /Size ").append(offsets.length).append(" /Root ").append(root)
+                    .append(" 0 R >>\nstartxref\n").append(xref).append("\n%%EOF\n");
+            raw(table.toString());
+            out.flush();
+        }
+    }
+
+    private static final class CountingStream extends FilterOutputStream {
+        long count;
+
+        CountingStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
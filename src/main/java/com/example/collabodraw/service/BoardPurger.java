@@ -0,0 +1,142 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.repository.BoardDeletionRepository;
+import com.example.collabodraw.repository.BoardMembershipRepository;
+import com.example.collabodraw.repository.BoardRepository;
+import com.example.collabodraw.repository.BoardThumbnailRepository;
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes boards marked by {@link WhiteboardService#deleteBoard}. Deleting a long-lived board
+ * in one statement deletes every element in one transaction, and on MySQL each of those rows
+ * fires trg_element_delete (an audit row and an activity row carrying the element's data),
+ * holding locks on the board for as long as that takes.
+ *
+ * Instead, every {@code app.purge.interval} the oldest marked board loses at most
+ * {@code app.purge.batches-per-run} batches of {@code app.purge.batch-size} rows, each batch
+ * its own short transaction; the interval between runs is the throttle. Once the child
+ * tables are empty, the board row, its memberships, its canvas and its thumbnail go in one last transaction
+ * and the mark is dropped. Progress is kept per board in board_deletions.rows_purged and
+ * published as board.purge.* meters.
+ */
+@Service
+public class BoardPurger {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardPurger.class);
+
+    // Child tables with a row count that grows with the board's history, in purge order:
+    // deleting elements adds activity_log rows (trg_element_delete), so that table comes after.
+    private static final List<String> BATCHED_TABLES = List.of("elements", "activity_log", "board_canvas_tiles");
+
+    private final BoardDeletionRepository boardDeletionRepository;
+    private final BoardRepository boardRepository;
+    private final BoardMembershipRepository boardMembershipRepository;
+    private final SnapshotRefRepository snapshotRefRepository;
+    private final CanvasStorageService canvasStorageService;
+    private final BoardThumbnailRepository boardThumbnailRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int batchesPerRun;
+    private final AtomicLong rowsPurged = new AtomicLong();
+    private final AtomicInteger pendingBoards = new AtomicInteger();
+
+    public BoardPurger(BoardDeletionRepository boardDeletionRepository,
+                       BoardRepository boardRepository,
+                       BoardMembershipRepository boardMembershipRepository,
+                       SnapshotRefRepository snapshotRefRepository,
+                       CanvasStorageService canvasStorageService,
+                       BoardThumbnailRepository boardThumbnailRepository,
+                       PlatformTransactionManager transactionManager,
+                       @Value("${app.purge.batch-size:500}") int batchSize,
+                       @Value("${app.purge.batches-per-run:20}") int batchesPerRun,
+                       ObjectProvider<MeterRegistry> meterRegistry) {
+        this.boardDeletionRepository = boardDeletionRepository;
+        this.boardRepository = boardRepository;
+        this.boardMembershipRepository = boardMembershipRepository;
+        this.snapshotRefRepository = snapshotRefRepository;
+        this.canvasStorageService = canvasStorageService;
+        this.boardThumbnailRepository = boardThumbnailRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.batchesPerRun = Math.max(1, batchesPerRun);
+        meterRegistry.ifAvailable(registry -> {
+            FunctionCounter.builder("board.purge.rows", rowsPurged, AtomicLong::get)
+                    .description("Rows removed from deleted boards")
+                    .register(registry);
+            Gauge.builder("board.purge.pending", pendingBoards, AtomicInteger::get)
+                    .description("Deleted boards whose rows are still being removed")
+                    .register(registry);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${app.purge.interval:PT1S}")
+    public void purge() {
+        List<Long> pending = boardDeletionRepository.findPending(1);
+        if (pending.isEmpty()) {
+            pendingBoards.set(0);
+            return;
+        }
+        Long boardId = pending.get(0);
+        try {
+            purgeBoard(boardId);
+        } catch (Exception ex) {
+            log.warn("Purging deleted board {} failed; retrying on the next run", boardId, ex);
+        }
+        pendingBoards.set(boardDeletionRepository.findProgress().size());
+    }
+
+    /**
+     * One bounded run against one marked board.
+     * @return true if the board is now gone entirely
+     */
+    boolean purgeBoard(Long boardId) {
+        // Copies made from this board keep reading its snapshot rows; hand those over first.
+        transactionTemplate.executeWithoutResult(status -> snapshotRefRepository.detachForDelete(boardId));
+
+        int batches = 0;
+        for (String table : BATCHED_TABLES) {
+            int deleted;
+            do {
+                if (batches == batchesPerRun) return false;
+                deleted = boardDeletionRepository.deleteBatch(table, boardId, batchSize);
+                if (deleted > 0) {
+                    batches++;
+                    boardDeletionRepository.addPurged(boardId, deleted);
+                    rowsPurged.addAndGet(deleted);
+                }
+            } while (deleted == batchSize);
+        }
+
+        // Everything left is bounded by the board's members, not its content.
+        transactionTemplate.executeWithoutResult(status -> {
+            canvasStorageService.delete(boardId);
+            boardThumbnailRepository.deleteByBoardId(boardId);
+            boardMembershipRepository.deleteByBoardId(boardId);
+            boardRepository.delete(boardId);
+            boardDeletionRepository.unmark(boardId);
+        });
+        log.info("Purged deleted board {}", boardId);
+        return true;
+    }
+
+    /** board_id, requested_by, requested_at and rows_purged of each board still being purged. */
+    public List<Map<String, Object>> progress() {
+        return boardDeletionRepository.findProgress();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.collabodraw.service;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.Shape;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Paints a board with Java2D: the canvas raster first (strokes live there), then the
+ * {@link BoardScene} items over it, the same stacking as the editor. Headless; nothing here
+ * touches a display.
+ */
+public final class BoardRenderer {
+
+    static final Color BACKGROUND = Color.WHITE;
+    static final Color TEXT = new Color(0x1f2937);
+    static final int FONT_SIZE = 13;
+    static final int TEXT_INSET = 8;
+    static final int PADDING = 16;
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.PLAIN, FONT_SIZE);
+
+    private BoardRenderer() {}
+
+    /** The area worth showing: the items plus the raster, in board pixels. */
+    public static Rectangle contentBounds(BoardScene scene, CanvasStorageService.Raster raster) {
+        Rectangle bounds = scene.bounds();
+        if (raster != null) {
+            Rectangle r = new Rectangle(0, 0, raster.width(), raster.height());
+            bounds = bounds.isEmpty() ? r : bounds.union(r);
+        }
+        return bounds;
+    }
+
+    /**
+     * Paint the board in board coordinates; the caller's transform decides where and how big.
+     * {@code g} should already be clipped to what will be shown.
+     */
+    public static void paint(Graphics2D g, BoardScene scene, CanvasStorageService.Raster raster) {
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        if (raster != null) {
+            g.drawImage(raster.image(), 0, 0, raster.width(), raster.height(), null);
+        }
+        for (BoardScene.Item item : scene.getItems()) {
+            paintItem(g, item);
+        }
+    }
+
+    /**
+     * The whole board scaled down (never up) to fit {@code width} x {@code height}, centred on
+     * a white background.
+     */
+    public static BufferedImage thumbnail(BoardScene scene, CanvasStorageService.Raster raster, int width, int height) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setColor(BACKGROUND);
+            g.fillRect(0, 0, width, height);
+            Rectangle content = contentBounds(scene, raster);
+            if (content.isEmpty()) return image;
+            content.grow(PADDING, PADDING);
+            double scale = Math.min(1.0, Math.min((double) width / content.width, (double) height / content.height));
+            g.translate((width - content.width * scale) / 2, (height - content.height * scale) / 2);
+            g.scale(scale, scale);
+            g.translate(-content.x, -content.y);
+            g.clip(content);
+            paint(g, scene, raster);
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    public static byte[] png(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private static void paintItem(Graphics2D g, BoardScene.Item item) {
+        Shape box = item.radius() > 0
+                ? new RoundRectangle2D.Float(item.x(), item.y(), item.width(), item.height(), item.radius() * 2f, item.radius() * 2f)
+                : new Rectangle(item.x(), item.y(), item.width(), item.height());
+        if (item.fill() != null) {
+            g.setColor(item.fill());
+            g.fill(box);
+        }
+        if (item.stroke() != null) {
+            g.setColor(item.stroke());
+            g.setStroke(new BasicStroke(1.5f));
+            g.draw(box);
+        }
+        if (item.text() != null && !item.text().isEmpty()) {
+            paintText(g, item);
+        }
+    }
+
+    // Word-wrapped into the box, clipped to it.
+    private static void paintText(Graphics2D g, BoardScene.Item item) {
+        Shape clip = g.getClip();
+        try {
+            g.clipRect(item.x(), item.y(), item.width(), item.height());
+            g.setFont(FONT);
+            g.setColor(item.textColor() != null ? item.textColor() : TEXT);
+            FontMetrics metrics = g.getFontMetrics();
+            int lineY = item.y() + TEXT_INSET + metrics.getAscent();
+            for (String line : wrap(item.text(), item.width() - 2 * TEXT_INSET, metrics::stringWidth)) {
+                if (lineY - metrics.getAscent() > item.y() + item.height()) break;
+                g.drawString(line, item.x() + TEXT_INSET, lineY);
+                lineY += metrics.getHeight();
+            }
+        } catch (RuntimeException | InternalError | LinkageError e) {
+            // No usable fonts on this host (e.g. a container without fontconfig): keep the boxes.
+        } finally {
+            g.setClip(clip);
+        }
+    }
+
+    /**
+     * {@code text} broken at spaces into lines no wider than {@code maxWidth} as measured by
+     * {@code width}; a single word wider than that gets a line of its own.
+     */
+    static List<String> wrap(String text, int maxWidth, ToIntFunction<String> width) {
+        List<String> lines = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String word : text.split(" ")) {
+            String candidate = line.length() == 0 ? word : line + " " + word;
+            if (line.length() > 0 && width.applyAsInt(candidate) > Math.max(1, maxWidth)) {
+                lines.add(line.toString());
+                line.setLength(0);
+                line.append(word);
+            } else {
+                line.setLength(0);
+                line.append(candidate);
+            }
+        }
+        if (line.length() > 0) lines.add(line.toString());
+        return lines;
+    }
+}
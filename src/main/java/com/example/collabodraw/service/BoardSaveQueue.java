@@ -0,0 +1,332 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.cache.SnapshotCache;
+import com.example.collabodraw.model.entity.Board;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Serializes snapshot saves per board. Every open tab autosaves the whole board, so on a
+ * shared board several full writes can arrive for the same board at once; instead of letting
+ * them race each other through claimWriteIfUnmodified, each board gets a lane that commits
+ * one save at a time, at most once per {@code app.save.min-interval}. A lane stays open for
+ * one interval after its last commit, so a save arriving just after the queue drained still
+ * waits out the interval instead of starting a new lane that commits at once.
+ *
+ * While a save waits its turn, a newer save from the same author replaces it (a snapshot is
+ * the whole board, so the older one has nothing the newer one lacks). Both callers then get
+ * the acknowledgement of the write that actually happened.
+ *
+ * A save whose expectedLastModified is stale is not rejected outright: if it names the
+ * snapshot version it started from and that version is still held in SnapshotHistory,
+ * it is three-way merged (see {@link SnapshotMerge}) with the current snapshot and only
+ * fails when the same element was changed on both sides.
+ *
+ * Lanes live in this JVM only; saves for one board arriving through different instances
+ * still fall back to the optimistic last_modified check.
+ */
+@Service
+public class BoardSaveQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardSaveQueue.class);
+    // Merging again after losing the claim to yet another save; past this, report a conflict.
+    private static final int MAX_MERGE_ATTEMPTS = 3;
+
+    private final WhiteboardService whiteboardService;
+    private final long minIntervalNanos;
+    private final ScheduledExecutorService executor;
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    public BoardSaveQueue(WhiteboardService whiteboardService,
+                          @Value("${app.save.min-interval:PT0.25S}") Duration minInterval,
+                          @Value("${app.save.threads:4}") int threads) {
+        this.whiteboardService = whiteboardService;
+        this.minIntervalNanos = minInterval.toNanos();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newScheduledThreadPool(Math.max(1, threads), r -> {
+            Thread t = new Thread(r, "board-save-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Outcome of a queued save, as seen by one caller. */
+    public static class SaveResult {
+        private final boolean saved;
+        private final LocalDateTime lastModified;
+        private final Long version;
+        private final int coalesced;
+        private final String mergedElements;
+        private final List<String> conflicts;
+
+        SaveResult(boolean saved, LocalDateTime lastModified, Long version, int coalesced,
+                   String mergedElements, List<String> conflicts) {
+            this.saved = saved;
+            this.lastModified = lastModified;
+            this.version = version;
+            this.coalesced = coalesced;
+            this.mergedElements = mergedElements;
+            this.conflicts = conflicts;
+        }
+
+        /** False when the board moved past the caller's expectedLastModified (a conflict). */
+        public boolean isSaved() { return saved; }
+        /** The board's last_modified after the write (or the current one, on conflict). */
+        public LocalDateTime getLastModified() { return lastModified; }
+        /** Snapshot version the write produced; null on conflict. */
+        public Long getVersion() { return version; }
+        /** How many requests this write answered (1 unless newer saves replaced older ones). */
+        public int getCoalesced() { return coalesced; }
+        /** True when the save was merged with someone else's newer one before being written. */
+        public boolean isMerged() { return mergedElements != null; }
+        /** The elements actually written when merged; the caller should apply them. */
+        public String getMergedElements() { return mergedElements; }
+        /** Element ids changed on both sides, when a merge was attempted and failed. */
+        public List<String> getConflicts() { return conflicts; }
+    }
+
+    /**
+     * Queue a full snapshot save. The future completes once the write (or a newer save from
+     * the same author that replaced it) has committed, and completes exceptionally if the
+     * write itself failed.
+     * @param baseVersion snapshot version the caller's edit started from; enables merging on
+     *                    conflict, null to just report the conflict
+     */
+    public CompletableFuture<SaveResult> submit(Long boardId, Long userId, String dataJson,
+                                                LocalDateTime expectedLastModified, Long baseVersion) {
+        return submit(boardId, userId, userId, dataJson, expectedLastModified, baseVersion);
+    }
+
+    /**
+     * Like {@link #submit(Long, Long, String, LocalDateTime, Long)}, for writers that are not
+     * simply "this user's tab": only saves with the same coalesceKey replace each other.
+     * @param userId recorded as the snapshot's author
+     */
+    public CompletableFuture<SaveResult> submit(Long boardId, Object coalesceKey, Long userId, String dataJson,
+                                                LocalDateTime expectedLastModified, Long baseVersion) {
+        CompletableFuture<SaveResult> future = new CompletableFuture<>();
+        if (executor.isShutdown()) {
+            future.completeExceptionally(new IllegalStateException("The board save queue is shut down"));
+            return future;
+        }
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(boardId, Lane::new);
+            synchronized (lane) {
+                if (lane.retired) continue; // lost a race with the lane draining empty
+                Pending pending = lane.pending.get(coalesceKey);
+                if (pending == null) {
+                    lane.pending.put(coalesceKey, new Pending(userId, dataJson, expectedLastModified, baseVersion, future));
+                } else {
+                    pending.replaceWith(dataJson, expectedLastModified, baseVersion, future);
+                }
+                if (!lane.scheduled) {
+                    lane.scheduled = true;
+                    if (!schedule(lane, lane.lastCommitNanos + minIntervalNanos - System.nanoTime())) {
+                        // Shut down since the check above: nothing will run this lane again.
+                        IllegalStateException ex = new IllegalStateException("The board save queue is shut down");
+                        lane.pending.values().forEach(waiting -> waiting.fail(ex));
+                        lane.pending.clear();
+                        retire(lane);
+                    }
+                }
+            }
+            return future;
+        }
+    }
+
+    // False once the executor is shut down and takes no more tasks.
+    private boolean schedule(Lane lane, long delayNanos) {
+        try {
+            executor.schedule(() -> drainOne(lane), Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    // Commits the oldest waiting author's save and schedules the next run one interval later;
+    // a run that finds nothing waiting retires the lane. Only one drainOne per lane is ever
+    // scheduled at a time.
+    private void drainOne(Lane lane) {
+        Pending next;
+        synchronized (lane) {
+            Iterator<Pending> it = lane.pending.values().iterator();
+            if (!it.hasNext()) {
+                retire(lane);
+                return;
+            }
+            next = it.next();
+            it.remove();
+        }
+
+        try {
+            next.complete(commit(lane.boardId, next));
+        } catch (Exception ex) {
+            log.error("Queued save for board {} failed", lane.boardId, ex);
+            next.fail(ex);
+        } finally {
+            boolean rescheduled;
+            synchronized (lane) {
+                lane.lastCommitNanos = System.nanoTime();
+                if (lane.pending.isEmpty() && (minIntervalNanos <= 0 || executor.isShutdown())) {
+                    retire(lane);
+                    rescheduled = true;
+                } else {
+                    // Even with nothing waiting: saves arriving meanwhile must keep the spacing.
+                    rescheduled = schedule(lane, minIntervalNanos);
+                }
+            }
+            if (!rescheduled) drainRemaining(lane);
+        }
+    }
+
+    // After shutdown no further drainOne can be scheduled, so commit what is still waiting on
+    // this thread, back to back, and retire the lane.
+    private void drainRemaining(Lane lane) {
+        while (true) {
+            Pending next;
+            synchronized (lane) {
+                Iterator<Pending> it = lane.pending.values().iterator();
+                if (!it.hasNext()) {
+                    retire(lane);
+                    return;
+                }
+                next = it.next();
+                it.remove();
+            }
+            try {
+                next.complete(commit(lane.boardId, next));
+            } catch (Exception ex) {
+                log.error("Queued save for board {} failed", lane.boardId, ex);
+                next.fail(ex);
+            }
+        }
+    }
+
+    // Caller holds the lane's lock.
+    private void retire(Lane lane) {
+        lane.scheduled = false;
+        lane.retired = true;
+        lanes.remove(lane.boardId, lane);
+    }
+
+    private SaveResult commit(Long boardId, Pending save) {
+        boolean saved = whiteboardService.saveBoardSnapshot(boardId, save.userId, save.dataJson, save.expectedLastModified);
+        if (!saved && save.baseVersion != null) {
+            return mergeAndCommit(boardId, save);
+        }
+        return acknowledge(boardId, saved, save, null);
+    }
+
+    private SaveResult mergeAndCommit(Long boardId, Pending save) {
+        String base = whiteboardService.findSnapshotVersion(boardId, save.baseVersion);
+        if (base == null) {
+            log.debug("No base version {} held for board {}; reporting conflict", save.baseVersion, boardId);
+            return acknowledge(boardId, false, save, null);
+        }
+        for (int attempt = 0; attempt < MAX_MERGE_ATTEMPTS; attempt++) {
+            Board board = whiteboardService.getWhiteboardById(boardId);
+            if (board == null) return acknowledge(boardId, false, save, null);
+            SnapshotCache.Snapshot theirs = whiteboardService.getCurrentSnapshot(board);
+            SnapshotMerge.Result merge = SnapshotMerge.mergeSnapshots(
+                    base, theirs != null ? theirs.getData() : null, save.dataJson);
+            if (merge.hasConflicts()) {
+                return new SaveResult(false, board.getLastModified(), null, save.waiters.size(),
+                        null, merge.getConflicts());
+            }
+            if (whiteboardService.saveBoardSnapshot(boardId, save.userId, merge.getSnapshotJson(), board.getLastModified())) {
+                return acknowledge(boardId, true, save, merge.getElements());
+            }
+        }
+        return acknowledge(boardId, false, save, null);
+    }
+
+    private SaveResult acknowledge(Long boardId, boolean saved, Pending save, String mergedElements) {
+        Board board = whiteboardService.getWhiteboardById(boardId);
+        LocalDateTime lastModified = board != null ? board.getLastModified() : null;
+        Long version = saved && board != null ? whiteboardService.getBoardSnapshotVersion(board) : null;
+        return new SaveResult(saved, lastModified, version, save.waiters.size(), mergedElements, List.of());
+    }
+
+    /** Number of boards with saves waiting or committing; exposed for diagnostics. */
+    public int activeBoards() {
+        return lanes.size();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Saves already queued still run; delayed tasks are kept by default after shutdown().
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Board save queue did not drain within 10s; {} boards still pending", lanes.size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Lane {
+        final Long boardId;
+        // Insertion-ordered so authors are committed in the order they first queued.
+        final LinkedHashMap<Object, Pending> pending = new LinkedHashMap<>();
+        boolean scheduled;
+        boolean retired;
+        long lastCommitNanos = System.nanoTime() - Long.MAX_VALUE / 2;
+
+        Lane(Long boardId) {
+            this.boardId = boardId;
+        }
+    }
+
+    private static final class Pending {
+        final Long userId;
+        String dataJson;
+        LocalDateTime expectedLastModified;
+        Long baseVersion;
+        final List<CompletableFuture<SaveResult>> waiters = new ArrayList<>(1);
+
+        Pending(Long userId, String dataJson, LocalDateTime expectedLastModified, Long baseVersion,
+                CompletableFuture<SaveResult> waiter) {
+            this.userId = userId;
+            this.dataJson = dataJson;
+            this.expectedLastModified = expectedLastModified;
+            this.baseVersion = baseVersion;
+            this.waiters.add(waiter);
+        }
+
+        void replaceWith(String dataJson, LocalDateTime expectedLastModified, Long baseVersion,
+                         CompletableFuture<SaveResult> waiter) {
+            this.dataJson = dataJson;
+            this.expectedLastModified = expectedLastModified;
+            this.baseVersion = baseVersion;
+            this.waiters.add(waiter);
+        }
+
+        void complete(SaveResult result) {
+            waiters.forEach(w -> w.complete(result));
+        }
+
+        void fail(Throwable ex) {
+            waiters.forEach(w -> w.completeExceptionally(ex));
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.collabodraw.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.awt.Color;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A board's stored elements as boxes to draw: what {@link BoardRenderer} paints, read from a
+ * snapshot's "elements" markup with {@link ElementHtml}. Only what the markup states inline is
+ * known - position, size, background, border and text colour - plus the stylesheet's sizes and
+ * colours for sticky notes; anything else an element looks like in the browser (fonts,
+ * shadows, images' pixels) is approximated.
+ */
+public final class BoardScene {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Pattern PX = Pattern.compile("^\\s*(-?\\d+(?:\\.\\d+)?)\\s*(px)?\\s*$");
+    private static final Pattern COLOR = Pattern.compile(
+            "#[0-9a-fA-F]{3,8}\\b|rgba?\\([^)]*\\)|\\b(white|black|red|green|blue|yellow|orange|gray|grey|transparent)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Color STICKY_FILL = new Color(0xfef9c3);
+    private static final Color STICKY_BORDER = new Color(0xeab308);
+    private static final Color IMAGE_FILL = new Color(0xe5e7eb);
+
+    public enum Kind { STICKY, TEXT, IMAGE, BOX }
+
+    /** One element, in board pixels. Null colours are not drawn. */
+    public record Item(Kind kind, int x, int y, int width, int height, int radius,
+                       Color fill, Color stroke, Color textColor, String text) {}
+
+    private final List<Item> items;
+
+    private BoardScene(List<Item> items) {
+        this.items = List.copyOf(items);
+    }
+
+    /** Items in document order, which is the order the browser stacks them without z-index. */
+    public List<Item> getItems() {
+        return items;
+    }
+
+    /** Smallest rectangle holding every item; empty when there are none. */
+    public Rectangle bounds() {
+        Rectangle bounds = null;
+        for (Item item : items) {
+            Rectangle r = new Rectangle(item.x(), item.y(), item.width(), item.height());
+            bounds = bounds == null ? r : bounds.union(r);
+        }
+        return bounds != null ? bounds : new Rectangle();
+    }
+
+    /** Scene for a stored snapshot ({"elements": markup, "settings": ...}); empty if it has none. */
+    public static BoardScene fromSnapshot(String snapshotJson) {
+        if (snapshotJson == null || snapshotJson.isBlank()) return new BoardScene(List.of());
+        try {
+            JsonNode elements = MAPPER.readTree(snapshotJson).path("elements");
+            return fromElements(elements.isTextual() ? elements.asText() : "");
+        } catch (Exception e) {
+            return new BoardScene(List.of());
+        }
+    }
+
+    /** Scene for the serialized innerHTML of #canvasElements. */
+    public static BoardScene fromElements(String html) {
+        List<Item> items = new ArrayList<>();
+        for (ElementHtml.Node node : ElementHtml.parseTopLevel(html)) {
+            Set<String> classes = ElementHtml.classes(node.getHtml());
+            if (!classes.contains("canvas-element")) continue;
+            items.add(item(node.getHtml(), classes));
+        }
+        return new BoardScene(items);
+    }
+
+    private static Item item(String html, Set<String> classes) {
+        Map<String, String> style = ElementHtml.style(html);
+        String text = ElementHtml.text(html);
+        int x = px(style.get("left"), 0);
+        int y = px(style.get("top"), 0);
+        Color fill = color(style.getOrDefault("background-color", style.get("background")));
+        Color stroke = style.containsKey("border-color") ? color(style.get("border-color")) : border(style.get("border"));
+        Color textColor = color(style.get("color"));
+        int radius = px(style.get("border-radius"), 0);
+
+        if (classes.contains("sticky-note")) {
+            return new Item(Kind.STICKY, x, y, px(style.get("width"), 180), px(style.get("height"), 140),
+                    radius > 0 ? radius : 8, fill != null ? fill : STICKY_FILL, stroke != null ? stroke : STICKY_BORDER,
+                    textColor, text);
+        }
+        if (classes.contains("text-element")) {
+            // The colour is set on the inner input, not the element.
+            int input = html.indexOf("<input");
+            Color inputColor = input >= 0 ? color(ElementHtml.style(html.substring(input)).get("color")) : null;
+            return new Item(Kind.TEXT, x, y, px(style.get("width"), 16 + 8 * Math.max(text.length(), 4)),
+                    px(style.get("height"), 28), 0, fill, stroke, inputColor != null ? inputColor : textColor, text);
+        }
+        if (classes.contains("image-element")) {
+            return new Item(Kind.IMAGE, x, y, px(style.get("width"), 400), px(style.get("height"), 300),
+                    8, IMAGE_FILL, stroke, null, "");
+        }
+        return new Item(Kind.BOX, x, y, px(style.get("width"), 24 + 7 * Math.max(text.length(), 4)),
+                px(style.get("height"), 36), radius, fill, stroke, textColor, text);
+    }
+
+    private static int px(String value, int fallback) {
+        if (value == null) return fallback;
+        Matcher m = PX.matcher(value);
+        return m.matches() ? (int) Math.round(Double.parseDouble(m.group(1))) : fallback;
+    }
+
+    private static Color border(String shorthand) {
+        if (shorthand == null || shorthand.toLowerCase(Locale.ROOT).contains("none")) return null;
+        return color(shorthand);
+    }
+
+    /** The first colour in a CSS value (a gradient gives its first stop); null if none or transparent. */
+    static Color color(String css) {
+        if (css == null) return null;
+        Matcher m = COLOR.matcher(css);
+        if (!m.find()) return null;
+        String token = m.group().toLowerCase(Locale.ROOT);
+        try {
+            if (token.startsWith("#")) return hex(token.substring(1));
+            if (token.startsWith("rgb")) {
+                String[] parts = token.substring(token.indexOf('(') + 1, token.length() - 1).split("[,\\s/]+");
+                int alpha = parts.length > 3 ? (int) Math.round(Double.parseDouble(parts[3]) * 255) : 255;
+                if (alpha == 0) return null;
+                return new Color(channel(parts[0]), channel(parts[1]), channel(parts[2]), Math.min(255, alpha));
+            }
+        } catch (RuntimeException e) {
+            return null;
+        }
+        return switch (token) {
+            case "white" -> Color.WHITE;
+            case "black" -> Color.BLACK;
+            case "red" -> Color.RED;
+            case "green" -> new Color(0x008000);
+            case "blue" -> Color.BLUE;
+            case "yellow" -> Color.YELLOW;
+            case "orange" -> new Color(0xffa500);
+            case "gray", "grey" -> Color.GRAY;
+            default -> null;
+        };
+    }
+
+    private static Color hex(String digits) {
+        return switch (digits.length()) {
+            case 3 -> new Color(Integer.parseInt("" + digits.charAt(0) + digits.charAt(0)
+                    + digits.charAt(1) + digits.charAt(1) + digits.charAt(2) + digits.charAt(2), 16));
+            case 6 -> new Color(Integer.parseInt(digits, 16));
+            case 8 -> new Color(Integer.parseInt(digits.substring(0, 6), 16) | (Integer.parseInt(digits.substring(6), 16) << 24), true);
+            default -> null;
+        };
+    }
+
+    private static int channel(String value) {
+        return Math.max(0, Math.min(255, (int) Math.round(Double.parseDouble(value.trim()))));
+    }
+}
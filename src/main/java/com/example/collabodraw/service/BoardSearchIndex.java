@@ -0,0 +1,409 @@
+package com.example.collabodraw.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index over board names and board text. Each board is a document with
+ * two fields, name and content; each term keeps a sorted list of the documents that have it
+ * per field. A query matches the boards that have every query word, as the exact term,
+ * as the start of a longer term, or within a small edit distance of one (1 for words of
+ * 4-7 letters, 2 from 8). Name hits outrank content hits, exact hits outrank prefix hits,
+ * which outrank fuzzy ones; ties go to the most recently modified board.
+ *
+ * Fuzzy candidates come from a trigram table over the term dictionary and are confirmed with
+ * a bounded edit distance, so no query scans the dictionary or the documents. Only the boards
+ * the caller may open are scored.
+ *
+ * A term leaves the dictionary, prefix map and trigram table as soon as no board has it, so
+ * words deleted from boards (typos, half-typed autosaves) don't pile up; its id is reused.
+ * Reads share a lock; a write holds it for one board.
+ */
+public final class BoardSearchIndex {
+
+    private static final Pattern SPLIT = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final int MAX_TERM_LENGTH = 40;
+    private static final int MAX_CONTENT_TERMS = 2000;
+    private static final int MAX_QUERY_TERMS = 8;
+    private static final int MAX_EXPANSIONS = 64;
+
+    private static final float NAME_WEIGHT = 3f;
+    private static final float CONTENT_WEIGHT = 1f;
+    private static final float EXACT = 1f;
+    private static final float PREFIX = 0.8f;
+    private static final float FUZZY = 0.6f;
+
+    /** One matching board. */
+    public record Hit(long boardId, String name, long lastModified, float score, boolean inName, boolean inContent) {}
+
+    /** One page of hits, and how many boards matched in all. */
+    public record Page(List<Hit> hits, int total) {}
+
+    private record Doc(long boardId, String name, long lastModified, int[] nameTerms, int[] contentTerms) {}
+
+    private static final class Postings {
+        int[] name = new int[0];
+        int nameSize;
+        int[] content = new int[0];
+        int contentSize;
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<Doc> docs = new ArrayList<>();
+    private final IntList freeOrdinals = new IntList();
+    private final Map<String, Integer> termIds = new HashMap<>();
+    private final TreeMap<String, Integer> sortedTerms = new TreeMap<>();
+    private final List<String> terms = new ArrayList<>();
+    private final List<Postings> postings = new ArrayList<>();
+    private final IntList freeTermIds = new IntList();
+    private final Map<String, IntList> trigrams = new HashMap<>();
+
+    /** Index or re-index a board. {@code lastModified} is only used to order equal scores. */
+    public void put(long boardId, String name, long lastModified, Collection<String> contentTexts) {
+        Set<String> nameTerms = tokenize(name);
+        Set<String> contentTerms = new LinkedHashSet<>();
+        for (String text : contentTexts) {
+            for (String term : tokenize(text)) {
+                if (contentTerms.size() == MAX_CONTENT_TERMS) break;
+                contentTerms.add(term);
+            }
+        }
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinals.get(boardId);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                unpost(ordinal, docs.get(ordinal));
+            } else if (freeOrdinals.size > 0) {
+                ordinal = freeOrdinals.removeLast();
+            } else {
+                ordinal = docs.size();
+                docs.add(null);
+            }
+            int[] nameIds = termIds(nameTerms);
+            int[] contentIds = termIds(contentTerms);
+            for (int id : nameIds) {
+                Postings p = postings.get(id);
+                p.name = insert(p.name, p.nameSize++, ordinal);
+            }
+            for (int id : contentIds) {
+                Postings p = postings.get(id);
+                p.content = insert(p.content, p.contentSize++, ordinal);
+            }
+            docs.set(ordinal, new Doc(boardId, name != null ? name : "", lastModified, nameIds, contentIds));
+            ordinals.put(boardId, ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long boardId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(boardId);
+            if (ordinal == null) return;
+            unpost(ordinal, docs.get(ordinal));
+            docs.set(ordinal, null);
+            freeOrdinals.add(ordinal);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Boards among {@code allowedBoardIds} matching every word of {@code query}, best first.
+     * An empty query matches nothing.
+     */
+    public Page search(String query, Collection<Long> allowedBoardIds, int offset, int limit) {
+        List<String> words = new ArrayList<>(tokenize(query));
+        if (words.isEmpty() || allowedBoardIds.isEmpty()) return new Page(List.of(), 0);
+        if (words.size() > MAX_QUERY_TERMS) words = words.subList(0, MAX_QUERY_TERMS);
+
+        lock.readLock().lock();
+        try {
+            int n = docs.size();
+            boolean[] allowed = new boolean[n];
+            for (Long boardId : allowedBoardIds) {
+                Integer ordinal = ordinals.get(boardId);
+                if (ordinal != null) allowed[ordinal] = true;
+            }
+            float[] total = new float[n];
+            byte[] matchedWords = new byte[n];
+            byte[] fields = new byte[n];  // 1 = name, 2 = content
+            float[] nameScore = new float[n];
+            float[] contentScore = new float[n];
+            IntList touched = new IntList();
+
+            for (int w = 0; w < words.size(); w++) {
+                touched.size = 0;
+                for (Map.Entry<Integer, Float> expansion : expand(words.get(w)).entrySet()) {
+                    Postings p = postings.get(expansion.getKey());
+                    float weight = expansion.getValue();
+                    for (int i = 0; i < p.nameSize; i++) {
+                        int doc = p.name[i];
+                        if (!allowed[doc] || matchedWords[doc] != w) continue;
+                        if (nameScore[doc] == 0 && contentScore[doc] == 0) touched.add(doc);
+                        nameScore[doc] = Math.max(nameScore[doc], weight * NAME_WEIGHT);
+                    }
+                    for (int i = 0; i < p.contentSize; i++) {
+                        int doc = p.content[i];
+                        if (!allowed[doc] || matchedWords[doc] != w) continue;
+                        if (nameScore[doc] == 0 && contentScore[doc] == 0) touched.add(doc);
+                        contentScore[doc] = Math.max(contentScore[doc], weight * CONTENT_WEIGHT);
+                    }
+                }
+                for (int i = 0; i < touched.size; i++) {
+                    int doc = touched.values[i];
+                    matchedWords[doc]++;
+                    total[doc] += nameScore[doc] + contentScore[doc];
+                    if (nameScore[doc] > 0) fields[doc] |= 1;
+                    if (contentScore[doc] > 0) fields[doc] |= 2;
+                    nameScore[doc] = 0;
+                    contentScore[doc] = 0;
+                }
+                if (touched.size == 0) break;
+            }
+
+            // The last word's matches are exactly the boards that matched every word.
+            List<Hit> hits = new ArrayList<>(touched.size);
+            for (int i = 0; i < touched.size; i++) {
+                int ordinal = touched.values[i];
+                Doc doc = docs.get(ordinal);
+                hits.add(new Hit(doc.boardId(), doc.name(), doc.lastModified(), total[ordinal],
+                        (fields[ordinal] & 1) != 0, (fields[ordinal] & 2) != 0));
+            }
+            hits.sort((a, b) -> {
+                int byScore = Float.compare(b.score(), a.score());
+                if (byScore != 0) return byScore;
+                int byTime = Long.compare(b.lastModified(), a.lastModified());
+                return byTime != 0 ? byTime : Long.compare(b.boardId(), a.boardId());
+            });
+            int from = Math.min(Math.max(0, offset), hits.size());
+            int to = Math.min(hits.size(), from + Math.max(0, limit));
+            return new Page(List.copyOf(hits.subList(from, to)), hits.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Lower-cased, accent-folded words of letters and digits, in first-seen order. */
+    static Set<String> tokenize(String text) {
+        Set<String> out = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) return out;
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        for (String word : SPLIT.split(folded)) {
+            if (!word.isEmpty() && word.length() <= MAX_TERM_LENGTH) out.add(word);
+        }
+        return out;
+    }
+
+    // Term id -> weight: the word itself, terms it starts, and near misses.
+    private Map<Integer, Float> expand(String word) {
+        Map<Integer, Float> out = new HashMap<>();
+        Integer exact = termIds.get(word);
+        if (exact != null) out.put(exact, EXACT);
+        int prefixed = 0;
+        for (Integer id : sortedTerms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+            if (prefixed++ == MAX_EXPANSIONS) break;
+            out.putIfAbsent(id, PREFIX);
+        }
+        int maxEdits = word.length() >= 8 ? 2 : word.length() >= 4 ? 1 : 0;
+        if (maxEdits > 0) {
+            int fuzzy = 0;
+            for (int id : fuzzyCandidates(word, maxEdits)) {
+                if (fuzzy == MAX_EXPANSIONS) break;
+                if (out.putIfAbsent(id, FUZZY) == null) fuzzy++;
+            }
+        }
+        return out;
+    }
+
+    // Terms sharing enough trigrams with the word to be within maxEdits of it, then checked.
+    private List<Integer> fuzzyCandidates(String word, int maxEdits) {
+        List<String> grams = trigramsOf(word);
+        int needed = Math.max(1, grams.size() - 4 * maxEdits); // an adjacent swap breaks up to 4
+        Map<Integer, Integer> shared = new HashMap<>();
+        for (String gram : grams) {
+            IntList ids = trigrams.get(gram);
+            if (ids == null) continue;
+            for (int i = 0; i < ids.size; i++) shared.merge(ids.values[i], 1, Integer::sum);
+        }
+        List<Integer> out = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : shared.entrySet()) {
+            if (entry.getValue() < needed) continue;
+            String term = terms.get(entry.getKey());
+            if (Math.abs(term.length() - word.length()) > maxEdits) continue;
+            if (editDistance(word, term, maxEdits) <= maxEdits) out.add(entry.getKey());
+        }
+        return out;
+    }
+
+    private int[] termIds(Set<String> words) {
+        int[] ids = new int[words.size()];
+        int i = 0;
+        for (String word : words) {
+            Integer id = termIds.get(word);
+            if (id == null) {
+                if (freeTermIds.size > 0) {
+                    id = freeTermIds.removeLast();
+                    terms.set(id, word);
+                    postings.set(id, new Postings());
+                } else {
+                    id = terms.size();
+                    terms.add(word);
+                    postings.add(new Postings());
+                }
+                termIds.put(word, id);
+                sortedTerms.put(word, id);
+                for (String gram : trigramsOf(word)) trigrams.computeIfAbsent(gram, g -> new IntList()).add(id);
+            }
+            ids[i++] = id;
+        }
+        return ids;
+    }
+
+    private void unpost(int ordinal, Doc doc) {
+        for (int id : doc.nameTerms()) {
+            Postings p = postings.get(id);
+            if (delete(p.name, p.nameSize, ordinal)) p.nameSize--;
+        }
+        for (int id : doc.contentTerms()) {
+            Postings p = postings.get(id);
+            if (delete(p.content, p.contentSize, ordinal)) p.contentSize--;
+        }
+        // A term can be in both lists; it is dropped once, when the second check finds it gone.
+        for (int id : doc.nameTerms()) dropIfUnused(id);
+        for (int id : doc.contentTerms()) dropIfUnused(id);
+    }
+
+    private void dropIfUnused(int id) {
+        Postings p = postings.get(id);
+        if (p == null || p.nameSize > 0 || p.contentSize > 0) return;
+        String term = terms.get(id);
+        termIds.remove(term);
+        sortedTerms.remove(term);
+        for (String gram : trigramsOf(term)) {
+            IntList ids = trigrams.get(gram);
+            if (ids == null) continue;
+            ids.removeValue(id);
+            if (ids.size == 0) trigrams.remove(gram);
+        }
+        terms.set(id, null);
+        postings.set(id, null);
+        freeTermIds.add(id);
+    }
+
+    /** Distinct terms currently indexed. */
+    int termCount() {
+        lock.readLock().lock();
+        try {
+            return termIds.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Sorted insert into values[0, size); returns the (possibly grown) array.
+    private static int[] insert(int[] values, int size, int value) {
+        if (size == values.length) values = Arrays.copyOf(values, Math.max(4, size + (size >> 1)));
+        int at = Arrays.binarySearch(values, 0, size, value);
+        if (at < 0) at = -at - 1;
+        System.arraycopy(values, at, values, at + 1, size - at);
+        values[at] = value;
+        return values;
+    }
+
+    private static boolean delete(int[] values, int size, int value) {
+        int at = Arrays.binarySearch(values, 0, size, value);
+        if (at < 0) return false;
+        System.arraycopy(values, at + 1, values, at, size - at - 1);
+        return true;
+    }
+
+    // "$word$" cut into overlapping triples; a short word still yields at least one.
+    static List<String> trigramsOf(String word) {
+        String padded = "$" + word + "$";
+        List<String> out = new ArrayList<>(Math.max(1, padded.length() - 2));
+        for (int i = 0; i + 3 <= padded.length(); i++) out.add(padded.substring(i, i + 3));
+        if (out.isEmpty()) out.add(padded);
+        return out;
+    }
+
+    /**
+     * Optimal string alignment distance (Levenshtein plus adjacent swaps), or anything above
+     * {@code max} once no alignment can stay within it.
+     */
+    static int editDistance(String a, String b, int max) {
+        int[] previous2 = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) previous[j] = j;
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                int d = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    d = Math.min(d, previous2[j - 2] + 1);
+                }
+                current[j] = d;
+                rowMin = Math.min(rowMin, d);
+            }
+            if (rowMin > max) return max + 1;
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        return previous[b.length()];
+    }
+
+    private static final class IntList {
+        int[] values = new int[8];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int removeLast() {
+            return values[--size];
+        }
+
+        // Order doesn't matter to the trigram lists, so the last value fills the gap.
+        void removeValue(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.model.entity.Element;
+import com.example.collabodraw.repository.BoardDeletionRepository;
+import com.example.collabodraw.repository.BoardRepository;
+import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Full-text search over the boards a user can open ({@link BoardSearchIndex}): board names
+ * and the text of sticky notes and text elements in each board's snapshot.
+ *
+ * The index lives in memory and is built on startup by walking every board. After that a
+ * board is re-read and re-indexed on one background thread whenever this instance creates,
+ * saves or deletes it, once the change has committed; repeated changes to a board waiting
+ * in that queue are read once. Every {@code app.search.catch-up-interval} boards modified
+ * since the last pass are re-read too, which brings in saves made on other instances, and
+ * boards being deleted are dropped. Until the first build finishes searches see what has been
+ * indexed so far.
+ *
+ * Access is checked per query against user_board_summary, so a board the user lost access
+ * to (or that was deleted elsewhere and not yet dropped) is never returned.
+ */
+@Service
+public class BoardSearchService {
+
+    private static final Logger log = LoggerFactory.getLogger(BoardSearchService.class);
+    private static final int PAGE = 500;
+
+    private final BoardRepository boardRepository;
+    private final ElementRepository elementRepository;
+    private final SnapshotRefRepository snapshotRefRepository;
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
+    private final BoardDeletionRepository boardDeletionRepository;
+    private final BoardSearchIndex index = new BoardSearchIndex();
+    private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor;
+    private volatile boolean ready;
+    // (last_modified, board_id) of the newest board read by a build or catch-up pass.
+    private volatile LocalDateTime watermark;
+    private volatile Long watermarkId = 0L;
+
+    public BoardSearchService(BoardRepository boardRepository,
+                              ElementRepository elementRepository,
+                              SnapshotRefRepository snapshotRefRepository,
+                              UserBoardSummaryRepository userBoardSummaryRepository,
+                              BoardDeletionRepository boardDeletionRepository) {
+        this.boardRepository = boardRepository;
+        this.elementRepository = elementRepository;
+        this.snapshotRefRepository = snapshotRefRepository;
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
+        this.boardDeletionRepository = boardDeletionRepository;
+        this.executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "search-index");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /** One page of matches among the user's boards. */
+    public BoardSearchIndex.Page search(Long userId, String query, int page, int size) {
+        if (BoardSearchIndex.tokenize(query).isEmpty()) return new BoardSearchIndex.Page(List.of(), 0);
+        List<Long> allowed = userBoardSummaryRepository.findBoardIdsByUserId(userId);
+        return index.search(query, allowed, Math.max(0, page) * size, size);
+    }
+
+    /** Whether the startup build is still running, so results may be incomplete. */
+    public boolean isIndexing() {
+        return !ready;
+    }
+
+    /**
+     * Re-index the board once the current transaction (if any) commits: it was created,
+     * saved, renamed, deleted or pointed at new content.
+     */
+    public void boardChanged(Long boardId) {
+        if (boardId == null) return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(boardId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(boardId);
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        executor.execute(this::build);
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.catch-up-interval:PT30S}")
+    public void catchUp() {
+        if (ready) executor.execute(this::readModified);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void build() {
+        long start = System.nanoTime();
+        try {
+            // Boards saved while the walk runs are picked up by the next catch-up pass.
+            watermark = LocalDateTime.now().minusSeconds(1);
+            watermarkId = 0L;
+            Long after = 0L;
+            List<Board> boards;
+            do {
+                boards = boardRepository.findPageAfter(after, PAGE);
+                for (Board board : boards) {
+                    index(board);
+                    after = board.getBoardId();
+                }
+            } while (boards.size() == PAGE);
+            log.info("Indexed {} boards for search in {} ms", index.size(), (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.warn("Could not build the search index: {}", e.getMessage());
+        } finally {
+            ready = true;
+        }
+    }
+
+    void readModified() {
+        try {
+            List<Board> boards;
+            do {
+                boards = boardRepository.findModifiedAfter(watermark, watermarkId, PAGE);
+                for (Board board : boards) {
+                    index(board);
+                    if (board.getLastModified() != null) {
+                        watermark = board.getLastModified();
+                        watermarkId = board.getBoardId();
+                    }
+                }
+            } while (boards.size() == PAGE);
+            for (Long boardId : boardDeletionRepository.findPending(PAGE)) index.remove(boardId);
+        } catch (Exception e) {
+            log.warn("Search index catch-up failed: {}", e.getMessage());
+        }
+    }
+
+    private void enqueue(Long boardId) {
+        if (!queued.add(boardId)) return;
+        executor.execute(() -> {
+            queued.remove(boardId);
+            try {
+                Board board = boardRepository.findById(boardId);
+                if (board == null) index.remove(boardId);
+                else index(board);
+            } catch (Exception e) {
+                log.warn("Could not index board {}: {}", boardId, e.getMessage());
+            }
+        });
+    }
+
+    private void index(Board board) {
+        List<String> texts = new ArrayList<>();
+        for (BoardScene.Item item : BoardScene.fromSnapshot(snapshotOf(board.getBoardId())).getItems()) {
+            if ((item.kind() == BoardScene.Kind.STICKY || item.kind() == BoardScene.Kind.TEXT) && item.text() != null) {
+                texts.add(item.text());
+            }
+        }
+        LocalDateTime modified = board.getLastModified();
+        long millis = modified != null ? modified.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+        index.put(board.getBoardId(), board.getBoardName(), millis, texts);
+    }
+
+    // Same resolution as WhiteboardService.getBoardSnapshot: own row, shared row, template.
+    private String snapshotOf(Long boardId) {
+        String data = elementRepository.findLatestSnapshotData(boardId);
+        if (data != null) return data;
+        Long sharedId = snapshotRefRepository.findSharedElementId(boardId);
+        Element shared = sharedId != null ? elementRepository.findById(sharedId) : null;
+        if (shared != null) return shared.getData();
+        SnapshotRefRepository.TemplateSnapshot template = snapshotRefRepository.findTemplateSnapshot(boardId);
+        return template != null ? template.data() : null;
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.model.entity.BoardCanvas;
+import com.example.collabodraw.model.entity.BoardCanvasTile;
+import com.example.collabodraw.repository.BoardCanvasRepository;
+import com.example.collabodraw.repository.CanvasTileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.AlphaComposite;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Stores and serves a board's canvas raster as raw PNG bytes.
+ * Uploads are spooled to a temp file through a fixed 8 KiB buffer while the size limit,
+ * PNG signature and SHA-256 are checked, then streamed into the blob column; downloads copy
+ * the blob straight to the response. Heap use is constant regardless of canvas size.
+ *
+ * <p>The raster can also be written incrementally as {@value #TILE_SIZE}px square tiles.
+ * Tiles are painted over the whole-image base (replacing, not blending, the pixels they
+ * cover); a whole-image upload becomes the new base and clears the tiles.
+ */
+@Service
+public class CanvasStorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(CanvasStorageService.class);
+
+    private static final byte[] PNG_SIGNATURE = {
+            (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'
+    };
+    private static final int BUFFER_SIZE = 8192;
+
+    /** Edge length of a raster tile in pixels. Edge tiles may be smaller. */
+    public static final int TILE_SIZE = 256;
+    /** Tiles per axis; bounds the raster at 16384px square. */
+    public static final int MAX_TILES_PER_AXIS = 64;
+    /** Largest width and height of a base image: the area the tiles can cover. */
+    public static final int MAX_EDGE = TILE_SIZE * MAX_TILES_PER_AXIS;
+    // A 256x256 RGBA tile is 256 KiB uncompressed; anything past twice that is not a tile.
+    // board_canvas_tiles.image is a MEDIUMBLOB (16 MiB) to hold it.
+    private static final int MAX_TILE_BYTES = 512 * 1024;
+
+    private final BoardCanvasRepository boardCanvasRepository;
+    private final CanvasTileRepository canvasTileRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxBytes;
+
+    public CanvasStorageService(BoardCanvasRepository boardCanvasRepository,
+                                CanvasTileRepository canvasTileRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.canvas.max-bytes:20971520}") long maxBytes) {
+        this.boardCanvasRepository = boardCanvasRepository;
+        this.canvasTileRepository = canvasTileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Store a PNG read from {@code body}, replacing the board's current raster.
+     * @throws IllegalArgumentException if the body is empty, too large, not a PNG or more
+     *         than {@value #MAX_EDGE}px on a side (checked from its header, before decoding)
+     */
+    public BoardCanvas store(Long boardId, Long userId, InputStream body) throws IOException {
+        Path spool = Files.createTempFile("canvas-" + boardId + "-", ".png");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            // Signature plus IHDR, whose width and height end at byte 24.
+            byte[] head = new byte[24];
+            int headLen = 0;
+            try (InputStream in = new DigestInputStream(body, digest);
+                 OutputStream out = Files.newOutputStream(spool)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int n;
+                while ((n = in.read(buffer)) != -1) {
+                    if (headLen < head.length) {
+                        int take = Math.min(n, head.length - headLen);
+                        System.arraycopy(buffer, 0, head, headLen, take);
+                        headLen += take;
+                    }
+                    size += n;
+                    if (size > maxBytes) {
+                        throw new IllegalArgumentException("Canvas image exceeds " + maxBytes + " bytes");
+                    }
+                    out.write(buffer, 0, n);
+                }
+            }
+            if (size == 0) {
+                throw new IllegalArgumentException("Canvas image is empty");
+            }
+            if (headLen < head.length || !Arrays.equals(Arrays.copyOf(head, PNG_SIGNATURE.length), PNG_SIGNATURE)) {
+                throw new IllegalArgumentException("Canvas image must be a PNG");
+            }
+            int width = readInt(head, 16);
+            int height = readInt(head, 20);
+            if (width <= 0 || height <= 0 || width > MAX_EDGE || height > MAX_EDGE) {
+                throw new IllegalArgumentException("Canvas image must be at most " + MAX_EDGE + "x" + MAX_EDGE + " pixels");
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            long byteSize = size;
+            // One transaction, tiles first: the new base already contains whatever they were
+            // showing, and a tile write racing this one waits on their row locks and then lands
+            // on top of the new base instead of being cleared or shown over the old one.
+            transactionTemplate.executeWithoutResult(status -> {
+                canvasTileRepository.deleteByBoardId(boardId);
+                try (InputStream in = Files.newInputStream(spool)) {
+                    boardCanvasRepository.upsert(boardId, userId, in, byteSize, hash);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.debug("Stored {} byte canvas for board {}", size, boardId);
+            return boardCanvasRepository.findMetaByBoardId(boardId);
+        } finally {
+            Files.deleteIfExists(spool);
+        }
+    }
+
+    /**
+     * Store a legacy {@code data:image/png;base64,...} payload. The base64 text is decoded as
+     * a stream straight from the string, with no intermediate byte[] or substring copy.
+     */
+    public BoardCanvas storeDataUrl(Long boardId, Long userId, String dataUrl) throws IOException {
+        return store(boardId, userId, decodeDataUrl(dataUrl));
+    }
+
+    public BoardCanvas findMeta(Long boardId) {
+        return boardCanvasRepository.findMetaByBoardId(boardId);
+    }
+
+    public boolean writeTo(Long boardId, OutputStream out) {
+        return boardCanvasRepository.streamImage(boardId, out);
+    }
+
+    public void delete(Long boardId) {
+        boardCanvasRepository.deleteByBoardId(boardId);
+        canvasTileRepository.deleteByBoardId(boardId);
+    }
+
+    /**
+     * Store one tile. With {@code expectedVersion} set the write only succeeds if the tile is
+     * still at that version (0 = not yet written); otherwise it is last-writer-wins.
+     * @return the tile's new metadata, or null if the expected version no longer matched
+     * @throws IllegalArgumentException for out-of-range coordinates or a body that is not a
+     *         PNG of at most {@value #TILE_SIZE}px square
+     */
+    public BoardCanvasTile storeTile(Long boardId, Long userId, int tileX, int tileY,
+                                     InputStream body, Long expectedVersion) throws IOException {
+        requireTileCoordinates(tileX, tileY);
+        byte[] image = body.readNBytes(MAX_TILE_BYTES + 1);
+        if (image.length > MAX_TILE_BYTES) {
+            throw new IllegalArgumentException("Tile exceeds " + MAX_TILE_BYTES + " bytes");
+        }
+        requireTilePng(image);
+
+        String hash = HexFormat.of().formatHex(sha256().digest(image));
+        if (expectedVersion == null) {
+            canvasTileRepository.upsertTile(boardId, tileX, tileY, userId, image, hash);
+        } else if (!canvasTileRepository.writeTileIfVersion(boardId, tileX, tileY, userId, image, hash, expectedVersion)) {
+            return null;
+        }
+        return canvasTileRepository.findTile(boardId, tileX, tileY);
+    }
+
+    public List<BoardCanvasTile> listTiles(Long boardId) {
+        return canvasTileRepository.findByBoardId(boardId);
+    }
+
+    public BoardCanvasTile findTile(Long boardId, int tileX, int tileY) {
+        requireTileCoordinates(tileX, tileY);
+        return canvasTileRepository.findTile(boardId, tileX, tileY);
+    }
+
+    public boolean writeTileTo(Long boardId, int tileX, int tileY, OutputStream out) {
+        return canvasTileRepository.streamTile(boardId, tileX, tileY, out);
+    }
+
+    /**
+     * Size in board pixels of the raster {@link #readComposed} would return, from the base's
+     * PNG header and the tile manifest, without decoding anything. Tiles count as whole
+     * {@value #TILE_SIZE}px cells, so this can exceed the composed size by less than a tile.
+     * Null if the board has no raster.
+     */
+    public Dimension rasterSize(Long boardId) {
+        byte[] head = boardCanvasRepository.readImage(boardId, in -> in.readNBytes(24));
+        int width = 0;
+        int height = 0;
+        if (head != null && head.length == 24) {
+            width = Math.max(0, readInt(head, 16));
+            height = Math.max(0, readInt(head, 20));
+        }
+        for (BoardCanvasTile tile : canvasTileRepository.findByBoardId(boardId)) {
+            width = Math.max(width, (tile.getTileX() + 1) * TILE_SIZE);
+            height = Math.max(height, (tile.getTileY() + 1) * TILE_SIZE);
+        }
+        return width > 0 && height > 0 ? new Dimension(width, height) : null;
+    }
+
+    /**
+     * A board's raster as composed from base + tiles: {@code image} covers {@code width} x
+     * {@code height} board pixels, at a lower resolution when it was read subsampled.
+     */
+    public record Raster(BufferedImage image, int width, int height) {}
+
+    /**
+     * Base + tiles composed into one image whose longer edge is at most about {@code maxEdge}
+     * pixels. Larger rasters are decoded subsampled (every n-th pixel and row), so heap use
+     * follows the requested size rather than the canvas area. Returns null if the board has
+     * no raster.
+     */
+    public Raster readComposed(Long boardId, int maxEdge) throws IOException {
+        int tilesWidth = 0;
+        int tilesHeight = 0;
+        for (BoardCanvasTile tile : canvasTileRepository.findByBoardId(boardId)) {
+            tilesWidth = Math.max(tilesWidth, (tile.getTileX() + 1) * TILE_SIZE);
+            tilesHeight = Math.max(tilesHeight, (tile.getTileY() + 1) * TILE_SIZE);
+        }
+        int tilesW = tilesWidth;
+        int tilesH = tilesHeight;
+        int[] step = {subsampling(tilesW, tilesH, maxEdge)};
+        int[] baseSize = {0, 0};
+        BufferedImage base = boardCanvasRepository.readImage(boardId, in -> decode(in, (w, h) -> {
+            baseSize[0] = w;
+            baseSize[1] = h;
+            step[0] = subsampling(Math.max(w, tilesW), Math.max(h, tilesH), maxEdge);
+            return step[0];
+        }));
+        List<PlacedTile> tiles = new ArrayList<>();
+        canvasTileRepository.forEachTileImage(boardId, (x, y, in) -> {
+            BufferedImage img = decode(in, (w, h) -> step[0]);
+            if (img != null) tiles.add(new PlacedTile(x, y, img));
+        });
+
+        int n = step[0];
+        int width = base != null ? baseSize[0] : 0;
+        int height = base != null ? baseSize[1] : 0;
+        for (PlacedTile tile : tiles) {
+            width = Math.max(width, tile.x * TILE_SIZE + tile.image.getWidth() * n);
+            height = Math.max(height, tile.y * TILE_SIZE + tile.image.getHeight() * n);
+        }
+        if (width == 0 || height == 0) return null;
+
+        BufferedImage composed = new BufferedImage(ceilDiv(width, n), ceilDiv(height, n), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = composed.createGraphics();
+        try {
+            if (base != null) g.drawImage(base, 0, 0, null);
+            g.setComposite(AlphaComposite.Src);
+            for (PlacedTile tile : tiles) {
+                g.drawImage(tile.image, tile.x * TILE_SIZE / n, tile.y * TILE_SIZE / n, null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return new Raster(composed, width, height);
+    }
+
+    private static int subsampling(int width, int height, int maxEdge) {
+        int longest = Math.max(width, height);
+        return longest <= maxEdge ? 1 : ceilDiv(longest, Math.max(1, maxEdge));
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    // Decode reading every n-th pixel, n chosen from the image size (read from the header first).
+    private static BufferedImage decode(InputStream in, IntBinaryOperator stepForSize) throws IOException {
+        try (ImageInputStream iis = ImageIO.createImageInputStream(in)) {
+            if (iis == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                int step = stepForSize.applyAsInt(reader.getWidth(0), reader.getHeight(0));
+                ImageReadParam param = reader.getDefaultReadParam();
+                if (step > 1) param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static void requireTileCoordinates(int tileX, int tileY) {
+        if (tileX < 0 || tileY < 0 || tileX >= MAX_TILES_PER_AXIS || tileY >= MAX_TILES_PER_AXIS) {
+            throw new IllegalArgumentException("Tile coordinates out of range");
+        }
+    }
+
+    // Checks the signature and the IHDR width/height (big-endian ints at offsets 16 and 20)
+    // without decoding any pixel data.
+    private static void requireTilePng(byte[] image) {
+        if (image.length < 24 || !Arrays.equals(Arrays.copyOf(image, PNG_SIGNATURE.length), PNG_SIGNATURE)) {
+            throw new IllegalArgumentException("Tile must be a PNG");
+        }
+        int width = readInt(image, 16);
+        int height = readInt(image, 20);
+        if (width <= 0 || height <= 0 || width > TILE_SIZE || height > TILE_SIZE) {
+            throw new IllegalArgumentException("Tile must be at most " + TILE_SIZE + "x" + TILE_SIZE + " pixels");
+        }
+    }
+
+    private static int readInt(byte[] b, int offset) {
+        return ((b[offset] & 0xFF) << 24) | ((b[offset + 1] & 0xFF) << 16)
+                | ((b[offset + 2] & 0xFF) << 8) | (b[offset + 3] & 0xFF);
+    }
+
+    private static class PlacedTile {
+        final int x;
+        final int y;
+        final BufferedImage image;
+
+        PlacedTile(int x, int y, BufferedImage image) {
+            this.x = x;
+            this.y = y;
+            this.image = image;
+        }
+    }
+
+    /**
+     * Decode a base64 data URL (or bare base64 text) into a stream of the raw bytes.
+     * @throws IllegalArgumentException if the value is blank
+     */
+    public static InputStream decodeDataUrl(String dataUrl) {
+        if (dataUrl == null || dataUrl.isBlank()) {
+            throw new IllegalArgumentException("Image data required");
+        }
+        int comma = dataUrl.indexOf(',');
+        int start = dataUrl.startsWith("data:") && comma >= 0 ? comma + 1 : 0;
+        return Base64.getMimeDecoder().wrap(new AsciiInputStream(dataUrl, start));
+    }
+
+    // The chars of a string from an offset on, one byte each, as US-ASCII: a non-ASCII char
+    // becomes '?', which the MIME decoder skips like any other non-base64 char.
+    private static class AsciiInputStream extends InputStream {
+        private final String text;
+        private int pos;
+
+        AsciiInputStream(String text, int start) {
+            this.text = text;
+            this.pos = start;
+        }
+
+        @Override
+        public int read() {
+            return pos < text.length() ? ascii(text.charAt(pos++)) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (pos >= text.length()) return -1;
+            int n = Math.min(len, text.length() - pos);
+            for (int i = 0; i < n; i++) {
+                b[off + i] = (byte) ascii(text.charAt(pos++));
+            }
+            return n;
+        }
+
+        private static int ascii(char c) {
+            return c < 0x80 ? c : '?';
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,34 +1,68 @@
 package com.example.collabodraw.service;
 
 import com.example.collabodraw.repository.BoardMembershipRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
-import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Sends to the per-user /topic/dashboard.{userId}.updates channels. Messages addressed to a
+ * whole board (one per member) are sent from a small bounded pool rather than the request
+ * thread; when {@code app.notifications.push-queue} fan-outs are already waiting, further
+ * ones are dropped (logged) - the pushes are refresh hints, and the bell catches up on its
+ * next push or page load.
+ */
 @Service
 public class DashboardRealtimeService {
+    private static final Logger log = LoggerFactory.getLogger(DashboardRealtimeService.class);
+
     private final SimpMessagingTemplate messagingTemplate;
     private final BoardMembershipRepository membershipRepository;
+    private final ThreadPoolExecutor executor;
 
     public DashboardRealtimeService(SimpMessagingTemplate messagingTemplate,
-                                    BoardMembershipRepository membershipRepository) {
+                                    BoardMembershipRepository membershipRepository,
+                                    @Value("${app.notifications.push-threads:2}") int threads,
+                                    @Value("${app.notifications.push-queue:1000}") int queueCapacity) {
         this.messagingTemplate = messagingTemplate;
         this.membershipRepository = membershipRepository;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, "dashboard-push-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                (r, pool) -> log.warn("Dashboard push queue full; dropping a fan-out"));
     }
 
+    /** One new or rewritten notification for one user, with their unread count after it. */
+    public record NotificationPush(Long userId, Map<String, Object> item, int unreadCount) {}
+
     public void publishBoardEvent(Long boardId, String eventType) {
         if (boardId == null) return;
-        List<Long> memberIds = membershipRepository.findUserIdsByBoardId(boardId);
-        Set<Long> unique = new HashSet<>(memberIds);
-        for (Long userId : unique) {
-            if (userId == null) continue;
-            messagingTemplate.convertAndSend("/topic/dashboard." + userId + ".updates",
-                    Map.of("type", eventType, "boardId", boardId, "at", java.time.Instant.now().toString()));
-        }
+        // Members are read now: by the time the sends run, the board may already be gone.
+        Set<Long> memberIds = new LinkedHashSet<>(membershipRepository.findUserIdsByBoardId(boardId));
+        String at = java.time.Instant.now().toString();
+        executor.execute(() -> {
+            for (Long userId : memberIds) {
+                if (userId == null) continue;
+                send(userId, Map.of("type", eventType, "boardId", boardId, "at", at));
+            }
+        });
     }
 
     public void publishUserEvent(Long userId, String eventType, String message) {
@@ -36,4 +70,56 @@ public class DashboardRealtimeService {
         messagingTemplate.convertAndSend("/topic/dashboard." + userId + ".updates",
                 Map.of("type", eventType, "message", message, "at", java.time.Instant.now().toString()));
     }
+
+    /** A new notification for the user's bells, with their unread count after it. */
+    public void publishNotification(Long userId, Map<String, Object> item, int unreadCount) {
+        if (userId == null) return;
+        messagingTemplate.convertAndSend("/topic/dashboard." + userId + ".updates",
+                notificationMessage(item, unreadCount, java.time.Instant.now().toString()));
+    }
+
+    /** Like {@link #publishNotification}, for many users at once, sent off the caller's thread. */
+    public void publishNotifications(List<NotificationPush> pushes) {
+        if (pushes.isEmpty()) return;
+        String at = java.time.Instant.now().toString();
+        executor.execute(() -> {
+            for (NotificationPush push : pushes) {
+                send(push.userId(), notificationMessage(push.item(), push.unreadCount(), at));
+            }
+        });
+    }
+
+    /** A notification was read in one tab; the user's other tabs clear it too. */
+    public void publishNotificationRead(Long userId, Long notificationId, int unreadCount) {
+        if (userId == null) return;
+        messagingTemplate.convertAndSend("/topic/dashboard." + userId + ".updates",
+                Map.of("type", "notification-read", "id", notificationId, "unreadCount", unreadCount,
+                        "at", java.time.Instant.now().toString()));
+    }
+
+    /** Everything was marked read; the user's bells clear every item. */
+    public void publishAllNotificationsRead(Long userId) {
+        if (userId == null) return;
+        messagingTemplate.convertAndSend("/topic/dashboard." + userId + ".updates",
+                Map.of("type", "notification-read", "all", true, "unreadCount", 0,
+                        "at", java.time.Instant.now().toString()));
+    }
+
+    private static Map<String, Object> notificationMessage(Map<String, Object> item, int unreadCount, String at) {
+        return Map.of("type", "notification", "item", item, "unreadCount", unreadCount, "at", at);
+    }
+
+    // One failed send must not cost the rest of the fan-out.
+    private void send(Long userId, Map<String, Object> message) {
+        try {
+            messagingTemplate.convertAndSend("/topic/dashboard." + userId + ".updates", message);
+        } catch (Exception e) {
+            log.debug("Dashboard push to user {} failed: {}", userId, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
 }
@@ -2,15 +2,20 @@ package com.example.collabodraw.service;
 
 import com.example.collabodraw.model.dto.DrawingElementDTO;
 import com.example.collabodraw.model.entity.Element;
+import com.example.collabodraw.realtime.ActivityCounters;
 import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
 import com.example.collabodraw.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,10 +25,16 @@ public class DrawingService {
 
     private final ElementRepository elementRepository;
     private final UserRepository userRepository;
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
+    private final ActivityCounters activityCounters;
 
-    public DrawingService(ElementRepository elementRepository, UserRepository userRepository) {
+    public DrawingService(ElementRepository elementRepository, UserRepository userRepository,
+                          UserBoardSummaryRepository userBoardSummaryRepository,
+                          ActivityCounters activityCounters) {
         this.elementRepository = elementRepository;
         this.userRepository = userRepository;
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
+        this.activityCounters = activityCounters;
     }
 
     /**
@@ -38,32 +49,64 @@ public class DrawingService {
     }
 
     /**
-     * Clear all drawing elements from a board
+     * Make the board's elements match the given list, writing only the difference: an element
+     * whose elementId matches a stored row updates it (if its type, data or z-order changed),
+     * one without is inserted, and stored rows missing from the list are deleted. Each kind
+     * of change is one JDBC batch, so unchanged rows cost nothing (no write, no audit trigger)
+     * and a large board is a handful of round trips rather than one INSERT per element.
      */
     @Transactional
     public void saveDrawing(Long boardId, List<DrawingElementDTO> elements, String username) {
         Long userId = userRepository.findByUsername(username).getUserId();
 
-        log.debug("Saving {} elements for board {}", elements.size(), boardId);
-
-        // Clear existing
-        elementRepository.deleteByBoardId(boardId);
+        // Snapshot rows belong to saveBoardSnapshot (and may be shared with board copies).
+        Map<Long, Element> stored = new HashMap<>();
+        for (Element element : elementRepository.findDrawingElements(boardId)) {
+            stored.put(element.getElementId(), element);
+        }
 
-        // Save new
+        List<Element> inserts = new ArrayList<>();
+        List<Element> updates = new ArrayList<>();
         for (DrawingElementDTO dto : elements) {
-            Element element = new Element();
-            element.setBoardId(boardId);
-            element.setCreatorId(userId);
-            element.setType(dto.getType());
-            element.setData(dto.getData());
-            element.setZOrder(dto.getzOrder());
-            element.setCreatedAt(LocalDateTime.now());
-            element.setUpdatedAt(LocalDateTime.now());
+            Element existing = dto.getElementId() != null ? stored.remove(dto.getElementId()) : null;
+            if (existing == null) {
+                Element element = new Element();
+                element.setBoardId(boardId);
+                element.setCreatorId(userId);
+                element.setType(dto.getType());
+                element.setData(dto.getData());
+                element.setZOrder(dto.getzOrder());
+                inserts.add(element);
+            } else if (isChanged(existing, dto)) {
+                existing.setType(dto.getType());
+                existing.setData(dto.getData());
+                existing.setZOrder(dto.getzOrder());
+                updates.add(existing);
+            }
+        }
+        List<Long> deletes = new ArrayList<>(stored.keySet());
 
-            elementRepository.save(element);
+        elementRepository.deleteAllById(boardId, deletes);
+        elementRepository.updateAll(boardId, updates);
+        elementRepository.saveAll(inserts);
+        if (!inserts.isEmpty() || !updates.isEmpty() || !deletes.isEmpty()) {
+            userBoardSummaryRepository.touchBoard(boardId);
+            activityCounters.record(boardId, userId);
         }
+
+        log.debug("Saved drawing for board {}: {} inserted, {} updated, {} deleted, {} unchanged",
+                boardId, inserts.size(), updates.size(), deletes.size(),
+                elements.size() - inserts.size() - updates.size());
     }
-    
+
+    private static boolean isChanged(Element stored, DrawingElementDTO dto) {
+        int zOrder = dto.getzOrder() != null ? dto.getzOrder() : 0;
+        int storedZOrder = stored.getZOrder() != null ? stored.getZOrder() : 0;
+        return !Objects.equals(stored.getType(), dto.getType())
+                || !Objects.equals(stored.getData(), dto.getData())
+                || zOrder != storedZOrder;
+    }
+
     /**
      * Get drawing statistics for a board
      */
@@ -0,0 +1,290 @@
+package com.example.collabodraw.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Just enough HTML handling for board snapshots, whose "elements" is the innerHTML of the
+ * board's #canvasElements container as the browser serialized it: splitting it into
+ * top-level elements (each carrying a data-id) and making small edits to one element's
+ * markup. Relies on the markup being browser output (balanced, attribute values quoted),
+ * not on it being arbitrary HTML.
+ */
+public final class ElementHtml {
+
+    private static final Set<String> VOID_TAGS = Set.of(
+            "area", "base", "br", "col", "embed", "hr", "img", "input", "link", "meta", "source", "track", "wbr");
+    // Content of these is text, not markup, so a '<' inside must not be read as a tag.
+    private static final Set<String> RAW_TEXT_TAGS = Set.of("script", "style", "textarea", "title");
+
+    private static final Pattern DATA_ID = Pattern.compile("\\sdata-id\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+    private static final Pattern STYLE_ATTR = Pattern.compile("(\\sstyle\\s*=\\s*\")([^\"]*)(\")");
+    private static final Pattern VALUE_ATTR = Pattern.compile("\\svalue\\s*=\\s*(?:\"[^\"]*\"|'[^']*')");
+    private static final Pattern CLASS_ATTR = Pattern.compile("\\sclass\\s*=\\s*\"([^\"]*)\"");
+
+    private ElementHtml() {}
+
+    /** One top-level node: an element with its data-id, or any other markup/text (id null). */
+    public static final class Node {
+        private final String id;
+        private final String html;
+
+        public Node(String id, String html) {
+            this.id = id;
+            this.html = html;
+        }
+
+        public String getId() { return id; }
+        public String getHtml() { return html; }
+    }
+
+    /** Split serialized innerHTML into its top-level nodes, in document order. */
+    public static List<Node> parseTopLevel(String html) {
+        List<Node> nodes = new ArrayList<>();
+        if (html == null || html.isEmpty()) return nodes;
+        int i = 0;
+        int n = html.length();
+        while (i < n) {
+            int start = i;
+            if (html.startsWith("<!--", i)) {
+                i = skipComment(html, i);
+                nodes.add(new Node(null, html.substring(start, i)));
+            } else if (isStartTag(html, i)) {
+                int tagEnd = endOfTag(html, i);
+                String name = tagName(html, i);
+                String startTag = html.substring(i, tagEnd);
+                i = endOfElement(html, tagEnd, name);
+                nodes.add(new Node(dataId(startTag), html.substring(start, i)));
+            } else {
+                int next = html.indexOf('<', i + 1);
+                i = next < 0 ? n : next;
+                nodes.add(new Node(null, html.substring(start, i)));
+            }
+        }
+        return nodes;
+    }
+
+    /** Sets (or adds) the given inline style properties on the element's outermost tag. */
+    public static String withStyle(String element, Map<String, String> properties) {
+        int tagEnd = endOfTag(element, 0);
+        String startTag = element.substring(0, tagEnd);
+        Matcher m = STYLE_ATTR.matcher(startTag);
+        boolean hasStyle = m.find();
+        // Existing declarations stay as serialized (already escaped); only new values are escaped.
+        Map<String, String> style = new LinkedHashMap<>();
+        if (hasStyle) {
+            for (String declaration : m.group(2).split(";")) {
+                int colon = declaration.indexOf(':');
+                if (colon > 0) style.put(declaration.substring(0, colon).trim(), declaration.substring(colon + 1).trim());
+            }
+        }
+        properties.forEach((k, v) -> style.put(k, escape(v)));
+        StringBuilder css = new StringBuilder();
+        style.forEach((k, v) -> css.append(css.length() > 0 ? " " : "").append(k).append(": ").append(v).append(';'));
+        String newTag = hasStyle
+                ? startTag.substring(0, m.start(2)) + css + startTag.substring(m.end(2))
+                : insertAttribute(startTag, "style", css.toString());
+        return newTag + element.substring(tagEnd);
+    }
+
+    /** Sets the value attribute of the first {@code <input>} with the given class (any input if null). */
+    public static String withInputValue(String element, String className, String value) {
+        int start = findTag(element, "input", className);
+        if (start < 0) return element;
+        int end = endOfTag(element, start);
+        String tag = element.substring(start, end);
+        String withoutValue = VALUE_ATTR.matcher(tag).replaceFirst("");
+        return element.substring(0, start) + insertAttribute(withoutValue, "value", escape(value)) + element.substring(end);
+    }
+
+    /** Replaces the text of the first {@code <textarea>} with the given class. */
+    public static String withTextareaText(String element, String className, String text) {
+        int start = findTag(element, "textarea", className);
+        if (start < 0) return element;
+        int contentStart = endOfTag(element, start);
+        int contentEnd = element.indexOf("</textarea", contentStart);
+        if (contentEnd < 0) return element;
+        return element.substring(0, contentStart) + escape(text) + element.substring(contentEnd);
+    }
+
+    /** The outermost tag's inline style, property names lower-cased; empty if it has none. */
+    public static Map<String, String> style(String element) {
+        Map<String, String> style = new LinkedHashMap<>();
+        if (element == null || element.isEmpty()) return style;
+        Matcher m = STYLE_ATTR.matcher(element.substring(0, endOfTag(element, 0)));
+        if (!m.find()) return style;
+        for (String declaration : unescape(m.group(2)).split(";")) {
+            int colon = declaration.indexOf(':');
+            if (colon > 0) {
+                style.put(declaration.substring(0, colon).trim().toLowerCase(Locale.ROOT), declaration.substring(colon + 1).trim());
+            }
+        }
+        return style;
+    }
+
+    /** The outermost tag's class names. */
+    public static Set<String> classes(String element) {
+        if (element == null || element.isEmpty()) return Set.of();
+        Matcher m = CLASS_ATTR.matcher(element.substring(0, endOfTag(element, 0)));
+        return m.find() ? Set.copyOf(List.of(m.group(1).trim().split("\\s+"))) : Set.of();
+    }
+
+    /**
+     * What the element shows as text: its text nodes, the values of its inputs and the text
+     * of its textareas, with whitespace collapsed. Script and style content is skipped.
+     */
+    public static String text(String element) {
+        if (element == null || element.isEmpty()) return "";
+        StringBuilder out = new StringBuilder();
+        int i = 0;
+        int n = element.length();
+        while (i < n) {
+            int lt = element.indexOf('<', i);
+            int textEnd = lt < 0 ? n : lt;
+            if (textEnd > i) out.append(' ').append(unescape(element.substring(i, textEnd)));
+            if (lt < 0) break;
+            if (element.startsWith("<!--", lt)) {
+                i = skipComment(element, lt);
+            } else if (isStartTag(element, lt)) {
+                int end = endOfTag(element, lt);
+                String name = tagName(element, lt);
+                if (name.equals("input")) {
+                    Matcher value = VALUE_ATTR.matcher(element.substring(lt, end));
+                    if (value.find()) {
+                        String attr = value.group();
+                        int eq = attr.indexOf('=');
+                        String quoted = attr.substring(eq + 1).trim();
+                        out.append(' ').append(unescape(quoted.substring(1, quoted.length() - 1)));
+                    }
+                }
+                i = name.equals("script") || name.equals("style") ? skipRawText(element, end, name) : end;
+            } else {
+                i = endOfTag(element, lt);
+            }
+        }
+        return out.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    public static String unescape(String text) {
+        if (text == null || text.indexOf('&') < 0) return text;
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"")
+                .replace("&#39;", "'").replace("&nbsp;", " ").replace("&amp;", "&");
+    }
+
+    public static String escape(String text) {
+        if (text == null) return "";
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+        return out.toString();
+    }
+
+    // Start index of the first <name ...> tag whose class list contains className.
+    private static int findTag(String html, String name, String className) {
+        String open = "<" + name;
+        for (int i = html.indexOf(open); i >= 0; i = html.indexOf(open, i + 1)) {
+            int after = i + open.length();
+            if (after < html.length() && Character.isLetterOrDigit(html.charAt(after))) continue;
+            if (className == null) return i;
+            Matcher m = CLASS_ATTR.matcher(html.substring(i, endOfTag(html, i)));
+            if (m.find() && List.of(m.group(1).trim().split("\\s+")).contains(className)) return i;
+        }
+        return -1;
+    }
+
+    private static String insertAttribute(String startTag, String name, String escapedValue) {
+        int close = startTag.endsWith("/>") ? startTag.length() - 2 : startTag.length() - 1;
+        return startTag.substring(0, close) + " " + name + "=\"" + escapedValue + "\"" + startTag.substring(close);
+    }
+
+    // Index just past the element whose start tag ends at tagEnd.
+    private static int endOfElement(String html, int tagEnd, String name) {
+        if (VOID_TAGS.contains(name) || html.charAt(tagEnd - 2) == '/') return tagEnd;
+        if (RAW_TEXT_TAGS.contains(name)) return skipRawText(html, tagEnd, name);
+
+        int depth = 1;
+        int i = tagEnd;
+        int n = html.length();
+        while (i < n && depth > 0) {
+            int lt = html.indexOf('<', i);
+            if (lt < 0) return n;
+            if (html.startsWith("<!--", lt)) {
+                i = skipComment(html, lt);
+            } else if (html.startsWith("</", lt)) {
+                i = endOfTag(html, lt);
+                depth--;
+            } else if (isStartTag(html, lt)) {
+                int end = endOfTag(html, lt);
+                String inner = tagName(html, lt);
+                if (RAW_TEXT_TAGS.contains(inner)) {
+                    i = skipRawText(html, end, inner);
+                } else {
+                    if (!VOID_TAGS.contains(inner) && html.charAt(end - 2) != '/') depth++;
+                    i = end;
+                }
+            } else {
+                i = lt + 1;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isStartTag(String html, int i) {
+        return html.charAt(i) == '<' && i + 1 < html.length() && Character.isLetter(html.charAt(i + 1));
+    }
+
+    // Index just past the '>' closing the tag that starts at i, skipping quoted attribute values.
+    private static int endOfTag(String html, int i) {
+        char quote = 0;
+        for (int j = i + 1; j < html.length(); j++) {
+            char c = html.charAt(j);
+            if (quote != 0) {
+                if (c == quote) quote = 0;
+            } else if (c == '"' || c == '\'') {
+                quote = c;
+            } else if (c == '>') {
+                return j + 1;
+            }
+        }
+        return html.length();
+    }
+
+    private static String tagName(String html, int i) {
+        int j = i + 1;
+        while (j < html.length() && (Character.isLetterOrDigit(html.charAt(j)) || html.charAt(j) == '-')) j++;
+        return html.substring(i + 1, j).toLowerCase(Locale.ROOT);
+    }
+
+    private static int skipComment(String html, int i) {
+        int end = html.indexOf("-->", i + 4);
+        return end < 0 ? html.length() : end + 3;
+    }
+
+    private static int skipRawText(String html, int from, String name) {
+        String close = "</" + name;
+        for (int i = html.indexOf("</", from); i >= 0; i = html.indexOf("</", i + 2)) {
+            if (html.regionMatches(true, i, close, 0, close.length())) return endOfTag(html, i);
+        }
+        return html.length();
+    }
+
+    private static String dataId(String startTag) {
+        Matcher m = DATA_ID.matcher(startTag);
+        if (!m.find()) return null;
+        return m.group(1) != null ? m.group(1) : m.group(2);
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.model.entity.Notification;
+import com.example.collabodraw.repository.BoardMembershipRepository;
+import com.example.collabodraw.repository.NotificationRepository;
+import com.example.collabodraw.repository.NotificationRepository.Rewrite;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Notifies every member of a board about something that happened on it. However many
+ * members there are, the rows (and their unread counts) are written as JDBC batches, the
+ * counts for the pushes are read in one statement, and the pushes are handed to
+ * {@link DashboardRealtimeService}'s pool, so the request thread doesn't pay per member.
+ *
+ * Repeats are folded into a digest: when the same kind of notification for the same board
+ * reaches a user again within {@code app.notifications.digest-window} and they haven't read
+ * the first one yet, that row is rewritten ("3 updates ...") instead of adding another. The
+ * digests being built live in this instance's memory; with several instances, each folds its
+ * own.
+ */
+@Service
+public class NotificationFanoutService {
+
+    private final NotificationRepository notificationRepository;
+    private final BoardMembershipRepository membershipRepository;
+    private final NotificationService notificationService;
+    private final DashboardRealtimeService dashboardRealtimeService;
+    private final long windowNanos;
+    private final Map<DigestKey, Digest> digests = new ConcurrentHashMap<>();
+
+    public NotificationFanoutService(NotificationRepository notificationRepository,
+                                     BoardMembershipRepository membershipRepository,
+                                     NotificationService notificationService,
+                                     DashboardRealtimeService dashboardRealtimeService,
+                                     @Value("${app.notifications.digest-window:PT1M}") Duration digestWindow) {
+        this.notificationRepository = notificationRepository;
+        this.membershipRepository = membershipRepository;
+        this.notificationService = notificationService;
+        this.dashboardRealtimeService = dashboardRealtimeService;
+        this.windowNanos = digestWindow.toNanos();
+    }
+
+    private record DigestKey(Long userId, Long boardId, String type) {}
+
+    private record Digest(Long notificationId, int count, long startedNanos) {}
+
+    /**
+     * Notify the board's members, except {@code actorId} (who caused it), and push the
+     * notifications to their bells. Returns how many members were notified.
+     */
+    public int notifyBoard(Long boardId, Long actorId, String type, String title, String message, String linkUrl) {
+        if (boardId == null) return 0;
+        Set<Long> recipients = new LinkedHashSet<>(membershipRepository.findUserIdsByBoardId(boardId));
+        recipients.remove(actorId);
+        recipients.remove(null);
+        if (recipients.isEmpty()) return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        long nowNanos = System.nanoTime();
+        Map<Long, Map<String, Object>> items = new LinkedHashMap<>();
+
+        // Users with a digest still open: fold this event into their unread row.
+        List<Long> folded = new ArrayList<>();
+        List<Rewrite> rewrites = new ArrayList<>();
+        List<Long> fresh = new ArrayList<>();
+        for (Long userId : recipients) {
+            Digest digest = digests.get(new DigestKey(userId, boardId, type));
+            if (digest != null && nowNanos - digest.startedNanos() < windowNanos) {
+                folded.add(userId);
+                rewrites.add(new Rewrite(digest.notificationId(), title, digestMessage(digest.count() + 1, message)));
+            } else {
+                fresh.add(userId);
+            }
+        }
+        boolean[] applied = notificationRepository.rewriteUnread(rewrites, now);
+        for (int i = 0; i < folded.size(); i++) {
+            Long userId = folded.get(i);
+            DigestKey key = new DigestKey(userId, boardId, type);
+            if (!applied[i]) {
+                // Read in the meantime (or gone): start over with a new row.
+                digests.remove(key);
+                fresh.add(userId);
+                continue;
+            }
+            Digest digest = digests.computeIfPresent(key, (k, d) -> new Digest(d.notificationId(), d.count() + 1, d.startedNanos()));
+            if (digest == null) continue;
+            items.put(userId, item(digest.notificationId(), userId, type, title, rewrites.get(i).message(), linkUrl, boardId, now));
+        }
+
+        List<Long> ids = notificationRepository.createAll(fresh, type, title, message, linkUrl, boardId, now);
+        for (int i = 0; i < ids.size() && i < fresh.size(); i++) {
+            Long userId = fresh.get(i);
+            Long id = ids.get(i);
+            digests.put(new DigestKey(userId, boardId, type), new Digest(id, 1, nowNanos));
+            items.put(userId, item(id, userId, type, title, message, linkUrl, boardId, now));
+        }
+
+        Map<Long, Integer> unread = notificationService.unreadCounts(items.keySet());
+        List<DashboardRealtimeService.NotificationPush> pushes = new ArrayList<>(items.size());
+        items.forEach((userId, item) -> pushes.add(
+                new DashboardRealtimeService.NotificationPush(userId, item, unread.getOrDefault(userId, 0))));
+        dashboardRealtimeService.publishNotifications(pushes);
+        return pushes.size();
+    }
+
+    /** Forget digests whose window has passed, so the map only holds ones still folding. */
+    @Scheduled(fixedDelayString = "${app.notifications.digest-window:PT1M}")
+    public void evictExpiredDigests() {
+        long nowNanos = System.nanoTime();
+        digests.values().removeIf(digest -> nowNanos - digest.startedNanos() >= windowNanos);
+    }
+
+    private static String digestMessage(int count, String latest) {
+        return count + " updates on this board. Latest: " + (latest != null ? latest : "");
+    }
+
+    private static Map<String, Object> item(Long id, Long userId, String type, String title, String message,
+                                            String linkUrl, Long boardId, LocalDateTime createdAt) {
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setUserId(userId);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setLinkUrl(linkUrl);
+        notification.setBoardId(boardId);
+        notification.setCreatedAt(createdAt);
+        return NotificationService.toItem(notification);
+    }
+}
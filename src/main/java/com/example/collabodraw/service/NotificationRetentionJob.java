@@ -0,0 +1,62 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.repository.NotificationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Deletes read notifications older than {@code app.notifications.retention}. Every
+ * {@code app.notifications.retention-interval} it removes at most
+ * {@code app.notifications.retention-batches-per-run} batches of
+ * {@code app.notifications.retention-batch-size} rows, each its own short statement, so a
+ * large backlog is worked off over several runs instead of one long delete. Unread
+ * notifications are kept however old they are.
+ */
+@Service
+public class NotificationRetentionJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationRetentionJob.class);
+
+    private final NotificationRepository notificationRepository;
+    private final Duration retention;
+    private final int batchSize;
+    private final int batchesPerRun;
+
+    public NotificationRetentionJob(NotificationRepository notificationRepository,
+                                    @Value("${app.notifications.retention:P30D}") Duration retention,
+                                    @Value("${app.notifications.retention-batch-size:500}") int batchSize,
+                                    @Value("${app.notifications.retention-batches-per-run:20}") int batchesPerRun) {
+        this.notificationRepository = notificationRepository;
+        this.retention = retention;
+        this.batchSize = Math.max(1, batchSize);
+        this.batchesPerRun = Math.max(1, batchesPerRun);
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.retention-interval:PT1H}")
+    public void run() {
+        try {
+            int deleted = purgeOnce();
+            if (deleted > 0) log.info("Deleted {} read notifications older than {}", deleted, retention);
+        } catch (Exception e) {
+            log.warn("Notification retention run failed: {}", e.getMessage());
+        }
+    }
+
+    /** One run's worth of batches; returns how many rows went. */
+    int purgeOnce() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int total = 0;
+        for (int batch = 0; batch < batchesPerRun; batch++) {
+            int deleted = notificationRepository.deleteReadBefore(cutoff, batchSize);
+            total += deleted;
+            if (deleted < batchSize) break;
+        }
+        return total;
+    }
+}
@@ -5,35 +5,104 @@ import com.example.collabodraw.repository.NotificationRepository;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
+/**
+ * Notifications are pushed, not polled: {@link #create} stores the row and sends it to the
+ * user's /topic/dashboard.{userId}.updates channel, and reads send the new unread count the
+ * same way, so open bells stay current without asking. The table is read once per page load
+ * ({@link #recentForUser}) and after a reconnect ({@link #sinceForUser}).
+ *
+ * Unread counts are stored per user (notification_unread, see {@link NotificationRepository})
+ * and kept in step by the repository's writes, so reading one is a primary-key lookup.
+ */
 @Service
 public class NotificationService {
+    private static final int RECENT_LIMIT = 20;
+
     private final NotificationRepository notificationRepository;
+    private final DashboardRealtimeService dashboardRealtimeService;
 
-    public NotificationService(NotificationRepository notificationRepository) {
+    public NotificationService(NotificationRepository notificationRepository,
+                               DashboardRealtimeService dashboardRealtimeService) {
         this.notificationRepository = notificationRepository;
+        this.dashboardRealtimeService = dashboardRealtimeService;
     }
 
     public List<Notification> recentForUser(Long userId) {
-        return notificationRepository.findRecentByUser(userId, 20);
+        return notificationRepository.findRecentByUser(userId, RECENT_LIMIT);
+    }
+
+    /**
+     * Up to the newest {@value #RECENT_LIMIT} notifications with an id above {@code sinceId},
+     * plus those folded into a digest since {@code changedSince} (which keep their id).
+     */
+    public List<Notification> sinceForUser(Long userId, Long sinceId, LocalDateTime changedSince) {
+        return notificationRepository.findByUserSince(userId, sinceId, changedSince, RECENT_LIMIT);
+    }
+
+    public int unreadCount(Long userId) {
+        return notificationRepository.countUnread(userId);
+    }
+
+    /** Unread counts for several users, in one statement; users with none are left out. */
+    Map<Long, Integer> unreadCounts(Collection<Long> userIds) {
+        return notificationRepository.countUnread(userIds);
     }
 
     public void markRead(Long userId, Long notificationId) {
-        notificationRepository.markRead(notificationId, userId);
+        if (!notificationRepository.markRead(notificationId, userId)) return;
+        dashboardRealtimeService.publishNotificationRead(userId, notificationId, unreadCount(userId));
+    }
+
+    /** Mark all of the user's notifications read; returns how many were unread. */
+    public int markAllRead(Long userId) {
+        int marked = notificationRepository.markAllRead(userId);
+        if (marked > 0) dashboardRealtimeService.publishAllNotificationsRead(userId);
+        return marked;
     }
 
     public void create(Long userId, String type, String title, String message) {
-        notificationRepository.create(userId, type, title, message, null, null, LocalDateTime.now());
+        create(userId, type, title, message, null, null, LocalDateTime.now());
     }
 
     // Overload with link and board context
     public void create(Long userId, String type, String title, String message, String linkUrl, Long boardId) {
-        notificationRepository.create(userId, type, title, message, linkUrl, boardId, LocalDateTime.now());
+        create(userId, type, title, message, linkUrl, boardId, LocalDateTime.now());
     }
 
     // Full overload allowing custom timestamp
     public void create(Long userId, String type, String title, String message, String linkUrl, Long boardId, LocalDateTime createdAt) {
-        notificationRepository.create(userId, type, title, message, linkUrl, boardId, createdAt);
+        Long id = notificationRepository.create(userId, type, title, message, linkUrl, boardId, createdAt);
+        if (id == null) return;
+
+        int unread = unreadCount(userId);
+
+        Notification notification = new Notification();
+        notification.setId(id);
+        notification.setUserId(userId);
+        notification.setType(type);
+        notification.setTitle(title);
+        notification.setMessage(message);
+        notification.setLinkUrl(linkUrl);
+        notification.setBoardId(boardId);
+        notification.setCreatedAt(createdAt);
+        dashboardRealtimeService.publishNotification(userId, toItem(notification), unread);
+    }
+
+    /** The JSON shape the bell renders, for both the REST responses and the pushes. */
+    public static Map<String, Object> toItem(Notification n) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", n.getId());
+        m.put("type", n.getType());
+        m.put("title", n.getTitle());
+        m.put("message", n.getMessage());
+        m.put("read", n.isRead());
+        m.put("linkUrl", n.getLinkUrl());
+        m.put("createdAt", n.getCreatedAt() != null ? n.getCreatedAt().toString() : null);
+        return m;
     }
 }
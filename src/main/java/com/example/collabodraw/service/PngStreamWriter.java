@@ -0,0 +1,129 @@
+package com.example.collabodraw.service;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an 8-bit RGB PNG a band of rows at a time, so an image of any height is encoded
+ * holding only the band being written and one compressed IDAT chunk. ImageIO needs the
+ * whole image up front, which for a large export is the very buffer we want to avoid.
+ * Rows are written unfiltered; pixels are opaque, alpha is dropped.
+ */
+final class PngStreamWriter {
+
+    private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n'};
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final OutputStream out;
+    private final int width;
+    private final int height;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final ChunkStream chunks = new ChunkStream();
+    private final DeflaterOutputStream idat;
+    private final byte[] row;
+    private final int[] pixels;
+    private int rowsWritten;
+
+    PngStreamWriter(OutputStream out, int width, int height) throws IOException {
+        if (width <= 0 || height <= 0) throw new IllegalArgumentException("Empty image");
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.row = new byte[1 + 3 * width];
+        this.pixels = new int[width];
+        this.idat = new DeflaterOutputStream(chunks, deflater, CHUNK_SIZE);
+        out.write(SIGNATURE);
+        ByteArrayOutputStream ihdr = new ByteArrayOutputStream(13);
+        writeInt(ihdr, width);
+        writeInt(ihdr, height);
+        ihdr.write(8);  // bit depth
+        ihdr.write(2);  // colour type: truecolour
+        ihdr.write(0);  // deflate
+        ihdr.write(0);  // adaptive filtering
+        ihdr.write(0);  // no interlace
+        chunk("IHDR", ihdr.toByteArray(), ihdr.size());
+    }
+
+    /** Append the first {@code rows} rows of {@code band}, which must be {@code width} wide. */
+    void writeRows(BufferedImage band, int rows) throws IOException {
+        if (rowsWritten + rows > height) throw new IllegalStateException("More rows than the image has");
+        for (int y = 0; y < rows; y++) {
+            band.getRGB(0, y, width, 1, pixels, 0, width);
+            row[0] = 0;  // filter: none
+            for (int x = 0, i = 1; x < width; x++) {
+                int rgb = pixels[x];
+                row[i++] = (byte) (rgb >> 16);
+                row[i++] = (byte) (rgb >> 8);
+                row[i++] = (byte) rgb;
+            }
+            idat.write(row);
+        }
+        rowsWritten += rows;
+    }
+
+    /** Flush the last IDAT and write IEND. Does not close the underlying stream. */
+    void finish() throws IOException {
+        if (rowsWritten != height) throw new IllegalStateException(rowsWritten + " of " + height + " rows written");
+        idat.finish();
+        chunks.flushChunk();
+        deflater.end();
+        chunk("IEND", new byte[0], 0);
+        out.flush();
+    }
+
+    private void chunk(String type, byte[] data, int length) throws IOException {
+        byte[] typeBytes = type.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        writeInt(out, length);
+        out.write(typeBytes);
+        out.write(data, 0, length);
+        writeInt(out, (int) crc.getValue());
+    }
+
+    private static void writeInt(OutputStream target, int value) throws IOException {
+        target.write(value >>> 24);
+        target.write(value >>> 16);
+        target.write(value >>> 8);
+        target.write(value);
+    }
+
+    // Deflated bytes, cut into IDAT chunks of at most CHUNK_SIZE.
+    private final class ChunkStream extends OutputStream {
+        private final byte[] buffer = new byte[CHUNK_SIZE];
+        private int count;
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) flushChunk();
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) flushChunk();
+                int n = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, n);
+                count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        // DeflaterOutputStream.finish() does not flush its target; finish() does it explicitly.
+        void flushChunk() throws IOException {
+            if (count > 0) {
+                chunk("IDAT", buffer, count);
+                count = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.realtime.ActivityCounters;
+import com.example.collabodraw.repository.SharedBoardRepository;
+import com.example.collabodraw.repository.SharedBoardRepository.PendingInvite;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository.Summary;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Builds the /shared page and /api/shared/data payload. Two queries in total (the user's
+ * user_board_summary rows, then invites) regardless of how many boards are shared with them;
+ * recent activity comes from {@link ActivityCounters}.
+ */
+@Service
+public class SharedBoardsService {
+
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
+    private final SharedBoardRepository sharedBoardRepository;
+    private final ActivityCounters activityCounters;
+
+    public SharedBoardsService(UserBoardSummaryRepository userBoardSummaryRepository,
+                               SharedBoardRepository sharedBoardRepository,
+                               ActivityCounters activityCounters) {
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
+        this.sharedBoardRepository = sharedBoardRepository;
+        this.activityCounters = activityCounters;
+    }
+
+    /** {@code boards}, {@code stats} and {@code pendingInvites} for the given user. */
+    public Map<String, Object> buildPayload(Long userId) {
+        List<Map<String, Object>> boards = new ArrayList<>();
+        int activeRecently = 0;
+
+        for (Summary board : userBoardSummaryRepository.findSharedWithUser(userId)) {
+            String ownerName = board.ownerUsername() != null ? board.ownerUsername() : "Unknown";
+            String ownerInitials = ownerName.length() >= 2
+                    ? ownerName.substring(0, 2).toUpperCase(Locale.ROOT)
+                    : ownerName.toUpperCase(Locale.ROOT);
+            boolean recent = activityCounters.boardCount(board.boardId()) > 0;
+            if (recent) activeRecently++;
+
+            Map<String, Object> item = new HashMap<>();
+            item.put("id", board.boardId());
+            item.put("boardId", board.boardId());
+            item.put("title", board.boardName());
+            item.put("userPermission", mapPermission(board.role()));
+            item.put("ownerUsername", ownerName);
+            item.put("ownerInitials", ownerInitials);
+            item.put("lastActivityAt", board.lastModified());
+            item.put("lastActivity", board.lastModified() != null ? board.lastModified().toString() : "No updates yet");
+            item.put("hasRecentActivity", recent);
+            item.put("recentActivityText", board.lastActivityText() != null ? board.lastActivityText() : "No recent activity");
+            item.put("collaboratorCount", board.collaboratorCount());
+            item.put("icon", chooseIcon(board.boardName()));
+            boards.add(item);
+        }
+
+        List<Map<String, Object>> pendingItems = new ArrayList<>();
+        for (PendingInvite invite : sharedBoardRepository.findPendingInvitesFor(userId)) {
+            Map<String, Object> pending = new HashMap<>();
+            pending.put("inviteId", invite.inviteId());
+            pending.put("boardId", invite.boardId());
+            pending.put("boardName", invite.boardName() != null ? invite.boardName() : "Board");
+            pending.put("inviter", invite.inviterUsername() != null ? invite.inviterUsername() : "Unknown");
+            pending.put("role", invite.role());
+            pending.put("createdAt", invite.createdAt());
+            pendingItems.add(pending);
+        }
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalSharedBoards", boards.size());
+        stats.put("activeCollaborations", activeRecently);
+        stats.put("pendingInvites", pendingItems.size());
+        stats.put("recentActivityTime", activeRecently > 0 ? "Live" : "No activity");
+
+        return Map.of("boards", boards, "stats", stats, "pendingInvites", pendingItems);
+    }
+
+    private String mapPermission(String role) {
+        if (role == null) return "view";
+        return switch (role.toLowerCase(Locale.ROOT)) {
+            case "editor" -> "edit";
+            case "viewer" -> "view";
+            default -> "view";
+        };
+    }
+
+    private String chooseIcon(String name) {
+        String n = name == null ? "" : name.toLowerCase(Locale.ROOT);
+        if (n.contains("roadmap")) return "🛣️";
+        if (n.contains("design") || n.contains("wire")) return "🎨";
+        if (n.contains("idea") || n.contains("brain")) return "💡";
+        if (n.contains("kanban") || n.contains("task")) return "📋";
+        return "📊";
+    }
+}
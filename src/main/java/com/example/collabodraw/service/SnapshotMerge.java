@@ -0,0 +1,162 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.service.ElementHtml.Node;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Three-way merge of board snapshots, element by element.
+ *
+ * Each top-level child of a snapshot's "elements" carrying a data-id is one element (sticky,
+ * text, image...; see {@link ElementHtml}). Given
+ * the snapshot a client loaded (base), the one currently stored (theirs) and the client's
+ * save (mine), an element changed on only one side takes that side's version, including
+ * adds and deletes; an element changed differently on both sides is a conflict.
+ *
+ * Anything without a data-id (whitespace, the #wb-snapshot raster preview) and the view
+ * settings (zoom, pan, tool...) are per-client and always come from mine. Element order
+ * follows mine, with elements only theirs added appended at the end.
+ */
+public final class SnapshotMerge {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Pattern CLASS_ATTR = Pattern.compile("(\\sclass\\s*=\\s*\")([^\"]*)(\")");
+    // Interaction state the editor toggles on elements; never a real edit.
+    private static final Pattern TRANSIENT_CLASSES = Pattern.compile("\\b(?:selected|dragging)\\b");
+    // Set by ElementManager.setupElementInteraction in the browser that serialized the element;
+    // elements written server-side (the live board model) don't carry it.
+    private static final Pattern LISTENER_MARKER = Pattern.compile("\\sdata-has-listeners\\s*=\\s*\"[^\"]*\"");
+
+    private SnapshotMerge() {}
+
+    /** Merged snapshot JSON, or the ids of the elements that collided. */
+    public static final class Result {
+        private final String snapshotJson;
+        private final String elements;
+        private final List<String> conflicts;
+
+        Result(String snapshotJson, String elements, List<String> conflicts) {
+            this.snapshotJson = snapshotJson;
+            this.elements = elements;
+            this.conflicts = conflicts;
+        }
+
+        public boolean hasConflicts() { return !conflicts.isEmpty(); }
+        /** Null when there are conflicts. */
+        public String getSnapshotJson() { return snapshotJson; }
+        /** Just the merged elements HTML; null when there are conflicts. */
+        public String getElements() { return elements; }
+        public List<String> getConflicts() { return conflicts; }
+    }
+
+    /**
+     * Merge three snapshot JSON documents ({@code {"elements": "...", "settings": {...}}}).
+     * @throws IllegalArgumentException if one of them is not a snapshot document
+     */
+    public static Result mergeSnapshots(String baseJson, String theirsJson, String mineJson) {
+        Map<String, Object> mine = readSnapshot(mineJson);
+        ElementsResult merged = mergeElements(
+                elementsOf(readSnapshot(baseJson)), elementsOf(readSnapshot(theirsJson)), elementsOf(mine));
+        if (!merged.conflicts.isEmpty()) {
+            return new Result(null, null, merged.conflicts);
+        }
+        Map<String, Object> out = new LinkedHashMap<>(mine);
+        out.put("elements", merged.html);
+        try {
+            return new Result(MAPPER.writeValueAsString(out), merged.html, List.of());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not write merged snapshot", e);
+        }
+    }
+
+    static ElementsResult mergeElements(String base, String theirs, String mine) {
+        Map<String, String> baseById = byId(ElementHtml.parseTopLevel(base));
+        List<Node> theirNodes = ElementHtml.parseTopLevel(theirs);
+        Map<String, String> theirsById = byId(theirNodes);
+        List<Node> mineNodes = ElementHtml.parseTopLevel(mine);
+        Set<String> mineIds = byId(mineNodes).keySet();
+
+        StringBuilder out = new StringBuilder(Math.max(mine.length(), theirs.length()));
+        Set<String> conflicts = new LinkedHashSet<>();
+        for (Node node : mineNodes) {
+            if (node.getId() == null) {
+                out.append(node.getHtml());
+                continue;
+            }
+            String pick = pick(baseById.get(node.getId()), theirsById.get(node.getId()), node.getHtml(), node.getId(), conflicts);
+            if (pick != null) out.append(pick);
+        }
+        for (Node node : theirNodes) {
+            if (node.getId() == null || mineIds.contains(node.getId())) continue;
+            String pick = pick(baseById.get(node.getId()), node.getHtml(), null, node.getId(), conflicts);
+            if (pick != null) out.append(pick);
+        }
+        return new ElementsResult(out.toString(), new ArrayList<>(conflicts));
+    }
+
+    // The merged version of one element (null = deleted); records a conflict when both sides
+    // changed it differently.
+    private static String pick(String base, String theirs, String mine, String id, Set<String> conflicts) {
+        if (same(theirs, mine) || same(base, theirs)) return mine;
+        if (same(base, mine)) return theirs;
+        conflicts.add(id);
+        return null;
+    }
+
+    private static boolean same(String a, String b) {
+        return Objects.equals(normalize(a), normalize(b));
+    }
+
+    private static String normalize(String element) {
+        if (element == null) return null;
+        element = LISTENER_MARKER.matcher(element).replaceAll("");
+        Matcher m = CLASS_ATTR.matcher(element);
+        if (!m.find()) return element;
+        String classes = TRANSIENT_CLASSES.matcher(m.group(2)).replaceAll("").trim().replaceAll("\\s+", " ");
+        return element.substring(0, m.start(2)) + classes + element.substring(m.end(2));
+    }
+
+    static final class ElementsResult {
+        final String html;
+        final List<String> conflicts;
+
+        ElementsResult(String html, List<String> conflicts) {
+            this.html = html;
+            this.conflicts = conflicts;
+        }
+    }
+
+    private static Map<String, String> byId(List<Node> nodes) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Node node : nodes) {
+            if (node.getId() != null) map.putIfAbsent(node.getId(), node.getHtml());
+        }
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readSnapshot(String json) {
+        if (json == null || json.isBlank()) return new LinkedHashMap<>();
+        try {
+            return MAPPER.readValue(json, Map.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Not a board snapshot", e);
+        }
+    }
+
+    private static String elementsOf(Map<String, Object> snapshot) {
+        Object elements = snapshot.get("elements");
+        return elements instanceof String s ? s : "";
+    }
+}
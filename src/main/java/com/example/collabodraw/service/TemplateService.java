@@ -2,63 +2,86 @@ package com.example.collabodraw.service;
 
 import com.example.collabodraw.model.entity.Template;
 import com.example.collabodraw.repository.TemplateRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.LongAdder;
 
+/**
+ * Serves the template gallery from an immutable {@link Catalog} snapshot: the ordered list,
+ * the popular list, the categories with their templates and a key lookup are all worked out
+ * once when the snapshot is built, so the gallery, the dashboard and template lookups read
+ * plain fields and never touch the database. The snapshot is rebuilt every
+ * {@code app.templates.catalog-refresh} and by {@link #refreshCatalog()}, which whatever
+ * writes the templates table should call. Usage counts shown in the gallery can therefore
+ * trail by up to one refresh.
+ *
+ * The templates in a snapshot are shared by every reader; treat them as read-only.
+ *
+ * Template uses are counted in memory, one {@link LongAdder} per template, and added to
+ * usage_count as one batched update every {@code app.templates.usage-flush-interval} and on
+ * shutdown, so a popular template's row isn't updated once per use. A crash loses at most one
+ * interval's uses.
+ */
 @Service
 public class TemplateService {
+    private static final Logger log = LoggerFactory.getLogger(TemplateService.class);
+
     private final TemplateRepository templateRepository;
-    // Fallback only: used when the DB usage-count update fails. Previously backed by
-    // java.util.prefs.Preferences, which on Windows is the registry and on Linux is a
-    // per-user file store that may be unwritable/non-existent in a container - it would
-    // silently no-op or diverge per instance. An in-memory map has the same "not shared
-    // across instances" limitation as any per-process fallback, but at least behaves
-    // identically on every OS/deployment target instead of failing unpredictably.
-    private final Map<String, AtomicInteger> fallbackUsage = new ConcurrentHashMap<>();
+    // Uses not yet flushed, by template key. A failed flush puts its counts back here.
+    private final Map<String, LongAdder> pendingUsage = new ConcurrentHashMap<>();
+    // Uses of templates with no row to flush to (the built-in defaults, when the table is
+    // empty). Kept in memory, per instance, and shown on the defaults. This replaces the old
+    // java.util.prefs.Preferences fallback, which on Windows is the registry and on Linux a
+    // per-user file store that may be unwritable in a container.
+    private final Map<String, LongAdder> unstoredUsage = new ConcurrentHashMap<>();
+    private volatile Catalog catalog;
 
     public TemplateService(TemplateRepository templateRepository) {
         this.templateRepository = templateRepository;
     }
 
+    /**
+     * One consistent view of the catalog. {@code all} is in gallery order (featured first,
+     * then by usage); {@code popular} and each {@code byCategory} list keep that order.
+     * {@code byKey} is keyed on the lower-cased template key. {@code storedCount} is how many
+     * rows the templates table held (0 when the built-in defaults are being shown).
+     */
+    record Catalog(List<Template> all, List<Template> popular, List<String> categories,
+                   Map<String, List<Template>> byCategory, Map<String, Template> byKey, int storedCount) {}
+
     public List<Template> getAllTemplates() {
-        List<Template> fromDb = templateRepository.findAll();
-        if (fromDb == null || fromDb.isEmpty()) {
-            return defaultTemplates();
-        }
-        fromDb.forEach(this::applyIconFallback);
-        return fromDb;
+        return catalog().all();
     }
 
     public List<Template> getPopularTemplates(int limit) {
-        List<Template> all = getAllTemplates();
-        int cap = Math.max(limit, 0);
-        return all.stream()
-                .filter(t -> t.isFeatured() || "popular".equalsIgnoreCase(t.getCategory()) || t.getUsageCount() > 0)
-                .limit(cap)
-                .collect(Collectors.toList());
+        List<Template> popular = catalog().popular();
+        if (limit <= 0) return List.of();
+        return limit >= popular.size() ? popular : popular.subList(0, limit);
+    }
+
+    /** The templates in {@code category} (case-insensitive), in gallery order. */
+    public List<Template> getTemplatesInCategory(String category) {
+        if (category == null || category.isBlank()) return List.of();
+        return catalog().byCategory().getOrDefault(category.toLowerCase(Locale.ROOT), List.of());
     }
 
     public Template getTemplateByKey(String key) {
         if (key == null || key.isBlank()) return null;
-        Template dbTemplate = templateRepository.findByKey(key);
-        if (dbTemplate != null) {
-            applyIconFallback(dbTemplate);
-            return dbTemplate;
-        }
-        return defaultTemplates().stream()
-                .filter(t -> key.equalsIgnoreCase(t.getTemplateKey()))
-                .findFirst()
-                .orElse(null);
+        return catalog().byKey().get(key.toLowerCase(Locale.ROOT));
     }
 
     public int getTotalTemplateCount() {
-        return templateRepository.countAll();
+        return catalog().storedCount();
     }
 
     // The category filter pills used to be a hardcoded list (Business/Design/Education/
@@ -68,27 +91,111 @@ public class TemplateService {
     // the pill list from whatever categories are actually present means the filter always
     // reflects real data instead of a taxonomy nobody's using.
     public List<String> getDistinctCategories() {
-        return getAllTemplates().stream()
-                .map(Template::getCategory)
-                .filter(c -> c != null && !c.isBlank())
-                .distinct()
-                .sorted(String.CASE_INSENSITIVE_ORDER)
-                .collect(Collectors.toList());
+        return catalog().categories();
+    }
+
+    /** Rebuild the snapshot from the templates table; readers switch over in one step. */
+    @Scheduled(fixedDelayString = "${app.templates.catalog-refresh:PT5M}")
+    public void refreshCatalog() {
+        catalog = buildCatalog();
+    }
+
+    private Catalog catalog() {
+        Catalog current = catalog;
+        if (current == null) {
+            synchronized (this) {
+                current = catalog;
+                if (current == null) {
+                    current = buildCatalog();
+                    catalog = current;
+                }
+            }
+        }
+        return current;
     }
 
+    private Catalog buildCatalog() {
+        List<Template> fromDb = templateRepository.findAll();
+        List<Template> defaults = defaultTemplates();
+        List<Template> all;
+        if (fromDb == null || fromDb.isEmpty()) {
+            all = defaults;
+        } else {
+            fromDb.forEach(this::applyIconFallback);
+            all = fromDb;
+        }
+
+        List<Template> popular = all.stream()
+                .filter(t -> t.isFeatured() || "popular".equalsIgnoreCase(t.getCategory()) || t.getUsageCount() > 0)
+                .toList();
+
+        // First spelling seen names the pill; "Design" and "design" are one category.
+        Map<String, String> names = new LinkedHashMap<>();
+        Map<String, List<Template>> byCategory = new LinkedHashMap<>();
+        for (Template t : all) {
+            String category = t.getCategory();
+            if (category == null || category.isBlank()) continue;
+            String folded = category.toLowerCase(Locale.ROOT);
+            names.putIfAbsent(folded, category);
+            byCategory.computeIfAbsent(folded, k -> new ArrayList<>()).add(t);
+        }
+        List<String> categories = names.values().stream().sorted(String.CASE_INSENSITIVE_ORDER).toList();
+        Map<String, List<Template>> frozenByCategory = new LinkedHashMap<>();
+        byCategory.forEach((k, v) -> frozenByCategory.put(k, List.copyOf(v)));
+
+        // Stored rows win; the built-in defaults still answer keys the table doesn't have.
+        Map<String, Template> byKey = new LinkedHashMap<>();
+        for (Template t : defaults) putKey(byKey, t);
+        if (all != defaults) for (Template t : all) putKey(byKey, t);
+
+        return new Catalog(List.copyOf(all), popular, categories, Map.copyOf(frozenByCategory),
+                Map.copyOf(byKey), fromDb != null ? fromDb.size() : 0);
+    }
+
+    private static void putKey(Map<String, Template> byKey, Template t) {
+        if (t.getTemplateKey() != null && !t.getTemplateKey().isBlank()) {
+            byKey.put(t.getTemplateKey().toLowerCase(Locale.ROOT), t);
+        }
+    }
+
+    /** Count one use of the template; keys that match no template are ignored. */
     public void incrementUsage(String templateKey) {
-        if (templateKey == null || templateKey.isBlank()) return;
-        boolean incrementedDb = false;
+        Template template = getTemplateByKey(templateKey);
+        if (template == null) return;
+        pendingUsage.computeIfAbsent(template.getTemplateKey(), k -> new LongAdder()).increment();
+    }
+
+    /** Write the uses counted since the last flush, one batched statement for all templates. */
+    @Scheduled(fixedDelayString = "${app.templates.usage-flush-interval:PT10S}")
+    public void flushUsage() {
+        Map<String, Long> deltas = new LinkedHashMap<>();
+        pendingUsage.forEach((key, adder) -> {
+            long delta = adder.sumThenReset();
+            if (delta > 0) deltas.put(key, delta);
+        });
+        if (deltas.isEmpty()) return;
+        int[] counts;
         try {
-            incrementedDb = templateRepository.incrementUsage(templateKey) > 0;
-        } catch (Exception ignored) {
-            incrementedDb = false;
+            counts = templateRepository.addUsage(deltas);
+        } catch (Exception e) {
+            deltas.forEach((key, delta) -> pendingUsage.computeIfAbsent(key, k -> new LongAdder()).add(delta));
+            log.warn("Could not flush usage for {} templates, will retry: {}", deltas.size(), e.getMessage());
+            return;
         }
-        if (!incrementedDb) {
-            incrementFallbackUsage(templateKey);
+        int i = 0;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            if (i < counts.length && counts[i] == 0) {
+                unstoredUsage.computeIfAbsent(entry.getKey(), k -> new LongAdder()).add(entry.getValue());
+            }
+            i++;
         }
     }
 
+    @PreDestroy
+    public void shutdown() {
+        flushUsage();
+    }
+
     private List<Template> defaultTemplates() {
         List<Template> items = new ArrayList<>();
         items.add(template("mindmap", "Mind Map", "Organize ideas and branches quickly", "popular", "zap", "FREE", false, true, 128));
@@ -104,9 +211,9 @@ public class TemplateService {
         items.add(template("okrs", "OKR Planner", "Set objectives and key results", "business", "target", "PRO", false, false, 37));
         items.add(template("blank", "Blank Board", "Start from an empty canvas", "popular", "file-text", "FREE", false, false, 999));
         for (Template item : items) {
-            int fallback = getFallbackUsage(item.getTemplateKey());
-            if (fallback > 0) {
-                item.setUsageCount(Math.max(item.getUsageCount(), fallback));
+            LongAdder unstored = unstoredUsage.get(item.getTemplateKey());
+            if (unstored != null) {
+                item.setUsageCount(item.getUsageCount() + (int) unstored.sum());
             }
         }
         return items;
@@ -162,15 +269,4 @@ public class TemplateService {
         t.setUsageCount(usage);
         return t;
     }
-
-    private int getFallbackUsage(String key) {
-        if (key == null || key.isBlank()) return 0;
-        AtomicInteger count = fallbackUsage.get(key);
-        return count != null ? count.get() : 0;
-    }
-
-    private void incrementFallbackUsage(String key) {
-        if (key == null || key.isBlank()) return;
-        fallbackUsage.computeIfAbsent(key, k -> new AtomicInteger()).incrementAndGet();
-    }
 }
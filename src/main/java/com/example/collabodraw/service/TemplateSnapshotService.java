@@ -0,0 +1,193 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Each built-in template's starting content, compiled once: the elements markup, the
+ * default canvas settings and the snapshot JSON a board saves, built on startup and kept as
+ * an immutable map. The snapshot JSON is also stored once in template_snapshots, so a board
+ * made from a template is one row pointing at it ({@link #instantiate}) instead of a client
+ * rendering the template and saving the whole board back.
+ */
+@Service
+public class TemplateSnapshotService {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateSnapshotService.class);
+
+    /** Keys with built-in content; any other key starts empty. */
+    static final List<String> TEMPLATE_KEYS = List.of("kanban", "mindmap", "flowchart", "swot", "wireframe",
+            "roadmap", "retrospective", "customer-journey", "lecture-notes", "research-board", "okrs");
+
+    private static final Map<String, Object> SETTINGS = Map.of(
+            "zoom", 1,
+            "pan", Map.of("x", 0, "y", 0),
+            "tool", "select",
+            "color", "#000000");
+
+    private final SnapshotRefRepository snapshotRefRepository;
+    private final BoardSearchService boardSearchService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile Map<String, Compiled> compiled;
+
+    public TemplateSnapshotService(SnapshotRefRepository snapshotRefRepository, BoardSearchService boardSearchService) {
+        this.snapshotRefRepository = snapshotRefRepository;
+        this.boardSearchService = boardSearchService;
+    }
+
+    /**
+     * A template's compiled content. {@code snapshotId} is its template_snapshots row, or
+     * null if it couldn't be stored (boards made from it are then seeded by the client).
+     */
+    public record Compiled(String key, String elements, String json, Long snapshotId) {}
+
+    /** The template's elements markup; empty for blank and unknown keys. */
+    public String elements(String templateKey) {
+        Compiled c = find(templateKey);
+        return c != null ? c.elements() : "";
+    }
+
+    /** Default canvas settings a template opens with. */
+    public Map<String, Object> settings() {
+        return SETTINGS;
+    }
+
+    /**
+     * Start a new, never-saved board off the template's stored snapshot. Returns false when
+     * there is nothing to start from (blank, unknown key, snapshot not stored) or the row
+     * couldn't be written; the board is then still empty and the caller seeds it as before.
+     */
+    public boolean instantiate(Long boardId, String templateKey) {
+        Compiled c = find(templateKey);
+        if (boardId == null || c == null || c.snapshotId() == null) return false;
+        try {
+            snapshotRefRepository.pointAtTemplate(boardId, c.snapshotId());
+            boardSearchService.boardChanged(boardId);
+            return true;
+        } catch (Exception e) {
+            log.warn("Could not start board {} from template {}: {}", boardId, c.key(), e.getMessage());
+            return false;
+        }
+    }
+
+    /** Build every template's content and store the snapshot bodies not stored yet. */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void compileAll() {
+        Map<String, Compiled> built = new LinkedHashMap<>();
+        for (String key : TEMPLATE_KEYS) {
+            String elements = elementsHtml(key);
+            String json;
+            try {
+                Map<String, Object> snapshot = new LinkedHashMap<>();
+                snapshot.put("elements", elements);
+                snapshot.put("settings", SETTINGS);
+                json = objectMapper.writeValueAsString(snapshot);
+            } catch (Exception e) {
+                throw new IllegalStateException("Template " + key + " could not be serialized", e);
+            }
+            Long snapshotId = null;
+            try {
+                snapshotId = snapshotRefRepository.storeTemplateSnapshot(key, json);
+            } catch (Exception e) {
+                log.warn("Could not store the snapshot of template {}: {}", key, e.getMessage());
+            }
+            built.put(key, new Compiled(key, elements, json, snapshotId));
+        }
+        compiled = Map.copyOf(built);
+        log.info("Compiled {} template snapshots", built.size());
+    }
+
+    private Compiled find(String templateKey) {
+        if (templateKey == null || templateKey.isBlank()) return null;
+        Map<String, Compiled> current = compiled;
+        if (current == null) {
+            compileAll();
+            current = compiled;
+        }
+        return current.get(templateKey.toLowerCase(Locale.ROOT));
+    }
+
+    private static String elementsHtml(String key) {
+        String k = key == null ? "" : key.toLowerCase();
+        switch (k) {
+            case "kanban":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:40px;top:40px;width:280px;height:380px;background:#f3f4f6;border-radius:8px;padding:10px;\">" +
+                        "<div style=\"font-weight:600;margin-bottom:8px;\">To Do</div>" +
+                        "<div class=\"sticky-note\" style=\"margin:6px 0;\"><input class=\"sticky-title\" value=\"Task A\"></div>" +
+                        "<div class=\"sticky-note\" style=\"margin:6px 0;\"><input class=\"sticky-title\" value=\"Task B\"></div>" +
+                        "</div>" +
+                        "<div class=\"canvas-element\" style=\"left:360px;top:40px;width:280px;height:380px;background:#f3f4f6;border-radius:8px;padding:10px;\">" +
+                        "<div style=\"font-weight:600;margin-bottom:8px;\">In Progress</div>" +
+                        "</div>" +
+                        "<div class=\"canvas-element\" style=\"left:680px;top:40px;width:280px;height:380px;background:#f3f4f6;border-radius:8px;padding:10px;\">" +
+                        "<div style=\"font-weight:600;margin-bottom:8px;\">Done</div>" +
+                        "</div>";
+            case "mindmap":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:200px;top:150px;padding:12px 16px;border:2px solid #3b82f6;border-radius:8px;\">Central Idea</div>" +
+                        "<div class=\"canvas-element\" style=\"left:60px;top:80px;padding:8px 12px;border:1px solid #9ca3af;border-radius:6px;\">Branch 1</div>" +
+                        "<div class=\"canvas-element\" style=\"left:380px;top:80px;padding:8px 12px;border:1px solid #9ca3af;border-radius:6px;\">Branch 2</div>";
+            case "flowchart":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:120px;top:60px;padding:10px 14px;border:2px solid #10b981;border-radius:8px;\">Start</div>" +
+                        "<div class=\"canvas-element\" style=\"left:120px;top:160px;padding:10px 14px;border:2px solid #f59e0b;border-radius:8px;\">Process</div>" +
+                        "<div class=\"canvas-element\" style=\"left:120px;top:260px;padding:10px 14px;border:2px solid #ef4444;border-radius:8px;\">End</div>";
+            case "swot":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:80px;top:80px;width:220px;height:140px;border:2px solid #16a34a;border-radius:10px;padding:10px;\"><strong>Strengths</strong></div>" +
+                        "<div class=\"canvas-element\" style=\"left:320px;top:80px;width:220px;height:140px;border:2px solid #dc2626;border-radius:10px;padding:10px;\"><strong>Weaknesses</strong></div>" +
+                        "<div class=\"canvas-element\" style=\"left:80px;top:240px;width:220px;height:140px;border:2px solid #2563eb;border-radius:10px;padding:10px;\"><strong>Opportunities</strong></div>" +
+                        "<div class=\"canvas-element\" style=\"left:320px;top:240px;width:220px;height:140px;border:2px solid #f59e0b;border-radius:10px;padding:10px;\"><strong>Threats</strong></div>";
+            case "wireframe":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:100px;top:60px;width:420px;height:320px;border:2px solid #9ca3af;border-radius:12px;padding:10px;\">" +
+                        "<div style=\"height:36px;background:#f3f4f6;border-radius:8px;margin-bottom:10px;\"></div>" +
+                        "<div style=\"display:flex;gap:10px;\"><div style=\"width:70%;height:220px;background:#f9fafb;border:1px dashed #d1d5db;\"></div><div style=\"width:30%;height:220px;background:#f9fafb;border:1px dashed #d1d5db;\"></div></div>" +
+                        "</div>";
+            case "roadmap":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:90px;top:150px;width:560px;height:6px;background:#94a3b8;border-radius:4px;\"></div>" +
+                        "<div class=\"canvas-element\" style=\"left:120px;top:120px;padding:6px 10px;background:#ecfeff;border:1px solid #06b6d4;border-radius:8px;\">Q1</div>" +
+                        "<div class=\"canvas-element\" style=\"left:280px;top:120px;padding:6px 10px;background:#f0fdf4;border:1px solid #16a34a;border-radius:8px;\">Q2</div>" +
+                        "<div class=\"canvas-element\" style=\"left:440px;top:120px;padding:6px 10px;background:#fffbeb;border:1px solid #f59e0b;border-radius:8px;\">Q3</div>" +
+                        "<div class=\"canvas-element\" style=\"left:600px;top:120px;padding:6px 10px;background:#fef2f2;border:1px solid #ef4444;border-radius:8px;\">Q4</div>";
+            case "retrospective":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:80px;top:70px;width:220px;height:280px;background:#ecfdf5;border-radius:10px;padding:10px;\"><strong>Went Well</strong></div>" +
+                        "<div class=\"canvas-element\" style=\"left:320px;top:70px;width:220px;height:280px;background:#fffbeb;border-radius:10px;padding:10px;\"><strong>To Improve</strong></div>" +
+                        "<div class=\"canvas-element\" style=\"left:560px;top:70px;width:220px;height:280px;background:#eff6ff;border-radius:10px;padding:10px;\"><strong>Action Items</strong></div>";
+            case "customer-journey":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:90px;top:90px;padding:8px 12px;border:2px solid #3b82f6;border-radius:8px;\">Discover</div>" +
+                        "<div class=\"canvas-element\" style=\"left:260px;top:90px;padding:8px 12px;border:2px solid #3b82f6;border-radius:8px;\">Evaluate</div>" +
+                        "<div class=\"canvas-element\" style=\"left:430px;top:90px;padding:8px 12px;border:2px solid #3b82f6;border-radius:8px;\">Purchase</div>" +
+                        "<div class=\"canvas-element\" style=\"left:600px;top:90px;padding:8px 12px;border:2px solid #3b82f6;border-radius:8px;\">Retain</div>";
+            case "lecture-notes":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:80px;top:70px;width:700px;height:320px;border:2px solid #d1d5db;border-radius:10px;padding:12px;\">" +
+                        "<h3 style=\"margin-top:0\">Lecture Topic</h3><p>Key concepts, formulas, and examples...</p></div>";
+            case "research-board":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:100px;top:80px;width:260px;height:300px;background:#f8fafc;border:1px solid #cbd5e1;border-radius:10px;padding:10px;\"><strong>Hypothesis</strong></div>" +
+                        "<div class=\"canvas-element\" style=\"left:390px;top:80px;width:260px;height:300px;background:#f8fafc;border:1px solid #cbd5e1;border-radius:10px;padding:10px;\"><strong>Evidence</strong></div>";
+            case "okrs":
+                return "" +
+                        "<div class=\"canvas-element\" style=\"left:90px;top:80px;width:620px;height:280px;border:2px solid #0f766e;border-radius:10px;padding:12px;\">" +
+                        "<h3 style=\"margin-top:0\">Objective</h3><ul><li>KR1</li><li>KR2</li><li>KR3</li></ul></div>";
+            case "blank":
+            default:
+                return "";
+        }
+    }
+}
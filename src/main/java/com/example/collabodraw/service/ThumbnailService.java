@@ -0,0 +1,152 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.cache.SnapshotCache;
+import com.example.collabodraw.model.entity.Element;
+import com.example.collabodraw.repository.BoardThumbnailRepository;
+import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Board previews for the dashboards, rendered server-side so a card never has to load the
+ * board. Each saved snapshot schedules a render on one background thread; saves of the same
+ * board arriving before that render starts fold into it, so a board being edited is rendered
+ * at most once per {@code app.thumbnails.debounce}, from its latest snapshot. Thumbnails are
+ * stored per board with the snapshot version they show ({@link BoardThumbnailRepository}).
+ *
+ * A board nobody has saved since this was deployed gets its thumbnail the first time one is
+ * asked for ({@link #requestRender}); until then callers fall back to the icon. Such a render
+ * reads the board's snapshot on the render thread, never on the request asking for it, and
+ * stores the image under the version it actually read.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailService.class);
+
+    public static final int WIDTH = 320;
+    public static final int HEIGHT = 180;
+    // Rasters are decoded subsampled to about this size; finer detail can't show at WIDTH.
+    private static final int RASTER_EDGE = 1024;
+
+    private final BoardThumbnailRepository thumbnailRepository;
+    private final CanvasStorageService canvasStorageService;
+    private final ElementRepository elementRepository;
+    private final SnapshotRefRepository snapshotRefRepository;
+    private final long debounceMillis;
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "thumbnail-render");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ThumbnailService(BoardThumbnailRepository thumbnailRepository,
+                            CanvasStorageService canvasStorageService,
+                            ElementRepository elementRepository,
+                            SnapshotRefRepository snapshotRefRepository,
+                            @Value("${app.thumbnails.debounce:PT5S}") Duration debounce) {
+        this.thumbnailRepository = thumbnailRepository;
+        this.canvasStorageService = canvasStorageService;
+        this.elementRepository = elementRepository;
+        this.snapshotRefRepository = snapshotRefRepository;
+        this.debounceMillis = debounce.toMillis();
+    }
+
+    // snapshotJson is null when the render thread has to read the board's current snapshot.
+    private record Pending(Long version, String snapshotJson) {}
+
+    /** A snapshot was saved: render it once the board has been quiet for the debounce. */
+    public void boardSaved(Long boardId, Long version, String snapshotJson) {
+        schedule(boardId, version, snapshotJson, debounceMillis);
+    }
+
+    /**
+     * Render a board whose thumbnail is missing or older than {@code version}, without waiting
+     * for a save. The snapshot is read when the render runs.
+     */
+    public void requestRender(Long boardId, Long version) {
+        schedule(boardId, version, null, 0);
+    }
+
+    /** Version of the board's stored thumbnail, or null if none has been rendered. */
+    public Long findVersion(Long boardId) {
+        return thumbnailRepository.findVersion(boardId);
+    }
+
+    /** The PNG rendered from {@code version}, or null if the stored one is for another version. */
+    public byte[] findImage(Long boardId, Long version) {
+        return thumbnailRepository.findImage(boardId, version);
+    }
+
+    public void delete(Long boardId) {
+        pending.remove(boardId);
+        thumbnailRepository.deleteByBoardId(boardId);
+    }
+
+    private void schedule(Long boardId, Long version, String snapshotJson, long delayMillis) {
+        if (boardId == null || version == null) return;
+        // Only the first save in a quiet period schedules; later ones just replace what it renders.
+        if (pending.put(boardId, new Pending(version, snapshotJson)) == null) {
+            try {
+                executor.schedule(() -> renderPending(boardId), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (Exception e) {
+                pending.remove(boardId);
+                log.debug("Thumbnail render for board {} not scheduled: {}", boardId, e.getMessage());
+            }
+        }
+    }
+
+    // Taking the entry first means a save landing during the render schedules the next one.
+    private void renderPending(Long boardId) {
+        Pending next = pending.remove(boardId);
+        if (next == null) return;
+        try {
+            if (next.snapshotJson() != null) {
+                render(boardId, next.version(), next.snapshotJson());
+            } else {
+                SnapshotCache.Snapshot current = loadSnapshot(boardId);
+                if (current != null) render(boardId, current.getVersion(), current.getData());
+            }
+        } catch (Exception e) {
+            log.warn("Rendering the thumbnail of board {} failed: {}", boardId, e.getMessage());
+        }
+    }
+
+    void render(Long boardId, Long version, String snapshotJson) throws Exception {
+        BoardScene scene = BoardScene.fromSnapshot(snapshotJson);
+        CanvasStorageService.Raster raster = canvasStorageService.readComposed(boardId, RASTER_EDGE);
+        byte[] png = BoardRenderer.png(BoardRenderer.thumbnail(scene, raster, WIDTH, HEIGHT));
+        thumbnailRepository.upsert(boardId, version, png);
+    }
+
+    // Same resolution and numbering as WhiteboardService: own row, shared row, template.
+    private SnapshotCache.Snapshot loadSnapshot(Long boardId) {
+        Element row = elementRepository.findLatestSnapshot(boardId);
+        if (row == null) {
+            Long sharedId = snapshotRefRepository.findSharedElementId(boardId);
+            row = sharedId != null ? elementRepository.findById(sharedId) : null;
+        }
+        if (row != null) return new SnapshotCache.Snapshot(row.getElementId(), row.getData());
+        SnapshotRefRepository.TemplateSnapshot template = snapshotRefRepository.findTemplateSnapshot(boardId);
+        return template != null
+                ? new SnapshotCache.Snapshot(WhiteboardService.templateVersion(template.snapshotId()), template.data())
+                : null;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Upkeep of the user_board_summary read model ({@link UserBoardSummaryRepository}).
+ *
+ * On startup the table is backfilled from boards, board_membership and activity_log if it is
+ * empty, or rebuilt outright when {@code app.board-summary.rebuild-on-startup} is set (after
+ * writes that bypassed the application, e.g. a manual import).
+ */
+@Service
+public class UserBoardSummaryJob {
+
+    private static final Logger log = LoggerFactory.getLogger(UserBoardSummaryJob.class);
+
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean rebuildOnStartup;
+
+    public UserBoardSummaryJob(UserBoardSummaryRepository userBoardSummaryRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${app.board-summary.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rebuildOnStartup = rebuildOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        try {
+            if (rebuildOnStartup || userBoardSummaryRepository.isEmpty()) rebuild();
+        } catch (Exception e) {
+            // Dashboards show what the table has; never fail startup over this.
+            log.warn("Could not backfill user_board_summary: {}", e.getMessage());
+        }
+    }
+
+    /** Re-derive the whole table in one transaction; readers see the old rows until it commits. */
+    public int rebuild() {
+        long start = System.nanoTime();
+        Integer rows = transactionTemplate.execute(status -> userBoardSummaryRepository.rebuildAll());
+        log.info("Rebuilt user_board_summary: {} rows in {} ms", rows, (System.nanoTime() - start) / 1_000_000);
+        return rows != null ? rows : 0;
+    }
+}
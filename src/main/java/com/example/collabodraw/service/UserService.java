@@ -1,5 +1,6 @@
 package com.example.collabodraw.service;
 
+import com.example.collabodraw.cache.IdentityCache;
 import com.example.collabodraw.exception.UserAlreadyExistsException;
 import com.example.collabodraw.model.dto.UserRegistrationDto;
 import com.example.collabodraw.model.entity.User;
@@ -18,10 +19,12 @@ public class UserService {
     
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final IdentityCache identityCache;
 
-    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, IdentityCache identityCache) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.identityCache = identityCache;
     }
 
     public User registerUser(UserRegistrationDto registrationDto) {
@@ -48,11 +51,18 @@ public class UserService {
         return user;
     }
 
+    /**
+     * Resolve a principal name (username, or email for OAuth logins) to its user, creating the
+     * profile on first OAuth login. Served from {@link IdentityCache} after the first call.
+     */
     public User findByUsername(String username) {
         if (username == null || username.isBlank()) {
             return null;
         }
+        return identityCache.get(username, () -> loadByPrincipalName(username));
+    }
 
+    private User loadByPrincipalName(String username) {
         User byUsername = userRepository.findByUsername(username);
         if (byUsername != null) {
             return byUsername;
@@ -113,6 +123,7 @@ public class UserService {
     
     public User updateUser(User user) {
         int result = userRepository.update(user);
+        identityCache.evictUser(user.getUserId());
         if (result <= 0) {
             throw new RuntimeException("Failed to update user");
         }
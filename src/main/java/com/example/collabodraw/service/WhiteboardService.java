@@ -1,16 +1,25 @@
 package com.example.collabodraw.service;
 
+import com.example.collabodraw.cache.BoardAccessCache;
+import com.example.collabodraw.cache.SnapshotCache;
+import com.example.collabodraw.cache.SnapshotHistory;
 import com.example.collabodraw.model.dto.WhiteboardDto;
 import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.BoardMembership;
 import com.example.collabodraw.model.entity.Element;
+import com.example.collabodraw.realtime.ActivityCounters;
+import com.example.collabodraw.repository.BoardDeletionRepository;
 import com.example.collabodraw.repository.BoardRepository;
 import com.example.collabodraw.repository.SessionRoomRepository;
 import com.example.collabodraw.repository.BoardMembershipRepository;
 import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -25,15 +34,42 @@ public class WhiteboardService {
     private final BoardMembershipRepository boardMembershipRepository;
     private final ElementRepository elementRepository;
     private final SessionRoomRepository sessionRoomRepository;
+    private final SnapshotCache snapshotCache;
+    private final BoardAccessCache boardAccessCache;
+    private final SnapshotHistory snapshotHistory;
+    private final SnapshotRefRepository snapshotRefRepository;
+    private final BoardDeletionRepository boardDeletionRepository;
+    private final UserBoardSummaryRepository userBoardSummaryRepository;
+    private final ActivityCounters activityCounters;
+    private final ThumbnailService thumbnailService;
+    private final BoardSearchService boardSearchService;
 
     public WhiteboardService(BoardRepository boardRepository, 
                            BoardMembershipRepository boardMembershipRepository,
                            ElementRepository elementRepository,
-                           SessionRoomRepository sessionRoomRepository) {
+                           SessionRoomRepository sessionRoomRepository,
+                           SnapshotCache snapshotCache,
+                           BoardAccessCache boardAccessCache,
+                           SnapshotHistory snapshotHistory,
+                           SnapshotRefRepository snapshotRefRepository,
+                           BoardDeletionRepository boardDeletionRepository,
+                           UserBoardSummaryRepository userBoardSummaryRepository,
+                           ActivityCounters activityCounters,
+                           ThumbnailService thumbnailService,
+                           BoardSearchService boardSearchService) {
         this.boardRepository = boardRepository;
         this.boardMembershipRepository = boardMembershipRepository;
         this.elementRepository = elementRepository;
         this.sessionRoomRepository = sessionRoomRepository;
+        this.snapshotCache = snapshotCache;
+        this.boardAccessCache = boardAccessCache;
+        this.snapshotHistory = snapshotHistory;
+        this.snapshotRefRepository = snapshotRefRepository;
+        this.boardDeletionRepository = boardDeletionRepository;
+        this.userBoardSummaryRepository = userBoardSummaryRepository;
+        this.activityCounters = activityCounters;
+        this.thumbnailService = thumbnailService;
+        this.boardSearchService = boardSearchService;
     }
 
     public Board createWhiteboard(WhiteboardDto whiteboardDto) {
@@ -43,6 +79,7 @@ public class WhiteboardService {
             throw new RuntimeException("Failed to create board");
         }
         board.setBoardId(result);
+        boardSearchService.boardChanged(result);
         return board;
     }
 
@@ -50,13 +87,17 @@ public class WhiteboardService {
         return boardRepository.findByOwnerId(ownerId);
     }
 
+    /** Read from the user_board_summary read model, most recently modified first. */
     public List<Board> getAccessibleWhiteboards(Long userId) {
         if (userId == null) return List.of();
-        return boardRepository.findAccessibleByUserId(userId);
+        return userBoardSummaryRepository.findByUserId(userId).stream()
+                .map(UserBoardSummaryRepository.Summary::toBoard)
+                .toList();
     }
 
+    /** Served from {@link BoardAccessCache}; write paths below read boardRepository directly. */
     public Board getWhiteboardById(Long id) {
-        return boardRepository.findById(id);
+        return boardAccessCache.getBoard(id, () -> boardRepository.findById(id));
     }
 
     public List<Board> getAllWhiteboards() {
@@ -99,19 +140,17 @@ public class WhiteboardService {
     }
 
     public String getUserRoleInWhiteboard(Long userId, Long boardId) {
-        // Check if user is the owner
-        Board board = boardRepository.findById(boardId);
+        // Check if user is the owner (same cached row the caller usually just loaded)
+        Board board = getWhiteboardById(boardId);
         if (board != null && board.getOwnerId().equals(userId)) {
             return "owner";
         }
         
-        // Check membership table
-        BoardMembership membership = boardMembershipRepository.findByBoardIdAndUserId(boardId, userId);
-        if (membership != null) {
-            return membership.getRole();
-        }
-        
-        return null; // User has no access
+        // Check membership table; null (no access) is cached too
+        return boardAccessCache.getRole(boardId, userId, () -> {
+            BoardMembership membership = boardMembershipRepository.findByBoardIdAndUserId(boardId, userId);
+            return membership != null ? membership.getRole() : null;
+        });
     }
 
     public Integer getWhiteboardElementCount(Long boardId) {
@@ -119,7 +158,74 @@ public class WhiteboardService {
     }
 
     public String getBoardSnapshot(Long boardId) {
-        return elementRepository.findLatestSnapshotData(boardId);
+        String data = elementRepository.findLatestSnapshotData(boardId);
+        if (data != null) return data;
+        Element shared = findSharedSnapshot(boardId);
+        if (shared != null) return shared.getData();
+        SnapshotRefRepository.TemplateSnapshot template = snapshotRefRepository.findTemplateSnapshot(boardId);
+        return template != null ? template.data() : null;
+    }
+
+    /**
+     * Snapshot JSON for the board as of {@code board.getLastModified()}, served from
+     * {@link SnapshotCache} when possible. Concurrent opens of the same board share one read.
+     */
+    public String getBoardSnapshot(Board board) {
+        SnapshotCache.Snapshot snapshot = getCurrentSnapshot(board);
+        return snapshot != null ? snapshot.getData() : null;
+    }
+
+    /**
+     * The board's current snapshot body together with its version (null if never saved).
+     * Every version handed out is remembered in {@link SnapshotHistory} as a merge base.
+     */
+    public SnapshotCache.Snapshot getCurrentSnapshot(Board board) {
+        SnapshotCache.Snapshot snapshot = loadSnapshot(board);
+        if (snapshot != null) snapshotHistory.record(board.getBoardId(), snapshot.getVersion(), snapshot.getData());
+        return snapshot;
+    }
+
+    /** A previously loaded or saved snapshot body, if this instance still holds it. */
+    public String findSnapshotVersion(Long boardId, Long version) {
+        return snapshotHistory.find(boardId, version);
+    }
+
+    /**
+     * Cheap identifier of the board's current snapshot (null if never saved); changes on
+     * every saveBoardSnapshot. Lets callers answer conditional requests without reading
+     * the snapshot body - and without any query when the snapshot is already cached.
+     */
+    public Long getBoardSnapshotVersion(Board board) {
+        SnapshotCache.Snapshot cached = snapshotCache.peek(board.getBoardId(), board.getLastModified());
+        if (cached != null) return cached.getVersion();
+        Long own = elementRepository.findLatestSnapshotId(board.getBoardId());
+        if (own != null) return own;
+        Long shared = snapshotRefRepository.findSharedElementId(board.getBoardId());
+        if (shared != null) return shared;
+        Long template = snapshotRefRepository.findTemplateSnapshotId(board.getBoardId());
+        return template != null ? templateVersion(template) : null;
+    }
+
+    private SnapshotCache.Snapshot loadSnapshot(Board board) {
+        return snapshotCache.get(board.getBoardId(), board.getLastModified(), () -> {
+            Element row = elementRepository.findLatestSnapshot(board.getBoardId());
+            if (row == null) row = findSharedSnapshot(board.getBoardId());
+            if (row != null) return new SnapshotCache.Snapshot(row.getElementId(), row.getData());
+            SnapshotRefRepository.TemplateSnapshot template = snapshotRefRepository.findTemplateSnapshot(board.getBoardId());
+            return template != null ? new SnapshotCache.Snapshot(templateVersion(template.snapshotId()), template.data()) : null;
+        });
+    }
+
+    // Template snapshots are numbered apart from elements rows; negating keeps the two
+    // kinds of version from ever being equal for one board.
+    static Long templateVersion(Long templateSnapshotId) {
+        return -templateSnapshotId;
+    }
+
+    // A copied board reads its source's snapshot row until its own first save.
+    private Element findSharedSnapshot(Long boardId) {
+        Long elementId = snapshotRefRepository.findSharedElementId(boardId);
+        return elementId != null ? elementRepository.findById(elementId) : null;
     }
 
     /**
@@ -133,12 +239,58 @@ public class WhiteboardService {
     public boolean saveBoardSnapshot(Long boardId, Long userId, String dataJson, LocalDateTime expectedLastModified) {
         boolean claimed = boardRepository.claimWriteIfUnmodified(boardId, expectedLastModified);
         if (!claimed) {
+            // Someone else saved (possibly on another instance); make sure the caller's
+            // follow-up read of last_modified isn't served from a cache that predates it.
+            evictBoardCaches(boardId);
             return false;
         }
-        elementRepository.replaceSnapshot(boardId, userId, dataJson);
+        snapshotRefRepository.retainReferenced(boardId);
+        Long version = elementRepository.replaceSnapshot(boardId, userId, dataJson);
+        snapshotRefRepository.release(boardId);
+        userBoardSummaryRepository.touchBoard(boardId);
+        activityCounters.record(boardId, userId);
+        snapshotHistory.record(boardId, version, dataJson);
+        evictSnapshotAfterCommit(boardId);
+        renderThumbnailAfterCommit(boardId, version, dataJson);
+        boardSearchService.boardChanged(boardId);
         return true;
     }
 
+    // Off the save path entirely, and never for a save that rolls back.
+    private void renderThumbnailAfterCommit(Long boardId, Long version, String dataJson) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            thumbnailService.boardSaved(boardId, version, dataJson);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                thumbnailService.boardSaved(boardId, version, dataJson);
+            }
+        });
+    }
+
+    // Evict now and again once the new row is visible: a reader that loads between the two
+    // would otherwise cache the pre-save body under a last_modified that (to the second)
+    // can equal the post-save one.
+    // The cached board row is evicted alongside, since its last_modified just moved.
+    private void evictSnapshotAfterCommit(Long boardId) {
+        evictBoardCaches(boardId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictBoardCaches(boardId);
+                }
+            });
+        }
+    }
+
+    private void evictBoardCaches(Long boardId) {
+        snapshotCache.evictBoard(boardId);
+        boardAccessCache.evictBoard(boardId);
+    }
+
     /**
      * Resolve a collaborative session code to a concrete board.
      * Strategy: use a canonical name "Session <code>" and find the first board with that name.
@@ -207,6 +359,10 @@ public class WhiteboardService {
         return duplicateBoardForUser(originalBoard, userId, " (Copy)", true);
     }
 
+    /**
+     * Hides the board from every read at once and leaves removing its rows to
+     * {@link BoardPurger}, so the request doesn't pay for the board's size.
+     */
     @Transactional
     public void deleteBoard(Long boardId, Long userId) {
         Board board = boardRepository.findById(boardId);
@@ -216,9 +372,11 @@ public class WhiteboardService {
             throw new AccessDeniedException("Only the board owner can delete this board");
         }
 
-        elementRepository.deleteByBoardId(boardId);
-        boardMembershipRepository.deleteByBoardId(boardId);
-        boardRepository.delete(boardId);
+        boardDeletionRepository.mark(boardId, userId);
+        userBoardSummaryRepository.removeBoard(boardId);
+        evictSnapshotAfterCommit(boardId);
+        snapshotHistory.evictBoard(boardId);
+        boardSearchService.boardChanged(boardId);
     }
 
     @Transactional
@@ -267,21 +425,13 @@ public class WhiteboardService {
         // Ensure the new owner is recorded in membership table as owner
         boardMembershipRepository.save(new BoardMembership(newId, newOwnerId, "owner"));
 
-        // Duplicate drawing elements in one batched round trip instead of one INSERT per row -
-        // a long-lived board can hold thousands of elements, and duplicating it used to mean
-        // that many individual round trips to the database.
-        List<Element> elements = elementRepository.findByBoardId(sourceBoard.getBoardId());
-        List<Element> duplicates = new java.util.ArrayList<>(elements.size());
-        for (Element element : elements) {
-            Element duplicatedElement = new Element();
-            duplicatedElement.setBoardId(newId);
-            duplicatedElement.setCreatorId(newOwnerId);
-            duplicatedElement.setType(element.getType());
-            duplicatedElement.setZOrder(element.getZOrder());
-            duplicatedElement.setData(element.getData());
-            duplicates.add(duplicatedElement);
-        }
-        elementRepository.saveAll(duplicates);
+        // Copied inside the database (INSERT ... SELECT): a long-lived board can hold
+        // thousands of elements, and its data never needs to pass through this JVM.
+        // The snapshot itself isn't copied at all: the copy references the source's row
+        // until its first save (copy-on-write, see SnapshotRefRepository).
+        elementRepository.copyBoardElements(sourceBoard.getBoardId(), newId, newOwnerId);
+        snapshotRefRepository.shareCurrentSnapshot(sourceBoard.getBoardId(), newId);
+        boardSearchService.boardChanged(newId);
 
         return copy;
     }
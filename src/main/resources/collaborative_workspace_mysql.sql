@@ -6,6 +6,13 @@ CREATE DATABASE IF NOT EXISTS collaborative_workspace_db;
 USE collaborative_workspace_db;
 
 # Drop existing tables if they exist (for clean setup)
+DROP TABLE IF EXISTS board_thumbnails;
+DROP TABLE IF EXISTS board_template_refs;
+DROP TABLE IF EXISTS template_snapshots;
+DROP TABLE IF EXISTS board_snapshot_refs;
+DROP TABLE IF EXISTS board_deletions;
+DROP TABLE IF EXISTS notification_unread;
+DROP TABLE IF EXISTS user_board_summary;
 DROP TABLE IF EXISTS element_audit;
 DROP TABLE IF EXISTS cursors;
 DROP TABLE IF EXISTS sessions;
@@ -138,6 +145,32 @@ CREATE TABLE elements (
     INDEX idx_updated (updated_at)
 );
 
+# Board canvas raster (raw PNG bytes, one row per board)
+CREATE TABLE board_canvas (
+    board_id INT PRIMARY KEY,
+    image LONGBLOB NOT NULL,
+    byte_size BIGINT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_by INT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE CASCADE
+);
+
+# Board canvas raster tiles (256x256 PNGs painted over board_canvas; version bumps per write)
+CREATE TABLE board_canvas_tiles (
+    board_id INT NOT NULL,
+    tile_x INT NOT NULL,
+    tile_y INT NOT NULL,
+    version BIGINT NOT NULL,
+    image MEDIUMBLOB NOT NULL,
+    byte_size INT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_by INT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (board_id, tile_y, tile_x),
+    FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE CASCADE
+);
+
 # Create Element Versions table (for undo/redo functionality)
 CREATE TABLE element_versions (
     version_id INT AUTO_INCREMENT PRIMARY KEY,
@@ -372,7 +405,78 @@ CREATE TABLE notifications (
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE SET NULL,
-    INDEX idx_user_time (user_id, created_at)
+    INDEX idx_user_time (user_id, created_at),
+    INDEX idx_notifications_read_created (is_read, created_at)
+);
+
+# The tables below are also created by the application on first use (CREATE TABLE IF NOT
+# EXISTS in their repositories); they are listed here so a fresh database has them up front.
+
+# Unread notification count per user, kept in step with notifications
+CREATE TABLE notification_unread (
+    user_id BIGINT PRIMARY KEY,
+    unread INT NOT NULL DEFAULT 0
+);
+
+# Dashboard read model: one row per user and board they can open
+CREATE TABLE user_board_summary (
+    user_id BIGINT NOT NULL,
+    board_id BIGINT NOT NULL,
+    role VARCHAR(20),
+    is_favorite BOOLEAN NOT NULL DEFAULT FALSE,
+    is_archived BOOLEAN NOT NULL DEFAULT FALSE,
+    joined_at DATETIME,
+    board_name VARCHAR(255),
+    owner_id BIGINT,
+    owner_username VARCHAR(255),
+    is_public BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at DATETIME,
+    last_modified DATETIME,
+    collaborator_count INT NOT NULL DEFAULT 0,
+    last_activity_text VARCHAR(512),
+    PRIMARY KEY (user_id, board_id),
+    INDEX idx_board_summary_user_modified (user_id, last_modified),
+    INDEX idx_board_summary_board (board_id)
+);
+
+# Boards deleted but not yet purged (hidden everywhere while their rows are removed)
+CREATE TABLE board_deletions (
+    board_id BIGINT PRIMARY KEY,
+    requested_by BIGINT NOT NULL,
+    requested_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    rows_purged BIGINT NOT NULL DEFAULT 0
+);
+
+# Copied boards reading their source's snapshot row until their first save
+CREATE TABLE board_snapshot_refs (
+    board_id BIGINT PRIMARY KEY,
+    element_id BIGINT NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_snapshot_refs_element (element_id)
+);
+
+# Template content stored once, shared by every board created from it
+CREATE TABLE template_snapshots (
+    snapshot_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    template_key VARCHAR(64) NOT NULL,
+    content_hash CHAR(64) NOT NULL UNIQUE,
+    data TEXT NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE board_template_refs (
+    board_id BIGINT PRIMARY KEY,
+    snapshot_id BIGINT NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+# Dashboard previews (PNG) with the snapshot version each one shows
+CREATE TABLE board_thumbnails (
+    board_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    image MEDIUMBLOB NOT NULL,
+    byte_size INT NOT NULL,
+    rendered_at DATETIME DEFAULT CURRENT_TIMESTAMP
 );
 
 # View: Active user sessions
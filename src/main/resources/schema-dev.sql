@@ -7,6 +7,13 @@
 -- equivalent behavior (e.g. owner membership on board creation) is done explicitly in Java -
 -- so they're left out rather than ported to H2's different trigger/procedure syntax.
 
+DROP TABLE IF EXISTS board_thumbnails;
+DROP TABLE IF EXISTS board_template_refs;
+DROP TABLE IF EXISTS template_snapshots;
+DROP TABLE IF EXISTS board_snapshot_refs;
+DROP TABLE IF EXISTS board_deletions;
+DROP TABLE IF EXISTS notification_unread;
+DROP TABLE IF EXISTS user_board_summary;
 DROP TABLE IF EXISTS notifications;
 DROP TABLE IF EXISTS templates;
 DROP TABLE IF EXISTS element_audit;
@@ -118,6 +125,30 @@ CREATE TABLE elements (
     FOREIGN KEY (creator_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
+CREATE TABLE board_canvas (
+    board_id INT PRIMARY KEY,
+    image LONGBLOB NOT NULL,
+    byte_size BIGINT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_by INT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE CASCADE
+);
+
+CREATE TABLE board_canvas_tiles (
+    board_id INT NOT NULL,
+    tile_x INT NOT NULL,
+    tile_y INT NOT NULL,
+    version BIGINT NOT NULL,
+    image MEDIUMBLOB NOT NULL,
+    byte_size INT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_by INT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (board_id, tile_y, tile_x),
+    FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE CASCADE
+);
+
 CREATE TABLE element_versions (
     version_id INT AUTO_INCREMENT PRIMARY KEY,
     element_id INT NOT NULL,
@@ -201,3 +232,67 @@ CREATE TABLE notifications (
     FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE,
     FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE SET NULL
 );
+
+CREATE INDEX idx_notifications_read_created ON notifications(is_read, created_at);
+
+-- Also created by the application on first use; listed so the dev DB has them up front.
+CREATE TABLE notification_unread (
+    user_id BIGINT PRIMARY KEY,
+    unread INT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE user_board_summary (
+    user_id BIGINT NOT NULL,
+    board_id BIGINT NOT NULL,
+    role VARCHAR(20),
+    is_favorite BOOLEAN NOT NULL DEFAULT FALSE,
+    is_archived BOOLEAN NOT NULL DEFAULT FALSE,
+    joined_at DATETIME,
+    board_name VARCHAR(255),
+    owner_id BIGINT,
+    owner_username VARCHAR(255),
+    is_public BOOLEAN NOT NULL DEFAULT FALSE,
+    created_at DATETIME,
+    last_modified DATETIME,
+    collaborator_count INT NOT NULL DEFAULT 0,
+    last_activity_text VARCHAR(512),
+    PRIMARY KEY (user_id, board_id)
+);
+CREATE INDEX idx_board_summary_user_modified ON user_board_summary(user_id, last_modified);
+CREATE INDEX idx_board_summary_board ON user_board_summary(board_id);
+
+CREATE TABLE board_deletions (
+    board_id BIGINT PRIMARY KEY,
+    requested_by BIGINT NOT NULL,
+    requested_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    rows_purged BIGINT NOT NULL DEFAULT 0
+);
+
+CREATE TABLE board_snapshot_refs (
+    board_id BIGINT PRIMARY KEY,
+    element_id BIGINT NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+CREATE INDEX idx_snapshot_refs_element ON board_snapshot_refs(element_id);
+
+CREATE TABLE template_snapshots (
+    snapshot_id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    template_key VARCHAR(64) NOT NULL,
+    content_hash CHAR(64) NOT NULL UNIQUE,
+    data VARCHAR(65535) NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE board_template_refs (
+    board_id BIGINT PRIMARY KEY,
+    snapshot_id BIGINT NOT NULL,
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE board_thumbnails (
+    board_id BIGINT PRIMARY KEY,
+    version BIGINT NOT NULL,
+    image MEDIUMBLOB NOT NULL,
+    byte_size INT NOT NULL,
+    rendered_at DATETIME DEFAULT CURRENT_TIMESTAMP
+);
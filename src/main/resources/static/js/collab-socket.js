@@ -4,20 +4,46 @@
   let heartbeatTimer = null;
 
   let reconnectAttempts = 0;
+  let connected = false;
+  let connecting = false;
+  // Run on every (re)connect, so subscriptions are renewed on the new client. Pages and the
+  // notification bell share the one connection instead of each opening their own.
+  const listeners = [];
 
+  // Returns a function that stops the callback from running on later reconnects.
   function connect(callback){
+    if (callback) listeners.push(callback);
+    if (connected) {
+      if (callback) callback();
+    } else if (!connecting) {
+      open();
+    }
+    return function(){
+      const i = listeners.indexOf(callback);
+      if (i >= 0) listeners.splice(i, 1);
+    };
+  }
+
+  function open(){
+    connecting = true;
     const socket = new SockJS('/ws');
-    stompClient = Stomp.over(socket);
-    stompClient.debug = null;
-    stompClient.connect({}, function(){
+    const client = Stomp.over(socket);
+    client.debug = null;
+    stompClient = client;
+    client.connect({}, function(){
+      connecting = false;
+      connected = true;
       reconnectAttempts = 0;
       window.dispatchEvent(new CustomEvent('rt:connected'));
-      if (callback) callback();
+      listeners.slice().forEach((cb) => { try { cb(); } catch (_) {} });
     }, function(error){
+      if (stompClient !== client) return; // closed by disconnect()
+      connecting = false;
+      connected = false;
       window.dispatchEvent(new CustomEvent('rt:disconnected'));
       if (reconnectAttempts < 10) {
         const timeout = Math.min(1000 * Math.pow(1.5, reconnectAttempts), 10000);
-        setTimeout(() => connect(callback), timeout);
+        setTimeout(() => { if (stompClient === client) open(); }, timeout);
         reconnectAttempts++;
       }
     });
@@ -27,9 +53,16 @@
     window.dispatchEvent(new CustomEvent('rt:connected'));
   }
 
-  function disconnect(){
+  function stopHeartbeat(){
     if (heartbeatTimer) { clearInterval(heartbeatTimer); heartbeatTimer = null; }
-    if (stompClient) { stompClient.disconnect(()=>{}); stompClient = null; }
+  }
+
+  function disconnect(){
+    stopHeartbeat();
+    listeners.length = 0;
+    connected = false;
+    connecting = false;
+    if (stompClient) { const client = stompClient; stompClient = null; client.disconnect(()=>{}); }
   }
 
   function joinBoard(boardId){
@@ -138,7 +171,7 @@
   }
 
   window.CollaboSocket = {
-    connect, disconnect, joinBoard, leaveBoard, heartbeat, updateCursor,
+    connect, disconnect, stopHeartbeat, joinBoard, leaveBoard, heartbeat, updateCursor,
     subscribeParticipants, subscribeCursors, subscribeVersions, subscribeElements,
     subscribeDashboard, subscribePresence,
     publishVersion, publishElement,
@@ -1,8 +1,11 @@
 /**
- * notification-bell.js - wires a header notification bell button + dropdown to real data
- * from /api/notifications/recent, shared across every page's header. Previously each page
- * either had no handler at all, or a handler that only ever displayed a hardcoded
- * "No new notifications" string.
+ * notification-bell.js - wires a header notification bell button + dropdown to real data,
+ * shared across every page's header. The list is loaded once from /api/notifications/recent;
+ * after that new notifications and read markers are pushed on the user's
+ * /topic/dashboard.{userId}.updates channel (via CollaboSocket), and after a reconnect only
+ * what was missed is fetched, with ?since=<newest id held>&changedSince=<newest createdAt held>
+ * (the latter brings back digests rewritten under an id the bell already has). There is no
+ * polling.
  */
 (function () {
   function escapeHtml(value) {
@@ -27,18 +30,25 @@
     return Math.floor(hr / 24) + 'd ago';
   }
 
-  function render(listEl, badgeEl, items) {
+  const MAX_ITEMS = 20;
+
+  function render(listEl, badgeEl, items, unreadCount) {
+    if (badgeEl) badgeEl.style.display = unreadCount > 0 ? 'inline-block' : 'none';
     if (!items || !items.length) {
       listEl.innerHTML =
         '<div style="padding:12px 16px; font-size:14px;">' +
         '<div style="margin-bottom:8px;">No new notifications</div>' +
         '<div style="color:var(--gray,#6b7280);">You\'re all caught up.</div>' +
         '</div>';
-      if (badgeEl) badgeEl.style.display = 'none';
       return;
     }
 
-    listEl.innerHTML = items.map((n) => {
+    const markAll = unreadCount > 0
+      ? '<div style="padding:8px 16px; text-align:right; border-bottom:1px solid var(--border,#f3f4f6);">' +
+        '<button type="button" class="notif-mark-all" style="background:none; border:none; padding:0; cursor:pointer; font-size:12.5px; color:var(--main-green,#20b97c);">Mark all as read</button>' +
+        '</div>'
+      : '';
+    listEl.innerHTML = markAll + items.map((n) => {
       const unreadBg = n.read ? '' : 'background:var(--light-gray,#f0fdf9);';
       const dot = n.read ? '' : '<span style="display:inline-block;width:7px;height:7px;border-radius:50%;background:var(--main-green,#20b97c);margin-right:6px;"></span>';
       return (
@@ -50,14 +60,24 @@
       );
     }).join('');
 
-    const unreadCount = items.filter((n) => !n.read).length;
-    if (badgeEl) badgeEl.style.display = unreadCount > 0 ? 'inline-block' : 'none';
+    const markAllBtn = listEl.querySelector('.notif-mark-all');
+    if (markAllBtn) {
+      markAllBtn.addEventListener('click', (e) => {
+        e.stopPropagation();
+        // One request; the server's push then clears every open tab, this one included.
+        fetch('/api/notifications/read-all', { method: 'POST', credentials: 'include' }).catch(() => {});
+      });
+    }
 
     listEl.querySelectorAll('.notif-item').forEach((el) => {
       el.addEventListener('click', () => {
         const id = el.getAttribute('data-id');
         const item = items.find((n) => String(n.id) === id);
-        fetch(`/api/notifications/${id}/read`, { method: 'POST', credentials: 'include' }).catch(() => {});
+        // The server pushes the new unread count back to every open tab, this one included.
+        if (item && !item.read) {
+          item.read = true;
+          fetch(`/api/notifications/${id}/read`, { method: 'POST', credentials: 'include' }).catch(() => {});
+        }
         if (item && item.linkUrl) {
           window.location.href = item.linkUrl;
         } else {
@@ -69,13 +89,79 @@
     });
   }
 
-  async function refresh(listEl, badgeEl) {
-    try {
-      const res = await fetch('/api/notifications/recent', { credentials: 'include' });
-      if (!res.ok) return;
-      const data = await res.json();
-      if (data && data.success) render(listEl, badgeEl, data.items || []);
-    } catch (_) { /* leave existing content on transient failure */ }
+  function createBell(listEl, badgeEl) {
+    const state = { items: [], unreadCount: 0, userId: null, connectedBefore: false };
+
+    function draw() {
+      render(listEl, badgeEl, state.items, state.unreadCount);
+    }
+
+    // Newest first, one entry per id, capped like the server's recent list.
+    function merge(incoming) {
+      const byId = new Map(state.items.map((n) => [String(n.id), n]));
+      (incoming || []).forEach((n) => byId.set(String(n.id), n));
+      state.items = Array.from(byId.values())
+        .sort((a, b) => Number(b.id) - Number(a.id))
+        .slice(0, MAX_ITEMS);
+    }
+
+    function newestId() {
+      return state.items.reduce((max, n) => Math.max(max, Number(n.id) || 0), 0);
+    }
+
+    // Digests are rewritten in place, so their createdAt moves on while their id stays.
+    function newestCreatedAt() {
+      return state.items.reduce((max, n) => (n.createdAt && (!max || n.createdAt > max) ? n.createdAt : max), null);
+    }
+
+    async function load(since, changedSince) {
+      try {
+        let url = '/api/notifications/recent';
+        if (since != null) {
+          url += '?since=' + encodeURIComponent(since);
+          if (changedSince) url += '&changedSince=' + encodeURIComponent(changedSince);
+        }
+        const res = await fetch(url, { credentials: 'include' });
+        if (!res.ok) return false;
+        const data = await res.json();
+        if (!data || !data.success) return false;
+        state.userId = data.userId;
+        state.unreadCount = Number(data.unreadCount) || 0;
+        merge(data.items);
+        draw();
+        return true;
+      } catch (_) { return false; /* leave existing content on transient failure */ }
+    }
+
+    function onPush(evt) {
+      if (!evt) return;
+      if (evt.type === 'notification' && evt.item) {
+        merge([evt.item]);
+      } else if (evt.type === 'notification-read') {
+        state.items.forEach((n) => { if (evt.all || String(n.id) === String(evt.id)) n.read = true; });
+      } else {
+        return;
+      }
+      state.unreadCount = Number(evt.unreadCount) || 0;
+      draw();
+    }
+
+    function subscribe() {
+      if (!window.CollaboSocket || !window.SockJS || !state.userId) return;
+      // Runs again on every reconnect: subscriptions don't survive the old connection.
+      CollaboSocket.connect(() => {
+        CollaboSocket.subscribeDashboard(state.userId, onPush);
+        if (state.connectedBefore) load(newestId(), newestCreatedAt());
+        state.connectedBefore = true;
+      });
+    }
+
+    return {
+      draw,
+      async start() {
+        if (await load(null)) subscribe();
+      }
+    };
   }
 
   /**
@@ -91,12 +177,13 @@
       const list = document.getElementById(listId);
       const badge = badgeId ? document.getElementById(badgeId) : null;
       if (!btn || !dropdown || !list) return;
+      const bell = createBell(list, badge);
 
       btn.addEventListener('click', (e) => {
         e.stopPropagation();
         const opening = dropdown.style.display === 'none' || !dropdown.style.display;
         dropdown.style.display = opening ? 'block' : 'none';
-        if (opening) refresh(list, badge);
+        if (opening) bell.draw();
       });
 
       document.addEventListener('click', (e) => {
@@ -105,8 +192,7 @@
         }
       });
 
-      refresh(list, badge);
-      setInterval(() => refresh(list, badge), 60000);
+      bell.start();
     }
   };
 })();
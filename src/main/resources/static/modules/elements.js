@@ -291,7 +291,10 @@ const ElementManager = {
    */
   deleteSelected() {
     if (AppState.selectedElements.length === 0) return;
-    AppState.selectedElements.forEach(element => element.remove());
+    AppState.selectedElements.forEach(element => {
+      if (element.dataset.id) this._broadcastChange('delete', { id: element.dataset.id });
+      element.remove();
+    });
     AppState.selectedElements = [];
     History.saveState();
     if (typeof UIControls !== 'undefined') {
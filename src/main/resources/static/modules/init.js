@@ -852,9 +852,50 @@ function shareBoard() {
 }
 
 /**
- * Export board as PNG
+ * Export board as PNG (or 'svg' / 'pdf'). Saved boards are rendered by the server as a
+ * background job with progress; a board that isn't saved yet falls back to the canvas.
  */
-function exportBoard() {
+async function exportBoard(format = 'png') {
+  const boardId = window.CD && window.CD.boardId ? String(window.CD.boardId).replace(/^board-/, '') : null;
+  if (!boardId) {
+    exportCanvasLocally();
+    return;
+  }
+  const notification = document.getElementById('notification');
+  const showProgress = (percent) => {
+    if (!notification) return;
+    notification.textContent = `Exporting board… ${percent}%`;
+    notification.classList.add('show');
+  };
+  try {
+    const res = await fetch(`/api/boards/${encodeURIComponent(boardId)}/exports?format=${encodeURIComponent(format)}`, {
+      method: 'POST',
+      credentials: 'include'
+    });
+    let job = await res.json();
+    if (res.status === 429) throw Object.assign(new Error(job.message || 'Too many exports in progress'), { busy: true });
+    if (!res.ok || !job.success) throw new Error(job.message || `HTTP ${res.status}`);
+    while (job.state === 'queued' || job.state === 'running') {
+      showProgress(job.progress || 0);
+      await new Promise((resolve) => setTimeout(resolve, 500));
+      const poll = await fetch(job.statusUrl, { credentials: 'include' });
+      job = await poll.json();
+      if (!poll.ok) throw new Error(job.message || `HTTP ${poll.status}`);
+    }
+    if (job.state !== 'done' || !job.downloadUrl) throw new Error(job.message || 'Export failed');
+    const link = document.createElement('a');
+    link.href = job.downloadUrl;
+    document.body.appendChild(link);
+    link.click();
+    document.body.removeChild(link);
+    UIControls.showNotification('Board exported successfully!');
+  } catch (error) {
+    console.error('❌ Export failed:', error);
+    UIControls.showNotification(error.busy ? error.message : 'Export failed');
+  }
+}
+
+function exportCanvasLocally() {
   try {
     const drawingCanvas = document.getElementById('drawingCanvas');
     if (!drawingCanvas) {
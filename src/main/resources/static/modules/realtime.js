@@ -264,6 +264,9 @@ const RealTime = {
              if (parseInt(payload.zIndex, 10) > ElementManager.lastZIndex) ElementManager.lastZIndex = parseInt(payload.zIndex, 10);
           }
         }
+      } else if (kind === 'delete' && payload) {
+        const el = document.querySelector(`[data-id="${payload.id}"]`);
+        if (el) el.remove();
       } else if (kind === 'erase' && payload) {
         const r = payload.radius || 20;
         AppState.ctx.clearRect((payload.x||0) - r, (payload.y||0) - r, r*2, r*2);
@@ -38,6 +38,7 @@ const AppState = {
   
   // Board access/concurrency state
   lastModified: null, // last_modified timestamp seen from the server, used for save-conflict detection
+  version: null,      // snapshot version from the last load/save acknowledgement
   role: null,         // 'owner' | 'editor' | 'viewer' | null
   canWrite: true,      // server-reported write permission; gates autosave and drawing UI
 
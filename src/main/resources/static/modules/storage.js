@@ -136,7 +136,8 @@ const Storage = {
             elements: AppState.boardData.elements,
             settings: AppState.boardData.settings,
             name: AppState.boardData.name,
-            expectedLastModified: AppState.lastModified || null
+            expectedLastModified: AppState.lastModified || null,
+            baseVersion: AppState.version
           })
         }).then(res => this.handleSaveResponse(res)).catch(() => {/* ignore background errors */});
       }
@@ -156,6 +157,8 @@ const Storage = {
       try {
         const data = await response.json();
         if (data && data.lastModified) AppState.lastModified = data.lastModified;
+        if (data && data.version != null) AppState.version = data.version;
+        if (data && data.merged) this.applyMergedElements(data.elements);
       } catch (_) {}
       return true;
     }
@@ -175,6 +178,19 @@ const Storage = {
     return false;
   },
 
+  /**
+   * The server merged our save with someone else's (different elements changed on each
+   * side) and wrote the result; show that result so the next save starts from it.
+   */
+  applyMergedElements(elements) {
+    if (typeof elements !== 'string') return;
+    const container = document.getElementById('canvasElements');
+    if (!container) return;
+    container.innerHTML = elements;
+    container.querySelectorAll('.canvas-element').forEach(el => ElementManager.setupElementInteraction(el));
+    AppState.boardData.elements = elements;
+  },
+
   /**
    * Load board state from localStorage
    */
@@ -186,6 +202,7 @@ const Storage = {
         if (response.ok) {
           const data = await response.json();
           AppState.lastModified = data.lastModified || null;
+          AppState.version = data.version != null ? data.version : null;
           AppState.role = data.role || null;
           AppState.canWrite = data.canWrite !== false;
           if (typeof UIControls !== 'undefined' && typeof UIControls.applyReadOnlyMode === 'function') {
@@ -392,7 +409,8 @@ const Storage = {
         color: AppState.currentColor
       },
       name: document.getElementById('boardName')?.value || AppState.boardData.name || 'Untitled Board',
-      expectedLastModified: AppState.lastModified || null
+      expectedLastModified: AppState.lastModified || null,
+      baseVersion: AppState.version
     };
 
     fetch(`/api/boards/${boardId}/content`, {
@@ -413,6 +431,8 @@ const Storage = {
     .then(data => {
       if (!data) return; // conflict already handled above
       if (data.lastModified) AppState.lastModified = data.lastModified;
+      if (data.version != null) AppState.version = data.version;
+      if (data.merged) this.applyMergedElements(data.elements);
       UIControls.showNotification('Saved successfully');
       History.isSaving = false;
     })
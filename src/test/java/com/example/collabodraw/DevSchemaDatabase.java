@@ -0,0 +1,26 @@
+package com.example.collabodraw;
+
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.util.UUID;
+
+/**
+ * A fresh in-memory H2 database (MySQL mode) built from the dev schema (schema-dev.sql), for
+ * tests that run repositories and services against real SQL without starting Spring. Every
+ * call gets its own database, so tests never see each other's rows.
+ */
+public final class DevSchemaDatabase {
+
+    private DevSchemaDatabase() {
+    }
+
+    /** @param name prefix of the database name, to tell tests apart in H2 diagnostics */
+    public static DriverManagerDataSource create(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1;MODE=MySQL", "sa", "");
+        new ResourceDatabasePopulator(new ClassPathResource("schema-dev.sql")).execute(dataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.collabodraw.cache;
+
+import com.example.collabodraw.model.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The per-session copy of the resolved user: kept on an existing HttpSession, bound to the
+ * principal name, and dropped for every session when the user is evicted.
+ */
+class IdentityCacheTest {
+
+    private final MockHttpSession session = new MockHttpSession();
+    private final AtomicInteger loads = new AtomicInteger();
+    private IdentityCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new IdentityCache(100, Duration.ofMinutes(10),
+                new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setSession(session);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private Supplier<User> loader(long id, String username) {
+        return () -> {
+            loads.incrementAndGet();
+            User user = new User(username, username + "@example.com", "x");
+            user.setUserId(id);
+            return user;
+        };
+    }
+
+    @Test
+    void keepsTheUserOnTheSessionUntilItIsEvicted() {
+        assertThat(cache.get("alice", loader(1L, "alice")).getUserId()).isEqualTo(1L);
+        assertThat(session.getAttribute(IdentityCache.SESSION_ATTRIBUTE)).isNotNull();
+
+        assertThat(cache.get("alice", loader(1L, "alice")).getUsername()).isEqualTo("alice");
+        assertThat(loads).hasValue(1);
+
+        cache.evictUser(1L);
+        assertThat(cache.get("alice", loader(1L, "alice-renamed")).getUsername()).isEqualTo("alice-renamed");
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void anotherPrincipalInTheSameSessionIsResolvedAgain() {
+        cache.get("alice", loader(1L, "alice"));
+
+        assertThat(cache.get("bob", loader(2L, "bob")).getUserId()).isEqualTo(2L);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void neverCreatesASession() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+
+        assertThat(cache.get("alice", loader(1L, "alice")).getUserId()).isEqualTo(1L);
+        assertThat(((ServletRequestAttributes) RequestContextHolder.getRequestAttributes())
+                .getRequest().getSession(false)).isNull();
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.collabodraw.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Covers the two properties the snapshot cache relies on: eviction by total weight in LRU
+ * order, and concurrent misses for one key collapsing into a single load.
+ */
+class WeightedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedOnceOverWeight() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 10, String::length);
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.get("a");          // a is now more recent than b
+        cache.put("c", "cccc");  // 12 > 10, so the LRU entry (b) goes
+
+        assertThat(cache.peek("a")).isEqualTo("aaaa");
+        assertThat(cache.peek("b")).isNull();
+        assertThat(cache.peek("c")).isEqualTo("cccc");
+        assertThat(cache.weight()).isEqualTo(8);
+        assertThat(cache.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 100, String::length);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    return cache.getOrLoad("board", () -> {
+                        loads.incrementAndGet();
+                        sleep(200);
+                        return "snapshot";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertThat(result.get()).isEqualTo("snapshot");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void invalidationDuringLoadKeepsResultOutOfCache() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 100, String::length);
+
+        String value = cache.getOrLoad("board", () -> {
+            cache.invalidate("board"); // a save lands while the read is in flight
+            return "stale";
+        });
+
+        assertThat(value).isEqualTo("stale");
+        assertThat(cache.peek("board")).isNull();
+    }
+
+    @Test
+    void invalidateEntriesIfMatchesOnValue() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>("test", 100, v -> 1);
+        cache.put("alice", "user-1");
+        cache.put("alice@example.com", "user-1");
+        cache.put("bob", "user-2");
+
+        cache.invalidateEntriesIf((name, user) -> user.equals("user-1"));
+
+        assertThat(cache.peek("alice")).isNull();
+        assertThat(cache.peek("alice@example.com")).isNull();
+        assertThat(cache.peek("bob")).isEqualTo("user-2");
+        assertThat(cache.weight()).isEqualTo(1);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
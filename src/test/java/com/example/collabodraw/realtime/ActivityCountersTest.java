@@ -0,0 +1,55 @@
+package com.example.collabodraw.realtime;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.repository.ActivityLogRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hourly activity buckets: loaded from activity_log on the dev schema (H2, MySQL mode), fed
+ * in process, and aged out of the 24-hour window as the clock moves.
+ */
+class ActivityCountersTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    @Test
+    void countsLoadedAndRecordedActivityUntilItLeavesTheWindow() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("activity");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, 'Roadmap'), (1, 'Sketch')");
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        Timestamp recent = new Timestamp(now.get() - 60_000L);
+        jdbcTemplate.update("INSERT INTO activity_log (board_id, actor_id, action, at_time) VALUES (1, 1, 'edited', ?), (1, 1, 'edited', ?)",
+                recent, recent);
+        jdbcTemplate.update("INSERT INTO activity_log (board_id, actor_id, action, at_time) VALUES (2, 1, 'edited', ?)",
+                new Timestamp(now.get() - 30 * HOUR));
+
+        ActivityCounters counters = new ActivityCounters(new ActivityLogRepository(jdbcTemplate), now::get);
+        assertThat(counters.load()).isEqualTo(2); // throws, unlike rebuild(), if the query fails
+        assertThat(counters.boardCount(1L)).isEqualTo(2);
+        assertThat(counters.boardCount(2L)).isZero();
+
+        now.addAndGet(12 * HOUR);
+        counters.record(2L, 1L);
+        assertThat(counters.boardsCount(List.of(1L, 2L))).isEqualTo(3);
+        assertThat(counters.userCount(1L)).isEqualTo(3);
+
+        now.addAndGet(12 * HOUR); // the loaded rows are now 24 hours old
+        assertThat(counters.boardCount(1L)).isZero();
+        assertThat(counters.boardCount(2L)).isEqualTo(1);
+
+        now.addAndGet(12 * HOUR);
+        counters.evictIdle();
+        assertThat(counters.userCount(1L)).isZero();
+        assertThat(counters.boardsCount(List.of(1L, 2L))).isZero();
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.collabodraw.realtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * LiveBoardModel keeps element markup current from live events, and replays the events it
+ * hasn't persisted when its base snapshot is replaced.
+ */
+class LiveBoardModelTest {
+
+    private static final String TEXT = "<div class=\"canvas-element text-element\" style=\"left: 5px; top: 6px;\" data-id=\"t1\">"
+            + "<input type=\"text\" class=\"canvas-text-input\" value=\"Text\"></div>";
+    private static final String RASTER = "<img id=\"wb-snapshot\" src=\"data:image/png;base64,AAAA\">";
+
+    private static LiveBoardModel model(String elements) {
+        LiveBoardModel model = new LiveBoardModel(1L, 1L);
+        model.rebase(elements, new LinkedHashMap<>(), 10L, null, 0);
+        return model;
+    }
+
+    @Test
+    void eventsEditTheStoredMarkup() {
+        LiveBoardModel model = model(TEXT + RASTER);
+
+        assertThat(model.apply("move", Map.of("id", "t1", "x", 40, "y", 50, "zIndex", "12"), 2L)).isTrue();
+        assertThat(model.apply("text-update", Map.of("id", "t1", "value", "a \"quoted\" <b>"), 2L)).isTrue();
+        assertThat(model.apply("sticky", Map.of("id", "s1", "x", 1, "y", 2), 2L)).isTrue();
+        assertThat(model.apply("sticky-update", Map.of("id", "s1", "title", "Plan", "content", "x < y"), 2L)).isTrue();
+
+        String html = model.renderElements();
+        assertThat(html).startsWith("<div class=\"canvas-element text-element\" style=\"left: 40px; top: 50px; z-index: 12;\" data-id=\"t1\">");
+        assertThat(html).contains("value=\"a &quot;quoted&quot; &lt;b&gt;\"");
+        assertThat(html).contains(RASTER);
+        assertThat(html).contains("data-id=\"s1\"").contains("value=\"Plan\"").contains(">x &lt; y</textarea>");
+        assertThat(model.pendingOpCount()).isEqualTo(4);
+    }
+
+    @Test
+    void unknownElementsAndRasterEventsChangeNothing() {
+        LiveBoardModel model = model(TEXT);
+
+        assertThat(model.apply("move", Map.of("id", "missing", "x", 1, "y", 1), 2L)).isFalse();
+        assertThat(model.apply("stroke", Map.of("points", "[]"), 2L)).isFalse();
+        assertThat(model.apply("text", Map.of("id", "t1", "x", 0, "y", 0), 2L)).isFalse();
+
+        assertThat(model.isDirty()).isFalse();
+        assertThat(model.renderElements()).isEqualTo(TEXT);
+    }
+
+    @Test
+    void rebaseReplaysOnlyUnpersistedEvents() {
+        LiveBoardModel model = model(TEXT);
+        model.apply("move", Map.of("id", "t1", "x", 40, "y", 50), 2L);
+        model.apply("delete", Map.of("id", "t1"), 2L);
+
+        // The move was persisted; someone else's save then re-added t1 elsewhere.
+        model.rebase(TEXT.replace("left: 5px", "left: 300px"), null, 11L, null, 1);
+
+        assertThat(model.pendingOpCount()).isEqualTo(1);
+        assertThat(model.renderElements()).isEmpty();
+        assertThat(model.getBaseVersion()).isEqualTo(11L);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.collabodraw.repository;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Copy-on-write snapshots on the dev schema (H2, MySQL mode): a copy keeps reading the
+ * snapshot it was made from through the source's later saves and deletion, and the shared
+ * row goes away once no copy reads it. A board started from a template reads the template's
+ * stored snapshot the same way.
+ */
+class SnapshotRefRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private ElementRepository elementRepository;
+    private SnapshotRefRepository snapshotRefRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("snapshot-refs");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        elementRepository = new ElementRepository(jdbcTemplate);
+        snapshotRefRepository = new SnapshotRefRepository(jdbcTemplate);
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+    }
+
+    private Long newBoard(String name) {
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, ?)", name);
+        return jdbcTemplate.queryForObject("SELECT MAX(board_id) FROM boards", Long.class);
+    }
+
+    // What WhiteboardService.saveBoardSnapshot does around the write.
+    private Long save(Long boardId, String data) {
+        snapshotRefRepository.retainReferenced(boardId);
+        Long version = elementRepository.replaceSnapshot(boardId, 1L, data);
+        snapshotRefRepository.release(boardId);
+        return version;
+    }
+
+    // What WhiteboardService reads: the board's own snapshot, else the one it shares, else
+    // the template it was started from.
+    private String read(Long boardId) {
+        String own = elementRepository.findLatestSnapshotData(boardId);
+        if (own != null) return own;
+        Long shared = snapshotRefRepository.findSharedElementId(boardId);
+        if (shared != null) return elementRepository.findById(shared).getData();
+        SnapshotRefRepository.TemplateSnapshot template = snapshotRefRepository.findTemplateSnapshot(boardId);
+        return template != null ? template.data() : null;
+    }
+
+    private void delete(Long boardId) {
+        snapshotRefRepository.detachForDelete(boardId);
+        elementRepository.deleteByBoardId(boardId);
+        jdbcTemplate.update("DELETE FROM boards WHERE board_id = ?", boardId);
+    }
+
+    @Test
+    void copySurvivesSourceEditsAndDeletion() {
+        Long source = newBoard("Source");
+        Long version = save(source, "v1");
+        Long copy = newBoard("Copy");
+        Long copyOfCopy = newBoard("Copy of copy");
+
+        assertThat(snapshotRefRepository.shareCurrentSnapshot(source, copy)).isEqualTo(version);
+        assertThat(snapshotRefRepository.shareCurrentSnapshot(copy, copyOfCopy)).isEqualTo(version);
+        assertThat(elementRepository.countByBoardId(copy)).isZero();
+
+        save(source, "v2");
+        assertThat(read(source)).isEqualTo("v2");
+        assertThat(read(copy)).isEqualTo("v1");
+
+        delete(source);
+        assertThat(read(copy)).isEqualTo("v1");
+        assertThat(read(copyOfCopy)).isEqualTo("v1");
+
+        delete(copy);
+        assertThat(read(copyOfCopy)).isEqualTo("v1");
+    }
+
+    @Test
+    void sharedRowIsDroppedWhenTheLastCopyWritesItsOwn() {
+        Long source = newBoard("Source");
+        Long version = save(source, "v1");
+        Long copy = newBoard("Copy");
+        snapshotRefRepository.shareCurrentSnapshot(source, copy);
+        save(source, "v2");
+
+        save(copy, "copy v2");
+
+        assertThat(read(copy)).isEqualTo("copy v2");
+        assertThat(snapshotRefRepository.findSharedElementId(copy)).isNull();
+        assertThat(elementRepository.findById(version)).isNull();
+    }
+
+    @Test
+    void boardStartedFromATemplateReadsItUntilItsFirstSave() {
+        Long kanban = snapshotRefRepository.storeTemplateSnapshot("kanban", "{\"elements\":\"columns\"}");
+        assertThat(snapshotRefRepository.storeTemplateSnapshot("kanban", "{\"elements\":\"columns\"}")).isEqualTo(kanban);
+        Long board = newBoard("Sprint");
+        Long copy = newBoard("Sprint (Copy)");
+
+        snapshotRefRepository.pointAtTemplate(board, kanban);
+        assertThat(snapshotRefRepository.shareCurrentSnapshot(board, copy)).isNull();
+        assertThat(read(board)).isEqualTo("{\"elements\":\"columns\"}");
+        assertThat(read(copy)).isEqualTo("{\"elements\":\"columns\"}");
+        assertThat(elementRepository.countByBoardId(board)).isZero();
+
+        save(board, "edited");
+        assertThat(read(board)).isEqualTo("edited");
+        assertThat(snapshotRefRepository.findTemplateSnapshotId(board)).isNull();
+        assertThat(read(copy)).isEqualTo("{\"elements\":\"columns\"}");
+
+        delete(copy);
+        assertThat(snapshotRefRepository.findTemplateSnapshotId(copy)).isNull();
+        assertThat(snapshotRefRepository.storeTemplateSnapshot("kanban", "{\"elements\":\"columns v2\"}")).isNotEqualTo(kanban);
+    }
+}
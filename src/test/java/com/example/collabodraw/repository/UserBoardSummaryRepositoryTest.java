@@ -0,0 +1,83 @@
+package com.example.collabodraw.repository;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.cache.BoardAccessCache;
+import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.model.entity.BoardMembership;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * user_board_summary on the dev schema (H2, MySQL mode): rows kept up to date write by write
+ * match what a full rebuild derives from the source tables.
+ */
+class UserBoardSummaryRepositoryTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private UserBoardSummaryRepository summaries;
+    private BoardRepository boardRepository;
+    private BoardMembershipRepository membershipRepository;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("summary");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        BoardDeletionRepository deletions = new BoardDeletionRepository(jdbcTemplate);
+        summaries = new UserBoardSummaryRepository(jdbcTemplate, deletions);
+        boardRepository = new BoardRepository(jdbcTemplate, deletions, summaries);
+        membershipRepository = new BoardMembershipRepository(jdbcTemplate,
+                new BoardAccessCache(100, Duration.ofSeconds(5), 100, Duration.ofSeconds(5),
+                        new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)),
+                summaries);
+        for (String name : List.of("alice", "bob", "carol")) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x')", name, name + "@example.com");
+        }
+    }
+
+    @Test
+    void incrementalUpdatesMatchARebuild() {
+        Long roadmap = boardRepository.save(new Board(1L, "Roadmap", false));
+        membershipRepository.save(new BoardMembership(roadmap, 1L, "owner"));
+        membershipRepository.save(new BoardMembership(roadmap, 2L, "viewer"));
+        membershipRepository.save(new BoardMembership(roadmap, 3L, "editor"));
+        Long sketch = boardRepository.save(new Board(2L, "Sketch", false)); // no membership row for the owner
+        membershipRepository.save(new BoardMembership(sketch, 1L, "editor"));
+
+        membershipRepository.save(new BoardMembership(roadmap, 2L, "editor"));
+        membershipRepository.toggleFavorite(roadmap, 2L);
+        membershipRepository.delete(roadmap, 3L);
+        boardRepository.updateName(sketch, "Sketch v2");
+        jdbcTemplate.update("INSERT INTO activity_log (board_id, actor_id, action) VALUES (?, 1, 'edited')", roadmap);
+        summaries.touchBoard(roadmap);
+
+        List<UserBoardSummaryRepository.Summary> bob = summaries.findByUserId(2L);
+        assertThat(bob).extracting(UserBoardSummaryRepository.Summary::boardId).containsExactlyInAnyOrder(roadmap, sketch);
+        UserBoardSummaryRepository.Summary bobOnRoadmap = bob.stream().filter(s -> s.boardId().equals(roadmap)).findFirst().orElseThrow();
+        assertThat(bobOnRoadmap.role()).isEqualTo("editor");
+        assertThat(bobOnRoadmap.favorite()).isTrue();
+        assertThat(bobOnRoadmap.ownerUsername()).isEqualTo("alice");
+        assertThat(bobOnRoadmap.collaboratorCount()).isEqualTo(2);
+        assertThat(bobOnRoadmap.lastActivityText()).isEqualTo("alice edited");
+        assertThat(summaries.findSharedWithUser(1L)).extracting(UserBoardSummaryRepository.Summary::boardName)
+                .containsExactly("Sketch v2");
+        assertThat(summaries.findByUserId(3L)).isEmpty();
+
+        List<List<UserBoardSummaryRepository.Summary>> incremental = List.of(
+                summaries.findByUserId(1L), summaries.findByUserId(2L), summaries.findByUserId(3L));
+        summaries.rebuildAll();
+        assertThat(List.of(summaries.findByUserId(1L), summaries.findByUserId(2L), summaries.findByUserId(3L)))
+                .isEqualTo(incremental);
+
+        boardRepository.delete(roadmap);
+        assertThat(summaries.findByUserId(2L)).extracting(UserBoardSummaryRepository.Summary::boardId).containsExactly(sketch);
+    }
+}
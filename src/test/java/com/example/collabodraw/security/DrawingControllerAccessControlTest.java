@@ -2,24 +2,37 @@ package com.example.collabodraw.security;
 
 import com.example.collabodraw.controller.DrawingController;
 import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.model.entity.BoardCanvas;
+import com.example.collabodraw.model.entity.BoardCanvasTile;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.service.CanvasStorageService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,6 +51,7 @@ class DrawingControllerAccessControlTest {
     private ElementRepository elementRepository;
     private WhiteboardService whiteboardService;
     private UserService userService;
+    private CanvasStorageService canvasStorageService;
     private DrawingController controller;
 
     @BeforeEach
@@ -45,7 +59,8 @@ class DrawingControllerAccessControlTest {
         elementRepository = mock(ElementRepository.class);
         whiteboardService = mock(WhiteboardService.class);
         userService = mock(UserService.class);
-        controller = new DrawingController(elementRepository, whiteboardService, userService);
+        canvasStorageService = mock(CanvasStorageService.class);
+        controller = new DrawingController(elementRepository, whiteboardService, userService, canvasStorageService);
 
         Board board = new Board();
         board.setBoardId(BOARD_ID);
@@ -74,6 +89,19 @@ class DrawingControllerAccessControlTest {
         return new UsernamePasswordAuthenticationToken(username, "n/a", AuthorityUtils.NO_AUTHORITIES);
     }
 
+    private static ServletWebRequest request() {
+        return new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
+    }
+
+    private BoardCanvas storedCanvas() {
+        BoardCanvas canvas = new BoardCanvas();
+        canvas.setBoardId(BOARD_ID);
+        canvas.setByteSize(67L);
+        canvas.setContentHash("abc123");
+        canvas.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+        return canvas;
+    }
+
     private Authentication anonymous() {
         return new AnonymousAuthenticationToken("key", "anonymousUser",
                 AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
@@ -81,15 +109,16 @@ class DrawingControllerAccessControlTest {
 
     @Test
     void loadCanvas_unauthenticated_isForbidden() {
-        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, null);
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, null, request());
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
         verify(elementRepository, never()).findByBoardIdAndType(anyLongCompat(), anyStringCompat());
+        verify(canvasStorageService, never()).findMeta(anyLongCompat());
     }
 
     @Test
     void loadCanvas_anonymousPrincipal_isForbidden() {
-        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, anonymous());
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, anonymous(), request());
 
         // AnonymousAuthenticationToken.isAuthenticated() is true, so this must be rejected by
         // the "user not found" path, not the null-authentication path - both must be covered.
@@ -98,25 +127,104 @@ class DrawingControllerAccessControlTest {
 
     @Test
     void loadCanvas_authenticatedNonMember_isForbidden() {
-        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("stranger"));
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("stranger"), request());
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
     }
 
     @Test
     void loadCanvas_boardMember_isAllowed() {
-        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("viewer"));
+        when(canvasStorageService.findMeta(BOARD_ID)).thenReturn(storedCanvas());
+
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("viewer"), request());
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"abc123\"");
+    }
+
+    @Test
+    void loadCanvas_matchingEtag_isNotModified() {
+        when(canvasStorageService.findMeta(BOARD_ID)).thenReturn(storedCanvas());
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/drawings/load-canvas/5");
+        servletRequest.addHeader("If-None-Match", "\"abc123\"");
+
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("viewer"),
+                new ServletWebRequest(servletRequest, new MockHttpServletResponse()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(canvasStorageService, never()).writeTo(anyLongCompat(), org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void loadCanvas_tilesOnly_composesTheTilesAtBoundedSize() throws Exception {
+        BoardCanvasTile tile = new BoardCanvasTile();
+        tile.setTileX(0);
+        tile.setTileY(0);
+        tile.setContentHash("t0");
+        when(canvasStorageService.listTiles(BOARD_ID)).thenReturn(List.of(tile));
+        when(canvasStorageService.readComposed(BOARD_ID, 2048)).thenReturn(
+                new CanvasStorageService.Raster(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB), 256, 256));
+
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("viewer"), request());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.IMAGE_PNG);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.LINK)).isEqualTo("</api/drawings/canvas/5/tiles>; rel=\"tiles\"");
+        assertThat(response.getHeaders().getFirst("X-Canvas-Size")).isEqualTo("256x256");
+        assertThat(response.getHeaders().getETag()).startsWith("\"tiles-");
+    }
+
+    @Test
+    void loadCanvas_tilesOnly_matchingEtag_isNotModifiedWithoutComposing() throws Exception {
+        BoardCanvasTile tile = new BoardCanvasTile();
+        tile.setTileX(0);
+        tile.setTileY(0);
+        tile.setContentHash("t0");
+        when(canvasStorageService.listTiles(BOARD_ID)).thenReturn(List.of(tile));
+        when(canvasStorageService.readComposed(BOARD_ID, 2048)).thenReturn(
+                new CanvasStorageService.Raster(new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB), 256, 256));
+        String etag = controller.loadCanvas(BOARD_ID, authFor("viewer"), request()).getHeaders().getETag();
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/api/drawings/load-canvas/5");
+        servletRequest.addHeader("If-None-Match", etag);
+
+        ResponseEntity<?> response = controller.loadCanvas(BOARD_ID, authFor("viewer"),
+                new ServletWebRequest(servletRequest, new MockHttpServletResponse()));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(canvasStorageService, times(1)).readComposed(anyLongCompat(), org.mockito.ArgumentMatchers.anyInt());
+    }
+
+    @Test
+    void uploadCanvas_viewerCannotWrite() throws Exception {
+        ResponseEntity<?> response = controller.uploadCanvas(BOARD_ID,
+                new ByteArrayInputStream(new byte[]{1, 2, 3}), authFor("viewer"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        verify(canvasStorageService, never()).store(anyLongCompat(), anyLongCompat(), org.mockito.ArgumentMatchers.any());
+    }
+
+    @Test
+    void uploadTile_staleVersion_isPreconditionFailed() throws Exception {
+        BoardCanvasTile current = new BoardCanvasTile();
+        current.setVersion(4L);
+        when(canvasStorageService.storeTile(BOARD_ID, 1L, 0, 0, null, 3L)).thenReturn(null);
+        when(canvasStorageService.findTile(BOARD_ID, 0, 0)).thenReturn(current);
+
+        ResponseEntity<?> response = controller.uploadTile(BOARD_ID, 0, 0, "\"3\"", null, authFor("owner"));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        assertThat(((Map<?, ?>) response.getBody()).get("currentVersion")).isEqualTo(4L);
     }
 
     @Test
-    void saveCanvas_unauthenticated_isForbiddenAndNeverWrites() {
+    void saveCanvas_unauthenticated_isForbiddenAndNeverWrites() throws Exception {
         ResponseEntity<?> response = controller.saveCanvas(BOARD_ID, "data:image/png;base64,x", null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
         verify(elementRepository, never()).save(org.mockito.ArgumentMatchers.any());
         verify(elementRepository, never()).updateElement(org.mockito.ArgumentMatchers.any());
+        verify(canvasStorageService, never()).storeDataUrl(anyLongCompat(), anyLongCompat(), anyStringCompat());
     }
 
     @Test
@@ -129,8 +237,9 @@ class DrawingControllerAccessControlTest {
     }
 
     @Test
-    void saveCanvas_owner_isAllowedToWrite() {
+    void saveCanvas_owner_isAllowedToWrite() throws Exception {
         when(elementRepository.findByBoardIdAndType(BOARD_ID, "canvas_image")).thenReturn(null);
+        when(canvasStorageService.storeDataUrl(BOARD_ID, 1L, "data:image/png;base64,x")).thenReturn(storedCanvas());
 
         ResponseEntity<?> response = controller.saveCanvas(BOARD_ID, "data:image/png;base64,x", authFor("owner"));
 
@@ -0,0 +1,212 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.exception.TooManyExportsException;
+import com.example.collabodraw.model.entity.Board;
+import com.example.collabodraw.repository.BoardCanvasRepository;
+import com.example.collabodraw.repository.CanvasTileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.imageio.ImageIO;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Exports on the dev schema (H2, MySQL mode): each format carries the board's raster and its
+ * elements and is well-formed enough for a standard reader, and a large board goes through a
+ * job whose file only its requester can reach. Planning reads sizes only, sync exports take a
+ * bounded slot, and jobs are capped per user.
+ */
+class BoardExportServiceTest {
+
+    private static final String SNAPSHOT = "{\"elements\":\"<div class=\\\"canvas-element sticky-note\\\" "
+            + "style=\\\"left: 700px; top: 400px;\\\">Ship it &amp; (soon)</div>\",\"settings\":{}}";
+
+    private BoardCanvasRepository canvasRepository;
+    private CanvasTileRepository tileRepository;
+    private DataSourceTransactionManager transactionManager;
+    private CanvasStorageService canvasStorageService;
+    private BoardExportService exportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("exports");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, 'Board')");
+        canvasRepository = new BoardCanvasRepository(jdbcTemplate);
+        tileRepository = new CanvasTileRepository(jdbcTemplate);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+        canvasStorageService = new CanvasStorageService(canvasRepository, tileRepository, transactionManager, 20 * 1024 * 1024);
+        exportService = new BoardExportService(canvasStorageService, 4096, 4_000_000, Duration.ofHours(1), 1, 1, 1, 10);
+
+        // A 1000x600 canvas, blue in its top-left quarter.
+        BufferedImage canvas = new BufferedImage(1000, 600, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = canvas.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, 500, 300);
+        g.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(canvas, "png", png);
+        canvasStorageService.store(1L, 1L, new ByteArrayInputStream(png.toByteArray()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        exportService.shutdown();
+    }
+
+    private byte[] export(BoardExporter.Format format) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.write(exportService.prepare(1L, BoardScene.fromSnapshot(SNAPSHOT)), format, out);
+        return out.toByteArray();
+    }
+
+    @Test
+    void pngIsTheBoardAtFullSizeWrittenInBands() throws Exception {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(export(BoardExporter.Format.PNG)));
+
+        // Raster and sticky (700..880 x 400..540) fit in 1000x600, plus 16px padding on each side.
+        assertThat(image.getWidth()).isEqualTo(1032);
+        assertThat(image.getHeight()).isEqualTo(632);
+        assertThat(new Color(image.getRGB(100, 100))).isEqualTo(Color.BLUE);
+        assertThat(new Color(image.getRGB(100, 500))).isEqualTo(Color.WHITE);
+        assertThat(new Color(image.getRGB(716 + 150, 416 + 120))).isEqualTo(new Color(0xfef9c3));
+    }
+
+    @Test
+    void svgEmbedsTheRasterAndKeepsElementTextAsText() throws Exception {
+        byte[] svg = export(BoardExporter.Format.SVG);
+        Document doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new ByteArrayInputStream(svg));
+
+        Element root = doc.getDocumentElement();
+        assertThat(root.getAttribute("viewBox")).isEqualTo("-16 -16 1032 632");
+        Element image = (Element) doc.getElementsByTagName("image").item(0);
+        String href = image.getAttribute("xlink:href");
+        assertThat(href).startsWith("data:image/png;base64,");
+        BufferedImage raster = ImageIO.read(new ByteArrayInputStream(
+                Base64.getDecoder().decode(href.substring("data:image/png;base64,".length()))));
+        assertThat(raster.getWidth()).isEqualTo(1000);
+        assertThat(new Color(raster.getRGB(900, 500))).isEqualTo(Color.WHITE); // transparent canvas reads as paper
+        assertThat(doc.getElementsByTagName("text").item(0).getTextContent()).isEqualTo("Ship it & (soon)");
+    }
+
+    @Test
+    void pdfHasAConsistentCrossReferenceTable() throws Exception {
+        byte[] pdf = export(BoardExporter.Format.PDF);
+        String text = new String(pdf, StandardCharsets.ISO_8859_1);
+
+        assertThat(text).startsWith("%PDF-1.4").endsWith("%%EOF\n");
+        assertThat(text).contains("/MediaBox [0 0 774 474]").contains("(Ship it & \\(soon\\)) Tj");
+        Matcher startxref = Pattern.compile("startxref\n(\\d+)\n").matcher(text);
+        assertThat(startxref.find()).isTrue();
+        int xref = Integer.parseInt(startxref.group(1));
+        assertThat(text.substring(xref)).startsWith("xref\n0 9\n");
+        Matcher entries = Pattern.compile("(\\d{10}) 00000 n ").matcher(text.substring(xref));
+        for (int object = 1; entries.find(); object++) {
+            assertThat(text.substring(Integer.parseInt(entries.group(1)))).startsWith(object + " 0 obj\n");
+        }
+    }
+
+    @Test
+    void largeBoardsAreExportedByAJobOnlyItsRequesterCanSee() throws Exception {
+        exportService.shutdown();
+        exportService = new BoardExportService(canvasStorageService, 4096, 100_000, Duration.ZERO, 1, 1, 1, 10);
+        assertThat(exportService.needsJob(exportService.plan(1L, SNAPSHOT))).isTrue();
+
+        Board board = new Board(1L, "Q3 plan / draft", false);
+        board.setBoardId(1L);
+        BoardExportService.Job job = exportService.start(board, 1L, BoardExporter.Format.PDF, BoardScene.fromSnapshot(SNAPSHOT));
+        assertThat(job.getFileName()).isEqualTo("Q3_plan_draft.pdf");
+        assertThat(exportService.findJob(job.getId(), 2L)).isNull();
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (job.getState() != BoardExportService.State.DONE && System.currentTimeMillis() < deadline) {
+            assertThat(job.getState()).isNotEqualTo(BoardExportService.State.FAILED);
+            Thread.sleep(20);
+        }
+        assertThat(exportService.findJob(job.getId(), 1L)).isSameAs(job);
+        assertThat(job.getProgress()).isEqualTo(1.0);
+        Path file = job.getFile();
+        assertThat(Files.readString(file, StandardCharsets.ISO_8859_1)).startsWith("%PDF-1.4");
+
+        exportService.dropExpired();
+        assertThat(exportService.findJob(job.getId(), 1L)).isNull();
+        assertThat(file).doesNotExist();
+    }
+
+    @Test
+    void planSizesTheRasterFromItsHeaderAsDecodingWould() throws Exception {
+        BoardExportService.Plan plan = exportService.plan(1L, SNAPSHOT);
+        BoardExportService.Prepared prepared = exportService.prepare(1L, plan.scene());
+
+        assertThat(plan.layout()).isEqualTo(prepared.layout());
+    }
+
+    @Test
+    void syncSlotsAreBoundedAndFreedAfterWriting() throws Exception {
+        BoardExportService.Plan plan = exportService.plan(1L, SNAPSHOT);
+        BoardExportService.SyncExport first = exportService.trySync(1L, plan, BoardExporter.Format.SVG);
+        assertThat(first).isNotNull();
+        assertThat(exportService.trySync(1L, plan, BoardExporter.Format.SVG)).isNull();
+
+        first.writeTo(new ByteArrayOutputStream());
+        BoardExportService.SyncExport second = exportService.trySync(1L, plan, BoardExporter.Format.SVG);
+        assertThat(second).isNotNull();
+        second.cancel();
+    }
+
+    @Test
+    void aUserCannotQueueMoreJobsThanTheCap() {
+        CountDownLatch release = new CountDownLatch(1);
+        // Jobs wait here until the test is done, so the first one is still running.
+        CanvasStorageService blocking = new CanvasStorageService(canvasRepository, tileRepository, transactionManager, 20 * 1024 * 1024) {
+            @Override
+            public Raster readComposed(Long boardId, int maxEdge) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.readComposed(boardId, maxEdge);
+            }
+        };
+        exportService.shutdown();
+        exportService = new BoardExportService(blocking, 4096, 4_000_000, Duration.ofHours(1), 1, 1, 1, 10);
+        Board board = new Board(1L, "Board", false);
+        board.setBoardId(1L);
+        BoardScene scene = BoardScene.fromSnapshot(SNAPSHOT);
+        try {
+            exportService.start(board, 1L, BoardExporter.Format.PDF, scene);
+
+            assertThatThrownBy(() -> exportService.start(board, 1L, BoardExporter.Format.PDF, scene))
+                    .isInstanceOf(TooManyExportsException.class);
+            assertThat(exportService.start(board, 2L, BoardExporter.Format.PDF, scene)).isNotNull();
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.cache.BoardAccessCache;
+import com.example.collabodraw.repository.BoardCanvasRepository;
+import com.example.collabodraw.repository.BoardDeletionRepository;
+import com.example.collabodraw.repository.BoardMembershipRepository;
+import com.example.collabodraw.repository.BoardRepository;
+import com.example.collabodraw.repository.BoardThumbnailRepository;
+import com.example.collabodraw.repository.CanvasTileRepository;
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Board deletion on the dev schema (H2, MySQL mode): a marked board disappears from reads
+ * immediately, and its rows go a bounded number of batches per purge run.
+ */
+class BoardPurgerTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private BoardDeletionRepository boardDeletionRepository;
+    private BoardRepository boardRepository;
+    private BoardPurger boardPurger;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("purge");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        ObjectProvider<MeterRegistry> noMetrics = new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class);
+        BoardAccessCache boardAccessCache = new BoardAccessCache(100, Duration.ofSeconds(5), 100, Duration.ofSeconds(5), noMetrics);
+        boardDeletionRepository = new BoardDeletionRepository(jdbcTemplate);
+        UserBoardSummaryRepository userBoardSummaryRepository = new UserBoardSummaryRepository(jdbcTemplate, boardDeletionRepository);
+        boardRepository = new BoardRepository(jdbcTemplate, boardDeletionRepository, userBoardSummaryRepository);
+        // 10 rows per batch, 3 batches per run.
+        boardPurger = new BoardPurger(boardDeletionRepository, boardRepository,
+                new BoardMembershipRepository(jdbcTemplate, boardAccessCache, userBoardSummaryRepository),
+                new SnapshotRefRepository(jdbcTemplate),
+                new CanvasStorageService(new BoardCanvasRepository(jdbcTemplate), new CanvasTileRepository(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), 1024),
+                new BoardThumbnailRepository(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), 10, 3, noMetrics);
+
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+    }
+
+    private Long newBoard(int elements) {
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, 'Board')");
+        Long boardId = jdbcTemplate.queryForObject("SELECT MAX(board_id) FROM boards", Long.class);
+        jdbcTemplate.update("INSERT INTO board_membership (board_id, user_id, role) VALUES (?, 1, 'owner')", boardId);
+        for (int i = 0; i < elements; i++) {
+            jdbcTemplate.update("INSERT INTO elements (board_id, creator_id, type, data, z_order) VALUES (?, 1, 'line', '{}', ?)", boardId, i);
+        }
+        return boardId;
+    }
+
+    private int count(String table, Long boardId) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE board_id = ?", Integer.class, boardId);
+    }
+
+    @Test
+    void markedBoardIsHiddenAndPurgedInBoundedRuns() {
+        Long doomed = newBoard(45);
+        Long kept = newBoard(5);
+
+        assertThat(boardDeletionRepository.mark(doomed, 1L)).isTrue();
+        assertThat(boardDeletionRepository.mark(doomed, 1L)).isFalse();
+        assertThat(boardRepository.findById(doomed)).isNull();
+        assertThat(boardRepository.existsById(doomed)).isFalse();
+        assertThat(boardRepository.findAccessibleByUserId(1L)).extracting("boardId").containsExactly(kept);
+
+        assertThat(boardPurger.purgeBoard(doomed)).isFalse();
+        assertThat(count("elements", doomed)).isEqualTo(15);
+        assertThat(boardPurger.progress()).singleElement()
+                .satisfies(row -> assertThat(((Number) row.get("rows_purged")).longValue()).isEqualTo(30));
+
+        assertThat(boardPurger.purgeBoard(doomed)).isTrue();
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM boards WHERE board_id = ?", Integer.class, doomed)).isZero();
+        assertThat(count("board_membership", doomed)).isZero();
+        assertThat(boardPurger.progress()).isEmpty();
+        assertThat(count("elements", kept)).isEqualTo(5);
+        assertThat(boardRepository.findById(kept)).isNotNull();
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.model.entity.Board;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * BoardSaveQueue commits one save per board at a time; while a save is committing, newer
+ * saves from the same author collapse into one write whose ack every caller receives.
+ */
+class BoardSaveQueueTest {
+
+    private static final Long BOARD_ID = 7L;
+
+    private WhiteboardService whiteboardService;
+    private BoardSaveQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        whiteboardService = mock(WhiteboardService.class);
+        Board board = new Board();
+        board.setBoardId(BOARD_ID);
+        board.setLastModified(LocalDateTime.of(2026, 1, 1, 12, 0));
+        when(whiteboardService.getWhiteboardById(BOARD_ID)).thenReturn(board);
+        when(whiteboardService.getBoardSnapshotVersion(any())).thenReturn(42L);
+        queue = new BoardSaveQueue(whiteboardService, Duration.ZERO, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    void savesQueuedBehindACommitCollapsePerAuthor() throws Exception {
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            if ("first".equals(inv.getArgument(2))) {
+                committing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return true;
+        }).when(whiteboardService).saveBoardSnapshot(eq(BOARD_ID), anyLong(), anyString(), any());
+
+        CompletableFuture<BoardSaveQueue.SaveResult> first = queue.submit(BOARD_ID, 1L, "first", null, null);
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<BoardSaveQueue.SaveResult> second = queue.submit(BOARD_ID, 1L, "second", null, null);
+        CompletableFuture<BoardSaveQueue.SaveResult> third = queue.submit(BOARD_ID, 1L, "third", null, null);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getCoalesced()).isEqualTo(1);
+        BoardSaveQueue.SaveResult latest = third.get(5, TimeUnit.SECONDS);
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(latest);
+        assertThat(latest.isSaved()).isTrue();
+        assertThat(latest.getVersion()).isEqualTo(42L);
+        assertThat(latest.getCoalesced()).isEqualTo(2);
+
+        verify(whiteboardService, times(1)).saveBoardSnapshot(eq(BOARD_ID), eq(1L), eq("third"), any());
+        verify(whiteboardService, never()).saveBoardSnapshot(eq(BOARD_ID), eq(1L), eq("second"), any());
+    }
+
+    @Test
+    void aSaveRightAfterTheQueueDrainedStillWaitsOutTheInterval() throws Exception {
+        BoardSaveQueue spaced = new BoardSaveQueue(whiteboardService, Duration.ofMillis(300), 2);
+        try {
+            List<Long> commits = new CopyOnWriteArrayList<>();
+            doAnswer(inv -> commits.add(System.nanoTime())).when(whiteboardService)
+                    .saveBoardSnapshot(eq(BOARD_ID), anyLong(), anyString(), any());
+
+            spaced.submit(BOARD_ID, 1L, "first", null, null).get(5, TimeUnit.SECONDS);
+            spaced.submit(BOARD_ID, 2L, "second", null, null).get(5, TimeUnit.SECONDS);
+
+            assertThat(commits).hasSize(2);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(commits.get(1) - commits.get(0))).isGreaterThanOrEqualTo(250);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (spaced.activeBoards() > 0 && System.currentTimeMillis() < deadline) Thread.sleep(20);
+            assertThat(spaced.activeBoards()).isZero();
+        } finally {
+            spaced.shutdown();
+        }
+    }
+
+    @Test
+    void savesQueuedWhenShutdownStartsStillCommitAndLaterOnesFail() throws Exception {
+        BoardSaveQueue spaced = new BoardSaveQueue(whiteboardService, Duration.ofMillis(300), 2);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> {
+            if ("first".equals(inv.getArgument(2))) {
+                committing.countDown();
+                release.await(5, TimeUnit.SECONDS);
+            }
+            return true;
+        }).when(whiteboardService).saveBoardSnapshot(eq(BOARD_ID), anyLong(), anyString(), any());
+
+        CompletableFuture<BoardSaveQueue.SaveResult> first = spaced.submit(BOARD_ID, 1L, "first", null, null);
+        assertThat(committing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<BoardSaveQueue.SaveResult> second = spaced.submit(BOARD_ID, 2L, "second", null, null);
+
+        Thread stopping = new Thread(spaced::shutdown);
+        stopping.start();
+        // shutdown() has stopped the executor once it waits for termination.
+        while (stopping.getState() != Thread.State.TIMED_WAITING) Thread.sleep(5);
+        release.countDown();
+        stopping.join(5000);
+
+        assertThat(first.get(5, TimeUnit.SECONDS).isSaved()).isTrue();
+        assertThat(second.get(5, TimeUnit.SECONDS).isSaved()).isTrue();
+        assertThat(spaced.submit(BOARD_ID, 3L, "late", null, null)).isCompletedExceptionally();
+        assertThat(spaced.activeBoards()).isZero();
+    }
+
+    @Test
+    void conflictIsReportedWithoutAVersion() throws Exception {
+        when(whiteboardService.saveBoardSnapshot(eq(BOARD_ID), anyLong(), anyString(), any())).thenReturn(false);
+
+        BoardSaveQueue.SaveResult result = queue.submit(BOARD_ID, 1L, "stale", LocalDateTime.of(2025, 1, 1, 0, 0), null)
+                .get(5, TimeUnit.SECONDS);
+
+        assertThat(result.isSaved()).isFalse();
+        assertThat(result.getVersion()).isNull();
+        assertThat(result.getLastModified()).isEqualTo(LocalDateTime.of(2026, 1, 1, 12, 0));
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.collabodraw.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The search index on its own: every word must match, by prefix or within a typo or two,
+ * name hits rank above content hits, and only the boards passed in as allowed come back.
+ */
+class BoardSearchIndexTest {
+
+    private static final Set<Long> ALL = Set.of(1L, 2L, 3L, 4L);
+
+    private BoardSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BoardSearchIndex();
+        index.put(1L, "Quarterly roadmap", 1_000, List.of("Launch the mobile app", "Hire designers"));
+        index.put(2L, "Team retro", 2_000, List.of("What went well: the roadmap review"));
+        index.put(3L, "Café planning", 3_000, List.of("Budget for Q3"));
+        index.put(4L, "Untitled", 4_000, List.of());
+    }
+
+    private List<Long> ids(BoardSearchIndex.Page page) {
+        return page.hits().stream().map(BoardSearchIndex.Hit::boardId).toList();
+    }
+
+    @Test
+    void nameMatchesRankAboveContentMatches() {
+        BoardSearchIndex.Page page = index.search("roadmap", ALL, 0, 10);
+
+        assertThat(ids(page)).containsExactly(1L, 2L);
+        assertThat(page.hits().get(0).inName()).isTrue();
+        assertThat(page.hits().get(1).inName()).isFalse();
+        assertThat(page.hits().get(1).inContent()).isTrue();
+    }
+
+    @Test
+    void everyWordMustMatchByPrefixOrWithATypo() {
+        assertThat(ids(index.search("road laun", ALL, 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("raodmap", ALL, 0, 10))).containsExactly(1L, 2L);
+        assertThat(ids(index.search("desginers mobil", ALL, 0, 10))).containsExactly(1L);
+        assertThat(ids(index.search("roadmap budget", ALL, 0, 10))).isEmpty();
+        assertThat(ids(index.search("cafe", ALL, 0, 10))).containsExactly(3L);
+        assertThat(ids(index.search("   ", ALL, 0, 10))).isEmpty();
+    }
+
+    @Test
+    void onlyAllowedBoardsAreReturned() {
+        assertThat(ids(index.search("roadmap", Set.of(2L, 3L), 0, 10))).containsExactly(2L);
+        assertThat(index.search("roadmap", Set.of(), 0, 10).total()).isZero();
+    }
+
+    @Test
+    void reindexingReplacesTheOldTextAndRemovalDropsTheBoard() {
+        index.put(1L, "Quarterly plan", 5_000, List.of("Nothing else"));
+        assertThat(ids(index.search("roadmap", ALL, 0, 10))).containsExactly(2L);
+        assertThat(ids(index.search("nothing", ALL, 0, 10))).containsExactly(1L);
+
+        index.remove(2L);
+        assertThat(ids(index.search("roadmap", ALL, 0, 10))).isEmpty();
+        assertThat(index.size()).isEqualTo(3);
+    }
+
+    @Test
+    void termsNoBoardHasAnyMoreAreForgotten() {
+        int before = index.termCount();
+        index.put(1L, "Quarterly roadmap", 1_000, List.of("Launch the mobile app", "Hire designers", "typpo"));
+        assertThat(index.termCount()).isEqualTo(before + 1);
+
+        index.put(1L, "Quarterly roadmap", 1_000, List.of("Launch the mobile app", "Hire designers", "typo"));
+        assertThat(index.termCount()).isEqualTo(before + 1);
+        assertThat(ids(index.search("typpo", ALL, 0, 10))).containsExactly(1L); // now a fuzzy hit on "typo"
+        assertThat(index.search("typpo", ALL, 0, 10).hits().get(0).score()).isLessThan(1f);
+
+        index.remove(4L);
+        index.remove(3L);
+        index.remove(2L);
+        index.remove(1L);
+        assertThat(index.termCount()).isZero();
+        index.put(5L, "Fresh start", 1, List.of());
+        assertThat(ids(index.search("fresh", Set.of(5L), 0, 10))).containsExactly(5L);
+    }
+
+    @Test
+    void pagesAreStableAndNewestFirstOnEqualScores() {
+        for (long id = 10; id < 35; id++) index.put(id, "Sprint " + id, id, List.of());
+        Set<Long> allowed = new java.util.HashSet<>(ALL);
+        for (long id = 10; id < 35; id++) allowed.add(id);
+
+        BoardSearchIndex.Page first = index.search("sprint", allowed, 0, 10);
+        BoardSearchIndex.Page last = index.search("sprint", allowed, 20, 10);
+
+        assertThat(first.total()).isEqualTo(25);
+        assertThat(ids(first)).startsWith(34L, 33L);
+        assertThat(ids(last)).containsExactly(14L, 13L, 12L, 11L, 10L);
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.model.dto.DrawingElementDTO;
+import com.example.collabodraw.model.entity.Element;
+import com.example.collabodraw.realtime.ActivityCounters;
+import com.example.collabodraw.repository.ActivityLogRepository;
+import com.example.collabodraw.repository.BoardDeletionRepository;
+import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import com.example.collabodraw.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * DrawingService.saveDrawing against the dev schema on H2 (MySQL mode): only the difference
+ * between the stored and the submitted elements is written.
+ *
+ * The 10k-element benchmark compares it with the old delete-everything-then-INSERT-each-row
+ * save and logs the timings. It only runs with {@code -Dbenchmark=true}:
+ * {@code mvn test -Dtest=DrawingServiceJdbcTest -Dbenchmark=true}
+ */
+class DrawingServiceJdbcTest {
+
+    private static final Logger log = LoggerFactory.getLogger(DrawingServiceJdbcTest.class);
+
+    private static final int BENCHMARK_ELEMENTS = 10_000;
+    private static final int BENCHMARK_ROUNDS = 5;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private ElementRepository elementRepository;
+    private DrawingService drawingService;
+    private Long boardId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("drawing");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        // saveDrawing is @Transactional; without the Spring proxy here, run it in one explicitly.
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        elementRepository = new ElementRepository(jdbcTemplate);
+        drawingService = new DrawingService(elementRepository, new UserRepository(jdbcTemplate),
+                new UserBoardSummaryRepository(jdbcTemplate, new BoardDeletionRepository(jdbcTemplate)),
+                new ActivityCounters(new ActivityLogRepository(jdbcTemplate)));
+
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, 'Drawing')");
+        boardId = jdbcTemplate.queryForObject("SELECT MAX(board_id) FROM boards", Long.class);
+    }
+
+    private static List<DrawingElementDTO> newElements(int count) {
+        List<DrawingElementDTO> elements = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            elements.add(new DrawingElementDTO("line", "{\"points\":[" + i + ",0," + i + ",10],\"color\":\"#222\"}", i));
+        }
+        return elements;
+    }
+
+    private void save(List<DrawingElementDTO> elements) {
+        transactionTemplate.executeWithoutResult(status -> drawingService.saveDrawing(boardId, elements, "alice"));
+    }
+
+    // The save as it was before diffing: wipe the board, then one INSERT per element.
+    private void saveByDeleteAndInsertEach(List<DrawingElementDTO> elements) {
+        transactionTemplate.executeWithoutResult(status -> {
+            elementRepository.deleteByBoardId(boardId);
+            for (DrawingElementDTO dto : elements) {
+                Element element = new Element();
+                element.setBoardId(boardId);
+                element.setCreatorId(1L);
+                element.setType(dto.getType());
+                element.setData(dto.getData());
+                element.setZOrder(dto.getzOrder());
+                elementRepository.save(element);
+            }
+        });
+    }
+
+    // What a client sends back after editing a loaded board: stored ids kept, some rows
+    // changed, some dropped, some new ones without an id.
+    private List<DrawingElementDTO> edit(List<DrawingElementDTO> loaded, int every) {
+        List<DrawingElementDTO> edited = new ArrayList<>();
+        for (int i = 0; i < loaded.size(); i++) {
+            DrawingElementDTO dto = loaded.get(i);
+            if (i % every == 1) continue;
+            if (i % every == 0) dto.setData(dto.getData().replace("#222", "#e11"));
+            edited.add(dto);
+        }
+        for (int i = 0; i < loaded.size() / every; i++) {
+            edited.add(new DrawingElementDTO("rectangle", "{\"x\":" + i + "}", loaded.size() + i));
+        }
+        return edited;
+    }
+
+    @Test
+    void onlyChangedElementsAreWritten() {
+        save(newElements(100));
+        List<DrawingElementDTO> loaded = drawingService.loadDrawing(boardId);
+        assertThat(loaded).hasSize(100);
+        Map<Long, DrawingElementDTO> before = loaded.stream()
+                .collect(Collectors.toMap(DrawingElementDTO::getElementId, Function.identity()));
+
+        jdbcTemplate.update("UPDATE elements SET updated_at = '2000-01-01 00:00:00' WHERE board_id = ?", boardId);
+        save(edit(drawingService.loadDrawing(boardId), 10));
+
+        List<Element> after = elementRepository.findByBoardId(boardId);
+        assertThat(after).hasSize(100);
+        assertThat(after.stream().filter(e -> "rectangle".equals(e.getType()))).hasSize(10);
+        List<Element> kept = after.stream().filter(e -> before.containsKey(e.getElementId())).toList();
+        assertThat(kept).hasSize(90);
+        for (Element element : kept) {
+            boolean recoloured = element.getData().contains("#e11");
+            assertThat(recoloured).isEqualTo(element.getZOrder() % 10 == 0);
+            // Rows the save didn't need to touch keep their old timestamp.
+            assertThat(element.getUpdatedAt().getYear() == 2000).isEqualTo(!recoloured);
+        }
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTenThousandElementBoard() {
+        List<DrawingElementDTO> board = newElements(BENCHMARK_ELEMENTS);
+
+        long legacyNanos = Long.MAX_VALUE;
+        long fullNanos = Long.MAX_VALUE;
+        long editNanos = Long.MAX_VALUE;
+        for (int round = 0; round < BENCHMARK_ROUNDS; round++) {
+            long start = System.nanoTime();
+            saveByDeleteAndInsertEach(board);
+            legacyNanos = Math.min(legacyNanos, System.nanoTime() - start);
+
+            elementRepository.deleteByBoardId(boardId);
+            start = System.nanoTime();
+            save(board);
+            fullNanos = Math.min(fullNanos, System.nanoTime() - start);
+
+            // 1% changed, 1% deleted, 1% added.
+            List<DrawingElementDTO> edited = edit(drawingService.loadDrawing(boardId), 100);
+            start = System.nanoTime();
+            save(edited);
+            editNanos = Math.min(editNanos, System.nanoTime() - start);
+            assertThat(elementRepository.countByBoardId(boardId)).isEqualTo(BENCHMARK_ELEMENTS);
+        }
+
+        log.info("saveDrawing, {} elements, best of {} on H2: delete all + INSERT each {} ms, "
+                        + "batched all new {} ms, batched diff with 3% changed {} ms",
+                BENCHMARK_ELEMENTS, BENCHMARK_ROUNDS, legacyNanos / 1_000_000, fullNanos / 1_000_000,
+                editNanos / 1_000_000);
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.cache.BoardAccessCache;
+import com.example.collabodraw.repository.BoardDeletionRepository;
+import com.example.collabodraw.repository.BoardMembershipRepository;
+import com.example.collabodraw.repository.NotificationRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+/**
+ * Board-wide notifications on the dev schema (H2, MySQL mode): one row per member other than
+ * the actor, repeats folded into the unread row, and a fresh row once that one was read.
+ */
+class NotificationFanoutServiceTest {
+
+    private static final int MEMBERS = 300;
+
+    private JdbcTemplate jdbcTemplate;
+    private DashboardRealtimeService realtime;
+    private NotificationService notificationService;
+    private NotificationFanoutService fanout;
+    private Long boardId;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("fanout");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        realtime = mock(DashboardRealtimeService.class);
+        NotificationRepository notificationRepository = new NotificationRepository(jdbcTemplate);
+        notificationService = new NotificationService(notificationRepository, realtime);
+        BoardMembershipRepository memberships = new BoardMembershipRepository(jdbcTemplate,
+                new BoardAccessCache(100, Duration.ofSeconds(5), 100, Duration.ofSeconds(5),
+                        new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class)),
+                new UserBoardSummaryRepository(jdbcTemplate, new BoardDeletionRepository(jdbcTemplate)));
+        fanout = new NotificationFanoutService(notificationRepository, memberships, notificationService, realtime,
+                Duration.ofMinutes(1));
+
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('owner', 'owner@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, 'Town hall')");
+        boardId = jdbcTemplate.queryForObject("SELECT MAX(board_id) FROM boards", Long.class);
+        jdbcTemplate.update("INSERT INTO board_membership (board_id, user_id, role) VALUES (?, 1, 'owner')", boardId);
+        for (int i = 0; i < MEMBERS; i++) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x')", "m" + i, "m" + i + "@example.com");
+            jdbcTemplate.update("INSERT INTO board_membership (board_id, user_id, role) VALUES (?, (SELECT MAX(user_id) FROM users), 'viewer')", boardId);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void repeatsFoldIntoTheUnreadRow() {
+        assertThat(fanout.notifyBoard(boardId, 1L, "board", "Update", "first", null)).isEqualTo(MEMBERS);
+        assertThat(rows()).isEqualTo(MEMBERS);
+
+        assertThat(fanout.notifyBoard(boardId, 1L, "board", "Update", "second", null)).isEqualTo(MEMBERS);
+        assertThat(rows()).isEqualTo(MEMBERS);
+        assertThat(jdbcTemplate.queryForList("SELECT DISTINCT message FROM notifications", String.class))
+                .containsExactly("2 updates on this board. Latest: second");
+
+        Long reader = 2L;
+        Long read = jdbcTemplate.queryForObject("SELECT notification_id FROM notifications WHERE user_id = ?", Long.class, reader);
+        notificationService.markRead(reader, read);
+        fanout.notifyBoard(boardId, 1L, "board", "Update", "third", null);
+        assertThat(rows()).isEqualTo(MEMBERS + 1);
+        assertThat(notificationService.unreadCount(reader)).isEqualTo(1);
+
+        ArgumentCaptor<List<DashboardRealtimeService.NotificationPush>> pushes = ArgumentCaptor.forClass(List.class);
+        verify(realtime, times(3)).publishNotifications(pushes.capture());
+        assertThat(pushes.getAllValues()).allSatisfy(batch -> assertThat(batch).hasSize(MEMBERS));
+        assertThat(pushes.getValue()).allSatisfy(push -> assertThat(push.unreadCount()).isEqualTo(1));
+    }
+
+    @Test
+    void aReconnectingBellGetsTheDigestItAlreadyHeldTheIdOf() {
+        fanout.notifyBoard(boardId, 1L, "board", "Update", "first", null);
+        LocalDateTime held = LocalDateTime.now().minusMinutes(5);
+        jdbcTemplate.update("UPDATE notifications SET created_at = ?", java.sql.Timestamp.valueOf(held));
+        Long id = jdbcTemplate.queryForObject("SELECT notification_id FROM notifications WHERE user_id = 2", Long.class);
+
+        fanout.notifyBoard(boardId, 1L, "board", "Update", "second", null);
+
+        assertThat(notificationService.sinceForUser(2L, id, null)).isEmpty();
+        assertThat(notificationService.sinceForUser(2L, id, held.plusSeconds(1)))
+                .extracting("id", "message")
+                .containsExactly(tuple(id, "2 updates on this board. Latest: second"));
+    }
+
+    private int rows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM notifications", Integer.class);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.repository.NotificationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Notifications on the dev schema (H2, MySQL mode) are pushed as they are created and read,
+ * with each user's unread count stored alongside and kept in step; read ones age out.
+ */
+class NotificationServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private DashboardRealtimeService realtime;
+    private NotificationService notificationService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("notifications");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        realtime = mock(DashboardRealtimeService.class);
+        notificationService = new NotificationService(new NotificationRepository(jdbcTemplate), realtime);
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO notifications (user_id, type, title) VALUES (1, 'info', 'Welcome')");
+    }
+
+    @Test
+    void createAndReadArePushedWithTheUnreadCount() {
+        notificationService.create(1L, "invite", "Team invite", "Join us");
+
+        verify(realtime).publishNotification(eq(1L), argThat((Map<String, Object> item) ->
+                "Team invite".equals(item.get("title")) && item.get("id") != null), eq(2));
+        Long newest = jdbcTemplate.queryForObject("SELECT MAX(notification_id) FROM notifications", Long.class);
+        assertThat(notificationService.sinceForUser(1L, newest - 1, null)).extracting("title").containsExactly("Team invite");
+
+        notificationService.markRead(1L, newest);
+        notificationService.markRead(1L, newest); // already read: no second push
+        verify(realtime, times(1)).publishNotificationRead(1L, newest, 1);
+        verify(realtime, times(1)).publishNotificationRead(anyLong(), anyLong(), anyInt());
+
+        jdbcTemplate.update("UPDATE notifications SET is_read = true"); // behind the service's back
+        assertThat(notificationService.unreadCount(1L)).isEqualTo(1);
+    }
+
+    @Test
+    void markAllReadAndRetention() {
+        notificationService.create(1L, "info", "Second", null);
+        notificationService.create(1L, "info", "Old", null, null, null, LocalDateTime.now().minusDays(90));
+        assertThat(notificationService.unreadCount(1L)).isEqualTo(3);
+
+        assertThat(notificationService.markAllRead(1L)).isEqualTo(3);
+        assertThat(notificationService.unreadCount(1L)).isZero();
+        verify(realtime).publishAllNotificationsRead(1L);
+
+        notificationService.create(1L, "info", "Also old, but unread", null, null, null, LocalDateTime.now().minusDays(90));
+        NotificationRetentionJob retention = new NotificationRetentionJob(new NotificationRepository(jdbcTemplate),
+                Duration.ofDays(30), 1, 10);
+        assertThat(retention.purgeOnce()).isEqualTo(1);
+        assertThat(jdbcTemplate.queryForList("SELECT title FROM notifications", String.class))
+                .containsExactlyInAnyOrder("Welcome", "Second", "Also old, but unread");
+        assertThat(notificationService.unreadCount(1L)).isEqualTo(1);
+    }
+}
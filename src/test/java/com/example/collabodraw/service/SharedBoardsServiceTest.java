@@ -0,0 +1,124 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.realtime.ActivityCounters;
+import com.example.collabodraw.repository.ActivityLogRepository;
+import com.example.collabodraw.repository.BoardDeletionRepository;
+import com.example.collabodraw.repository.SharedBoardRepository;
+import com.example.collabodraw.repository.UserBoardSummaryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * The shared-boards payload on the dev schema (H2, MySQL mode) takes the same number of
+ * statements for 2 shared boards as for 50: one read of user_board_summary, one of invites.
+ */
+class SharedBoardsServiceTest {
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private JdbcTemplate jdbcTemplate;
+    private UserBoardSummaryRepository userBoardSummaryRepository;
+    private ActivityCounters activityCounters;
+    private SharedBoardsService sharedBoardsService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource target = DevSchemaDatabase.create("shared");
+        jdbcTemplate = new JdbcTemplate(new CountingDataSource(target));
+        BoardDeletionRepository boardDeletionRepository = new BoardDeletionRepository(jdbcTemplate);
+        userBoardSummaryRepository = new UserBoardSummaryRepository(jdbcTemplate, boardDeletionRepository);
+        activityCounters = new ActivityCounters(new ActivityLogRepository(jdbcTemplate));
+        sharedBoardsService = new SharedBoardsService(userBoardSummaryRepository,
+                new SharedBoardRepository(jdbcTemplate, boardDeletionRepository), activityCounters);
+
+        for (String name : List.of("alice", "bob", "carol")) {
+            jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES (?, ?, 'x')", name, name + "@example.com");
+        }
+    }
+
+    // Board owned by alice (1), shared with bob (2) as editor and carol (3) as viewer.
+    private void shareBoards(int count) {
+        Long boardId = null;
+        for (int i = 0; i < count; i++) {
+            jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, ?)", "Design " + i);
+            boardId = jdbcTemplate.queryForObject("SELECT MAX(board_id) FROM boards", Long.class);
+            jdbcTemplate.update("INSERT INTO board_membership (board_id, user_id, role) VALUES (?, 1, 'owner'), (?, 2, 'editor'), (?, 3, 'viewer')",
+                    boardId, boardId, boardId);
+            jdbcTemplate.update("INSERT INTO activity_log (board_id, actor_id, action) VALUES (?, 3, 'edited')", boardId);
+            jdbcTemplate.update("INSERT INTO board_invites (board_id, inviter_id, invitee_id, role, status) VALUES (?, 1, 2, 'viewer', 'pending')", boardId);
+        }
+        // Seeded behind the repositories' backs, so backfill the read model and counters like startup does.
+        userBoardSummaryRepository.rebuildAll();
+        activityCounters.rebuild();
+        // rebuild() only logs a failed load; fail here rather than on hasRecentActivity below.
+        assertThat(activityCounters.boardCount(boardId)).as("counters loaded from activity_log").isEqualTo(1);
+    }
+
+    private int statementsFor(Runnable call) {
+        statements.set(0);
+        call.run();
+        return statements.get();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void statementCountDoesNotGrowWithBoards() {
+        shareBoards(2);
+        sharedBoardsService.buildPayload(2L); // creates the lazy tables on first use
+        int few = statementsFor(() -> sharedBoardsService.buildPayload(2L));
+
+        shareBoards(48);
+        Map<String, Object>[] payload = new Map[1];
+        int many = statementsFor(() -> payload[0] = sharedBoardsService.buildPayload(2L));
+
+        assertThat(few).isEqualTo(2);
+        assertThat(many).isEqualTo(few);
+
+        List<Map<String, Object>> boards = (List<Map<String, Object>>) payload[0].get("boards");
+        assertThat(boards).hasSize(50).allSatisfy(board -> {
+            assertThat(board.get("ownerUsername")).isEqualTo("alice");
+            assertThat(board.get("userPermission")).isEqualTo("edit");
+            assertThat(board.get("collaboratorCount")).isEqualTo(3);
+            assertThat(board.get("hasRecentActivity")).isEqualTo(true);
+            assertThat(board.get("recentActivityText")).isEqualTo("carol edited");
+        });
+        assertThat((List<?>) payload[0].get("pendingInvites")).hasSize(50);
+        assertThat((Map<String, Object>) payload[0].get("stats")).containsEntry("activeCollaborations", 50);
+    }
+
+    // Counts statements prepared or created on any connection it hands out.
+    private class CountingDataSource extends DelegatingDataSource {
+        CountingDataSource(DriverManagerDataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = super.getConnection();
+            return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        if (method.getName().equals("prepareStatement") || method.getName().equals("createStatement")) {
+                            statements.incrementAndGet();
+                        }
+                        try {
+                            return method.invoke(connection, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    });
+        }
+    }
+}
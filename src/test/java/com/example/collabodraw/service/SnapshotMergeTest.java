@@ -0,0 +1,72 @@
+package com.example.collabodraw.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Element-level three-way merge of board snapshots: edits to different elements combine,
+ * edits to the same element are reported by id.
+ */
+class SnapshotMergeTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static String sticky(String id, int left, String text) {
+        return "<div class=\"canvas-element sticky-note\" style=\"left: " + left + "px;\" data-id=\"" + id + "\">"
+                + "<input type=\"text\" class=\"sticky-title\" value=\"Note\" readonly>"
+                + "<textarea class=\"sticky-content\">" + text + "</textarea></div>";
+    }
+
+    private static String snapshot(String elements) throws Exception {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("elements", elements);
+        snapshot.put("settings", Map.of("zoom", 1));
+        return MAPPER.writeValueAsString(snapshot);
+    }
+
+    private static String elementsOf(String json) throws Exception {
+        return (String) MAPPER.readValue(json, Map.class).get("elements");
+    }
+
+    @Test
+    void editsToDifferentElementsAreCombined() throws Exception {
+        String base = snapshot(sticky("a", 10, "one") + sticky("b", 20, "two"));
+        String theirs = snapshot(sticky("a", 50, "one") + sticky("b", 20, "two") + sticky("c", 0, "new"));
+        String mine = snapshot(sticky("a", 10, "one") + sticky("b", 20, "edited"));
+
+        SnapshotMerge.Result result = SnapshotMerge.mergeSnapshots(base, theirs, mine);
+
+        assertThat(result.hasConflicts()).isFalse();
+        assertThat(elementsOf(result.getSnapshotJson()))
+                .isEqualTo(sticky("a", 50, "one") + sticky("b", 20, "edited") + sticky("c", 0, "new"));
+    }
+
+    @Test
+    void deletionOnOneSideWins() throws Exception {
+        String base = snapshot(sticky("a", 10, "one") + sticky("b", 20, "two"));
+        String theirs = snapshot(sticky("b", 20, "two"));
+        String mine = snapshot(sticky("a", 10, "one") + sticky("b", 20, "two") + sticky("d", 5, "mine"));
+
+        SnapshotMerge.Result result = SnapshotMerge.mergeSnapshots(base, theirs, mine);
+
+        assertThat(elementsOf(result.getSnapshotJson())).isEqualTo(sticky("b", 20, "two") + sticky("d", 5, "mine"));
+    }
+
+    @Test
+    void sameElementChangedOnBothSidesIsAConflict() throws Exception {
+        String base = snapshot(sticky("a", 10, "one") + sticky("b", 20, "two"));
+        String theirs = snapshot(sticky("a", 50, "one") + sticky("b", 20, "two"));
+        String mine = snapshot(sticky("a", 70, "one") + sticky("b", 30, "two"));
+
+        SnapshotMerge.Result result = SnapshotMerge.mergeSnapshots(base, theirs, mine);
+
+        assertThat(result.hasConflicts()).isTrue();
+        assertThat(result.getConflicts()).containsExactly("a");
+        assertThat(result.getSnapshotJson()).isNull();
+    }
+}
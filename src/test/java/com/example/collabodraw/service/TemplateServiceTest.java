@@ -0,0 +1,98 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.model.entity.Template;
+import com.example.collabodraw.repository.TemplateRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Catalog reads come from one snapshot: the table is read once, however many gallery,
+ * dashboard and key lookups follow, and again only when the snapshot is refreshed. Uses are
+ * counted in memory and reach the table as one batch per flush.
+ */
+class TemplateServiceTest {
+
+    @Test
+    void readsAreServedFromTheSnapshotUntilItIsRefreshed() {
+        TemplateRepository repository = mock(TemplateRepository.class);
+        List<Template> rows = new ArrayList<>(List.of(
+                template("kanban_board", "Collaboration", true, 12),
+                template("product_roadmap", "Project Management", false, 3),
+                template("retro", "collaboration", false, 0)));
+        when(repository.findAll()).thenAnswer(inv -> new ArrayList<>(rows));
+        TemplateService service = new TemplateService(repository);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(service.getAllTemplates()).hasSize(3);
+            assertThat(service.getPopularTemplates(10)).extracting(Template::getTemplateKey)
+                    .containsExactly("kanban_board", "product_roadmap");
+            assertThat(service.getPopularTemplates(1)).extracting(Template::getTemplateKey).containsExactly("kanban_board");
+            assertThat(service.getDistinctCategories()).containsExactly("Collaboration", "Project Management");
+            assertThat(service.getTemplatesInCategory("COLLABORATION")).extracting(Template::getTemplateKey)
+                    .containsExactly("kanban_board", "retro");
+            assertThat(service.getTemplateByKey("Kanban_Board").getIcon()).isEqualTo("grid");
+            assertThat(service.getTemplateByKey("mindmap")).isNotNull(); // built-in default still resolves
+            assertThat(service.getTotalTemplateCount()).isEqualTo(3);
+        }
+        verify(repository, times(1)).findAll();
+        verifyNoMoreInteractions(repository);
+
+        rows.add(template("okrs", "Planning", true, 0));
+        assertThat(service.getTemplateByKey("okrs").getName()).isEqualTo("OKR Planner"); // the default, until a refresh
+        service.refreshCatalog();
+        assertThat(service.getTemplateByKey("okrs").getCategory()).isEqualTo("Planning");
+        assertThat(service.getDistinctCategories()).containsExactly("Collaboration", "Planning", "Project Management");
+        verify(repository, times(2)).findAll();
+    }
+
+    @Test
+    void usesAreFlushedAsOneBatchAndRetriedAfterAFailure() {
+        TemplateRepository repository = mock(TemplateRepository.class);
+        when(repository.findAll()).thenReturn(new ArrayList<>(List.of(template("kanban_board", "Collaboration", true, 12))));
+        TemplateService service = new TemplateService(repository);
+
+        CompletableFuture.allOf(
+                CompletableFuture.runAsync(() -> { for (int i = 0; i < 500; i++) service.incrementUsage("kanban_board"); }),
+                CompletableFuture.runAsync(() -> { for (int i = 0; i < 500; i++) service.incrementUsage("KANBAN_BOARD"); })).join();
+        service.incrementUsage("mindmap");
+        service.incrementUsage("no-such-template");
+
+        // First flush fails; the second finds a row for kanban_board only.
+        when(repository.addUsage(any())).thenThrow(new RuntimeException("db down")).thenAnswer(inv -> {
+            Map<String, Long> deltas = inv.getArgument(0);
+            return deltas.keySet().stream().mapToInt(key -> key.equals("mindmap") ? 0 : 1).toArray();
+        });
+        service.flushUsage();
+        service.flushUsage();
+        service.flushUsage(); // nothing new: no statement
+
+        verify(repository, times(2)).addUsage(Map.of("kanban_board", 1000L, "mindmap", 1L));
+        verify(repository, times(2)).addUsage(any());
+
+        when(repository.findAll()).thenReturn(List.of());
+        service.refreshCatalog();
+        assertThat(service.getTemplateByKey("mindmap").getUsageCount()).isEqualTo(129); // no row, so counted on the default
+    }
+
+    private static Template template(String key, String category, boolean featured, int usage) {
+        Template t = new Template();
+        t.setTemplateKey(key);
+        t.setName(key);
+        t.setCategory(category);
+        t.setFeatured(featured);
+        t.setUsageCount(usage);
+        return t;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.collabodraw.service;
+
+import com.example.collabodraw.DevSchemaDatabase;
+import com.example.collabodraw.repository.BoardCanvasRepository;
+import com.example.collabodraw.repository.BoardThumbnailRepository;
+import com.example.collabodraw.repository.CanvasTileRepository;
+import com.example.collabodraw.repository.ElementRepository;
+import com.example.collabodraw.repository.SnapshotRefRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Thumbnails on the dev schema (H2, MySQL mode): a board's raster and elements end up in one
+ * small PNG stored under the snapshot version it shows, and a burst of saves is rendered once,
+ * from the last of them.
+ */
+class ThumbnailServiceTest {
+
+    private static final String SNAPSHOT = "{\"elements\":\"<div class=\\\"canvas-element sticky-note\\\" "
+            + "style=\\\"left: 1500px; top: 700px;\\\">Ship it</div>\",\"settings\":{}}";
+
+    private JdbcTemplate jdbcTemplate;
+    private CanvasStorageService canvasStorageService;
+    private BoardThumbnailRepository thumbnailRepository;
+    private ThumbnailService thumbnailService;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = DevSchemaDatabase.create("thumbnails");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        canvasStorageService = new CanvasStorageService(new BoardCanvasRepository(jdbcTemplate),
+                new CanvasTileRepository(jdbcTemplate),
+                new DataSourceTransactionManager(dataSource), 20 * 1024 * 1024);
+        thumbnailRepository = new BoardThumbnailRepository(jdbcTemplate);
+        thumbnailService = new ThumbnailService(thumbnailRepository, canvasStorageService,
+                new ElementRepository(jdbcTemplate), new SnapshotRefRepository(jdbcTemplate), Duration.ofMillis(200));
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash) VALUES ('alice', 'alice@example.com', 'x')");
+        jdbcTemplate.update("INSERT INTO boards (owner_id, board_name) VALUES (1, 'Board')");
+    }
+
+    @AfterEach
+    void tearDown() {
+        thumbnailService.shutdown();
+    }
+
+    @Test
+    void rasterAndElementsAreRenderedIntoOneVersionedPng() throws Exception {
+        // A 2000x1000 canvas with a blue stroke band in its top-left quarter.
+        BufferedImage canvas = new BufferedImage(2000, 1000, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = canvas.createGraphics();
+        g.setColor(Color.BLUE);
+        g.fillRect(0, 0, 1000, 500);
+        g.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(canvas, "png", png);
+        canvasStorageService.store(1L, 1L, new ByteArrayInputStream(png.toByteArray()));
+
+        thumbnailService.render(1L, 42L, SNAPSHOT);
+
+        assertThat(thumbnailService.findVersion(1L)).isEqualTo(42L);
+        assertThat(thumbnailService.findImage(1L, 41L)).isNull();
+        BufferedImage thumb = ImageIO.read(new ByteArrayInputStream(thumbnailService.findImage(1L, 42L)));
+        assertThat(thumb.getWidth()).isEqualTo(ThumbnailService.WIDTH);
+        assertThat(thumb.getHeight()).isEqualTo(ThumbnailService.HEIGHT);
+        // Board content spans about 2032 x 1032 once padded, so it is scaled by about 0.157.
+        assertThat(new Color(thumb.getRGB(60, 40))).isEqualTo(Color.BLUE);
+        assertThat(new Color(thumb.getRGB(250, 100))).isEqualTo(Color.WHITE);
+        Color sticky = new Color(thumb.getRGB(250, 130));
+        assertThat(sticky.getRed()).isGreaterThan(200);
+        assertThat(sticky.getBlue()).isLessThan(230);
+    }
+
+    @Test
+    void savesInsideTheDebounceAreRenderedOnceFromTheLatest() throws Exception {
+        for (long version = 1; version <= 5; version++) {
+            thumbnailService.boardSaved(1L, version, SNAPSHOT);
+        }
+        assertThat(thumbnailService.findVersion(1L)).isNull();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thumbnailService.findVersion(1L) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(thumbnailService.findVersion(1L)).isEqualTo(5L);
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM board_thumbnails", Integer.class)).isEqualTo(1);
+
+        thumbnailService.delete(1L);
+        assertThat(thumbnailService.findVersion(1L)).isNull();
+    }
+
+    @Test
+    void aRequestedRenderReadsTheSnapshotItselfAndStoresTheVersionItRead() throws Exception {
+        jdbcTemplate.update("INSERT INTO elements (board_id, creator_id, type, data) VALUES (1, 1, 'snapshot', ?)", SNAPSHOT);
+        Long version = jdbcTemplate.queryForObject("SELECT MAX(element_id) FROM elements", Long.class);
+
+        thumbnailService.requestRender(1L, version);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thumbnailService.findVersion(1L) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(thumbnailService.findVersion(1L)).isEqualTo(version);
+        assertThat(thumbnailService.findImage(1L, version)).isNotNull();
+    }
+}
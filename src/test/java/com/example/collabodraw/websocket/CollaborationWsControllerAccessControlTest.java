@@ -5,7 +5,9 @@ import com.example.collabodraw.model.entity.Board;
 import com.example.collabodraw.model.entity.User;
 import com.example.collabodraw.repository.CursorRepository;
 import com.example.collabodraw.repository.SessionRepository;
+import com.example.collabodraw.realtime.ActivityCounters;
 import com.example.collabodraw.realtime.InMemoryEventStore;
+import com.example.collabodraw.realtime.LiveBoardModelService;
 import com.example.collabodraw.service.UserService;
 import com.example.collabodraw.service.WhiteboardService;
 import org.junit.jupiter.api.BeforeEach;
@@ -51,7 +53,8 @@ class CollaborationWsControllerAccessControlTest {
         InMemoryEventStore eventStore = new InMemoryEventStore();
 
         controller = new CollaborationWsController(messagingTemplate, sessionRepository, cursorRepository,
-                userService, whiteboardService, eventStore);
+                userService, whiteboardService, eventStore, mock(LiveBoardModelService.class),
+                mock(ActivityCounters.class));
 
         Board board = new Board();
         board.setBoardId(BOARD_ID);
@@ -91,6 +91,21 @@ class WebSocketAuthorizationInterceptorTest {
         assertThat(result).isSameAs(input);
     }
 
+    @Test
+    void subscribeToOwnDashboard_isAllowed() {
+        Message<?> input = subscribeMessage("/topic/dashboard.2.updates", (Principal) () -> "member");
+        Message<?> result = interceptor.preSend(input, mockChannel);
+        assertThat(result).isSameAs(input);
+    }
+
+    @Test
+    void subscribeToAnotherUsersDashboard_isBlocked() {
+        Message<?> result = interceptor.preSend(
+                subscribeMessage("/topic/dashboard.2.updates", (Principal) () -> "stranger"), mockChannel);
+        assertThat(result).isNull();
+        assertThat(interceptor.preSend(subscribeMessage("/topic/dashboard.2.updates", null), mockChannel)).isNull();
+    }
+
     @Test
     void subscribeToNonBoardTopic_isUnaffected() {
         // e.g. a user-specific /user/queue/... destination - nothing to gate here.
@@ -1,9 +1,13 @@
 package com.example.collabodraw.whiteboard;
 
+import com.example.collabodraw.realtime.ActivityCounters;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @ActiveProfiles("test")
 class WhiteboardApplicationTests {
@@ -12,4 +16,9 @@ class WhiteboardApplicationTests {
 	void contextLoads() {
 	}
 
+	@Test
+	void activityCountersAreCreatedByTheContext(@Autowired ActivityCounters activityCounters) {
+		assertThat(activityCounters).isNotNull();
+	}
+
 }
@@ -9,6 +9,8 @@
 DROP TABLE IF EXISTS cursors;
 DROP TABLE IF EXISTS sessions;
 DROP TABLE IF EXISTS elements;
+DROP TABLE IF EXISTS board_canvas_tiles;
+DROP TABLE IF EXISTS board_canvas;
 DROP TABLE IF EXISTS board_membership;
 DROP TABLE IF EXISTS boards;
 DROP TABLE IF EXISTS users;
@@ -56,6 +58,30 @@ CREATE TABLE elements (
     FOREIGN KEY (creator_id) REFERENCES users(user_id) ON DELETE CASCADE
 );
 
+CREATE TABLE board_canvas (
+    board_id INT PRIMARY KEY,
+    image LONGBLOB NOT NULL,
+    byte_size BIGINT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_by INT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE CASCADE
+);
+
+CREATE TABLE board_canvas_tiles (
+    board_id INT NOT NULL,
+    tile_x INT NOT NULL,
+    tile_y INT NOT NULL,
+    version BIGINT NOT NULL,
+    image MEDIUMBLOB NOT NULL,
+    byte_size INT NOT NULL,
+    content_hash CHAR(64) NOT NULL,
+    updated_by INT NULL,
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (board_id, tile_y, tile_x),
+    FOREIGN KEY (board_id) REFERENCES boards(board_id) ON DELETE CASCADE
+);
+
 CREATE TABLE sessions (
     session_id INT AUTO_INCREMENT PRIMARY KEY,
     board_id INT NOT NULL,